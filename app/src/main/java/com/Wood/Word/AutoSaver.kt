@@ -0,0 +1,176 @@
+package com.Wood.Word
+
+import android.content.Context
+import android.util.Log
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.Executors
+import java.util.concurrent.ScheduledExecutorService
+import java.util.concurrent.ScheduledFuture
+import java.util.concurrent.TimeUnit
+
+/**
+ * 词库自动保存：在后台线程上合并、延迟执行保存请求
+ *
+ * 同一词库的多次 requestSave 合并为一次保存：每次请求把保存推迟 DEBOUNCE_MS，
+ * 但距第一次未保存的请求最多 MAX_DELAY_MS，连续编辑时也会定期落盘。
+ * 保存在单个后台线程上依次执行（saveWordLib：临时文件 + 改名替换），界面线程只登记请求。
+ */
+object AutoSaver {
+    // 最后一次请求后等待的时间
+    private const val DEBOUNCE_MS = 500L
+
+    // 第一次未保存的请求最多等待的时间
+    private const val MAX_DELAY_MS = 5_000L
+
+    private val executor: ScheduledExecutorService = Executors.newSingleThreadScheduledExecutor { runnable ->
+        Thread(runnable, "WordLib-autosave").apply { isDaemon = true }
+    }
+
+    /**
+     * 某个词库的保存状态与耗时统计（时间单位毫秒）
+     *
+     * @param pending 有尚未开始的保存
+     * @param inFlight 正在写文件
+     * @param lastSavedAt 上次保存成功的时间（System.currentTimeMillis），从未保存为 0
+     * @param coalescedRequests 被合并掉的请求数
+     * @param lastWriteMs 上次写文件的耗时
+     * @param averageWriteMs 成功保存的平均写文件耗时
+     * @param maxWriteMs 成功保存的最长写文件耗时
+     * @param lastLatencyMs 上次保存从第一次请求到写完的时间
+     */
+    data class SaveStatus(
+        val pending: Boolean,
+        val inFlight: Boolean,
+        val lastSavedAt: Long,
+        val requestCount: Long,
+        val coalescedRequests: Long,
+        val saveCount: Long,
+        val failureCount: Long,
+        val lastWriteMs: Long,
+        val averageWriteMs: Long,
+        val maxWriteMs: Long,
+        val lastLatencyMs: Long,
+        val lastError: String?
+    )
+
+    // 单个词库的请求与统计，字段由 this 保护
+    private class Entry(val name: String, val context: Context) {
+        var wordLib: WordLib? = null
+        var scheduled: ScheduledFuture<*>? = null
+        var pending = false
+        var inFlight = false
+        var firstRequestAt = 0L  // 本轮第一次请求的时间（nanoTime）
+
+        var lastSavedAt = 0L
+        var requestCount = 0L
+        var coalescedRequests = 0L
+        var saveCount = 0L
+        var failureCount = 0L
+        var lastWriteMs = 0L
+        var totalWriteMs = 0L
+        var maxWriteMs = 0L
+        var lastLatencyMs = 0L
+        var lastError: String? = null
+    }
+
+    private val entries = ConcurrentHashMap<String, Entry>()
+
+    /**
+     * 请求保存词库（可在界面线程调用，立即返回）
+     */
+    fun requestSave(name: String, wordLib: WordLib, context: Context) {
+        val entry = entries.computeIfAbsent(name) { Entry(name, context.applicationContext) }
+        synchronized(entry) {
+            val now = System.nanoTime()
+            entry.wordLib = wordLib
+            entry.requestCount++
+            if (entry.pending) {
+                entry.coalescedRequests++
+            } else {
+                entry.pending = true
+                entry.firstRequestAt = now
+            }
+            // 推迟已排定的保存，但不超过第一次请求后 MAX_DELAY_MS
+            entry.scheduled?.cancel(false)
+            val deadline = TimeUnit.NANOSECONDS.toMillis(entry.firstRequestAt - now) + MAX_DELAY_MS
+            val delay = DEBOUNCE_MS.coerceAtMost(deadline).coerceAtLeast(0L)
+            entry.scheduled = executor.schedule({ runSave(entry) }, delay, TimeUnit.MILLISECONDS)
+        }
+    }
+
+    /**
+     * 立即执行所有待保存的请求（如 Activity 进入后台时），全部写完后完成
+     */
+    fun flushAll(): CompletableFuture<Void> {
+        return CompletableFuture.runAsync({
+            entries.values.forEach { runSave(it) }
+        }, executor)
+    }
+
+    /**
+     * 词库的保存状态；没有请求过时返回 null
+     */
+    fun status(name: String): SaveStatus? {
+        val entry = entries[name] ?: return null
+        synchronized(entry) {
+            return SaveStatus(
+                pending = entry.pending,
+                inFlight = entry.inFlight,
+                lastSavedAt = entry.lastSavedAt,
+                requestCount = entry.requestCount,
+                coalescedRequests = entry.coalescedRequests,
+                saveCount = entry.saveCount,
+                failureCount = entry.failureCount,
+                lastWriteMs = entry.lastWriteMs,
+                averageWriteMs = if (entry.saveCount > 0) entry.totalWriteMs / entry.saveCount else 0L,
+                maxWriteMs = entry.maxWriteMs,
+                lastLatencyMs = entry.lastLatencyMs,
+                lastError = entry.lastError
+            )
+        }
+    }
+
+    // 在保存线程上执行；本轮没有待保存的请求（已被先前的执行取走）时直接返回
+    private fun runSave(entry: Entry) {
+        val wordLib: WordLib
+        val firstRequestAt: Long
+        synchronized(entry) {
+            if (!entry.pending) {
+                return
+            }
+            wordLib = entry.wordLib ?: return
+            firstRequestAt = entry.firstRequestAt
+            entry.pending = false
+            entry.inFlight = true
+            entry.scheduled = null
+        }
+
+        val start = System.nanoTime()
+        val saved = saveWordLib(entry.name, wordLib, entry.context)
+        val end = System.nanoTime()
+        val writeMs = TimeUnit.NANOSECONDS.toMillis(end - start)
+
+        synchronized(entry) {
+            entry.inFlight = false
+            entry.lastWriteMs = writeMs
+            if (saved) {
+                entry.saveCount++
+                entry.totalWriteMs += writeMs
+                entry.maxWriteMs = maxOf(entry.maxWriteMs, writeMs)
+                entry.lastLatencyMs = TimeUnit.NANOSECONDS.toMillis(end - firstRequestAt)
+                entry.lastSavedAt = System.currentTimeMillis()
+                entry.lastError = null
+            } else {
+                entry.failureCount++
+                entry.lastError = "保存失败"
+                // 失败的保存重新排队，等下一次请求或 flushAll 时再试
+                if (!entry.pending) {
+                    entry.pending = true
+                    entry.firstRequestAt = firstRequestAt
+                }
+            }
+        }
+        Log.d("AutoSaver", "${entry.name}: 写入 $writeMs ms, 请求到完成 ${TimeUnit.NANOSECONDS.toMillis(end - firstRequestAt)} ms")
+    }
+}
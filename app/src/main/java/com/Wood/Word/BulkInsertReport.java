@@ -0,0 +1,119 @@
+package com.Wood.Word;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 批量插入结果报告（WordLib.insertAll）
+ * 插入的单词按输入顺序分配连续ID：firstId ~ firstId + insertedCount - 1
+ */
+public class BulkInsertReport {
+    // 最多保留的未插入条目数，避免大批量的报告本身过大
+    public static final int MAX_RECORDED_ENTRIES = 100;
+
+    public enum Reason {
+        INVALID,             // 单词项或单词为空
+        DUPLICATE_IN_BATCH,  // 与本批中前面的单词重复（忽略大小写，保留第一个）
+        ALREADY_EXISTS       // 词库中已有该单词
+    }
+
+    public static class Entry {
+        private final int index;
+        private final String word;
+        private final Reason reason;
+
+        public Entry(int index, String word, Reason reason) {
+            this.index = index;
+            this.word = word;
+            this.reason = reason;
+        }
+
+        /**
+         * 在输入中的位置（从0开始）
+         */
+        public int getIndex() {
+            return index;
+        }
+
+        public String getWord() {
+            return word;
+        }
+
+        public Reason getReason() {
+            return reason;
+        }
+
+        @Override
+        public String toString() {
+            return "第" + (index + 1) + "项 " + reason + ": " + word;
+        }
+    }
+
+    private boolean applied;
+    private int firstId = -1;
+    private int insertedCount;
+    private int skippedCount;   // 空单词与批内重复
+    private int conflictCount;  // 词库中已存在
+    private final List<Entry> entries = new ArrayList<>();
+
+    void addRejected(int index, String word, Reason reason) {
+        if (reason == Reason.ALREADY_EXISTS) {
+            conflictCount++;
+        } else {
+            skippedCount++;
+        }
+        if (entries.size() < MAX_RECORDED_ENTRIES) {
+            entries.add(new Entry(index, word, reason));
+        }
+    }
+
+    void setInserted(int firstId, int count) {
+        this.firstId = count > 0 ? firstId : -1;
+        this.insertedCount = count;
+        this.applied = true;
+    }
+
+    /**
+     * 批量是否已写入词库（整批模式下有任何未通过的条目时为 false，词库保持不变）
+     */
+    public boolean isApplied() {
+        return applied;
+    }
+
+    /**
+     * 第一个插入单词的ID，没有插入时为 -1
+     */
+    public int getFirstId() {
+        return firstId;
+    }
+
+    public int getInsertedCount() {
+        return insertedCount;
+    }
+
+    public int getSkippedCount() {
+        return skippedCount;
+    }
+
+    public int getConflictCount() {
+        return conflictCount;
+    }
+
+    /**
+     * 未插入的条目（最多 MAX_RECORDED_ENTRIES 个）
+     */
+    public List<Entry> getEntries() {
+        return Collections.unmodifiableList(entries);
+    }
+
+    public boolean hasRejected() {
+        return skippedCount + conflictCount > 0;
+    }
+
+    @Override
+    public String toString() {
+        return (applied ? "插入 " + insertedCount + " 个单词，" : "未应用，") + "跳过 "
+                + skippedCount + " 个，已存在 " + conflictCount + " 个";
+    }
+}
@@ -0,0 +1,231 @@
+package com.Wood.Word;
+
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+
+/**
+ * 卡片预取：在后台线程中提前查出并排版浏览/复习序列里当前位置之后的 N 张卡片
+ *
+ * 界面翻页时只调用 get 读取缓存，不查词库、不拼字符串；未就绪时返回 null，
+ * 就绪后通过 onReady 回调通知（在后台线程上调用，界面需自行切回主线程）。
+ * 缓存按单词ID直接映射到固定大小的数组，容量不小于预取窗口的 4 倍，
+ * 连续的ID互不冲突；被挤掉的卡片下次需要时重新排版。
+ * 后台只有一个排版任务在运行，总是先排离当前位置最近的缺失卡片。
+ * 词库的变更监听器已由日志占用，这里在翻页、读取和排版时比较词库的变更计数，
+ * 有增删改就丢弃所有缓存的卡片重新排版（缓存只有几个窗口大小，不必按ID区分）。
+ */
+public final class CardPrefetcher {
+    /**
+     * 排版好的卡片，创建后不再改变
+     */
+    public static final class Card {
+        private final int id;
+        private final String word;
+        private final String[] meanings;
+        private final String example;
+
+        private Card(int id, String word, String[] meanings, String example) {
+            this.id = id;
+            this.word = word;
+            this.meanings = meanings;
+            this.example = example;
+        }
+
+        public int getId() {
+            return id;
+        }
+
+        public String getWord() {
+            return word;
+        }
+
+        /**
+         * 每个含义一行，形如 "ADJ 快速的"
+         */
+        public String[] getMeanings() {
+            return meanings;
+        }
+
+        /**
+         * 例句，没有时为空串
+         */
+        public String getExample() {
+            return example;
+        }
+    }
+
+    private static final int[] NO_IDS = new int[0];
+
+    private final WordLib wordLib;
+    private final Executor executor;
+    private final int window;
+    private final AtomicReferenceArray<Card> cache;
+    private final int mask;
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final AtomicInteger requests = new AtomicInteger();       // moveTo 的次数
+    private final AtomicInteger invalidations = new AtomicInteger();  // invalidate 的次数
+
+    private volatile long libraryVersion;  // 缓存的卡片对应的 wordLib.getChangeCount()
+    private volatile int[] sequence = NO_IDS;
+    private volatile int position;
+    private volatile Consumer<Card> onReady;
+    private volatile IntConsumer onMissing;
+
+    /**
+     * @param window 预取当前位置起的卡片数
+     */
+    public CardPrefetcher(WordLib wordLib, Executor executor, int window) {
+        if (window < 1) {
+            throw new IllegalArgumentException("预取窗口必须大于 0: " + window);
+        }
+        this.wordLib = wordLib;
+        this.executor = executor;
+        this.window = window;
+        int capacity = Integer.highestOneBit(window * 4 - 1) << 1;
+        this.cache = new AtomicReferenceArray<>(capacity);
+        this.mask = capacity - 1;
+        this.libraryVersion = wordLib.getChangeCount();
+    }
+
+    /**
+     * 设置卡片就绪回调（后台线程调用）
+     */
+    public void setOnReady(Consumer<Card> onReady) {
+        this.onReady = onReady;
+    }
+
+    /**
+     * 设置单词不在词库中（已删除）时的回调（后台线程调用）
+     */
+    public void setOnMissing(IntConsumer onMissing) {
+        this.onMissing = onMissing;
+    }
+
+    /**
+     * 换一个序列（单词ID按显示顺序），从 position 开始预取；已缓存的卡片保留
+     */
+    public void setSequence(int[] ids, int position) {
+        this.sequence = ids;
+        moveTo(position);
+    }
+
+    /**
+     * 当前显示位置变化（翻页）时调用，只设置目标并在需要时唤起后台任务
+     */
+    public void moveTo(int position) {
+        checkLibraryVersion();
+        this.position = position;
+        requests.incrementAndGet();
+        if (running.compareAndSet(false, true)) {
+            executor.execute(this::drain);
+        }
+    }
+
+    /**
+     * 序列中 position 处的卡片，尚未排版好时返回 null
+     */
+    public Card getAt(int position) {
+        checkLibraryVersion();
+        int[] ids = sequence;
+        return position >= 0 && position < ids.length ? get(ids[position]) : null;
+    }
+
+    /**
+     * 已缓存的卡片，没有时返回 null
+     */
+    public Card get(int id) {
+        Card card = cache.get(id & mask);
+        return card != null && card.id == id ? card : null;
+    }
+
+    /**
+     * 丢弃所有缓存的卡片，并重新预取当前窗口（词库变更时自动调用）
+     */
+    public void invalidateAll() {
+        invalidations.incrementAndGet();
+        for (int i = 0; i < cache.length(); i++) {
+            cache.set(i, null);
+        }
+        moveTo(position);
+    }
+
+    // 词库自上次检查以来有变更时丢弃缓存；并发检查时可能多丢弃一次，无害
+    private void checkLibraryVersion() {
+        long version = wordLib.getChangeCount();
+        if (version != libraryVersion) {
+            libraryVersion = version;
+            invalidateAll();
+        }
+    }
+
+    // 后台任务：反复排版离目标位置最近的缺失卡片，直到窗口填满且目标不再变化
+    private void drain() {
+        while (true) {
+            int request = requests.get();
+            fill(sequence, position, request);
+            running.set(false);
+            // 退出前又有新请求且没有别的任务接手时继续
+            if (requests.get() == request || !running.compareAndSet(false, true)) {
+                return;
+            }
+        }
+    }
+
+    private void fill(int[] ids, int target, int request) {
+        int end = (int) Math.min((long) Math.max(target, 0) + window, ids.length);
+        for (int i = Math.max(target, 0); i < end; i++) {
+            if (requests.get() != request) {
+                return;  // 已翻页，从新位置重新开始
+            }
+            int id = ids[i];
+            if (get(id) != null) {
+                continue;
+            }
+            int epoch = invalidations.get();
+            long version = wordLib.getChangeCount();
+            WordItem item = wordLib.getById(id);
+            if (item == null) {
+                IntConsumer missing = onMissing;
+                if (missing != null) {
+                    missing.accept(id);
+                }
+                continue;
+            }
+            Card card = format(id, item);
+            cache.set(id & mask, card);
+            if (invalidations.get() != epoch || wordLib.getChangeCount() != version) {
+                // 排版期间单词可能被改过，丢弃这张卡片，由 invalidateAll 触发的请求重新排版
+                cache.compareAndSet(id & mask, card, null);
+                checkLibraryVersion();
+                return;
+            }
+            Consumer<Card> listener = onReady;
+            if (listener != null) {
+                listener.accept(card);
+            }
+        }
+    }
+
+    static Card format(int id, WordItem item) {
+        List<Meaning> meanings = item.meaningList();
+        String[] lines = new String[meanings.size()];
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < lines.length; i++) {
+            Meaning meaning = meanings.get(i);
+            Category category = meaning.getCategory();
+            sb.setLength(0);
+            if (category != null) {
+                sb.append(category.name()).append(' ');
+            }
+            String text = meaning.getMeaningText();
+            lines[i] = sb.append(text != null ? text : "").toString();
+        }
+        String example = item.getExample();
+        return new Card(id, item.getWord(), lines, example != null ? example : "");
+    }
+}
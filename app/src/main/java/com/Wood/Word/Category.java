@@ -1,5 +1,7 @@
 package com.Wood.Word;
 
+import java.util.Arrays;
+
 public enum Category {
     UNSPECIFIED,
     N,
@@ -13,5 +15,58 @@ public enum Category {
     NUM,
     INTERJ,
     AUX_V,
-    ONOMATOPOEIA
-}
\ No newline at end of file
+    ONOMATOPOEIA;
+
+    // 按首字母预先分组的词性表，解析时无需 valueOf 和异常
+    private static final Category[][] TAG_TABLE = buildTagTable();
+
+    private static Category[][] buildTagTable() {
+        Category[][] table = new Category[26][];
+        for (Category category : values()) {
+            int slot = category.name().charAt(0) - 'A';
+            Category[] bucket = table[slot];
+            if (bucket == null) {
+                bucket = new Category[]{category};
+            } else {
+                bucket = Arrays.copyOf(bucket, bucket.length + 1);
+                bucket[bucket.length - 1] = category;
+            }
+            table[slot] = bucket;
+        }
+        return table;
+    }
+
+    /**
+     * 按标签查找词性（忽略大小写），不分配新对象
+     *
+     * @return 对应的词性，未知标签返回 null
+     */
+    public static Category fromTag(char[] tag, int start, int end) {
+        if (end <= start) {
+            return null;
+        }
+        int slot = Character.toUpperCase(tag[start]) - 'A';
+        if (slot < 0 || slot >= 26 || TAG_TABLE[slot] == null) {
+            return null;
+        }
+        for (Category category : TAG_TABLE[slot]) {
+            String name = category.name();
+            if (name.length() != end - start) {
+                continue;
+            }
+            int i = 1;
+            while (i < name.length()
+                    && Character.toUpperCase(tag[start + i]) == name.charAt(i)) {
+                i++;
+            }
+            if (i == name.length()) {
+                return category;
+            }
+        }
+        return null;
+    }
+
+    public static Category fromTag(String tag) {
+        return tag == null ? null : fromTag(tag.toCharArray(), 0, tag.length());
+    }
+}
@@ -0,0 +1,92 @@
+package com.Wood.Word;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.EnumMap;
+import java.util.List;
+
+/**
+ * 词性倒排索引：每个词性一个ID位图，外加按词性的含义数与单词数计数
+ * 由 WordLib 在每次变更时同步维护
+ *
+ * 加入时按ID记下各条含义的词性，删除时按记下的词性扣减：
+ * 单词项可能在词库外被原地修改（例如 getById(id).addMeaning(...)），不能从删除时的内容反推加入时的计数
+ */
+class CategoryIndex {
+    private static final Category[] CATEGORIES = Category.values();
+
+    private final EnumMap<Category, BitSet> idsByCategory = new EnumMap<>(Category.class);
+    private final int[] meaningCounts = new int[CATEGORIES.length];  // 词性 -> 含义条数
+    private final int[] wordCounts = new int[CATEGORIES.length];     // 词性 -> 单词数
+    private final PagedArray<byte[]> indexed = new PagedArray<>(WordItemStore.MAX_ID);  // ID -> 加入时各条含义的词性序号
+
+    void add(int id, WordItem item) {
+        List<Meaning> meanings = item.meaningList();
+        byte[] ordinals = new byte[meanings.size()];
+        for (int i = 0; i < ordinals.length; i++) {
+            Category category = meanings.get(i).getCategory();
+            ordinals[i] = (byte) (category != null ? category.ordinal() : Category.UNSPECIFIED.ordinal());
+        }
+        byte[] previous = indexed.set(id, ordinals);
+        if (previous != null) {
+            update(id, previous, -1);
+        }
+        update(id, ordinals, 1);
+    }
+
+    void remove(int id) {
+        byte[] ordinals = indexed.remove(id);
+        if (ordinals != null) {
+            update(id, ordinals, -1);
+        }
+    }
+
+    /**
+     * 按一个单词项的含义词性调整计数和位图（delta 为 1 加入，-1 删除；计数不低于 0）
+     */
+    private void update(int id, byte[] ordinals, int delta) {
+        int mask = 0;
+        for (byte ordinal : ordinals) {
+            meaningCounts[ordinal] = Math.max(meaningCounts[ordinal] + delta, 0);
+            mask |= 1 << ordinal;
+        }
+        for (int ordinal = 0; mask != 0; ordinal++, mask >>>= 1) {
+            if ((mask & 1) == 0) {
+                continue;
+            }
+            BitSet ids = idsByCategory.get(CATEGORIES[ordinal]);
+            if (delta > 0) {
+                if (ids == null) {
+                    ids = new BitSet();
+                    idsByCategory.put(CATEGORIES[ordinal], ids);
+                }
+                ids.set(id);
+            } else if (ids != null) {
+                ids.clear(id);
+            }
+            wordCounts[ordinal] = Math.max(wordCounts[ordinal] + delta, 0);
+        }
+    }
+
+    void clear() {
+        idsByCategory.clear();
+        indexed.clear();
+        Arrays.fill(meaningCounts, 0);
+        Arrays.fill(wordCounts, 0);
+    }
+
+    /**
+     * 含有该词性的单词ID位图（只读使用），没有则返回 null
+     */
+    BitSet ids(Category category) {
+        return category != null ? idsByCategory.get(category) : null;
+    }
+
+    int meaningCount(Category category) {
+        return meaningCounts[category.ordinal()];
+    }
+
+    int wordCount(Category category) {
+        return wordCounts[category.ordinal()];
+    }
+}
@@ -0,0 +1,356 @@
+package com.Wood.Word;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 按列存放单词数据的紧凑存储
+ *
+ * 单词、例句和含义文本放在（可多个词库共享的）StringPool 中去重，每个单词只占几个 int：
+ * - words / examples：ID -> 字符串引用，words 为 0 表示空位
+ * - meaningStarts / meaningCounts：ID -> 含义列中的区间
+ * 这四列与 WordItemStore 一样按ID分页，只为有单词的页分配（见 ColumnPage）。
+ * - meaningTexts / meaningCategories：所有单词的含义依次追加，词性存为 byte（-1 表示 null）
+ * get 每次按列组装新的 WordItem 视图，修改视图不会写回，须通过 WordLib.updateWordItem；
+ * 遍历用 get(id, flyweight) 就地填充同一个 WordItem，逐个单词不分配。
+ */
+class CompactWordItemStore extends WordItemStore {
+    private static final Category[] CATEGORIES = Category.values();
+    private static final ColumnPage[] NO_PAGES = new ColumnPage[0];
+    private static final int MAX_MEANINGS = 0xFFFF;
+
+    private final StringPool pool;
+
+    // 按ID分页的列
+    private ColumnPage[] pages = NO_PAGES;
+    private int size;
+    private int limit;  // 最大已用ID + 1
+
+    // 含义列
+    private int[] meaningTexts = new int[16];
+    private byte[] meaningCategories = new byte[16];
+    private int meaningEnd;    // 已用长度（含被覆盖后留下的空洞）
+    private int liveMeanings;  // 仍属于某个单词的含义数
+
+    // 一页ID的四列
+    private static final class ColumnPage {
+        final int[] words = new int[PAGE_SIZE];
+        final int[] examples = new int[PAGE_SIZE];
+        final int[] meaningStarts = new int[PAGE_SIZE];
+        final short[] meaningCounts = new short[PAGE_SIZE];  // 无符号
+        int count;
+    }
+
+    CompactWordItemStore(int initialCapacity, StringPool pool) {
+        super(0);
+        this.pool = pool;
+        if (initialCapacity > 0) {
+            ensureCapacity(initialCapacity + 1);
+        }
+    }
+
+    // ID所在的页，该页没有单词时返回 null
+    private ColumnPage page(int id) {
+        return id >= 0 && id < limit ? pages[id >>> PAGE_SHIFT] : null;
+    }
+
+    StringPool pool() {
+        return pool;
+    }
+
+    @Override
+    WordItem get(int id) {
+        ColumnPage page = page(id);
+        int slot = id & PAGE_MASK;
+        if (page == null || page.words[slot] == StringPool.NULL_REF) {
+            return null;
+        }
+        WordItem item = new WordItem(pool.get(page.words[slot]));
+        int start = page.meaningStarts[slot];
+        int end = start + (page.meaningCounts[slot] & 0xFFFF);
+        List<Meaning> meanings = item.meaningList();
+        for (int i = start; i < end; i++) {
+            byte category = meaningCategories[i];
+            meanings.add(new Meaning(pool.get(meaningTexts[i]), category < 0 ? null : CATEGORIES[category]));
+        }
+        item.setExample(pool.get(page.examples[slot]));
+        return item;
+    }
+
+    @Override
+    WordItem get(int id, Flyweight flyweight) {
+        ColumnPage page = page(id);
+        int slot = id & PAGE_MASK;
+        if (page == null || page.words[slot] == StringPool.NULL_REF) {
+            return null;
+        }
+        int start = page.meaningStarts[slot];
+        int count = page.meaningCounts[slot] & 0xFFFF;
+        if (flyweight.meanings.length < count) {
+            int old = flyweight.meanings.length;
+            flyweight.meanings = Arrays.copyOf(flyweight.meanings, Math.max(count, old * 2));
+            for (int i = old; i < flyweight.meanings.length; i++) {
+                flyweight.meanings[i] = new Meaning();
+            }
+        }
+        WordItem item = flyweight.item;
+        item.reuse(pool.get(page.words[slot]), pool.get(page.examples[slot]));
+        List<Meaning> meanings = item.meaningList();
+        for (int i = 0; i < count; i++) {
+            Meaning meaning = flyweight.meanings[i];
+            byte category = meaningCategories[start + i];
+            meaning.setCategory(category < 0 ? null : CATEGORIES[category]);
+            meaning.setMeaningText(pool.get(meaningTexts[start + i]));
+            meanings.add(meaning);
+        }
+        return item;
+    }
+
+    @Override
+    Flyweight flyweight() {
+        return new Flyweight();
+    }
+
+    @Override
+    boolean contains(int id) {
+        ColumnPage page = page(id);
+        return page != null && page.words[id & PAGE_MASK] != StringPool.NULL_REF;
+    }
+
+    @Override
+    String word(int id) {
+        ColumnPage page = page(id);
+        int ref = page != null ? page.words[id & PAGE_MASK] : StringPool.NULL_REF;
+        return ref != StringPool.NULL_REF ? pool.get(ref) : null;
+    }
+
+    @Override
+    WordItem put(int id, WordItem item) {
+        if (!isValidId(id)) {
+            throw new IllegalArgumentException("ID 超出范围: " + id);
+        }
+        List<Meaning> meanings = item.meaningList();
+        int count = meanings.size();
+        if (count > MAX_MEANINGS) {
+            throw new IllegalArgumentException("含义过多: " + count);
+        }
+        int pageIndex = id >>> PAGE_SHIFT;
+        if (pageIndex >= pages.length) {
+            growPages(pageIndex + 1);
+        }
+        ColumnPage page = pages[pageIndex];
+        if (page == null) {
+            page = new ColumnPage();
+            pages[pageIndex] = page;
+        }
+        int slot = id & PAGE_MASK;
+        WordItem previous = get(id);
+
+        // 先取新引用再释放旧引用，内容相同的字符串不会被回收后重新加入
+        int wordRef = pool.intern(item.getWord());
+        int exampleRef = pool.intern(item.getExample());
+        int[] texts = new int[count];
+        for (int i = 0; i < count; i++) {
+            texts[i] = pool.intern(meanings.get(i).getMeaningText());
+        }
+        int start;
+        if (previous != null) {
+            int oldCount = page.meaningCounts[slot] & 0xFFFF;
+            start = page.meaningStarts[slot];
+            release(page, slot);
+            // 含义不多于原来时原地覆盖
+            if (count > oldCount) {
+                start = allocateMeanings(count);
+            }
+        } else {
+            size++;
+            page.count++;
+            start = allocateMeanings(count);
+        }
+        writeMeanings(start, meanings, texts);
+        page.words[slot] = wordRef;
+        page.examples[slot] = exampleRef;
+        page.meaningStarts[slot] = start;
+        page.meaningCounts[slot] = (short) count;
+        liveMeanings += count;
+        if (id >= limit) {
+            limit = id + 1;
+        }
+        compactMeaningsIfSparse();
+        return previous;
+    }
+
+    @Override
+    WordItem remove(int id) {
+        WordItem previous = get(id);
+        if (previous != null) {
+            int pageIndex = id >>> PAGE_SHIFT;
+            ColumnPage page = pages[pageIndex];
+            int slot = id & PAGE_MASK;
+            release(page, slot);
+            page.words[slot] = StringPool.NULL_REF;
+            page.examples[slot] = StringPool.NULL_REF;
+            page.meaningCounts[slot] = 0;
+            size--;
+            if (--page.count == 0) {
+                pages[pageIndex] = null;
+            }
+            if (id == limit - 1) {
+                limit = previous(id) + 1;
+            }
+            compactMeaningsIfSparse();
+        }
+        return previous;
+    }
+
+    /**
+     * 释放该位置持有的全部字符串引用
+     */
+    private void release(ColumnPage page, int slot) {
+        pool.release(page.words[slot]);
+        pool.release(page.examples[slot]);
+        int start = page.meaningStarts[slot];
+        int count = page.meaningCounts[slot] & 0xFFFF;
+        for (int i = start; i < start + count; i++) {
+            pool.release(meaningTexts[i]);
+        }
+        liveMeanings -= count;
+    }
+
+    private void writeMeanings(int start, List<Meaning> meanings, int[] texts) {
+        for (int i = 0; i < texts.length; i++) {
+            Category category = meanings.get(i).getCategory();
+            meaningTexts[start + i] = texts[i];
+            meaningCategories[start + i] = category == null ? -1 : (byte) category.ordinal();
+        }
+    }
+
+    private int allocateMeanings(int count) {
+        int start = meaningEnd;
+        if (start + count > meaningTexts.length) {
+            int capacity = Math.max(start + count, meaningTexts.length + (meaningTexts.length >> 1) + 16);
+            meaningTexts = Arrays.copyOf(meaningTexts, capacity);
+            meaningCategories = Arrays.copyOf(meaningCategories, capacity);
+        }
+        meaningEnd += count;
+        return start;
+    }
+
+    // 空洞多于有效含义时按ID顺序重排含义列
+    private void compactMeaningsIfSparse() {
+        if (meaningEnd - liveMeanings > liveMeanings + 1024) {
+            compactMeanings(meaningTexts.length);
+        }
+    }
+
+    private void compactMeanings(int capacity) {
+        int[] texts = new int[Math.max(capacity, liveMeanings)];
+        byte[] categories = new byte[texts.length];
+        int end = 0;
+        for (int id = next(0); id >= 0; id = next(id + 1)) {
+            ColumnPage page = pages[id >>> PAGE_SHIFT];
+            int slot = id & PAGE_MASK;
+            int count = page.meaningCounts[slot] & 0xFFFF;
+            System.arraycopy(meaningTexts, page.meaningStarts[slot], texts, end, count);
+            System.arraycopy(meaningCategories, page.meaningStarts[slot], categories, end, count);
+            page.meaningStarts[slot] = end;
+            end += count;
+        }
+        meaningTexts = texts;
+        meaningCategories = categories;
+        meaningEnd = end;
+    }
+
+    @Override
+    void ensureCapacity(int capacity) {
+        int needed = PagedArray.pageCount(Math.min(capacity, MAX_ID));
+        if (needed > pages.length) {
+            growPages(needed);
+        }
+    }
+
+    private void growPages(int minPages) {
+        pages = Arrays.copyOf(pages, PagedArray.grownPageCount(pages.length, minPages, PagedArray.pageCount(MAX_ID)));
+    }
+
+    @Override
+    int next(int fromId) {
+        int id = Math.max(fromId, 0);
+        while (id < limit) {
+            ColumnPage page = pages[id >>> PAGE_SHIFT];
+            if (page == null) {
+                id = (id | PAGE_MASK) + 1;
+                continue;
+            }
+            int end = Math.min((id | PAGE_MASK) + 1, limit);
+            for (; id < end; id++) {
+                if (page.words[id & PAGE_MASK] != StringPool.NULL_REF) {
+                    return id;
+                }
+            }
+        }
+        return -1;
+    }
+
+    // 小于 id 的最大有效ID，没有则返回 -1
+    private int previous(int id) {
+        for (int i = id - 1; i >= 0; ) {
+            ColumnPage page = pages[i >>> PAGE_SHIFT];
+            if (page == null) {
+                i = (i & ~PAGE_MASK) - 1;
+                continue;
+            }
+            if (page.words[i & PAGE_MASK] != StringPool.NULL_REF) {
+                return i;
+            }
+            i--;
+        }
+        return -1;
+    }
+
+    @Override
+    int size() {
+        return size;
+    }
+
+    @Override
+    int limit() {
+        return limit;
+    }
+
+    @Override
+    void clear() {
+        for (int id = next(0); id >= 0; id = next(id + 1)) {
+            release(pages[id >>> PAGE_SHIFT], id & PAGE_MASK);
+        }
+        Arrays.fill(pages, null);
+        size = 0;
+        limit = 0;
+        meaningEnd = 0;
+        liveMeanings = 0;
+    }
+
+    @Override
+    void compact() {
+        int needed = PagedArray.pageCount(limit);
+        if (pages.length > needed) {
+            pages = needed > 0 ? Arrays.copyOf(pages, needed) : NO_PAGES;
+        }
+        compactMeanings(liveMeanings);
+    }
+
+    /**
+     * 各列的字节数加上字符串池（共享池按整个池计算）
+     */
+    @Override
+    long estimateMemoryUsage() {
+        long bytes = MemoryLayout.array(pages.length, MemoryLayout.REFERENCE);
+        for (ColumnPage page : pages) {
+            if (page != null) {
+                bytes += MemoryLayout.array(PAGE_SIZE, 4) * 3 + MemoryLayout.array(PAGE_SIZE, 2);
+            }
+        }
+        return bytes + MemoryLayout.array(meaningTexts.length, 4) + MemoryLayout.array(meaningCategories.length, 1)
+                + pool.estimateMemoryUsage();
+    }
+}
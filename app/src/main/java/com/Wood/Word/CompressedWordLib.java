@@ -0,0 +1,603 @@
+package com.Wood.Word;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * 通过 FileChannel.map 打开的只读压缩词库
+ *
+ * 打开时只读取头部和块索引（每块第一个单词），单词项按块解码：
+ * getWordId 只在一块的前缀压缩单词部分上逐字节比较，不创建字符串也不解压；
+ * getById / getByWord 再解压该块的含义与例句，不会解压整个文件。
+ * 最近解压的一块保留在内存中，顺序访问时不重复解压。
+ * 返回的 WordItem 是解码出的副本，修改它不会写回文件。
+ * 打开时校验头部、各区段的范围和索引的校验和，块在第一次访问时校验其校验和，
+ * 读到的长度、项号都先与所在区段的范围比较再使用；
+ * 损坏的文件在打开时抛出 IOException，访问到损坏的块时抛出 IllegalStateException。
+ * 格式见 {@link WordLibCompressedFormat}
+ */
+public class CompressedWordLib {
+    private static final Category[] CATEGORIES = Category.values();
+    private static final int BLOCK_SIZE = WordLibCompressedFormat.BLOCK_SIZE;
+    private static final int ID_GROUP_SIZE = WordLibCompressedFormat.ID_GROUP_SIZE;
+    // Deflate 的最大压缩比约为 1032:1，解压后的长度超出它的块必定已损坏
+    private static final long MAX_INFLATE_RATIO = 1032;
+
+    private final ByteBuffer buffer;
+    private final int count;
+    private final int nextId;
+    private final int blockCount;
+    private final int blockIndexOffset;
+    private final int idGroupCount;
+    private final int idIndexOffset;
+    private final byte[][] firstKeys;
+    private final boolean[] verified;  // 已校验过校验和的块（重复校验无害，不需要同步）
+
+    // 解压共用一个 Inflater（持有本地内存，每次新建代价较高），使用时对它加锁
+    private final Inflater inflater = new Inflater();
+
+    // 最近解压的一块（创建后不再改变，可在线程间共享）
+    private volatile Payload lastPayload;
+
+    // 一块解压后的含义与例句，以及每项的起点
+    private static final class Payload {
+        final int block;
+        final byte[] data;
+        final int[] offsets;
+
+        Payload(int block, byte[] data, int[] offsets) {
+            this.block = block;
+            this.data = data;
+            this.offsets = offsets;
+        }
+    }
+
+    private CompressedWordLib(ByteBuffer buffer) throws IOException {
+        this.buffer = buffer;
+        if (buffer.limit() < WordLibCompressedFormat.HEADER_SIZE
+                || buffer.getInt(0) != WordLibCompressedFormat.MAGIC) {
+            throw new IOException("不是压缩词库文件");
+        }
+        short version = buffer.getShort(4);
+        if (version != WordLibCompressedFormat.VERSION) {
+            throw new IOException("不支持的压缩词库版本: " + version);
+        }
+        this.count = buffer.getInt(8);
+        this.nextId = buffer.getInt(12);
+        this.blockCount = buffer.getInt(16);
+        this.blockIndexOffset = buffer.getInt(20);
+        this.idGroupCount = buffer.getInt(24);
+        this.idIndexOffset = buffer.getInt(28);
+
+        // 块数、组数与单词数相符，各区段依次排列且都在文件内（用 long 计算，避免损坏的计数溢出）
+        int limit = buffer.limit();
+        long blockTableEnd = blockIndexOffset + 4L * ((long) blockCount + 1);
+        long idTableEnd = idIndexOffset + 8L * idGroupCount + 4;
+        if (count < 0 || blockCount != (count + (long) BLOCK_SIZE - 1) / BLOCK_SIZE
+                || idGroupCount != (count + (long) ID_GROUP_SIZE - 1) / ID_GROUP_SIZE
+                || blockIndexOffset < WordLibCompressedFormat.HEADER_SIZE
+                || blockTableEnd > idIndexOffset
+                || idTableEnd > limit) {
+            throw new IOException("压缩词库头部已损坏");
+        }
+        CRC32 crc = new CRC32();
+        WordLibCompressedFormat.update(crc, buffer, 0, WordLibCompressedFormat.HEADER_SIZE - 4);
+        WordLibCompressedFormat.update(crc, buffer, blockIndexOffset, limit);
+        if ((int) crc.getValue() != buffer.getInt(WordLibCompressedFormat.HEADER_SIZE - 4)) {
+            throw new IOException("压缩词库索引校验失败");
+        }
+
+        // 块首尾相接地排在头部与块索引之间；每项在单词部分至少占 3 个字节，块的长度不能少于此
+        int previous = WordLibCompressedFormat.HEADER_SIZE;
+        for (int block = 0; block <= blockCount; block++) {
+            int offset = buffer.getInt(blockIndexOffset + 4 * block);
+            if (block == 0 ? offset != previous : offset - (long) previous < 4 + 3L * blockSize(block - 1)) {
+                throw new IOException("压缩词库块偏移已损坏: 第 " + block + " 块");
+            }
+            previous = offset;
+        }
+        if (previous != blockIndexOffset) {
+            throw new IOException("压缩词库块偏移已损坏: 结尾");
+        }
+        // 各组数据依次排在组表之后，到文件末尾为止
+        previous = (int) idTableEnd;
+        for (int group = 0; group <= idGroupCount; group++) {
+            // 组表之后的结束偏移紧接在最后一组之后
+            int offset = buffer.getInt(group < idGroupCount ? idIndexOffset + 8 * group + 4 : idIndexOffset + 8 * group);
+            if (offset < previous || offset > limit) {
+                throw new IOException("压缩词库ID索引已损坏: 第 " + group + " 组");
+            }
+            previous = offset;
+        }
+        if (previous != limit) {
+            throw new IOException("压缩词库ID索引已损坏: 结尾");
+        }
+
+        // 块偏移表之后是每块第一个小写单词
+        ByteBuffer in = buffer.duplicate();
+        in.limit(idIndexOffset);
+        in.position((int) blockTableEnd);
+        this.firstKeys = new byte[blockCount][];
+        try {
+            for (int i = 0; i < blockCount; i++) {
+                firstKeys[i] = new byte[WordLibCompressedFormat.readLength(in)];
+                in.get(firstKeys[i]);
+            }
+        } catch (IllegalStateException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+        this.verified = new boolean[blockCount];
+    }
+
+    /**
+     * 映射并打开压缩词库文件
+     */
+    public static CompressedWordLib open(File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            // 映射在通道关闭后依然有效
+            return new CompressedWordLib(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * 判断文件是否为压缩词库（检查头部魔数）
+     */
+    public static boolean isCompressed(File file) {
+        if (file.length() < WordLibCompressedFormat.HEADER_SIZE) {
+            return false;
+        }
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            ByteBuffer magic = ByteBuffer.allocate(4);
+            while (magic.hasRemaining() && channel.read(magic) >= 0) {
+                // 读满4字节
+            }
+            return magic.getInt(0) == WordLibCompressedFormat.MAGIC;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    // ========== 查询方法 ==========
+
+    public int size() {
+        return count;
+    }
+
+    public boolean isEmpty() {
+        return count == 0;
+    }
+
+    public int getNextId() {
+        return nextId;
+    }
+
+    /**
+     * 块数（每块可单独解码）
+     */
+    public int getBlockCount() {
+        return blockCount;
+    }
+
+    /**
+     * 根据ID获取单词项（只解压所在的一块）
+     */
+    public WordItem getById(int id) {
+        int entry = findEntry(id);
+        return entry >= 0 ? decodeEntry(entry) : null;
+    }
+
+    public boolean containsId(int id) {
+        return findEntry(id) >= 0;
+    }
+
+    /**
+     * 根据单词获取单词项（只解压所在的一块）
+     */
+    public WordItem getByWord(String word) {
+        long found = findWord(word.toLowerCase().getBytes(StandardCharsets.UTF_8));
+        return found >= 0 ? decodeEntry((int) (found >>> 32)) : null;
+    }
+
+    /**
+     * 根据单词获取ID（不解压）
+     */
+    public Integer getWordId(String word) {
+        long found = findWord(word.toLowerCase().getBytes(StandardCharsets.UTF_8));
+        return found >= 0 ? (int) found : null;
+    }
+
+    public boolean containsWord(String word) {
+        return getWordId(word) != null;
+    }
+
+    /**
+     * 按ID升序获取所有ID
+     */
+    public int[] getAllIds() {
+        int[] ids = new int[count];
+        readIdIndex(ids, null);
+        return ids;
+    }
+
+    /**
+     * 完整解码为可修改的 WordLib（按块顺序读取，每块只解压一次）
+     *
+     * @throws IllegalStateException 文件中有损坏的块（WordLib.readCompressed 将其转为 IOException）
+     */
+    public WordLib toWordLib() {
+        WordItem[] items = new WordItem[count];
+        boolean[] indexed = new boolean[count];
+        String[] words = new String[BLOCK_SIZE];
+        for (int block = 0; block < blockCount; block++) {
+            int base = block * BLOCK_SIZE;
+            int size = readWords(block, words, indexed, base);
+            ByteBuffer in = ByteBuffer.wrap(inflate(block, false).data);
+            for (int slot = 0; slot < size; slot++) {
+                items[base + slot] = decodeItem(words[slot], in);
+            }
+        }
+        int[] ids = new int[count];
+        int[] entries = new int[count];
+        readIdIndex(ids, entries);
+
+        // 按ID升序放入（各派生索引按ID追加最快）；单词重复时索引项最后放入，保持原来的单词 -> ID 映射
+        for (int i = 0; i < count; i++) {
+            if (!WordItemStore.isValidId(ids[i])) {
+                throw WordLibCompressedFormat.corrupt("非法ID " + ids[i]);
+            }
+        }
+        WordLib wordLib = new WordLib(count);
+        for (int pass = 0; pass < 2; pass++) {
+            boolean wantIndexed = pass == 1;
+            for (int i = 0; i < count; i++) {
+                if (indexed[entries[i]] == wantIndexed) {
+                    wordLib.restore(ids[i], items[entries[i]]);
+                }
+            }
+        }
+        if (WordItemStore.isValidId(nextId)) {
+            wordLib.ensureNextId(nextId);
+        }
+        return wordLib;
+    }
+
+    // ========== 单词部分 ==========
+
+    /**
+     * 一块的内容（checksum 之后到块结尾，读取不会越出本块），第一次访问时校验
+     * 读出块内项数，与该块应有的项数不符时视为损坏
+     */
+    private ByteBuffer blockStart(int block) {
+        int start = buffer.getInt(blockIndexOffset + 4 * block);
+        int end = buffer.getInt(blockIndexOffset + 4 * (block + 1));
+        if (!verified[block]) {
+            if (end - start < 4 || WordLibCompressedFormat.checksum(buffer, start + 4, end) != buffer.getInt(start)) {
+                throw WordLibCompressedFormat.corrupt("第 " + block + " 块校验失败");
+            }
+            verified[block] = true;
+        }
+        ByteBuffer in = buffer.duplicate();
+        in.limit(end);
+        in.position(start + 4);
+        if (WordLibCompressedFormat.readVarInt(in) != blockSize(block)) {
+            throw WordLibCompressedFormat.corrupt("第 " + block + " 块项数不符");
+        }
+        return in;
+    }
+
+    private int blockSize(int block) {
+        return Math.min(BLOCK_SIZE, count - block * BLOCK_SIZE);
+    }
+
+    // 读出单词部分的长度；返回时 in 的上限收到单词部分结尾，之后的字段用 payloadStart 取得
+    private static int wordsEnd(ByteBuffer in) {
+        int length = WordLibCompressedFormat.readLength(in);
+        int end = in.position() + length;
+        in.limit(end);
+        return end;
+    }
+
+    /**
+     * 按小写单词查找，返回 (项号 &lt;&lt; 32 | ID)，没有返回 -1
+     */
+    private long findWord(byte[] key) {
+        // 第一个首单词不小于 key 的块
+        int low = 0;
+        int high = blockCount;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (WordLibBinaryFormat.compareUnsigned(firstKeys[mid], key) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        // key 多半在前一块中；前一块全部小于 key 而下一块恰好以 key 开头时在下一块（相同单词可能跨块）
+        if (low > 0) {
+            long found = scanBlock(low - 1, key);
+            if (found != BLOCK_EXHAUSTED) {
+                return found;
+            }
+        }
+        return low < blockCount && Arrays.equals(firstKeys[low], key) ? scanBlock(low, key) : -1;
+    }
+
+    private static final long BLOCK_EXHAUSTED = -2;
+
+    // 在一块的单词部分中找 key 第一次出现的项；块内单词都小于 key 时返回 BLOCK_EXHAUSTED
+    private long scanBlock(int block, byte[] key) {
+        ByteBuffer in = blockStart(block);
+        int size = blockSize(block);
+        wordsEnd(in);
+        int previousLength = 0;
+        // matched: 当前单词与 key 相同的前缀长度（前缀压缩下可以逐项沿用）
+        int matched = 0;
+        for (int slot = 0; slot < size; slot++) {
+            int prefix = WordLibCompressedFormat.readVarInt(in);
+            int suffix = WordLibCompressedFormat.readLength(in);
+            if (prefix < 0 || prefix > previousLength) {
+                throw WordLibCompressedFormat.corrupt("第 " + block + " 块前缀长度 " + prefix);
+            }
+            previousLength = prefix + suffix;
+            int cmp;
+            if (prefix < matched) {
+                // 与上一个单词在 key 已匹配的部分内就不同了，而单词升序，所以本单词已大于 key
+                cmp = 1;
+            } else if (prefix > matched) {
+                // 沿用上一个单词与 key 不同的那个字节，仍小于 key
+                cmp = -1;
+            } else {
+                int end = in.position() + suffix;
+                cmp = 0;
+                int length = prefix + suffix;
+                while (matched < length && matched < key.length) {
+                    cmp = (in.get(in.position() + matched - prefix) & 0xFF) - (key[matched] & 0xFF);
+                    if (cmp != 0) {
+                        break;
+                    }
+                    matched++;
+                }
+                if (cmp == 0) {
+                    cmp = length - key.length;
+                }
+                in.position(end);
+                suffix = 0;
+            }
+            in.position(in.position() + suffix);
+            if (cmp > 0) {
+                return -1;
+            }
+            int tagged = WordLibCompressedFormat.readVarInt(in);
+            if (cmp == 0) {
+                return (tagged & 2) != 0 ? (long) (block * BLOCK_SIZE + slot) << 32 | (tagged >>> 2) : -1;
+            }
+            if ((tagged & 1) != 0) {
+                WordLibCompressedFormat.skipString(in);
+            }
+        }
+        return BLOCK_EXHAUSTED;
+    }
+
+    /**
+     * 展开一块的单词部分：原单词放入 words，是否为索引项从 indexed 的 base 处放入，返回项数
+     */
+    private int readWords(int block, String[] words, boolean[] indexed, int base) {
+        ByteBuffer in = blockStart(block);
+        int size = blockSize(block);
+        wordsEnd(in);
+        byte[] key = new byte[64];
+        int previousLength = 0;
+        for (int slot = 0; slot < size; slot++) {
+            int prefix = WordLibCompressedFormat.readVarInt(in);
+            int suffix = WordLibCompressedFormat.readLength(in);
+            key = readSuffix(in, key, prefix, suffix, previousLength);
+            previousLength = prefix + suffix;
+            int tagged = WordLibCompressedFormat.readVarInt(in);
+            words[slot] = (tagged & 1) != 0
+                    ? WordLibCompressedFormat.readString(in)
+                    : new String(key, 0, prefix + suffix, StandardCharsets.UTF_8);
+            indexed[base + slot] = (tagged & 2) != 0;
+        }
+        return size;
+    }
+
+    // 块内第 slot 项的原单词（只为这一项创建字符串）
+    private String wordAt(int block, int slot) {
+        ByteBuffer in = blockStart(block);
+        wordsEnd(in);
+        byte[] key = new byte[64];
+        int previousLength = 0;
+        for (int i = 0; ; i++) {
+            int prefix = WordLibCompressedFormat.readVarInt(in);
+            int suffix = WordLibCompressedFormat.readLength(in);
+            key = readSuffix(in, key, prefix, suffix, previousLength);
+            previousLength = prefix + suffix;
+            boolean original = (WordLibCompressedFormat.readVarInt(in) & 1) != 0;
+            if (i == slot) {
+                return original
+                        ? WordLibCompressedFormat.readString(in)
+                        : new String(key, 0, prefix + suffix, StandardCharsets.UTF_8);
+            }
+            if (original) {
+                WordLibCompressedFormat.skipString(in);
+            }
+        }
+    }
+
+    // 把后缀接到 key 的前 prefix 个字节之后，容量不够时换成更大的数组
+    // suffix 已由 readLength 限制在剩余字节内；prefix 不能超过上一个单词的长度
+    private static byte[] readSuffix(ByteBuffer in, byte[] key, int prefix, int suffix, int previousLength) {
+        if (prefix < 0 || prefix > previousLength) {
+            throw WordLibCompressedFormat.corrupt("前缀长度 " + prefix + " 超过上一个单词的 " + previousLength);
+        }
+        if (prefix + suffix > key.length) {
+            key = Arrays.copyOf(key, Math.max(prefix + suffix, key.length * 2));
+        }
+        in.get(key, prefix, suffix);
+        return key;
+    }
+
+    // ========== 含义与例句 ==========
+
+    private WordItem decodeEntry(int entry) {
+        if (entry < 0 || entry >= count) {
+            throw WordLibCompressedFormat.corrupt("项号 " + entry + " 超出范围");
+        }
+        int block = entry / BLOCK_SIZE;
+        int slot = entry % BLOCK_SIZE;
+        Payload payload = lastPayload;
+        if (payload == null || payload.block != block) {
+            payload = inflate(block, true);
+            lastPayload = payload;
+        }
+        ByteBuffer in = ByteBuffer.wrap(payload.data);
+        in.position(payload.offsets[slot]);
+        return decodeItem(wordAt(block, slot), in);
+    }
+
+    private static WordItem decodeItem(String word, ByteBuffer in) {
+        String example = WordLibCompressedFormat.readString(in);
+        // 每个含义至少占两个字节（词性和长度）
+        int meaningCount = WordLibCompressedFormat.readVarInt(in);
+        if (meaningCount < 0 || meaningCount > in.remaining() / 2) {
+            throw WordLibCompressedFormat.corrupt("含义数 " + meaningCount);
+        }
+        List<Meaning> meanings = new ArrayList<>(meaningCount);
+        for (int i = 0; i < meaningCount; i++) {
+            int ordinal = WordLibCompressedFormat.readByte(in);
+            Category category = ordinal < CATEGORIES.length ? CATEGORIES[ordinal] : Category.UNSPECIFIED;
+            meanings.add(new Meaning(WordLibCompressedFormat.readString(in), category));
+        }
+        WordItem item = new WordItem(word, meanings);
+        item.setExample(example);
+        return item;
+    }
+
+    /**
+     * 解压一块的含义与例句；withOffsets 时记下每项的起点（随机访问用）
+     */
+    private Payload inflate(int block, boolean withOffsets) {
+        ByteBuffer in = blockStart(block);
+        int entries = blockSize(block);
+        int blockEnd = in.limit();
+        in.position(wordsEnd(in));
+        in.limit(blockEnd);
+        int rawLength = WordLibCompressedFormat.readVarInt(in);
+        int deflatedLength = WordLibCompressedFormat.readLength(in);
+        if (rawLength < 0 || rawLength > deflatedLength * MAX_INFLATE_RATIO + 64) {
+            throw WordLibCompressedFormat.corrupt("第 " + block + " 块解压长度 " + rawLength);
+        }
+        byte[] data = new byte[rawLength];
+        byte[] deflated = new byte[deflatedLength];
+        in.get(deflated);
+
+        synchronized (inflater) {
+            try {
+                inflater.reset();
+                inflater.setInput(deflated);
+                int length = 0;
+                while (length < data.length && !inflater.finished()) {
+                    int n = inflater.inflate(data, length, data.length - length);
+                    if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                        break;
+                    }
+                    length += n;
+                }
+                if (length != data.length) {
+                    throw WordLibCompressedFormat.corrupt("第 " + block + " 块数据不完整");
+                }
+            } catch (DataFormatException e) {
+                IllegalStateException corrupt = WordLibCompressedFormat.corrupt("第 " + block + " 块无法解压");
+                corrupt.initCause(e);
+                throw corrupt;
+            }
+        }
+
+        if (!withOffsets) {
+            return new Payload(block, data, null);
+        }
+        int[] offsets = new int[entries];
+        ByteBuffer payload = ByteBuffer.wrap(data);
+        for (int slot = 0; slot < entries; slot++) {
+            offsets[slot] = payload.position();
+            WordLibCompressedFormat.skipString(payload);
+            int meaningCount = WordLibCompressedFormat.readVarInt(payload);
+            if (meaningCount < 0 || meaningCount > payload.remaining() / 2) {
+                throw WordLibCompressedFormat.corrupt("第 " + block + " 块含义数 " + meaningCount);
+            }
+            for (int i = 0; i < meaningCount; i++) {
+                WordLibCompressedFormat.readByte(payload);
+                WordLibCompressedFormat.skipString(payload);
+            }
+        }
+        return new Payload(block, data, offsets);
+    }
+
+    // ========== ID索引 ==========
+
+    // 在ID索引中查找项号，没有返回 -1
+    private int findEntry(int id) {
+        int low = 0;
+        int high = idGroupCount - 1;
+        int group = -1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (buffer.getInt(idIndexOffset + 8 * mid) <= id) {
+                group = mid;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        if (group < 0) {
+            return -1;
+        }
+        ByteBuffer in = buffer.duplicate();
+        in.position(buffer.getInt(idIndexOffset + 8 * group + 4));
+        int size = Math.min(count - group * ID_GROUP_SIZE, ID_GROUP_SIZE);
+        int current = buffer.getInt(idIndexOffset + 8 * group);
+        for (int i = 0; i < size; i++) {
+            current += WordLibCompressedFormat.readVarInt(in);
+            int entry = WordLibCompressedFormat.readVarInt(in);
+            if (current == id) {
+                return entry;
+            }
+            if (current > id) {
+                break;
+            }
+        }
+        return -1;
+    }
+
+    // 按ID升序读出全部 (id, 项号)；entries 为 null 时只读ID
+    private void readIdIndex(int[] ids, int[] entries) {
+        ByteBuffer in = buffer.duplicate();
+        in.position(idIndexOffset + 8 * idGroupCount + 4);
+        int i = 0;
+        for (int group = 0; group < idGroupCount; group++) {
+            int current = buffer.getInt(idIndexOffset + 8 * group);
+            int end = Math.min(count, i + ID_GROUP_SIZE);
+            for (; i < end; i++) {
+                current += WordLibCompressedFormat.readVarInt(in);
+                ids[i] = current;
+                int entry = WordLibCompressedFormat.readVarInt(in);
+                if (entry < 0 || entry >= count) {
+                    throw WordLibCompressedFormat.corrupt("项号 " + entry + " 超出范围");
+                }
+                if (entries != null) {
+                    entries[i] = entry;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,579 @@
+package com.Wood.Word;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+import java.util.function.ObjIntConsumer;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * 线程安全的 WordLib，用于后台加载、保存与界面读取共享的全局词库
+ *
+ * - 单点查询（getById、getByWord、getWordId、containsId、containsWord）和 size、isDirty 等字段
+ *   读取 volatile 发布的只读快照（LookupSnapshot），不加锁，写操作进行中也不等待：
+ *   看到的是上一次写操作完成时的状态，整批导入要么全未生效要么全部生效
+ * - 其余查询（搜索、分页、遍历、导出、统计）持有读锁，彼此不互斥
+ * - 所有写操作持有写锁串行执行，变更监听器也在写锁内回调；释放写锁前发布新的快照，
+ *   因此写操作返回后，任何线程的单点查询都能看到它（监听器回调中看到的仍是写之前的快照）
+ *
+ * 注意：WordLib 内部不会调用自身的公共方法，因此这里的锁不会重入。
+ * 返回的 WordItem 可能是与其他线程共享的对象（见 WordLib.getById），修改单词项请通过 updateWordItem。
+ * 快照与默认存储共享单词项，另占每个ID一个页内引用和每个单词一个哈希槽；
+ * 紧凑存储下快照另外保存一份组装好的单词项（字符串仍与池共享），单点查询返回它的副本。
+ */
+public class ConcurrentWordLib extends WordLib {
+    private static final Category[] CATEGORIES = Category.values();
+
+    private final StampedLock lock = new StampedLock();
+    private final boolean copyOnRead;  // 紧凑存储：快照中的单词项不直接交给调用方
+    private final LookupSnapshot.Editor nextSnapshot = new LookupSnapshot.Editor();  // 只在写锁内使用
+    private volatile LookupSnapshot snapshot = LookupSnapshot.EMPTY;
+
+    public ConcurrentWordLib() {
+        super();
+        this.copyOnRead = false;
+    }
+
+    public ConcurrentWordLib(int initialCapacity) {
+        super(initialCapacity);
+        this.copyOnRead = false;
+    }
+
+    public ConcurrentWordLib(int initialCapacity, StringPool stringPool) {
+        super(initialCapacity, stringPool);
+        this.copyOnRead = true;
+    }
+
+    // ========== 读 ==========
+
+    /**
+     * 持有读锁执行（用于遍历索引或整个词库的操作）
+     */
+    private <T> T readLocked(Supplier<T> reader) {
+        long stamp = lock.readLock();
+        try {
+            return reader.get();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    // 紧凑存储下返回快照中单词项的副本，调用方的原地修改不会影响快照
+    private WordItem readable(WordItem item) {
+        if (item == null || !copyOnRead) {
+            return item;
+        }
+        List<Meaning> meanings = item.meaningList();
+        List<Meaning> copies = new ArrayList<>(meanings.size());
+        for (int i = 0; i < meanings.size(); i++) {
+            Meaning meaning = meanings.get(i);
+            copies.add(new Meaning(meaning.getMeaningText(), meaning.getCategory()));
+        }
+        WordItem copy = new WordItem(item.getWord(), copies);
+        copy.setExample(item.getExample());
+        return copy;
+    }
+
+    @Override
+    public WordItem getById(int id) {
+        return readable(snapshot.get(id));
+    }
+
+    @Override
+    public WordItem getByWord(String word) {
+        LookupSnapshot current = snapshot;
+        int id = current.id(word.toLowerCase());
+        return id != WordIdIndex.NO_ID ? readable(current.get(id)) : null;
+    }
+
+    @Override
+    public Integer getWordId(String word) {
+        int id = snapshot.id(word.toLowerCase());
+        return id != WordIdIndex.NO_ID ? id : null;
+    }
+
+    @Override
+    public boolean containsId(int id) {
+        return snapshot.get(id) != null;
+    }
+
+    @Override
+    public boolean containsWord(String word) {
+        return snapshot.id(word.toLowerCase()) != WordIdIndex.NO_ID;
+    }
+
+    @Override
+    public int size() {
+        return snapshot.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return snapshot.size() == 0;
+    }
+
+    @Override
+    public int getWordCountByCategory(Category category) {
+        return snapshot.wordCount(category);
+    }
+
+    @Override
+    public List<WordItem> getByCategory(Category category) {
+        return readLocked(() -> super.getByCategory(category));
+    }
+
+    @Override
+    public Collection<WordItem> getAllWords() {
+        return readLocked(super::getAllWords);
+    }
+
+    @Override
+    public List<String> getAllWordStrings() {
+        return readLocked(super::getAllWordStrings);
+    }
+
+    // 遍历在读锁内进行，回调中修改词库会死锁
+
+    @Override
+    public void forEachWord(WordVisitor visitor) {
+        long stamp = lock.readLock();
+        try {
+            super.forEachWord(visitor);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public void forEachId(IntConsumer action) {
+        long stamp = lock.readLock();
+        try {
+            super.forEachId(action);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public void forEachWordString(Consumer<String> action) {
+        long stamp = lock.readLock();
+        try {
+            super.forEachWordString(action);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public void forEachInRange(int fromId, int toId, WordVisitor visitor) {
+        long stamp = lock.readLock();
+        try {
+            super.forEachInRange(fromId, toId, visitor);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public void forEachByWord(WordVisitor visitor) {
+        long stamp = lock.readLock();
+        try {
+            super.forEachByWord(visitor);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public void forEachInCategory(Category category, WordVisitor visitor) {
+        long stamp = lock.readLock();
+        try {
+            super.forEachInCategory(category, visitor);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public void forEachCategoryCount(ObjIntConsumer<Category> action) {
+        long stamp = lock.readLock();
+        try {
+            super.forEachCategoryCount(action);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public long estimateStorageBytes() {
+        return readLocked(super::estimateStorageBytes);
+    }
+
+    @Override
+    public Set<Integer> getAllIds() {
+        return readLocked(super::getAllIds);
+    }
+
+    @Override
+    public List<WordItem> search(String keyword) {
+        return readLocked(() -> super.search(keyword));
+    }
+
+    @Override
+    public List<WordItem> search(String keyword, int offset, int limit) {
+        return readLocked(() -> super.search(keyword, offset, limit));
+    }
+
+    @Override
+    public List<WordItem> searchPrefix(String prefix, int offset, int limit) {
+        return readLocked(() -> super.searchPrefix(prefix, offset, limit));
+    }
+
+    @Override
+    public List<WordItem> searchByMeaning(String text) {
+        return readLocked(() -> super.searchByMeaning(text));
+    }
+
+    @Override
+    public List<WordItem> searchByMeaning(String text, Category category) {
+        return readLocked(() -> super.searchByMeaning(text, category));
+    }
+
+    @Override
+    public List<WordItem> searchByMeaning(String text, Set<Category> categories, int offset, int limit) {
+        return readLocked(() -> super.searchByMeaning(text, categories, offset, limit));
+    }
+
+    @Override
+    public List<WordItem> fuzzyLookup(String word, int maxDistance, int k) {
+        return readLocked(() -> super.fuzzyLookup(word, maxDistance, k));
+    }
+
+    @Override
+    public List<WordItem> page(WordOrder order, int offset, int limit) {
+        return readLocked(() -> super.page(order, offset, limit));
+    }
+
+    @Override
+    public int[] pageIds(WordOrder order, int offset, int limit) {
+        return readLocked(() -> super.pageIds(order, offset, limit));
+    }
+
+    @Override
+    public List<WordItem> range(int fromId, int toId) {
+        return readLocked(() -> super.range(fromId, toId));
+    }
+
+    @Override
+    public List<WordItem> rangeByWord(String fromWord, String toWord) {
+        return readLocked(() -> super.rangeByWord(fromWord, toWord));
+    }
+
+    @Override
+    public int positionOfId(int id) {
+        return readLocked(() -> super.positionOfId(id));
+    }
+
+    @Override
+    public int positionOfWord(String word) {
+        return readLocked(() -> super.positionOfWord(word));
+    }
+
+    @Override
+    public Map<Category, Integer> getCategoryStatistics() {
+        return readLocked(super::getCategoryStatistics);
+    }
+
+    @Override
+    public List<Map.Entry<Category, Integer>> getTopCategories(int n) {
+        return readLocked(() -> super.getTopCategories(n));
+    }
+
+    @Override
+    public void printAll() {
+        readLocked(() -> {
+            super.printAll();
+            return null;
+        });
+    }
+
+    @Override
+    public String formatAllWords() {
+        return readLocked(super::formatAllWords);
+    }
+
+    @Override
+    public Map<Integer, String> exportIdToWordMap() {
+        return readLocked(super::exportIdToWordMap);
+    }
+
+    @Override
+    public String toString() {
+        return readLocked(super::toString);
+    }
+
+    @Override
+    public String toSimpleString() {
+        return readLocked(super::toSimpleString);
+    }
+
+    @Override
+    public void writeTo(Appendable out) throws IOException {
+        long stamp = lock.readLock();
+        try {
+            super.writeTo(out);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public void writeTo(OutputStream out) throws IOException {
+        long stamp = lock.readLock();
+        try {
+            super.writeTo(out);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public void writeBinary(File file) throws IOException {
+        long stamp = lock.readLock();
+        try {
+            super.writeBinary(file);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public void writeCompressed(File file) throws IOException {
+        long stamp = lock.readLock();
+        try {
+            super.writeCompressed(file);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    // ========== 写 ==========
+
+    /**
+     * 持有写锁执行，结束时（包括抛出异常时）发布新的快照
+     */
+    private <T> T write(Supplier<T> writer) {
+        long stamp = lock.writeLock();
+        try {
+            return writer.get();
+        } finally {
+            try {
+                publishSnapshot();
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+    }
+
+    private void publishSnapshot() {
+        int[] categoryCounts = new int[CATEGORIES.length];
+        for (Category category : CATEGORIES) {
+            categoryCounts[category.ordinal()] = super.getWordCountByCategory(category);
+        }
+        snapshot = nextSnapshot.publish(super.size(), super.getChangeCount(), super.isDirty(), categoryCounts);
+    }
+
+    // 以下由 WordLib 在写操作中（写锁内）调用
+
+    @Override
+    void onIndexed(int id, String key) {
+        nextSnapshot.put(id, key, itemAt(id));
+    }
+
+    @Override
+    void onUnindexed(int id, String key) {
+        nextSnapshot.remove(id, key);
+    }
+
+    @Override
+    void onCleared() {
+        nextSnapshot.clear();
+    }
+
+    @Override
+    public int addWord(String word, Meaning meaning) {
+        return write(() -> super.addWord(word, meaning));
+    }
+
+    @Override
+    public int addWord(String word, Meaning meaning, String example) {
+        return write(() -> super.addWord(word, meaning, example));
+    }
+
+    @Override
+    public boolean updateWordItem(int id, WordItem newItem) {
+        return write(() -> super.updateWordItem(id, newItem));
+    }
+
+    @Override
+    public WordItem removeById(int id) {
+        return write(() -> super.removeById(id));
+    }
+
+    @Override
+    public WordItem removeByWord(String word) {
+        return write(() -> super.removeByWord(word));
+    }
+
+    @Override
+    public BulkInsertReport insertAll(Collection<? extends WordItem> items) {
+        return write(() -> super.insertAll(items));
+    }
+
+    @Override
+    public BulkInsertReport insertAll(Collection<? extends WordItem> items, boolean allOrNothing) {
+        return write(() -> super.insertAll(items, allOrNothing));
+    }
+
+    @Override
+    public BulkInsertReport insertAll(Stream<? extends WordItem> items) {
+        // 在锁外收集流，锁内只做校验和写入
+        List<? extends WordItem> list = items.collect(Collectors.toList());
+        return write(() -> super.insertAll(list));
+    }
+
+    @Override
+    public BulkInsertReport insertAll(Stream<? extends WordItem> items, boolean allOrNothing) {
+        List<? extends WordItem> list = items.collect(Collectors.toList());
+        return write(() -> super.insertAll(list, allOrNothing));
+    }
+
+    @Override
+    public Map<String, Integer> addAllWords(Map<String, List<Meaning>> wordsWithMeanings) {
+        return write(() -> super.addAllWords(wordsWithMeanings));
+    }
+
+    @Override
+    public void clear() {
+        write(() -> {
+            super.clear();
+            return null;
+        });
+    }
+
+    @Override
+    public void compact() {
+        write(() -> {
+            super.compact();
+            return null;
+        });
+    }
+
+    @Override
+    public void importData(Map<Integer, WordItem> data) {
+        write(() -> {
+            super.importData(data);
+            return null;
+        });
+    }
+
+    @Override
+    public ImportReport importFrom(Reader reader) throws IOException {
+        // importFromString 与 importFrom(InputStream) 都委托到这里；与 importParallel 相同，在锁外解析，锁内只合并
+        List<WordLibParallelImport.Chunk> chunks = WordLibParallelImport.parse(reader);
+        return write(() -> applyParsedImport(chunks, ForkJoinPool.commonPool()));
+    }
+
+    @Override
+    public ImportReport importParallel(File file) throws IOException {
+        return importParallel(file, ForkJoinPool.commonPool());
+    }
+
+    @Override
+    public ImportReport importParallel(File file, ForkJoinPool pool) throws IOException {
+        // 解析不涉及词库状态，在锁外进行；只有合并需要写锁
+        List<WordLibParallelImport.Chunk> chunks = WordLibParallelImport.parse(file, pool);
+        return write(() -> applyParsedImport(chunks, pool));
+    }
+
+    @Override
+    public boolean isDirty() {
+        return snapshot.isDirty();
+    }
+
+    @Override
+    public int[] getDirtyIds() {
+        return readLocked(super::getDirtyIds);
+    }
+
+    @Override
+    public long getChangeCount() {
+        return snapshot.changeCount();
+    }
+
+    @Override
+    public void markClean() {
+        write(() -> {
+            super.markClean();
+            return null;
+        });
+    }
+
+    @Override
+    public boolean markClean(long changeCount) {
+        return write(() -> super.markClean(changeCount));
+    }
+
+    @Override
+    public boolean markSaved(long changeCount, String target) {
+        return write(() -> super.markSaved(changeCount, target));
+    }
+
+    @Override
+    public boolean isSavedTo(String target) {
+        return readLocked(() -> super.isSavedTo(target));
+    }
+
+    @Override
+    public WordLibDiff diff(WordLib base) {
+        // 对方的快照在锁外取得，不同时持有两个词库的锁
+        HashSnapshot snapshot = HashSnapshot.of(base);
+        return readLocked(() -> diffFrom(snapshot));
+    }
+
+    @Override
+    public int applyDiff(WordLib source, WordLibDiff diff) {
+        WordItem[] changed = itemsOf(source, diff.changed());
+        WordItem[] added = itemsOf(source, diff.added());
+        return write(() -> applyItems(diff, changed, added));
+    }
+
+    @Override
+    public void setMutationListener(MutationListener listener) {
+        write(() -> {
+            super.setMutationListener(listener);
+            return null;
+        });
+    }
+
+    @Override
+    void restore(int id, WordItem item) {
+        // 日志重放等直接调用；importFrom 内部不经过这里
+        write(() -> {
+            super.restore(id, item);
+            return null;
+        });
+    }
+}
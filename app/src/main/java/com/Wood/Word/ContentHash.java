@@ -0,0 +1,45 @@
+package com.Wood.Word;
+
+/**
+ * 64 位内容哈希（WordItem.contentHash / Meaning.contentHash）
+ * 字符串按 FNV-1a 逐字符计算，组合时与顺序相关；结果不为 0（0 留作"未计算"）
+ */
+final class ContentHash {
+    private static final long OFFSET = 0xCBF29CE484222325L;
+    private static final long PRIME = 0x100000001B3L;
+    private static final long NULL_HASH = 0x5BD1E9955BD1E995L;
+    private static final long GOLDEN = 0x9E3779B97F4A7C15L;
+
+    private ContentHash() {
+    }
+
+    static long of(String s) {
+        if (s == null) {
+            return NULL_HASH;
+        }
+        long h = OFFSET;
+        for (int i = 0; i < s.length(); i++) {
+            h = (h ^ s.charAt(i)) * PRIME;
+        }
+        return h;
+    }
+
+    /**
+     * 把 value 接到 h 后面；combine(combine(h, a), b) 与 combine(combine(h, b), a) 不同
+     */
+    static long combine(long h, long value) {
+        // 两边都先混合：FNV 的最后一个字符只线性地影响结果，直接相加会出现成对的碰撞
+        return mix(mix(h) ^ mix(value + GOLDEN));
+    }
+
+    static long nonZero(long h) {
+        return h != 0 ? h : 1;
+    }
+
+    // SplitMix64 的末尾混合
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,162 @@
+package com.Wood.Word;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.List;
+
+/**
+ * 流式读取 CSV / TSV 的逐行读取器，只缓冲当前一行
+ *
+ * quoted 为 true 时按 RFC 4180 处理双引号：字段可用引号包住，内部的 "" 表示一个引号，
+ * 引号内可以有分隔符和换行。行尾可以是 \n、\r\n 或 \r。
+ * 单个字段超过 MAX_FIELD_LENGTH 个字符时抛出 IOException（多半是引号不配对，避免把整个文件读进一个字段）。
+ */
+final class DelimitedReader implements Closeable {
+    static final int MAX_FIELD_LENGTH = 1 << 20;
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final Reader in;
+    private final char delimiter;
+    private final boolean quoted;
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private final StringBuilder field = new StringBuilder(64);
+    private int position;
+    private int limit;
+    private boolean eof;
+    private int lineNumber;     // 已读完的物理行数
+    private int rowLineNumber;  // 当前行开始的物理行号（从1开始）
+
+    DelimitedReader(Reader in, char delimiter, boolean quoted) {
+        this.in = in;
+        this.delimiter = delimiter;
+        this.quoted = quoted;
+    }
+
+    /**
+     * 读取下一行的字段（清空后放入 fields）
+     *
+     * @return 字段数，文件结束返回 -1
+     */
+    int next(List<String> fields) throws IOException {
+        fields.clear();
+        if (!fill()) {
+            return -1;
+        }
+        rowLineNumber = lineNumber + 1;
+        while (true) {
+            field.setLength(0);
+            if (quoted && buffer[position] == '"') {
+                position++;
+                readQuoted();
+            }
+            // 未加引号的部分（或引号结束后多余的字符）原样保留，直到分隔符或行尾
+            int end = readPlain();
+            fields.add(field.toString());
+            if (end != delimiter) {
+                lineNumber++;
+                return fields.size();
+            }
+            if (!fill()) {
+                fields.add("");  // 以分隔符结尾的最后一行
+                lineNumber++;
+                return fields.size();
+            }
+        }
+    }
+
+    /**
+     * 最近一次 next 读到的行开始的物理行号（从1开始）
+     */
+    int getLineNumber() {
+        return rowLineNumber;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    // 读到分隔符或行尾为止，返回结束的字符（分隔符、'\n'，文件结束为 -1），并跳过它
+    private int readPlain() throws IOException {
+        while (fill()) {
+            int start = position;
+            while (position < limit) {
+                char c = buffer[position];
+                if (c == delimiter || c == '\n' || c == '\r') {
+                    append(start, position);
+                    position++;
+                    if (c == '\r') {
+                        if (fill() && buffer[position] == '\n') {
+                            position++;
+                        }
+                        return '\n';
+                    }
+                    return c;
+                }
+                position++;
+            }
+            append(start, position);
+        }
+        return -1;
+    }
+
+    // 读引号内的内容，停在结束引号之后
+    private void readQuoted() throws IOException {
+        while (fill()) {
+            int start = position;
+            boolean escaped = false;
+            while (position < limit) {
+                char c = buffer[position];
+                if (c == '"') {
+                    append(start, position);
+                    position++;
+                    if (fill() && buffer[position] == '"') {
+                        field.append('"');
+                        position++;
+                        escaped = true;
+                        break;  // "" 是引号本身，继续读引号内的内容
+                    }
+                    return;
+                }
+                if (c == '\n') {
+                    lineNumber++;
+                }
+                position++;
+            }
+            if (!escaped) {
+                append(start, position);
+            }
+        }
+        // 文件结束时引号仍未闭合，按已读到的内容处理
+    }
+
+    private void append(int start, int end) throws IOException {
+        if (field.length() + (end - start) > MAX_FIELD_LENGTH) {
+            throw new IOException("第" + rowLineNumber + "行字段超过 " + MAX_FIELD_LENGTH + " 个字符，可能是引号不配对");
+        }
+        field.append(buffer, start, end - start);
+    }
+
+    // 缓冲区中还有字符时返回 true
+    private boolean fill() throws IOException {
+        if (position < limit) {
+            return true;
+        }
+        if (eof) {
+            return false;
+        }
+        int n;
+        do {
+            n = in.read(buffer, 0, buffer.length);
+        } while (n == 0);
+        if (n < 0) {
+            eof = true;
+            return false;
+        }
+        position = 0;
+        limit = n;
+        return true;
+    }
+}
@@ -0,0 +1,176 @@
+package com.Wood.Word;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * 外部词典文件（CSV / TSV）的格式与列映射，供 DictionaryImporter 使用
+ *
+ * 每个字段可以按列名（需要表头行，忽略大小写）或按列号（从0开始）指定，
+ * 未指定的可选字段不导入。释义列中每行一个含义（真实换行或字面的 \n 都算换行），
+ * 行首的词性缩写（如 "n."、"vt."、"adj."）转换为 Category，其余为含义文本。
+ */
+public class DictionaryFormat {
+    private final char delimiter;
+    private final boolean quoted;
+    private final boolean header;
+
+    private final Column word = new Column("单词");
+    private final Column meanings = new Column("释义");
+    private final Column example = new Column("例句");
+    private final Column category = new Column("词性");
+    private boolean skipWithoutMeanings = true;
+
+    /**
+     * @param delimiter 分隔符
+     * @param quoted 是否按 CSV 规则处理双引号
+     * @param header 第一行是否为表头
+     */
+    public DictionaryFormat(char delimiter, boolean quoted, boolean header) {
+        this.delimiter = delimiter;
+        this.quoted = quoted;
+        this.header = header;
+    }
+
+    /**
+     * 带表头的 CSV，列名与 ECDICT 一致：word 为单词，translation 为中文释义
+     */
+    public static DictionaryFormat ecdictCsv() {
+        DictionaryFormat format = new DictionaryFormat(',', true, true);
+        format.setWordColumn("word");
+        format.setMeaningColumn("translation");
+        return format;
+    }
+
+    /**
+     * 带表头的 TSV（ECDICT 导出为制表符分隔时），引号不做特殊处理
+     */
+    public static DictionaryFormat ecdictTsv() {
+        DictionaryFormat format = new DictionaryFormat('\t', false, true);
+        format.setWordColumn("word");
+        format.setMeaningColumn("translation");
+        return format;
+    }
+
+    public char getDelimiter() {
+        return delimiter;
+    }
+
+    public boolean isQuoted() {
+        return quoted;
+    }
+
+    public boolean hasHeader() {
+        return header;
+    }
+
+    public void setWordColumn(String name) {
+        word.set(name);
+    }
+
+    public void setWordColumn(int index) {
+        word.set(index);
+    }
+
+    public void setMeaningColumn(String name) {
+        meanings.set(name);
+    }
+
+    public void setMeaningColumn(int index) {
+        meanings.set(index);
+    }
+
+    public void setExampleColumn(String name) {
+        example.set(name);
+    }
+
+    public void setExampleColumn(int index) {
+        example.set(index);
+    }
+
+    /**
+     * 词性列：释义行没有词性缩写时使用该列的词性
+     */
+    public void setCategoryColumn(String name) {
+        category.set(name);
+    }
+
+    public void setCategoryColumn(int index) {
+        category.set(index);
+    }
+
+    /**
+     * 是否跳过没有释义的行（默认跳过）
+     */
+    public void setSkipWithoutMeanings(boolean skip) {
+        this.skipWithoutMeanings = skip;
+    }
+
+    public boolean isSkipWithoutMeanings() {
+        return skipWithoutMeanings;
+    }
+
+    // ========== 列解析 ==========
+
+    /**
+     * 按表头确定各字段的列号：[单词, 释义, 例句, 词性]，未指定的为 -1
+     *
+     * @param headerRow 表头行的字段，没有表头时为 null
+     * @throws IOException 单词列未指定，或按列名指定的列在表头中不存在
+     */
+    int[] resolve(List<String> headerRow) throws IOException {
+        if (!word.isSet()) {
+            throw new IOException("未指定单词列");
+        }
+        return new int[]{
+                word.resolve(headerRow),
+                meanings.resolve(headerRow),
+                example.resolve(headerRow),
+                category.resolve(headerRow)
+        };
+    }
+
+    // 一个字段的列：按列名或列号，二者只用其一
+    private static final class Column {
+        private final String label;
+        private String name;
+        private int index = -1;
+
+        Column(String label) {
+            this.label = label;
+        }
+
+        void set(String name) {
+            this.name = name;
+            this.index = -1;
+        }
+
+        void set(int index) {
+            if (index < 0) {
+                throw new IllegalArgumentException("列号不能为负: " + index);
+            }
+            this.name = null;
+            this.index = index;
+        }
+
+        boolean isSet() {
+            return name != null || index >= 0;
+        }
+
+        int resolve(List<String> headerRow) throws IOException {
+            if (name == null) {
+                return index;
+            }
+            if (headerRow == null) {
+                throw new IOException(label + "列按列名 \"" + name + "\" 指定，但文件没有表头");
+            }
+            for (int i = 0; i < headerRow.size(); i++) {
+                if (headerRow.get(i).trim().toLowerCase(Locale.ROOT).equals(name.toLowerCase(Locale.ROOT))) {
+                    return i;
+                }
+            }
+            throw new IOException("表头中没有" + label + "列: " + name);
+        }
+    }
+}
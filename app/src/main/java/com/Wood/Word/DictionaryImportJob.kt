@@ -0,0 +1,96 @@
+package com.Wood.Word
+
+import android.content.Context
+import android.net.Uri
+import android.provider.OpenableColumns
+import android.util.Log
+import androidx.compose.runtime.getValue
+import androidx.compose.runtime.mutableStateOf
+import androidx.compose.runtime.setValue
+import java.util.concurrent.CompletableFuture
+
+/**
+ * 界面发起的一次外部词典导入：在 Initer.importExecutor 上运行 DictionaryImporter，
+ * 进度和结果写入 Compose 状态；完成后请求自动保存词库
+ *
+ * @param name 词库名（不含 .dat）
+ */
+class DictionaryImportJob(private val name: String, private val wordLib: WordLib) {
+    private var importer: DictionaryImporter? = null
+
+    /** 已读取的行数 */
+    var rows by mutableStateOf(0L)
+        private set
+
+    /** 已读取的比例（0~1），文件大小未知时为 -1 */
+    var fraction by mutableStateOf(-1f)
+        private set
+
+    var rowsPerSecond by mutableStateOf(0.0)
+        private set
+
+    /** 导入结束后的报告 */
+    var report by mutableStateOf<DictionaryImportReport?>(null)
+        private set
+
+    /** 导入失败时的错误信息 */
+    var error by mutableStateOf<String?>(null)
+        private set
+
+    val isFinished: Boolean
+        get() = report != null || error != null
+
+    /**
+     * 开始导入所选文件：文件名以 .tsv 结尾或类型为 TSV 时按制表符分隔，否则按 CSV
+     */
+    fun start(context: Context, uri: Uri) {
+        val appContext = context.applicationContext
+        val resolver = appContext.contentResolver
+        var displayName = ""
+        var size = -1L
+        resolver.query(uri, arrayOf(OpenableColumns.DISPLAY_NAME, OpenableColumns.SIZE), null, null, null)?.use { cursor ->
+            if (cursor.moveToFirst()) {
+                displayName = cursor.getString(0) ?: ""
+                if (!cursor.isNull(1)) {
+                    size = cursor.getLong(1)
+                }
+            }
+        }
+        val tsv = displayName.endsWith(".tsv", ignoreCase = true) ||
+                resolver.getType(uri) == "text/tab-separated-values"
+        val format = if (tsv) DictionaryFormat.ecdictTsv() else DictionaryFormat.ecdictCsv()
+
+        val importer = DictionaryImporter(wordLib, format)
+        importer.setProgressListener { rows, bytesRead, totalBytes, rowsPerSecond ->
+            this.rows = rows
+            this.fraction = if (totalBytes > 0) (bytesRead.toFloat() / totalBytes).coerceIn(0f, 1f) else -1f
+            this.rowsPerSecond = rowsPerSecond
+        }
+        this.importer = importer
+
+        CompletableFuture.supplyAsync({
+            resolver.openInputStream(uri)?.use { importer.importFrom(it, size) }
+                ?: throw java.io.IOException("无法打开文件: $displayName")
+        }, Initer.importExecutor).whenComplete { result, e ->
+            if (result != null) {
+                Log.d("Import", "导入 $displayName 到 $name: $result")
+                report = result
+            } else {
+                val cause = e?.cause ?: e
+                Log.e("Import", "导入 $displayName 失败: ${cause?.message}")
+                error = cause?.message ?: "导入失败"
+            }
+            // 已写入的批次（包括取消和出错前的）都需要保存
+            if (wordLib.isDirty) {
+                AutoSaver.requestSave(name, wordLib, appContext)
+            }
+        }
+    }
+
+    /**
+     * 取消导入，已写入的批次保留
+     */
+    fun cancel() {
+        importer?.cancel()
+    }
+}
@@ -0,0 +1,102 @@
+package com.Wood.Word;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 外部词典导入结果（DictionaryImporter）
+ * 行数不含表头和空行；问题条目沿用 ImportReport.Problem
+ */
+public class DictionaryImportReport {
+    private long rowCount;       // 读取的数据行数
+    private long importedCount;  // 插入词库的单词数
+    private long skippedCount;   // 缺少单词、没有释义或与前面的行重复
+    private long conflictCount;  // 词库中已有该单词
+    private long problemCount;
+    private final List<ImportReport.Problem> problems = new ArrayList<>();
+    private boolean cancelled;
+    private long elapsedNanos;
+
+    void addRow() {
+        rowCount++;
+    }
+
+    void addSkipped() {
+        skippedCount++;
+    }
+
+    void addBatch(BulkInsertReport batch) {
+        importedCount += batch.getInsertedCount();
+        skippedCount += batch.getSkippedCount();
+        conflictCount += batch.getConflictCount();
+    }
+
+    void addProblem(int lineNumber, ImportReport.ProblemType type, String detail) {
+        problemCount++;
+        if (problems.size() < ImportReport.MAX_RECORDED_PROBLEMS) {
+            problems.add(new ImportReport.Problem(lineNumber, type, detail));
+        }
+    }
+
+    void finish(boolean cancelled, long elapsedNanos) {
+        this.cancelled = cancelled;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    public long getImportedCount() {
+        return importedCount;
+    }
+
+    public long getSkippedCount() {
+        return skippedCount;
+    }
+
+    public long getConflictCount() {
+        return conflictCount;
+    }
+
+    public long getProblemCount() {
+        return problemCount;
+    }
+
+    /**
+     * 记录的问题（最多 ImportReport.MAX_RECORDED_PROBLEMS 个）
+     */
+    public List<ImportReport.Problem> getProblems() {
+        return Collections.unmodifiableList(problems);
+    }
+
+    /**
+     * 是否被取消（取消前已写入的批次保留在词库中）
+     */
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedNanos / 1_000_000;
+    }
+
+    /**
+     * 平均每秒读取的行数
+     */
+    public double getRowsPerSecond() {
+        return rowsPerSecond(rowCount, elapsedNanos);
+    }
+
+    static double rowsPerSecond(long rows, long elapsedNanos) {
+        return elapsedNanos > 0 ? rows * 1e9 / elapsedNanos : 0;
+    }
+
+    @Override
+    public String toString() {
+        return (cancelled ? "已取消，" : "") + "读取 " + rowCount + " 行，导入 " + importedCount
+                + " 个单词，跳过 " + skippedCount + " 行，已存在 " + conflictCount + " 个，问题 "
+                + problemCount + " 个，用时 " + getElapsedMillis() + " ms（" + Math.round(getRowsPerSecond()) + " 行/秒）";
+    }
+}
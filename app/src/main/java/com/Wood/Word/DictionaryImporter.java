@@ -0,0 +1,330 @@
+package com.Wood.Word;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * 外部词典（如 ECDICT 的 CSV / TSV 导出）的流式导入
+ *
+ * 按行读取并转换为 WordItem，每 batchSize 行用 WordLib.insertAll 写入一批：
+ * 内存中只有当前一行和一批单词项，百万行的文件也不会整个读入；
+ * ConcurrentWordLib 每批只持有一次写锁，导入期间界面仍可读取。
+ * 进度回调在导入线程上调用，最多每 PROGRESS_INTERVAL_MS 一次，结束时再调用一次。
+ * cancel 可从任意线程调用（导入线程被中断时同样停止），已写入的批次保留，未满的一批丢弃。
+ */
+public class DictionaryImporter {
+    public static final int DEFAULT_BATCH_SIZE = 5000;
+
+    private static final long PROGRESS_INTERVAL_MS = 100;
+
+    // 释义行首的词性缩写（小写，不含点）
+    private static final Map<String, Category> ABBREVIATIONS = new HashMap<>();
+
+    static {
+        ABBREVIATIONS.put("n", Category.N);
+        ABBREVIATIONS.put("v", Category.V);
+        ABBREVIATIONS.put("vt", Category.V);
+        ABBREVIATIONS.put("vi", Category.V);
+        ABBREVIATIONS.put("a", Category.ADJ);
+        ABBREVIATIONS.put("adj", Category.ADJ);
+        ABBREVIATIONS.put("ad", Category.ADV);
+        ABBREVIATIONS.put("adv", Category.ADV);
+        ABBREVIATIONS.put("pron", Category.PRON);
+        ABBREVIATIONS.put("prep", Category.PREP);
+        ABBREVIATIONS.put("conj", Category.CONJ);
+        ABBREVIATIONS.put("art", Category.ART);
+        ABBREVIATIONS.put("num", Category.NUM);
+        ABBREVIATIONS.put("int", Category.INTERJ);
+        ABBREVIATIONS.put("interj", Category.INTERJ);
+        ABBREVIATIONS.put("aux", Category.AUX_V);
+    }
+
+    /**
+     * 导入进度回调
+     */
+    @FunctionalInterface
+    public interface ProgressListener {
+        /**
+         * @param rows 已读取的数据行数
+         * @param bytesRead 已读取的字节数
+         * @param totalBytes 总字节数，未知时为 -1
+         * @param rowsPerSecond 开始以来平均每秒读取的行数
+         */
+        void onProgress(long rows, long bytesRead, long totalBytes, double rowsPerSecond);
+    }
+
+    private final WordLib wordLib;
+    private final DictionaryFormat format;
+    private int batchSize = DEFAULT_BATCH_SIZE;
+    private volatile ProgressListener progressListener;
+    private volatile boolean cancelled;
+
+    public DictionaryImporter(WordLib wordLib, DictionaryFormat format) {
+        this.wordLib = wordLib;
+        this.format = format;
+    }
+
+    /**
+     * 每批写入的行数（越大越快，但一批的单词项都在内存中，且 ConcurrentWordLib 的写锁持有更久）
+     */
+    public void setBatchSize(int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("每批行数必须大于 0: " + batchSize);
+        }
+        this.batchSize = batchSize;
+    }
+
+    public void setProgressListener(ProgressListener progressListener) {
+        this.progressListener = progressListener;
+    }
+
+    /**
+     * 请求停止导入（可从任意线程调用），导入线程在读下一行前停止
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * 导入 UTF-8 词典文件
+     */
+    public DictionaryImportReport importFrom(File file) throws IOException {
+        try (InputStream in = new FileInputStream(file)) {
+            return importFrom(in, file.length());
+        }
+    }
+
+    /**
+     * 从 UTF-8 字节流导入（不关闭 in）
+     *
+     * @param totalBytes 总字节数，用于进度；未知时传 -1
+     */
+    public DictionaryImportReport importFrom(InputStream in, long totalBytes) throws IOException {
+        long start = System.nanoTime();
+        CountingInputStream counting = new CountingInputStream(in);
+        DelimitedReader reader = new DelimitedReader(
+                new InputStreamReader(counting, StandardCharsets.UTF_8), format.getDelimiter(), format.isQuoted());
+        DictionaryImportReport report = new DictionaryImportReport();
+        List<String> fields = new ArrayList<>();
+
+        int[] columns;
+        if (format.hasHeader()) {
+            if (reader.next(fields) < 0) {
+                report.finish(false, System.nanoTime() - start);
+                return report;
+            }
+            stripByteOrderMark(fields);
+            columns = format.resolve(fields);
+        } else {
+            columns = format.resolve(null);
+        }
+
+        List<WordItem> batch = new ArrayList<>(batchSize);
+        boolean first = !format.hasHeader();
+        long lastProgress = start;
+        while (!stopRequested() && reader.next(fields) >= 0) {
+            if (first) {
+                stripByteOrderMark(fields);
+                first = false;
+            }
+            if (isBlank(fields)) {
+                continue;
+            }
+            report.addRow();
+            WordItem item = toItem(fields, columns, reader.getLineNumber(), report);
+            if (item != null) {
+                batch.add(item);
+            }
+            if (batch.size() >= batchSize) {
+                report.addBatch(wordLib.insertAll(batch));
+                batch.clear();
+                long now = System.nanoTime();
+                if (now - lastProgress >= PROGRESS_INTERVAL_MS * 1_000_000) {
+                    lastProgress = now;
+                    reportProgress(report.getRowCount(), counting.count, totalBytes, now - start);
+                }
+            }
+        }
+        boolean stopped = stopRequested();
+        if (!stopped && !batch.isEmpty()) {
+            report.addBatch(wordLib.insertAll(batch));
+        }
+        long elapsed = System.nanoTime() - start;
+        reportProgress(report.getRowCount(), counting.count, totalBytes, elapsed);
+        report.finish(stopped, elapsed);
+        return report;
+    }
+
+    private boolean stopRequested() {
+        if (Thread.currentThread().isInterrupted()) {
+            cancelled = true;
+        }
+        return cancelled;
+    }
+
+    private void reportProgress(long rows, long bytesRead, long totalBytes, long elapsedNanos) {
+        ProgressListener listener = progressListener;
+        if (listener != null) {
+            listener.onProgress(rows, bytesRead, totalBytes, DictionaryImportReport.rowsPerSecond(rows, elapsedNanos));
+        }
+    }
+
+    // 一行转换为单词项；缺少单词或（按设置）没有释义时跳过并返回 null
+    private WordItem toItem(List<String> fields, int[] columns, int lineNumber, DictionaryImportReport report) {
+        String word = field(fields, columns[0]).trim();
+        if (word.isEmpty()) {
+            report.addSkipped();
+            report.addProblem(lineNumber, ImportReport.ProblemType.MALFORMED_LINE,
+                    columns[0] < fields.size() ? "单词为空" : "缺少单词列（只有 " + fields.size() + " 列）");
+            return null;
+        }
+
+        Category defaultCategory = Category.UNSPECIFIED;
+        String tag = field(fields, columns[3]).trim();
+        if (!tag.isEmpty()) {
+            Category category = parseCategory(tag);
+            if (category != null) {
+                defaultCategory = category;
+            } else {
+                report.addProblem(lineNumber, ImportReport.ProblemType.UNKNOWN_CATEGORY, tag);
+            }
+        }
+
+        List<Meaning> meanings = parseMeanings(field(fields, columns[1]), defaultCategory);
+        if (meanings.isEmpty() && format.isSkipWithoutMeanings()) {
+            report.addSkipped();
+            return null;
+        }
+        WordItem item = new WordItem(word, meanings);
+        String example = field(fields, columns[2]).trim();
+        if (!example.isEmpty()) {
+            item.setExample(example);
+        }
+        return item;
+    }
+
+    private static String field(List<String> fields, int column) {
+        return column >= 0 && column < fields.size() ? fields.get(column) : "";
+    }
+
+    private static boolean isBlank(List<String> fields) {
+        for (String field : fields) {
+            if (!field.trim().isEmpty()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void stripByteOrderMark(List<String> fields) {
+        if (!fields.isEmpty() && fields.get(0).startsWith("\uFEFF")) {
+            fields.set(0, fields.get(0).substring(1));
+        }
+    }
+
+    /**
+     * 拆分释义：每行一个含义（换行或字面的 \n 分隔），行首的词性缩写转换为词性
+     */
+    static List<Meaning> parseMeanings(String text, Category defaultCategory) {
+        List<Meaning> meanings = new ArrayList<>(2);
+        int length = text.length();
+        int start = 0;
+        for (int i = 0; i <= length; i++) {
+            int next;
+            if (i == length || text.charAt(i) == '\n' || text.charAt(i) == '\r') {
+                next = i + 1;
+            } else if (text.charAt(i) == '\\' && i + 1 < length && text.charAt(i + 1) == 'n') {
+                next = i + 2;
+            } else {
+                continue;
+            }
+            addMeaning(meanings, text.substring(start, i).trim(), defaultCategory);
+            start = next;
+            i = next - 1;
+        }
+        return meanings;
+    }
+
+    private static void addMeaning(List<Meaning> meanings, String line, Category defaultCategory) {
+        if (line.isEmpty()) {
+            return;
+        }
+        // 行首为 "字母." 形式的已知缩写时取作词性，如 "vt. 运行"
+        int end = 0;
+        while (end < line.length() && isAsciiLetter(line.charAt(end))) {
+            end++;
+        }
+        if (end > 0 && end < line.length() && line.charAt(end) == '.') {
+            Category category = ABBREVIATIONS.get(line.substring(0, end).toLowerCase(Locale.ROOT));
+            if (category != null) {
+                String text = line.substring(end + 1).trim();
+                if (!text.isEmpty()) {
+                    meanings.add(new Meaning(text, category));
+                }
+                return;
+            }
+        }
+        meanings.add(new Meaning(line, defaultCategory));
+    }
+
+    /**
+     * 解析词性列的值：缩写（可带点，如 "vt."）或 Category 名称（如 "ADJ"），未知返回 null
+     */
+    static Category parseCategory(String tag) {
+        String name = tag.endsWith(".") ? tag.substring(0, tag.length() - 1) : tag;
+        Category category = ABBREVIATIONS.get(name.toLowerCase(Locale.ROOT));
+        return category != null ? category : Category.fromTag(name);
+    }
+
+    private static boolean isAsciiLetter(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+
+    // 统计已读取的字节数，用于进度
+    private static final class CountingInputStream extends FilterInputStream {
+        long count;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                count++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) {
+                count += n;
+            }
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            count += skipped;
+            return skipped;
+        }
+    }
+}
@@ -4,6 +4,14 @@ import com.Wood.Word.WordLib
 import android.content.Context
 import android.util.Log
 import java.io.File
+import java.io.FileOutputStream
+import java.io.IOException
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.Executors
+
+// 已打开日志的词库（文件名 -> 日志）
+private val journals = ConcurrentHashMap<String, WordLibJournal>()
 
 fun makeWordLib(name: String, context: Context) {
     try {
@@ -19,6 +27,11 @@ fun makeWordLib(name: String, context: Context) {
     }
 }
 
+/**
+ * 读取词库；有可用的压缩副本（.wlz）时优先读取，读取失败再读 .dat
+ *
+ * 读取失败时抛出异常而不是返回空词库：空词库一旦被保存就会覆盖原文件
+ */
 fun getWordLib(name: String, context: Context): WordLib {
     return try {
         val file = File(context.filesDir, "$name.dat")
@@ -27,24 +40,98 @@ fun getWordLib(name: String, context: Context): WordLib {
             return WordLib()
         }
 
-        val content = file.readText()
-        val result = WordLib(content)
+        // 压缩副本读取的字节数少得多，但只在确定不旧于 .dat 时使用
+        val compressed = File(context.filesDir, "$name.wlz")
+        if (isCompressedCopyCurrent(file, compressed)) {
+            try {
+                val result = WordLib.readCompressed(compressed)
+                // 压缩副本与 .dat 内容一致，未修改时保存可以跳过
+                result.markSaved(result.changeCount, file.path)
+                Log.d("File", "读取压缩词库成功: $name.wlz (${result.size()} 个单词)")
+                return result
+            } catch (e: Exception) {
+                Log.w("File", "读取压缩词库失败，改为读取 $name.dat: ${e.message}")
+            } catch (e: OutOfMemoryError) {
+                // 与其他读取失败一样改读 .dat，不让错误越过这里
+                Log.w("File", "读取压缩词库内存不足，改为读取 $name.dat")
+            }
+        }
+
+        // 大文件按行切块并行解析，不把整个文件读成一个字符串
+        val result = WordLib()
+        val report = result.importParallel(file)
+        if (report.hasProblems()) {
+            Log.w("File", "词库 $name.dat 存在问题: $report")
+            report.problems.forEach { Log.w("File", it.toString()) }
+        }
+        result.markSaved(result.changeCount, file.path)
         Log.d("File", "读取词库成功: $name.dat (${result.size()} 个单词)")
         result
     } catch (e: Exception) {
         Log.e("File", "读取文件失败: ${e.message}")
-        WordLib()
+        throw e
+    }
+}
+
+/**
+ * 压缩副本是否包含 .dat 的全部内容
+ * 有未合并的日志（.journal / .journal.old）时 .dat 之外还有变更，压缩副本不可能包含；
+ * 修改时间只精确到秒，同一秒内写入的两个文件分不出先后，此时也不用压缩副本
+ */
+private fun isCompressedCopyCurrent(file: File, compressed: File): Boolean {
+    if (!compressed.exists()) {
+        return false
+    }
+    for (suffix in listOf(".journal", ".journal.old")) {
+        if (File(file.path + suffix).length() > 0) {
+            return false
+        }
     }
+    return compressed.lastModified() > file.lastModified()
 }
 
-fun saveWordLib(name: String, wordLib: WordLib, context: Context) {
+/**
+ * 保存词库（阻塞，在调用线程上写文件；界面中请用 AutoSaver.requestSave）
+ *
+ * @return 是否已保存或无需保存
+ */
+fun saveWordLib(name: String, wordLib: WordLib, context: Context): Boolean {
     try {
-        val content = wordLib.toString()
+        // 带日志的词库变更已逐条追加，保存只需刷盘（写日志失败过时 sync 改为完整重写）
+        val journal = journals[name]
+        val changeCount = wordLib.changeCount
+        if (journal != null && journal.wordLib === wordLib) {
+            journal.sync()
+            journal.lastError?.let { Log.w("File", "词库日志 $name.dat 检查点失败: ${it.message}") }
+            wordLib.markClean(changeCount)
+            Log.d("File", "同步词库日志成功: $name.dat (${journal.journalSize} 字节待合并)")
+            return true
+        }
+
+        // 上次保存到（或读取自）同一文件以来没有变更时跳过；
+        // 从字符串或其他文件得到的词库即使没有变更也要写出
         val file = File(context.filesDir, "$name.dat")
-        file.writeText(content)
+        if (wordLib.isSavedTo(file.path) && file.exists()) {
+            Log.d("File", "词库未修改，跳过保存: $name.dat")
+            return true
+        }
+
+        // 先写临时文件并刷盘，再改名替换，写到一半失败不会损坏原文件
+        // 流式写出，大词库也不会先拼成整个字符串
+        val tempFile = File(context.filesDir, "$name.dat.tmp")
+        FileOutputStream(tempFile).use { out ->
+            wordLib.writeTo(out)
+            out.fd.sync()
+        }
+        if (!tempFile.renameTo(file)) {
+            throw IOException("无法替换词库文件: $file")
+        }
+        wordLib.markSaved(changeCount, file.path)
         Log.d("File", "保存词库成功: $name.dat (${wordLib.size()} 个单词)")
+        return true
     } catch (e: Exception) {
         Log.e("File", "保存词库失败: ${e.message}")
+        return false
     }
 }
 
@@ -57,3 +144,161 @@ fun saveWordLib(name: String, content: String, context: Context) {
         Log.e("File", "保存词库失败: ${e.message}")
     }
 }
+
+/**
+ * 以二进制格式保存词库（与 .dat 文本文件并存）
+ */
+fun saveWordLibBinary(name: String, wordLib: WordLib, context: Context) {
+    try {
+        val file = File(context.filesDir, "$name.wlb")
+        wordLib.writeBinary(file)
+        Log.d("File", "保存二进制词库成功: $name.wlb (${wordLib.size()} 个单词)")
+    } catch (e: Exception) {
+        Log.e("File", "保存二进制词库失败: ${e.message}")
+    }
+}
+
+/**
+ * 内存映射打开二进制词库，单词项按需解码
+ */
+fun openMappedWordLib(name: String, context: Context): MappedWordLib? {
+    return try {
+        val file = File(context.filesDir, "$name.wlb")
+        if (!file.exists()) {
+            Log.e("File", "文件不存在: $name.wlb")
+            return null
+        }
+        val result = MappedWordLib.open(file)
+        Log.d("File", "映射二进制词库成功: $name.wlb (${result.size()} 个单词)")
+        result
+    } catch (e: Exception) {
+        Log.e("File", "映射二进制词库失败: ${e.message}")
+        null
+    }
+}
+
+/**
+ * 以压缩格式保存词库（与 .dat 文本文件并存，getWordLib 优先读取比 .dat 新的压缩文件）
+ */
+fun saveWordLibCompressed(name: String, wordLib: WordLib, context: Context) {
+    try {
+        val file = File(context.filesDir, "$name.wlz")
+        wordLib.writeCompressed(file)
+        Log.d("File", "保存压缩词库成功: $name.wlz (${wordLib.size()} 个单词, ${file.length()} 字节)")
+    } catch (e: Exception) {
+        Log.e("File", "保存压缩词库失败: ${e.message}")
+    }
+}
+
+/**
+ * 打开压缩词库，单词项按块解码
+ */
+fun openCompressedWordLib(name: String, context: Context): CompressedWordLib? {
+    return try {
+        val file = File(context.filesDir, "$name.wlz")
+        if (!file.exists()) {
+            Log.e("File", "文件不存在: $name.wlz")
+            return null
+        }
+        val result = CompressedWordLib.open(file)
+        Log.d("File", "打开压缩词库成功: $name.wlz (${result.size()} 个单词, ${result.blockCount} 块)")
+        result
+    } catch (e: Exception) {
+        Log.e("File", "打开压缩词库失败: ${e.message}")
+        null
+    }
+}
+
+/**
+ * 打开带追加日志的词库：读取 .dat 并重放日志，之后的增删改只追加日志记录，
+ * 日志过大时在后台合并回 .dat
+ *
+ * 打开失败时抛出异常而不是返回空词库：空词库一旦被保存或做检查点就会覆盖原文件
+ */
+fun getJournaledWordLib(name: String, context: Context): WordLib {
+    journals[name]?.let { return it.wordLib }
+    return try {
+        // 词库会被加载线程、保存和界面同时访问，使用线程安全实现
+        val journal = WordLibJournal.open(
+            File(context.filesDir, "$name.dat"),
+            WordLibJournal.DEFAULT_CHECKPOINT_THRESHOLD,
+            // 紧凑存储，所有词库共用一个字符串池
+            ConcurrentWordLib(0, StringPool.shared())
+        )
+        val existing = journals.putIfAbsent(name, journal)
+        if (existing != null) {
+            journal.close()
+            // 已解除日志监听，清空只为归还共享池中的字符串
+            journal.wordLib.clear()
+            return existing.wordLib
+        }
+        val wordLib = journal.wordLib
+        val bytesPerWord = if (wordLib.size() > 0) wordLib.estimateStorageBytes() / wordLib.size() else 0
+        Log.d("File", "打开词库日志成功: $name.dat (${wordLib.size()} 个单词, 约 $bytesPerWord 字节/词)")
+        wordLib
+    } catch (e: Exception) {
+        Log.e("File", "打开词库日志失败: ${e.message}")
+        throw e
+    }
+}
+
+/**
+ * 关闭词库日志（不合并，下次打开时重放）
+ */
+fun closeJournaledWordLib(name: String) {
+    try {
+        journals.remove(name)?.close()
+    } catch (e: Exception) {
+        Log.e("File", "关闭词库日志失败: ${e.message}")
+    }
+}
+
+// 已读取的复习进度（词库名 -> 调度器）
+private val schedulers = ConcurrentHashMap<String, ReviewScheduler>()
+
+/**
+ * 读取词库旁的复习进度（$name.srs），文件不存在时返回空的调度器
+ *
+ * 读取失败（文件损坏或无法读取）时抛出异常而不是返回空的调度器：空调度器一旦保存就会覆盖原文件中的进度。
+ * 失败的读取不缓存，下次调用时重试
+ */
+fun getReviewScheduler(name: String, context: Context): ReviewScheduler {
+    schedulers[name]?.let { return it }
+    val scheduler = try {
+        val file = File(context.filesDir, "$name.srs")
+        ReviewScheduler.load(file).also {
+            Log.d("File", "读取复习进度成功: $name.srs (${it.size()} 张卡片)")
+        }
+    } catch (e: Exception) {
+        Log.e("File", "读取复习进度失败: ${e.message}")
+        throw e
+    }
+    return schedulers.putIfAbsent(name, scheduler) ?: scheduler
+}
+
+/**
+ * 保存复习进度（阻塞；同一调度器的保存由 ReviewScheduler.save 的同步串行化）
+ */
+fun saveReviewScheduler(name: String, scheduler: ReviewScheduler, context: Context) {
+    try {
+        scheduler.save(File(context.filesDir, "$name.srs"))
+        Log.d("File", "保存复习进度成功: $name.srs (${scheduler.size()} 张卡片)")
+    } catch (e: Exception) {
+        Log.e("File", "保存复习进度失败: ${e.message}")
+    }
+}
+
+// 复习进度的保存（含 fsync）在这个后台线程上依次执行
+private val reviewSaveExecutor = Executors.newSingleThreadExecutor { runnable ->
+    Thread(runnable, "ReviewScheduler-save").apply { isDaemon = true }
+}
+
+/**
+ * 在后台线程上保存所有已读取的复习进度（在 Activity.onStop 中与词库一起保存），全部写完后完成
+ */
+fun saveAllReviewSchedulers(context: Context): CompletableFuture<Void> {
+    val appContext = context.applicationContext
+    return CompletableFuture.runAsync({
+        schedulers.forEach { (name, scheduler) -> saveReviewScheduler(name, scheduler, appContext) }
+    }, reviewSaveExecutor)
+}
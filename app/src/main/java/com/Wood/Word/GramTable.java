@@ -0,0 +1,145 @@
+package com.Wood.Word;
+
+import java.util.Arrays;
+
+/**
+ * long 片段 -> 倒排表的开放寻址哈希表（线性探测，删除时回移，不留墓碑）
+ * 代替 HashMap<Long, IdPostings>，查找和插入都不装箱
+ */
+class GramTable {
+    private static final float LOAD_FACTOR = 0.5f;
+
+    private long[] keys;
+    private IdPostings[] values;  // null 表示空槽
+    private int size;
+    private int threshold;
+
+    GramTable() {
+        allocate(64);
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new IdPostings[capacity];
+        threshold = (int) (capacity * LOAD_FACTOR);
+    }
+
+    private static int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    IdPostings get(long key) {
+        int mask = keys.length - 1;
+        for (int slot = hash(key) & mask; values[slot] != null; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                return values[slot];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 取得片段的倒排表，没有则新建
+     */
+    IdPostings getOrCreate(long key) {
+        int mask = keys.length - 1;
+        int slot = hash(key) & mask;
+        for (; values[slot] != null; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                return values[slot];
+            }
+        }
+        IdPostings posting = new IdPostings();
+        insertAt(slot, key, posting);
+        return posting;
+    }
+
+    /**
+     * 放入倒排表，已存在时返回原有的（不覆盖）
+     */
+    IdPostings putIfAbsent(long key, IdPostings posting) {
+        int mask = keys.length - 1;
+        int slot = hash(key) & mask;
+        for (; values[slot] != null; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                return values[slot];
+            }
+        }
+        insertAt(slot, key, posting);
+        return null;
+    }
+
+    private void insertAt(int slot, long key, IdPostings posting) {
+        keys[slot] = key;
+        values[slot] = posting;
+        if (++size > threshold) {
+            rehash(keys.length << 1);
+        }
+    }
+
+    void remove(long key) {
+        int mask = keys.length - 1;
+        int slot = hash(key) & mask;
+        while (values[slot] != null && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        if (values[slot] == null) {
+            return;
+        }
+        size--;
+        // 把后面同一探测链上的元素回移，填补空槽
+        int gap = slot;
+        for (int next = (gap + 1) & mask; values[next] != null; next = (next + 1) & mask) {
+            int home = hash(keys[next]) & mask;
+            // home 不在 (gap, next] 循环区间内时，该元素可以移到 gap
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                keys[gap] = keys[next];
+                values[gap] = values[next];
+                gap = next;
+            }
+        }
+        values[gap] = null;
+    }
+
+    int size() {
+        return size;
+    }
+
+    void clear() {
+        Arrays.fill(values, null);
+        size = 0;
+    }
+
+    /**
+     * 把 other 的全部倒排表并入本表（批量建立索引时合并各分区）
+     */
+    void addAll(GramTable other) {
+        for (int slot = 0; slot < other.values.length; slot++) {
+            IdPostings posting = other.values[slot];
+            if (posting != null) {
+                IdPostings existing = putIfAbsent(other.keys[slot], posting);
+                if (existing != null) {
+                    existing.addAll(posting);
+                }
+            }
+        }
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        IdPostings[] oldValues = values;
+        allocate(capacity);
+        int mask = capacity - 1;
+        for (int i = 0; i < oldValues.length; i++) {
+            if (oldValues[i] != null) {
+                int slot = hash(oldKeys[i]) & mask;
+                while (values[slot] != null) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.Wood.Word;
+
+import java.util.Arrays;
+
+/**
+ * 有序的ID列表（倒排表），ID 基本递增，新增多为尾部追加
+ */
+class IdPostings {
+    private int[] ids;
+    private int size;
+
+    IdPostings() {
+        this.ids = new int[4];
+    }
+
+    void add(int id) {
+        if (size > 0 && ids[size - 1] >= id) {
+            int pos = Arrays.binarySearch(ids, 0, size, id);
+            if (pos >= 0) {
+                return;
+            }
+            insertAt(-pos - 1, id);
+            return;
+        }
+        insertAt(size, id);
+    }
+
+    /**
+     * 合并另一个有序列表（重复的ID只保留一个）
+     */
+    void addAll(IdPostings other) {
+        if (other.size == 0) {
+            return;
+        }
+        if (size == 0 || ids[size - 1] < other.ids[0]) {
+            // 常见情况：整体追加到尾部
+            if (size + other.size > ids.length) {
+                ids = Arrays.copyOf(ids, size + other.size);
+            }
+            System.arraycopy(other.ids, 0, ids, size, other.size);
+            size += other.size;
+            return;
+        }
+        int[] merged = new int[size + other.size];
+        int i = 0;
+        int j = 0;
+        int n = 0;
+        while (i < size && j < other.size) {
+            int a = ids[i];
+            int b = other.ids[j];
+            if (a < b) {
+                merged[n++] = a;
+                i++;
+            } else if (a > b) {
+                merged[n++] = b;
+                j++;
+            } else {
+                merged[n++] = a;
+                i++;
+                j++;
+            }
+        }
+        while (i < size) {
+            merged[n++] = ids[i++];
+        }
+        while (j < other.size) {
+            merged[n++] = other.ids[j++];
+        }
+        ids = merged;
+        size = n;
+    }
+
+    private void insertAt(int pos, int id) {
+        if (size == ids.length) {
+            ids = Arrays.copyOf(ids, size + (size >> 1) + 2);
+        }
+        System.arraycopy(ids, pos, ids, pos + 1, size - pos);
+        ids[pos] = id;
+        size++;
+    }
+
+    boolean remove(int id) {
+        int pos = Arrays.binarySearch(ids, 0, size, id);
+        if (pos < 0) {
+            return false;
+        }
+        System.arraycopy(ids, pos + 1, ids, pos, size - pos - 1);
+        size--;
+        return true;
+    }
+
+    boolean contains(int id) {
+        return Arrays.binarySearch(ids, 0, size, id) >= 0;
+    }
+
+    int get(int index) {
+        return ids[index];
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    int[] toArray() {
+        return Arrays.copyOf(ids, size);
+    }
+}
@@ -0,0 +1,123 @@
+package com.Wood.Word;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 词库导入结果报告（替代原先打印到 System.err 的警告）
+ */
+public class ImportReport {
+    // 最多保留的问题条目数，避免坏文件把报告本身撑大
+    public static final int MAX_RECORDED_PROBLEMS = 100;
+
+    public enum ProblemType {
+        MALFORMED_LINE,    // 字段数不足
+        INVALID_ID,        // ID 不是合法整数
+        UNKNOWN_CATEGORY   // 未知词性，已按 UNSPECIFIED 导入
+    }
+
+    public static class Problem {
+        private final int lineNumber;
+        private final ProblemType type;
+        private final String detail;
+
+        public Problem(int lineNumber, ProblemType type, String detail) {
+            this.lineNumber = lineNumber;
+            this.type = type;
+            this.detail = detail;
+        }
+
+        public int getLineNumber() {
+            return lineNumber;
+        }
+
+        public ProblemType getType() {
+            return type;
+        }
+
+        public String getDetail() {
+            return detail;
+        }
+
+        @Override
+        public String toString() {
+            return "第" + lineNumber + "行 " + type + ": " + detail;
+        }
+    }
+
+    private int lineCount;      // 读取的总行数
+    private int importedCount;  // 成功导入的条目数
+    private int skippedCount;   // 被跳过的行数（不含空行和注释）
+    private int problemCount;   // 问题总数（可能多于记录的条目）
+    private final List<Problem> problems = new ArrayList<>();
+
+    void addLine() {
+        lineCount++;
+    }
+
+    void addLines(int count) {
+        lineCount += count;
+    }
+
+    void addImported() {
+        importedCount++;
+    }
+
+    void addSkipped() {
+        skippedCount++;
+    }
+
+    void addProblem(int lineNumber, ProblemType type, String detail) {
+        problemCount++;
+        if (problems.size() < MAX_RECORDED_PROBLEMS) {
+            problems.add(new Problem(lineNumber, type, detail));
+        }
+    }
+
+    /**
+     * 追加另一段输入的结果（并行导入时按块顺序合并），other 的行号加上 lineOffset
+     */
+    void append(ImportReport other, int lineOffset) {
+        lineCount += other.lineCount;
+        importedCount += other.importedCount;
+        skippedCount += other.skippedCount;
+        problemCount += other.problemCount;
+        for (Problem problem : other.problems) {
+            if (problems.size() >= MAX_RECORDED_PROBLEMS) {
+                break;
+            }
+            problems.add(new Problem(problem.lineNumber + lineOffset, problem.type, problem.detail));
+        }
+    }
+
+    public int getLineCount() {
+        return lineCount;
+    }
+
+    public int getImportedCount() {
+        return importedCount;
+    }
+
+    public int getSkippedCount() {
+        return skippedCount;
+    }
+
+    public int getProblemCount() {
+        return problemCount;
+    }
+
+    public List<Problem> getProblems() {
+        return Collections.unmodifiableList(problems);
+    }
+
+    public boolean hasProblems() {
+        return problemCount > 0;
+    }
+
+    @Override
+    public String toString() {
+        return "导入 " + importedCount + " 个单词，共 " + lineCount + " 行，跳过 "
+                + skippedCount + " 行，问题 " + problemCount + " 个";
+    }
+}
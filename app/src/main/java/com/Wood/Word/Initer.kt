@@ -4,9 +4,42 @@ import com.Wood.Word.StaticValue
 import android.content.Context
 import android.util.Log
 import java.io.File
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.CompletionException
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.CopyOnWriteArrayList
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
 
 object Initer {
 
+    // 词库加载线程数上限（解析主要消耗 CPU，不超过核数）
+    private val loaderThreads = Runtime.getRuntime().availableProcessors().coerceIn(1, 4)
+
+    private val loadExecutor: ExecutorService = Executors.newFixedThreadPool(loaderThreads) { runnable ->
+        Thread(runnable, "WordLib-loader").apply { isDaemon = true }
+    }
+
+    /**
+     * 卡片预取用的后台线程（CardPrefetcher），单线程即可跟上翻页
+     */
+    val prefetchExecutor: ExecutorService = Executors.newSingleThreadExecutor { runnable ->
+        Thread(runnable, "Card-prefetch").apply { isDaemon = true }
+    }
+
+    /**
+     * 外部词典导入用的后台线程（DictionaryImportJob），同一时间只导入一个文件
+     */
+    val importExecutor: ExecutorService = Executors.newSingleThreadExecutor { runnable ->
+        Thread(runnable, "Dictionary-import").apply { isDaemon = true }
+    }
+
+    // 词库文件名 -> 加载结果
+    private val loadFutures = ConcurrentHashMap<String, CompletableFuture<WordLib>>()
+
+    // 词库文件名 -> 加载失败的原因
+    private val loadErrors = ConcurrentHashMap<String, Throwable>()
+
     /**
      * 初始化应用程序数据
      */
@@ -40,13 +73,83 @@ object Initer {
     }
 
     /**
-     * 加载词库到内存
+     * 在后台线程池中并行加载所有词库到 StaticValue.WordLibs / WordLibMap
+     * 每个词库加载完成后立即可见，界面可通过 getWordLibFuture 等待单个词库
+     * 加载失败的词库不放入任何位置（不用空词库顶替，以免之后的保存覆盖原文件），原因见 getWordLibLoadError；
+     * 失败的加载不保留，下次调用时重试
+     *
+     * 可重复调用（Activity 重建时）：已完成或正在加载的词库不重新加载，结果同样填入新的列表
      */
     private fun loadWordLibs(context: Context) {
-        // 这里需要将词库加载到 StaticValue.WordLibs
-        // 但 StaticValue.WordLibs 是 List 类型，需要具体实现
-        // 暂时只初始化文件名列表
-        Log.d("Initer", "词库文件名列表已初始化")
+        val appContext = context.applicationContext
+        val names = StaticValue.WordLibsName
+        // 按文件名的位置放入，与 WordLibsName 一一对应，不受加载完成顺序影响
+        val slots = CopyOnWriteArrayList(arrayOfNulls<WordLib>(names.size).asList())
+        StaticValue.WordLibs = slots
+        names.forEachIndexed { index, fileName ->
+            var started: CompletableFuture<WordLib>? = null
+            val future = loadFutures.computeIfAbsent(fileName) {
+                CompletableFuture.supplyAsync({ loadWordLib(fileName, appContext) }, loadExecutor)
+                    .also { started = it }
+            }
+            if (future === started) {
+                // 在 computeIfAbsent 之外登记：加载已经结束时回调会在这里同步执行，并可能从 loadFutures 中移除
+                trackLoad(fileName, future)
+            }
+            // 已完成的在当前线程立即填入
+            future.thenAccept { wordLib -> slots[index] = wordLib }
+        }
+        Log.d("Initer", "已提交 ${names.size} 个词库的后台加载")
+    }
+
+    private fun loadWordLib(fileName: String, context: Context): WordLib {
+        val start = System.nanoTime()
+        val wordLib = getJournaledWordLib(fileName.removeSuffix(".dat"), context)
+        Log.d("Initer", "加载词库 $fileName 用时 ${(System.nanoTime() - start) / 1_000_000} ms")
+        return wordLib
+    }
+
+    private fun trackLoad(fileName: String, future: CompletableFuture<WordLib>) {
+        loadErrors.remove(fileName)
+        future.whenComplete { wordLib, error ->
+            if (wordLib != null) {
+                StaticValue.WordLibMap[fileName] = wordLib
+            } else {
+                val cause = if (error is CompletionException && error.cause != null) error.cause!! else error
+                loadErrors[fileName] = cause
+                loadFutures.remove(fileName, future)
+                Log.e("Initer", "加载词库失败: $fileName ${cause.message}")
+            }
+        }
+    }
+
+    /**
+     * 获取词库的加载结果（文件名含 .dat），未提交加载时返回 null
+     */
+    fun getWordLibFuture(fileName: String): CompletableFuture<WordLib>? {
+        return loadFutures[fileName]
+    }
+
+    /**
+     * 词库加载失败的原因（文件名含 .dat），未失败或尚未完成时返回 null
+     */
+    fun getWordLibLoadError(fileName: String): Throwable? {
+        return loadErrors[fileName]
+    }
+
+    /**
+     * 词库是否已加载完成
+     */
+    fun isWordLibLoaded(fileName: String): Boolean {
+        return StaticValue.WordLibMap.containsKey(fileName)
+    }
+
+    /**
+     * 所有已提交的词库都加载完成（含失败）时完成
+     */
+    fun allWordLibsLoaded(): CompletableFuture<Void> {
+        return CompletableFuture.allOf(*loadFutures.values.toTypedArray())
+            .exceptionally { null }
     }
 
     /**
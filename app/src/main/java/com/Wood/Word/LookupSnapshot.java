@@ -0,0 +1,276 @@
+package com.Wood.Word;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * 单点查询的只读快照：ID -> 单词项、小写单词 -> ID，以及大小、变更计数等字段
+ *
+ * 发布后不再修改，不加锁读取也不会看到写到一半的状态。写方通过 Editor 准备下一版：
+ * ID 页和单词分片在一版中第一次被修改时复制（写时复制），未触及的页和分片与上一版共享，
+ * 一次写操作只复制它改到的部分。ConcurrentWordLib 在写锁内修改，释放写锁前经 volatile 字段发布。
+ */
+final class LookupSnapshot {
+    private static final int PAGE_SHIFT = PagedArray.PAGE_SHIFT;
+    private static final int PAGE_MASK = PagedArray.PAGE_MASK;
+    private static final int MAX_PAGES = PagedArray.pageCount(WordItemStore.MAX_ID);
+    private static final int SHARD_BITS = 8;
+    private static final int SHARD_COUNT = 1 << SHARD_BITS;
+    private static final WordItem[][] NO_PAGES = new WordItem[0][];
+
+    static final LookupSnapshot EMPTY = new LookupSnapshot(NO_PAGES, new Shard[SHARD_COUNT],
+            0, 0, false, new int[Category.values().length]);
+
+    private final WordItem[][] pages;  // ID 分页，与 PagedArray 相同的页大小
+    private final Shard[] shards;      // 按哈希高位分片的单词 -> ID 表
+    private final int size;
+    private final long changeCount;
+    private final boolean dirty;
+    private final int[] categoryCounts;  // 词性 -> 单词数
+
+    private LookupSnapshot(WordItem[][] pages, Shard[] shards, int size, long changeCount, boolean dirty,
+                           int[] categoryCounts) {
+        this.pages = pages;
+        this.shards = shards;
+        this.size = size;
+        this.changeCount = changeCount;
+        this.dirty = dirty;
+        this.categoryCounts = categoryCounts;
+    }
+
+    WordItem get(int id) {
+        int page = id >>> PAGE_SHIFT;
+        if (id < 0 || page >= pages.length) {
+            return null;
+        }
+        WordItem[] items = pages[page];
+        return items != null ? items[id & PAGE_MASK] : null;
+    }
+
+    /**
+     * @param key 小写单词
+     * @return ID，不存在返回 WordIdIndex.NO_ID
+     */
+    int id(String key) {
+        int h = hash(key);
+        Shard shard = shards[h >>> (32 - SHARD_BITS)];
+        return shard != null ? shard.get(key, h) : WordIdIndex.NO_ID;
+    }
+
+    int size() {
+        return size;
+    }
+
+    long changeCount() {
+        return changeCount;
+    }
+
+    boolean isDirty() {
+        return dirty;
+    }
+
+    int wordCount(Category category) {
+        return categoryCounts[category.ordinal()];
+    }
+
+    private static int hash(String key) {
+        int h = key.hashCode();
+        return (h ^ (h >>> 16)) * 0x9E3779B9;
+    }
+
+    /**
+     * 写方持有的下一版；只能在一个线程内（写锁内）使用
+     */
+    static final class Editor {
+        private WordItem[][] pages = NO_PAGES;
+        private Shard[] shards = new Shard[SHARD_COUNT];
+        // 本版中已复制、可以原地修改的部分；发布后全部交给快照，下一版重新复制
+        private boolean ownsPages = true;
+        private boolean ownsShards = true;
+        private final BitSet ownedPages = new BitSet();
+        private final BitSet ownedShards = new BitSet(SHARD_COUNT);
+
+        void put(int id, String key, WordItem item) {
+            WordItem[] items = writablePage(id >>> PAGE_SHIFT);
+            items[id & PAGE_MASK] = item;
+            int h = hash(key);
+            writableShard(h >>> (32 - SHARD_BITS)).put(key, h, id);
+        }
+
+        /**
+         * 去掉 id 的单词项；key 仍指向 id 时一并去掉
+         */
+        void remove(int id, String key) {
+            int page = id >>> PAGE_SHIFT;
+            if (page < pages.length && pages[page] != null) {
+                writablePage(page)[id & PAGE_MASK] = null;
+            }
+            int h = hash(key);
+            int index = h >>> (32 - SHARD_BITS);
+            if (shards[index] != null && shards[index].get(key, h) == id) {
+                writableShard(index).remove(key, h);
+            }
+        }
+
+        void clear() {
+            pages = NO_PAGES;
+            shards = new Shard[SHARD_COUNT];
+            ownsPages = true;
+            ownsShards = true;
+            ownedPages.clear();
+            ownedShards.clear();
+        }
+
+        /**
+         * 把当前内容作为新的一版发布，之后的修改不再影响它
+         */
+        LookupSnapshot publish(int size, long changeCount, boolean dirty, int[] categoryCounts) {
+            ownsPages = false;
+            ownsShards = false;
+            ownedPages.clear();
+            ownedShards.clear();
+            return new LookupSnapshot(pages, shards, size, changeCount, dirty, categoryCounts);
+        }
+
+        private WordItem[] writablePage(int page) {
+            if (page >= pages.length) {
+                pages = Arrays.copyOf(pages, PagedArray.grownPageCount(pages.length, page + 1, MAX_PAGES));
+                ownsPages = true;
+            } else if (!ownsPages) {
+                pages = pages.clone();
+                ownsPages = true;
+            }
+            WordItem[] items = pages[page];
+            if (items == null) {
+                items = new WordItem[PagedArray.PAGE_SIZE];
+            } else if (!ownedPages.get(page)) {
+                items = items.clone();
+            } else {
+                return items;
+            }
+            pages[page] = items;
+            ownedPages.set(page);
+            return items;
+        }
+
+        private Shard writableShard(int index) {
+            if (!ownsShards) {
+                shards = shards.clone();
+                ownsShards = true;
+            }
+            Shard shard = shards[index];
+            if (shard == null) {
+                shard = new Shard();
+            } else if (!ownedShards.get(index)) {
+                shard = shard.copy();
+            } else {
+                return shard;
+            }
+            shards[index] = shard;
+            ownedShards.set(index);
+            return shard;
+        }
+    }
+
+    /**
+     * 一个分片：线性探测的开放寻址表，槽位取哈希低位（分片已用掉高位）
+     * 删除时把后面的键前移补位，不留墓碑
+     */
+    private static final class Shard {
+        private static final float LOAD_FACTOR = 0.6f;
+
+        private String[] keys;
+        private int[] ids;
+        private int size;
+
+        Shard() {
+            keys = new String[8];
+            ids = new int[8];
+        }
+
+        private Shard(Shard other) {
+            keys = other.keys.clone();
+            ids = other.ids.clone();
+            size = other.size;
+        }
+
+        Shard copy() {
+            return new Shard(this);
+        }
+
+        int get(String key, int h) {
+            String[] keys = this.keys;
+            int[] ids = this.ids;
+            int mask = keys.length - 1;
+            for (int slot = h & mask; ; slot = (slot + 1) & mask) {
+                String current = keys[slot];
+                if (current == null) {
+                    return WordIdIndex.NO_ID;
+                }
+                if (current.equals(key)) {
+                    return ids[slot];
+                }
+            }
+        }
+
+        void put(String key, int h, int id) {
+            if (size + 1 > keys.length * LOAD_FACTOR) {
+                resize(keys.length << 1);
+            }
+            int mask = keys.length - 1;
+            int slot = h & mask;
+            while (keys[slot] != null) {
+                if (keys[slot].equals(key)) {
+                    ids[slot] = id;
+                    return;
+                }
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = key;
+            ids[slot] = id;
+            size++;
+        }
+
+        void remove(String key, int h) {
+            int mask = keys.length - 1;
+            int hole = h & mask;
+            while (!key.equals(keys[hole])) {
+                if (keys[hole] == null) {
+                    return;
+                }
+                hole = (hole + 1) & mask;
+            }
+            // 后面同一探测链上的键，起始槽位不在 (hole, slot] 之间的前移到空位
+            for (int slot = (hole + 1) & mask; keys[slot] != null; slot = (slot + 1) & mask) {
+                int home = hash(keys[slot]) & mask;
+                if (((slot - home) & mask) >= ((slot - hole) & mask)) {
+                    keys[hole] = keys[slot];
+                    ids[hole] = ids[slot];
+                    hole = slot;
+                }
+            }
+            keys[hole] = null;
+            ids[hole] = 0;
+            size--;
+        }
+
+        private void resize(int capacity) {
+            String[] oldKeys = keys;
+            int[] oldIds = ids;
+            keys = new String[capacity];
+            ids = new int[capacity];
+            int mask = capacity - 1;
+            for (int i = 0; i < oldKeys.length; i++) {
+                String key = oldKeys[i];
+                if (key != null) {
+                    int slot = hash(key) & mask;
+                    while (keys[slot] != null) {
+                        slot = (slot + 1) & mask;
+                    }
+                    keys[slot] = key;
+                    ids[slot] = oldIds[i];
+                }
+            }
+        }
+    }
+}
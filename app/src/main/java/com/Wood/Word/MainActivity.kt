@@ -2,11 +2,14 @@ package com.Wood.Word
 
 import android.os.Bundle
 import androidx.activity.ComponentActivity
+import androidx.activity.compose.rememberLauncherForActivityResult
 import androidx.activity.compose.setContent
+import androidx.activity.result.contract.ActivityResultContracts
 import androidx.compose.animation.*
 import androidx.compose.animation.core.tween
 import androidx.compose.foundation.background
 import androidx.compose.foundation.layout.*
+import androidx.compose.foundation.lazy.LazyColumn
 import androidx.compose.foundation.pager.HorizontalPager
 import androidx.compose.foundation.pager.rememberPagerState
 import androidx.compose.foundation.shape.RoundedCornerShape
@@ -24,6 +27,7 @@ import androidx.compose.ui.Alignment
 import androidx.compose.ui.Modifier
 import androidx.compose.ui.draw.shadow
 import androidx.compose.ui.graphics.Color
+import androidx.compose.ui.platform.LocalContext
 import androidx.compose.ui.unit.dp
 import androidx.compose.ui.unit.sp
 import androidx.navigation.NavController
@@ -32,8 +36,23 @@ import androidx.navigation.compose.composable
 import androidx.navigation.compose.rememberNavController
 import com.Wood.Word.ui.theme.CustomColors
 import com.Wood.Word.ui.theme.WordTheme
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.CompletionException
 
 class MainActivity : ComponentActivity() {
+    override fun onStop() {
+        super.onStop()
+        // 进入后台前把已加载词库的修改写回文件（未修改的词库会被跳过）
+        StaticValue.WordLibMap.forEach { (name, wordLib) ->
+            if (wordLib.isDirty) {
+                AutoSaver.requestSave(name, wordLib, this)
+            }
+        }
+        AutoSaver.flushAll()
+        // 复习进度平时只在离开复习页时保存，进程在复习中被回收会丢失，这里一并在后台写回
+        saveAllReviewSchedulers(this)
+    }
+
     override fun onCreate(savedInstanceState: Bundle?) {
         super.onCreate(savedInstanceState)
 
@@ -88,6 +107,42 @@ class MainActivity : ComponentActivity() {
                             CreateScreen(navController)
                         }
 
+                        composable(
+                            route = "review/{name}",
+                            enterTransition = {
+                                slideInHorizontally(
+                                    initialOffsetX = { it },
+                                    animationSpec = tween(durationMillis = 350)
+                                )
+                            },
+                            popExitTransition = {
+                                slideOutHorizontally(
+                                    targetOffsetX = { it },
+                                    animationSpec = tween(durationMillis = 350)
+                                )
+                            }
+                        ) { backStackEntry ->
+                            ReviewScreen(navController, backStackEntry.arguments?.getString("name") ?: "")
+                        }
+
+                        composable(
+                            route = "words/{name}",
+                            enterTransition = {
+                                slideInHorizontally(
+                                    initialOffsetX = { it },
+                                    animationSpec = tween(durationMillis = 350)
+                                )
+                            },
+                            popExitTransition = {
+                                slideOutHorizontally(
+                                    targetOffsetX = { it },
+                                    animationSpec = tween(durationMillis = 350)
+                                )
+                            }
+                        ) { backStackEntry ->
+                            BrowseScreen(navController, backStackEntry.arguments?.getString("name") ?: "")
+                        }
+
                         composable(
                             route = "bate",
                             enterTransition = {
@@ -118,6 +173,38 @@ fun HomeScreen(navController: NavController) {
     val pagerState = rememberPagerState(
         pageCount = { StaticValue.WordLibsName.size + 1 }
     )
+    val context = LocalContext.current
+    var importJob by remember { mutableStateOf<DictionaryImportJob?>(null) }
+    var importMessage by remember { mutableStateOf<String?>(null) }
+
+    // 选择 CSV / TSV 文件后导入到当前页的词库
+    val importLauncher = rememberLauncherForActivityResult(ActivityResultContracts.OpenDocument()) { uri ->
+        val page = pagerState.currentPage
+        if (uri == null || page >= StaticValue.WordLibsName.size) {
+            return@rememberLauncherForActivityResult
+        }
+        val fileName = StaticValue.WordLibsName[page]
+        val wordLib = StaticValue.WordLibMap[fileName]
+        if (wordLib == null) {
+            importMessage = "词库 ${fileName.removeSuffix(".dat")} 还在加载，请稍后再导入"
+            return@rememberLauncherForActivityResult
+        }
+        importJob = DictionaryImportJob(fileName.removeSuffix(".dat"), wordLib).also { it.start(context, uri) }
+    }
+
+    importJob?.let { job ->
+        DictionaryImportDialog(job, onDismiss = { importJob = null })
+    }
+    importMessage?.let { message ->
+        AlertDialog(
+            onDismissRequest = { importMessage = null },
+            confirmButton = {
+                TextButton(onClick = { importMessage = null }) { Text(text = "确定") }
+            },
+            title = { Text(text = "导入") },
+            text = { Text(text = message) }
+        )
+    }
 
     Scaffold(
         topBar = {
@@ -164,13 +251,24 @@ fun HomeScreen(navController: NavController) {
                                     .padding(8.dp)
                                     .shadow(4.dp),
                                 shape = RoundedCornerShape(4.dp),
-                                onClick = {  },
+                                onClick = {
+                                    // 点击词库页进入复习
+                                    if (page < StaticValue.WordLibsName.size) {
+                                        val fileName = StaticValue.WordLibsName[page]
+                                        StaticValue.CurrentWordLib = fileName
+                                        navController.navigate("review/${fileName.removeSuffix(".dat")}")
+                                    }
+                                },
                             ) {
 
-                                Text(
-                                    text = "页面 ${page + 1}",
-                                    fontSize = 30.sp
-                                )
+                                if (page < StaticValue.WordLibsName.size) {
+                                    WordLibPageLabel(StaticValue.WordLibsName[page])
+                                } else {
+                                    Text(
+                                        text = "页面 ${page + 1}",
+                                        fontSize = 30.sp
+                                    )
+                                }
 
                             }
                         }
@@ -196,7 +294,13 @@ fun HomeScreen(navController: NavController) {
                         Text(text = "新建")
                     }
                     OutlinedButton(
-                        onClick = { /* 导入功能 */ },
+                        onClick = {
+                            if (pagerState.currentPage < StaticValue.WordLibsName.size) {
+                                importLauncher.launch(IMPORT_MIME_TYPES)
+                            } else {
+                                importMessage = "请先新建词库，再在词库页导入"
+                            }
+                        },
                         modifier = Modifier.padding(8.dp)
                     ) {
                         Text(text = "导入")
@@ -207,6 +311,392 @@ fun HomeScreen(navController: NavController) {
     }
 }
 
+// 导入时可选的文件类型（部分文件管理器把 CSV 报告为 text/comma-separated-values）
+private val IMPORT_MIME_TYPES = arrayOf(
+    "text/*",
+    "text/csv",
+    "text/comma-separated-values",
+    "text/tab-separated-values"
+)
+
+/**
+ * 导入进度对话框：导入中显示进度和取消按钮，结束后显示结果
+ */
+@Composable
+fun DictionaryImportDialog(job: DictionaryImportJob, onDismiss: () -> Unit) {
+    val report = job.report
+    val error = job.error
+
+    AlertDialog(
+        // 导入中不能点外部关闭，只能取消
+        onDismissRequest = { if (job.isFinished) onDismiss() },
+        confirmButton = {
+            if (job.isFinished) {
+                TextButton(onClick = onDismiss) { Text(text = "确定") }
+            } else {
+                TextButton(onClick = { job.cancel() }) { Text(text = "取消") }
+            }
+        },
+        title = { Text(text = if (job.isFinished) "导入结束" else "正在导入") },
+        text = {
+            when {
+                error != null -> Text(text = "导入失败：$error")
+                report != null -> Text(text = report.toString())
+                else -> Column(verticalArrangement = Arrangement.spacedBy(8.dp)) {
+                    if (job.fraction >= 0f) {
+                        LinearProgressIndicator(
+                            progress = { job.fraction },
+                            modifier = Modifier.fillMaxWidth()
+                        )
+                    } else {
+                        LinearProgressIndicator(modifier = Modifier.fillMaxWidth())
+                    }
+                    Text(text = "已读取 ${job.rows} 行（${Math.round(job.rowsPerSecond)} 行/秒）")
+                }
+            }
+        }
+    )
+}
+
+/**
+ * 词库页标题：加载完成前显示"加载中"，完成后显示单词数，加载失败时显示原因
+ */
+@Composable
+fun WordLibPageLabel(fileName: String) {
+    val wordLib by rememberWordLib(fileName)
+    val loadError by rememberWordLibLoadError(fileName)
+
+    Column(horizontalAlignment = Alignment.CenterHorizontally) {
+        Text(
+            text = fileName.removeSuffix(".dat"),
+            fontSize = 30.sp
+        )
+        Text(
+            text = wordLib?.let { "${it.size()} 个单词" }
+                ?: loadError?.let { "加载失败：${it.message}" }
+                ?: "加载中…",
+            fontSize = 16.sp
+        )
+    }
+}
+
+/**
+ * 订阅后台加载的词库，加载完成后触发重组
+ */
+@Composable
+fun rememberWordLib(fileName: String): State<WordLib?> {
+    val state = remember(fileName) { mutableStateOf(StaticValue.WordLibMap[fileName]) }
+    DisposableEffect(fileName) {
+        var active = true
+        if (state.value == null) {
+            Initer.getWordLibFuture(fileName)?.thenAccept { wordLib ->
+                if (active) {
+                    state.value = wordLib
+                }
+            }
+        }
+        onDispose { active = false }
+    }
+    return state
+}
+
+/**
+ * 订阅后台加载的失败原因，加载失败后触发重组
+ */
+@Composable
+fun rememberWordLibLoadError(fileName: String): State<Throwable?> {
+    val state = remember(fileName) { mutableStateOf(Initer.getWordLibLoadError(fileName)) }
+    DisposableEffect(fileName) {
+        var active = true
+        if (state.value == null) {
+            Initer.getWordLibFuture(fileName)?.whenComplete { _, _ ->
+                if (active) {
+                    state.value = Initer.getWordLibLoadError(fileName)
+                }
+            }
+        }
+        onDispose { active = false }
+    }
+    return state
+}
+
+/**
+ * 订阅后台读取的复习进度：读取完成前为 null，读取失败时为失败的 Result
+ */
+@Composable
+fun rememberReviewScheduler(name: String): State<Result<ReviewScheduler>?> {
+    val context = LocalContext.current.applicationContext
+    val state = remember(name) { mutableStateOf<Result<ReviewScheduler>?>(null) }
+    DisposableEffect(name) {
+        var active = true
+        CompletableFuture.supplyAsync { getReviewScheduler(name, context) }.whenComplete { scheduler, error ->
+            if (active) {
+                state.value = if (error == null) {
+                    Result.success(scheduler)
+                } else {
+                    Result.failure(if (error is CompletionException && error.cause != null) error.cause!! else error)
+                }
+            }
+        }
+        onDispose { active = false }
+    }
+    return state
+}
+
+// 每次进入复习最多引入的新卡数
+private const val NEW_CARDS_PER_SESSION = 20
+
+// 复习时预取的卡片数（含当前卡片）
+private const val PREFETCH_CARDS = 8
+
+/**
+ * 复习页：依次显示到期的单词，点击显示释义后按记忆情况评分
+ */
+@OptIn(ExperimentalMaterial3Api::class)
+@Composable
+fun ReviewScreen(navController: NavController, name: String) {
+    val context = LocalContext.current.applicationContext
+    val wordLib by rememberWordLib("$name.dat")
+    val schedulerResult by rememberReviewScheduler(name)
+    // 读取失败时没有调度器，离开时也不会保存，原文件中的进度保持不变
+    val scheduler = schedulerResult?.getOrNull()
+    val prefetcher = remember(wordLib) {
+        wordLib?.let { CardPrefetcher(it, Initer.prefetchExecutor, PREFETCH_CARDS) }
+    }
+    var currentId by remember { mutableStateOf<Int?>(null) }
+    var current by remember { mutableStateOf<CardPrefetcher.Card?>(null) }
+    var revealed by remember { mutableStateOf(false) }
+    var dueCount by remember { mutableStateOf(0) }
+    var ready by remember { mutableStateOf(false) }
+
+    // 显示下一张到期的卡片，并让后台预取排在它后面的几张；这里不查词库也不排版
+    fun nextCard(srs: ReviewScheduler, cards: CardPrefetcher) {
+        val now = System.currentTimeMillis()
+        val queue = srs.dueCards(now, PREFETCH_CARDS)
+        val id = queue.firstOrNull()
+        currentId = id
+        current = id?.let { cards.get(it) }
+        revealed = false
+        dueCount = srs.countDue(now)
+        cards.setSequence(queue, 0)
+    }
+
+    // 预取回调在后台线程上执行，只写 Compose 状态
+    DisposableEffect(prefetcher, scheduler) {
+        val cards = prefetcher
+        val srs = scheduler
+        if (cards != null && srs != null) {
+            cards.setOnReady { card ->
+                if (card.id == currentId) {
+                    current = card
+                }
+            }
+            // 单词已从词库删除：移除它的卡片
+            cards.setOnMissing { id ->
+                srs.removeCard(id)
+                if (id == currentId) {
+                    nextCard(srs, cards)
+                }
+            }
+        }
+        onDispose {
+            cards?.setOnReady(null)
+            cards?.setOnMissing(null)
+        }
+    }
+
+    LaunchedEffect(prefetcher, scheduler) {
+        val lib = wordLib ?: return@LaunchedEffect
+        val cards = prefetcher ?: return@LaunchedEffect
+        val srs = scheduler ?: return@LaunchedEffect
+        srs.introduceNewCards(lib, NEW_CARDS_PER_SESSION, System.currentTimeMillis())
+        nextCard(srs, cards)
+        ready = true
+    }
+
+    // 离开复习页时在后台保存进度
+    DisposableEffect(name) {
+        onDispose {
+            // 经委托读取当前值（effect 开始时调度器通常还没有读完）
+            schedulerResult?.getOrNull()?.let { srs ->
+                CompletableFuture.runAsync { saveReviewScheduler(name, srs, context) }
+            }
+        }
+    }
+
+    Scaffold(
+        topBar = {
+            TopAppBar(
+                title = { Text(text = "复习 $name") },
+                navigationIcon = {
+                    IconButton(onClick = { navController.navigateUp() }) {
+                        Icon(
+                            Icons.Default.ArrowBack,
+                            contentDescription = "返回"
+                        )
+                    }
+                },
+                actions = {
+                    TextButton(onClick = { navController.navigate("words/$name") }) {
+                        Text("浏览")
+                    }
+                }
+            )
+        }
+    ) { innerPadding ->
+        Column(
+            modifier = Modifier
+                .fillMaxSize()
+                .padding(innerPadding)
+                .padding(16.dp),
+            horizontalAlignment = Alignment.CenterHorizontally,
+            verticalArrangement = Arrangement.spacedBy(16.dp)
+        ) {
+            val card = current
+            val schedulerError = schedulerResult?.exceptionOrNull()
+            when {
+                schedulerError != null -> Text(text = "读取复习进度失败：${schedulerError.message}", fontSize = 20.sp)
+                !ready -> Text(text = "加载中…", fontSize = 20.sp)
+                currentId == null -> Text(text = "今天没有需要复习的单词", fontSize = 20.sp)
+                card == null -> Text(text = "加载中…", fontSize = 20.sp)
+                else -> {
+                    Text(text = "待复习 $dueCount 张", fontSize = 14.sp)
+                    Card(
+                        colors = CardDefaults.cardColors(
+                            containerColor = MaterialTheme.colorScheme.surfaceVariant
+                        ),
+                        modifier = Modifier
+                            .fillMaxWidth()
+                            .weight(1f)
+                    ) {
+                        Column(
+                            modifier = Modifier
+                                .fillMaxSize()
+                                .padding(16.dp),
+                            horizontalAlignment = Alignment.CenterHorizontally,
+                            verticalArrangement = Arrangement.spacedBy(12.dp, Alignment.CenterVertically)
+                        ) {
+                            Text(text = card.word, fontSize = 36.sp)
+                            if (revealed) {
+                                card.meanings.forEach { line ->
+                                    Text(text = line, fontSize = 18.sp)
+                                }
+                                if (card.example.isNotEmpty()) {
+                                    Text(text = card.example, fontSize = 14.sp)
+                                }
+                            }
+                        }
+                    }
+                    if (!revealed) {
+                        Button(
+                            onClick = { revealed = true },
+                            modifier = Modifier.fillMaxWidth()
+                        ) {
+                            Text("显示释义")
+                        }
+                    } else {
+                        Row(
+                            modifier = Modifier.fillMaxWidth(),
+                            horizontalArrangement = Arrangement.spacedBy(8.dp)
+                        ) {
+                            listOf(
+                                ReviewScheduler.Grade.AGAIN to "不认识",
+                                ReviewScheduler.Grade.HARD to "模糊",
+                                ReviewScheduler.Grade.GOOD to "认识",
+                                ReviewScheduler.Grade.EASY to "简单"
+                            ).forEach { (grade, label) ->
+                                OutlinedButton(
+                                    onClick = {
+                                        val cards = prefetcher
+                                        val srs = scheduler
+                                        if (cards != null && srs != null) {
+                                            srs.review(card.id, grade, System.currentTimeMillis())
+                                            nextCard(srs, cards)
+                                        }
+                                    },
+                                    modifier = Modifier.weight(1f)
+                                ) {
+                                    Text(label)
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+        }
+    }
+}
+
+/**
+ * 浏览页：按单词或按ID顺序列出整个词库，滚动时按页加载
+ */
+@OptIn(ExperimentalMaterial3Api::class)
+@Composable
+fun BrowseScreen(navController: NavController, name: String) {
+    val wordLib by rememberWordLib("$name.dat")
+    var order by remember { mutableStateOf(WordOrder.BY_WORD) }
+
+    Scaffold(
+        topBar = {
+            TopAppBar(
+                title = { Text(text = name) },
+                navigationIcon = {
+                    IconButton(onClick = { navController.navigateUp() }) {
+                        Icon(
+                            Icons.Default.ArrowBack,
+                            contentDescription = "返回"
+                        )
+                    }
+                },
+                actions = {
+                    TextButton(onClick = {
+                        order = if (order == WordOrder.BY_WORD) WordOrder.BY_ID else WordOrder.BY_WORD
+                    }) {
+                        Text(if (order == WordOrder.BY_WORD) "按单词" else "按添加顺序")
+                    }
+                }
+            )
+        }
+    ) { innerPadding ->
+        val lib = wordLib
+        if (lib == null) {
+            Box(
+                modifier = Modifier
+                    .fillMaxSize()
+                    .padding(innerPadding),
+                contentAlignment = Alignment.Center
+            ) {
+                Text(text = "加载中…", fontSize = 20.sp)
+            }
+        } else {
+            val words = rememberPagedWordList(lib, order)
+            LazyColumn(
+                modifier = Modifier
+                    .fillMaxSize()
+                    .padding(innerPadding)
+            ) {
+                items(count = words.count, key = { words.keyAt(it) }) { index ->
+                    val item = words.itemAt(index)
+                    Column(
+                        modifier = Modifier
+                            .fillMaxWidth()
+                            .padding(horizontal = 16.dp, vertical = 8.dp)
+                    ) {
+                        Text(text = item?.word ?: "…", fontSize = 18.sp)
+                        if (item != null && item.meaningCount > 0) {
+                            Text(
+                                text = item.meanings().joinToString("; ") { it.meaningText ?: "" },
+                                fontSize = 14.sp,
+                                maxLines = 1
+                            )
+                        }
+                    }
+                }
+            }
+        }
+    }
+}
+
 @OptIn(ExperimentalMaterial3Api::class)
 @Composable
 fun CreateScreen(navController: NavController) {
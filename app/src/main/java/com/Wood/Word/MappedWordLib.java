@@ -0,0 +1,281 @@
+package com.Wood.Word;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 通过 FileChannel.map 打开的只读二进制词库
+ *
+ * 打开时只读取头部，单词项在 getById / getByWord 访问时才解码，
+ * 返回的 WordItem 是解码出的副本，修改它不会写回文件。
+ * 打开时校验头部各区段的范围，访问时校验读到的偏移和字符串引用，
+ * 损坏的文件在打开时抛出 IOException，访问到损坏的记录时抛出 IllegalStateException。
+ * 格式见 {@link WordLibBinaryFormat}
+ */
+public class MappedWordLib {
+    private static final Category[] CATEGORIES = Category.values();
+
+    private final ByteBuffer buffer;
+    private final int count;
+    private final int nextId;
+    private final int stringCount;
+    private final int stringTableOffset;
+    private final int stringDataOffset;
+    private final int stringDataSize;
+    private final int recordsOffset;
+    private final int idIndexOffset;
+    private final int wordIndexOffset;
+    private final int keyCount;
+
+    private MappedWordLib(ByteBuffer buffer) throws IOException {
+        this.buffer = buffer;
+        if (buffer.capacity() < WordLibBinaryFormat.HEADER_SIZE
+                || buffer.getInt(0) != WordLibBinaryFormat.MAGIC) {
+            throw new IOException("不是二进制词库文件");
+        }
+        short version = buffer.getShort(4);
+        if (version != WordLibBinaryFormat.VERSION) {
+            throw new IOException("不支持的二进制词库版本: " + version);
+        }
+        this.count = buffer.getInt(8);
+        this.nextId = buffer.getInt(12);
+        this.stringCount = buffer.getInt(16);
+        this.stringTableOffset = buffer.getInt(20);
+        this.recordsOffset = buffer.getInt(24);
+        this.idIndexOffset = buffer.getInt(28);
+        this.wordIndexOffset = buffer.getInt(32);
+        this.keyCount = buffer.getInt(36);
+
+        // 各区段依次排列且都在文件内（用 long 计算，避免损坏的计数溢出）
+        long capacity = buffer.capacity();
+        long dataOffset = (long) stringTableOffset + 4L * ((long) stringCount + 1);
+        if (count < 0 || stringCount < 0 || keyCount < 0
+                || stringTableOffset < WordLibBinaryFormat.HEADER_SIZE
+                || dataOffset > recordsOffset
+                || recordsOffset > idIndexOffset
+                || idIndexOffset + (long) WordLibBinaryFormat.ID_ENTRY_SIZE * count > wordIndexOffset
+                || wordIndexOffset + (long) WordLibBinaryFormat.WORD_ENTRY_SIZE * keyCount > capacity) {
+            throw new IOException("二进制词库头部已损坏");
+        }
+        this.stringDataOffset = (int) dataOffset;
+        this.stringDataSize = buffer.getInt(stringTableOffset + 4 * stringCount);
+        if (stringDataSize < 0 || dataOffset + stringDataSize > recordsOffset) {
+            throw new IOException("二进制词库字符串表已损坏");
+        }
+    }
+
+    /**
+     * 映射并打开二进制词库文件
+     */
+    public static MappedWordLib open(File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            // 映射在通道关闭后依然有效
+            return new MappedWordLib(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * 判断文件是否为二进制词库（检查头部魔数）
+     */
+    public static boolean isBinary(File file) {
+        if (file.length() < WordLibBinaryFormat.HEADER_SIZE) {
+            return false;
+        }
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            ByteBuffer magic = ByteBuffer.allocate(4);
+            while (magic.hasRemaining() && channel.read(magic) >= 0) {
+                // 读满4字节
+            }
+            return magic.getInt(0) == WordLibBinaryFormat.MAGIC;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    // ========== 查询方法 ==========
+
+    public int size() {
+        return count;
+    }
+
+    public boolean isEmpty() {
+        return count == 0;
+    }
+
+    public int getNextId() {
+        return nextId;
+    }
+
+    /**
+     * 根据ID获取单词项（按需解码）
+     */
+    public WordItem getById(int id) {
+        int slot = findIdSlot(id);
+        return slot >= 0 ? decodeRecord(buffer.getInt(idIndexOffset + slot * WordLibBinaryFormat.ID_ENTRY_SIZE + 4)) : null;
+    }
+
+    private static IllegalStateException corrupt(String detail) {
+        return new IllegalStateException("二进制词库已损坏: " + detail);
+    }
+
+    public boolean containsId(int id) {
+        return findIdSlot(id) >= 0;
+    }
+
+    /**
+     * 根据单词获取单词项（按需解码）
+     */
+    public WordItem getByWord(String word) {
+        Integer id = getWordId(word);
+        return id != null ? getById(id) : null;
+    }
+
+    /**
+     * 根据单词获取ID（在映射内存上按 UTF-8 字节二分查找）
+     */
+    public Integer getWordId(String word) {
+        byte[] key = word.toLowerCase().getBytes(StandardCharsets.UTF_8);
+        int low = 0;
+        int high = keyCount - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int entry = wordIndexOffset + mid * WordLibBinaryFormat.WORD_ENTRY_SIZE;
+            int cmp = compareString(buffer.getInt(entry), key);
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return buffer.getInt(entry + 4);
+            }
+        }
+        return null;
+    }
+
+    public boolean containsWord(String word) {
+        return getWordId(word) != null;
+    }
+
+    /**
+     * 按ID升序获取所有ID
+     */
+    public int[] getAllIds() {
+        int[] ids = new int[count];
+        for (int i = 0; i < count; i++) {
+            ids[i] = buffer.getInt(idIndexOffset + i * WordLibBinaryFormat.ID_ENTRY_SIZE);
+        }
+        return ids;
+    }
+
+    /**
+     * 完整解码为可修改的 WordLib
+     */
+    public WordLib toWordLib() {
+        WordLib wordLib = new WordLib(count);
+        for (int i = 0; i < count; i++) {
+            int entry = idIndexOffset + i * WordLibBinaryFormat.ID_ENTRY_SIZE;
+            int id = buffer.getInt(entry);
+            if (!WordItemStore.isValidId(id)) {
+                throw corrupt("非法ID " + id);
+            }
+            wordLib.restore(id, decodeRecord(buffer.getInt(entry + 4)));
+        }
+        if (WordItemStore.isValidId(nextId)) {
+            wordLib.ensureNextId(nextId);
+        }
+        return wordLib;
+    }
+
+    // ========== 解码 ==========
+
+    private int findIdSlot(int id) {
+        int low = 0;
+        int high = count - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int midId = buffer.getInt(idIndexOffset + mid * WordLibBinaryFormat.ID_ENTRY_SIZE);
+            if (midId < id) {
+                low = mid + 1;
+            } else if (midId > id) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    private WordItem decodeRecord(int offset) {
+        if (offset < recordsOffset || offset > idIndexOffset - WordLibBinaryFormat.RECORD_FIXED_SIZE) {
+            throw corrupt("记录偏移 " + offset + " 越界");
+        }
+        String word = readString(buffer.getInt(offset));
+        String example = readString(buffer.getInt(offset + 4));
+        int meaningCount = buffer.getShort(offset + 8) & 0xFFFF;
+        if (offset + WordLibBinaryFormat.RECORD_FIXED_SIZE
+                + (long) WordLibBinaryFormat.MEANING_SIZE * meaningCount > idIndexOffset) {
+            throw corrupt("记录 " + offset + " 的含义越界");
+        }
+        List<Meaning> meanings = new ArrayList<>(meaningCount);
+        int pos = offset + WordLibBinaryFormat.RECORD_FIXED_SIZE;
+        for (int i = 0; i < meaningCount; i++) {
+            int ordinal = buffer.get(pos) & 0xFF;
+            Category category = ordinal < CATEGORIES.length ? CATEGORIES[ordinal] : Category.UNSPECIFIED;
+            meanings.add(new Meaning(readString(buffer.getInt(pos + 1)), category));
+            pos += WordLibBinaryFormat.MEANING_SIZE;
+        }
+        WordItem item = new WordItem(word, meanings);
+        item.setExample(example);
+        return item;
+    }
+
+    private String readString(int ref) {
+        int start = stringStart(ref);
+        int end = stringEnd(ref, start);
+        byte[] bytes = new byte[end - start];
+        ByteBuffer view = buffer.duplicate();
+        view.position(stringDataOffset + start);
+        view.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // 字符串在数据区内的起止位置（相对数据区开头），引用或偏移越界时抛出
+    private int stringStart(int ref) {
+        if (ref < 0 || ref >= stringCount) {
+            throw corrupt("字符串引用 " + ref + " 越界");
+        }
+        int start = buffer.getInt(stringTableOffset + 4 * ref);
+        if (start < 0 || start > stringDataSize) {
+            throw corrupt("字符串 " + ref + " 的偏移越界");
+        }
+        return start;
+    }
+
+    private int stringEnd(int ref, int start) {
+        int end = buffer.getInt(stringTableOffset + 4 * (ref + 1));
+        if (end < start || end > stringDataSize) {
+            throw corrupt("字符串 " + ref + " 的长度越界");
+        }
+        return end;
+    }
+
+    private int compareString(int ref, byte[] key) {
+        int relative = stringStart(ref);
+        int length = stringEnd(ref, relative) - relative;
+        int start = stringDataOffset + relative;
+        int n = Math.min(length, key.length);
+        for (int i = 0; i < n; i++) {
+            int cmp = (buffer.get(start + i) & 0xFF) - (key[i] & 0xFF);
+            if (cmp != 0) {
+                return cmp;
+            }
+        }
+        return length - key.length;
+    }
+}
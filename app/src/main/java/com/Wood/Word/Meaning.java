@@ -5,6 +5,7 @@ import static com.Wood.Word.Category.UNSPECIFIED;
 public class Meaning {
     private Category category;  // 词性（单数）
     private String meaningText;  // 含义文本（避免与类名冲突）
+    private long contentHash;  // 内容哈希缓存，0 表示未计算
 
     public Meaning(String meaningText, Category category) {
         this.meaningText = meaningText;
@@ -28,10 +29,25 @@ public class Meaning {
     // Setter 方法
     public void setCategory(Category category) {
         this.category = category;
+        this.contentHash = 0;
     }
 
     public void setMeaningText(String meaningText) {
         this.meaningText = meaningText;
+        this.contentHash = 0;
+    }
+
+    /**
+     * 词性和含义文本的 64 位哈希，首次调用时计算并缓存，setter 修改后失效
+     */
+    long contentHash() {
+        long h = contentHash;
+        if (h == 0) {
+            h = ContentHash.nonZero(ContentHash.combine(
+                    category != null ? category.ordinal() + 1 : 0, ContentHash.of(meaningText)));
+            contentHash = h;
+        }
+        return h;
     }
 
     @Override
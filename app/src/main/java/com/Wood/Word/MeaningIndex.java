@@ -0,0 +1,258 @@
+package com.Wood.Word;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 含义文本的反查索引：由中文含义找单词
+ *
+ * 每条含义登记：
+ * - 汉字的单字与相邻两字（bigram），例如 "快速的" 登记 快、速、的、快速、速的
+ * - 其余文字按字母数字切成整词（小写），例如 "to run" 登记 to、run
+ * 查询时同样切分，取最短的倒排表作为候选，再在候选的含义上核对整个查询串并排序，
+ * 不遍历词库。倒排表按单词ID，由 WordLib 在每次变更时同步维护。
+ * 加入时按ID记下登记的含义文本，删除时按记下的文本撤销（单词项可能在词库外被原地修改，见 CategoryIndex）。
+ */
+class MeaningIndex {
+    // 片段种类放在高位
+    private static final long UNIGRAM = 1L << 32;
+    private static final long BIGRAM = 2L << 32;
+
+    // 排序键中的匹配类型
+    private static final long EXACT = 0;
+    private static final long PREFIX = 1;
+    private static final long SUBSTRING = 2;
+
+    private static final int[] NO_IDS = new int[0];
+    private static final String[] NO_TEXTS = new String[0];
+
+    private final GramTable grams = new GramTable();             // 汉字片段 -> ID
+    private final Map<String, IdPostings> tokens = new HashMap<>();  // 整词 -> ID
+    private final PagedArray<String[]> indexed = new PagedArray<>(WordItemStore.MAX_ID);  // ID -> 登记的含义文本
+
+    void add(int id, WordItem item) {
+        remove(id);
+        List<Meaning> meanings = item.meaningList();
+        String[] texts = meanings.isEmpty() ? NO_TEXTS : new String[meanings.size()];
+        for (int i = 0; i < texts.length; i++) {
+            String text = meanings.get(i).getMeaningText();
+            texts[i] = text;
+            if (text != null) {
+                addText(id, text);
+            }
+        }
+        indexed.set(id, texts);
+    }
+
+    void remove(int id) {
+        String[] texts = indexed.remove(id);
+        if (texts == null) {
+            return;
+        }
+        for (String text : texts) {
+            if (text != null) {
+                removeText(id, text);
+            }
+        }
+    }
+
+    void clear() {
+        grams.clear();
+        tokens.clear();
+        indexed.clear();
+    }
+
+    private void addText(int id, String text) {
+        int length = text.length();
+        int i = 0;
+        while (i < length) {
+            char c = text.charAt(i);
+            if (Character.isIdeographic(c)) {
+                grams.getOrCreate(UNIGRAM | c).add(id);
+                if (i + 1 < length && Character.isIdeographic(text.charAt(i + 1))) {
+                    grams.getOrCreate(bigram(c, text.charAt(i + 1))).add(id);
+                }
+                i++;
+            } else if (Character.isLetterOrDigit(c)) {
+                int end = tokenEnd(text, i);
+                tokens.computeIfAbsent(text.substring(i, end).toLowerCase(), t -> new IdPostings()).add(id);
+                i = end;
+            } else {
+                i++;
+            }
+        }
+    }
+
+    private void removeText(int id, String text) {
+        int length = text.length();
+        int i = 0;
+        while (i < length) {
+            char c = text.charAt(i);
+            if (Character.isIdeographic(c)) {
+                removeGram(UNIGRAM | c, id);
+                if (i + 1 < length && Character.isIdeographic(text.charAt(i + 1))) {
+                    removeGram(bigram(c, text.charAt(i + 1)), id);
+                }
+                i++;
+            } else if (Character.isLetterOrDigit(c)) {
+                int end = tokenEnd(text, i);
+                String token = text.substring(i, end).toLowerCase();
+                IdPostings posting = tokens.get(token);
+                if (posting != null) {
+                    posting.remove(id);
+                    if (posting.isEmpty()) {
+                        tokens.remove(token);
+                    }
+                }
+                i = end;
+            } else {
+                i++;
+            }
+        }
+    }
+
+    private void removeGram(long gram, int id) {
+        IdPostings posting = grams.get(gram);
+        if (posting != null) {
+            posting.remove(id);
+            if (posting.isEmpty()) {
+                grams.remove(gram);
+            }
+        }
+    }
+
+    // ========== 查询 ==========
+
+    /**
+     * 查找含义包含 query 的单词，按相关度排序后分页：
+     * 含义与查询完全相同 > 含义以查询开头 > 其余包含；同类中匹配位置越靠前、含义越短越靠前，最后按ID
+     * 查询中的字母数字部分按整词匹配（"run" 不匹配 "running"），忽略大小写
+     *
+     * @param categoryMask 只看这些词性的含义（WordItem.categoryBit 的组合），-1 表示不限
+     */
+    int[] search(String query, int categoryMask, WordItemStore store, int offset, int limit) {
+        query = query.trim();
+        IdPostings candidates = shortestPosting(query);
+        if (candidates == null || limit <= 0) {
+            return NO_IDS;
+        }
+        long[] ranked = new long[Math.min(candidates.size(), 16)];
+        int count = 0;
+        for (int i = 0; i < candidates.size(); i++) {
+            int id = candidates.get(i);
+            WordItem item = store.get(id);
+            if (item == null || (item.getCategoryMask() & categoryMask) == 0) {
+                continue;
+            }
+            long best = Long.MAX_VALUE;
+            List<Meaning> meanings = item.meaningList();
+            for (int j = 0; j < meanings.size(); j++) {
+                Meaning meaning = meanings.get(j);
+                String text = meaning.getMeaningText();
+                if (text == null || (WordItem.categoryBit(meaning.getCategory()) & categoryMask) == 0) {
+                    continue;
+                }
+                int position = find(text, query);
+                if (position >= 0) {
+                    long type = text.length() == query.length() ? EXACT : position == 0 ? PREFIX : SUBSTRING;
+                    best = Math.min(best, type << 55
+                            | (long) Math.min(position, 0xFFF) << 43
+                            | (long) Math.min(text.length(), 0xFFF) << 31
+                            | id);
+                }
+            }
+            if (best != Long.MAX_VALUE) {
+                if (count == ranked.length) {
+                    ranked = Arrays.copyOf(ranked, count * 2);
+                }
+                ranked[count++] = best;
+            }
+        }
+        if (offset >= count) {
+            return NO_IDS;
+        }
+        Arrays.sort(ranked, 0, count);
+        int end = (int) Math.min((long) offset + limit, count);
+        int[] page = new int[end - offset];
+        for (int i = offset; i < end; i++) {
+            page[i - offset] = (int) (ranked[i] & 0x7FFFFFFF);
+        }
+        return page;
+    }
+
+    /**
+     * 查询切分后各片段中最短的倒排表；有片段不存在或查询中没有可索引的文字时返回 null
+     */
+    private IdPostings shortestPosting(String query) {
+        IdPostings shortest = null;
+        int length = query.length();
+        int i = 0;
+        while (i < length) {
+            char c = query.charAt(i);
+            IdPostings posting;
+            if (Character.isIdeographic(c)) {
+                boolean pair = i + 1 < length && Character.isIdeographic(query.charAt(i + 1));
+                boolean single = !pair && (i == 0 || !Character.isIdeographic(query.charAt(i - 1)));
+                if (!pair && !single) {
+                    i++;
+                    continue;  // 汉字串的最后一个字已含在前一个 bigram 中
+                }
+                posting = grams.get(pair ? bigram(c, query.charAt(i + 1)) : UNIGRAM | c);
+                i++;
+            } else if (Character.isLetterOrDigit(c)) {
+                int end = tokenEnd(query, i);
+                posting = tokens.get(query.substring(i, end).toLowerCase());
+                i = end;
+            } else {
+                i++;
+                continue;
+            }
+            if (posting == null) {
+                return null;  // 某个片段不存在，必然没有匹配
+            }
+            if (shortest == null || posting.size() < shortest.size()) {
+                shortest = posting;
+            }
+        }
+        return shortest;
+    }
+
+    /**
+     * query 在 text 中第一次出现的位置（忽略大小写）；
+     * 查询两端是字母数字时要求落在整词边界上。不存在返回 -1
+     */
+    static int find(String text, String query) {
+        int length = query.length();
+        if (length == 0) {
+            return -1;
+        }
+        boolean wordStart = isTokenChar(query.charAt(0));
+        boolean wordEnd = isTokenChar(query.charAt(length - 1));
+        for (int i = 0; i + length <= text.length(); i++) {
+            if (text.regionMatches(true, i, query, 0, length)
+                    && !(wordStart && i > 0 && isTokenChar(text.charAt(i - 1)))
+                    && !(wordEnd && i + length < text.length() && isTokenChar(text.charAt(i + length)))) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean isTokenChar(char c) {
+        return Character.isLetterOrDigit(c) && !Character.isIdeographic(c);
+    }
+
+    private static int tokenEnd(String text, int start) {
+        int end = start + 1;
+        while (end < text.length() && isTokenChar(text.charAt(end))) {
+            end++;
+        }
+        return end;
+    }
+
+    private static long bigram(char first, char second) {
+        return BIGRAM | (long) first << 16 | second;
+    }
+}
@@ -0,0 +1,41 @@
+package com.Wood.Word;
+
+/**
+ * 对象内存占用的估算（64 位 JVM、压缩指针：对象头 12 字节，数组头 16 字节，按 8 字节对齐）
+ * ART 的布局略有不同，结果只用于比较不同存储方式
+ */
+final class MemoryLayout {
+    static final int REFERENCE = 4;
+    static final int STRING = 24;      // 对象头 + hash + coder + value
+    static final int ARRAY_LIST = 24;  // 对象头 + size + modCount + elementData
+    static final int WORD_ITEM = 24;   // 对象头 + 3 个引用
+    static final int MEANING = 24;     // 对象头 + 2 个引用
+
+    private MemoryLayout() {
+    }
+
+    static long align(long bytes) {
+        return (bytes + 7) & ~7L;
+    }
+
+    static long array(long length, int elementSize) {
+        return align(16 + length * elementSize);
+    }
+
+    /**
+     * String 对象及其字节数组（紧凑字符串：Latin-1 每字符 1 字节，否则 2 字节）
+     */
+    static long string(String s) {
+        if (s == null) {
+            return 0;
+        }
+        int bytesPerChar = 1;
+        for (int i = 0; i < s.length(); i++) {
+            if (s.charAt(i) > 0xFF) {
+                bytesPerChar = 2;
+                break;
+            }
+        }
+        return STRING + array(s.length(), bytesPerChar);
+    }
+}
@@ -0,0 +1,196 @@
+package com.Wood.Word;
+
+import java.util.Arrays;
+
+/**
+ * 按ID分页的对象数组
+ *
+ * 页目录按最大ID增长，每页 PAGE_SIZE 个位置，只为有元素的页分配，页空了即释放；
+ * 个别很大的稀疏ID只多占一页和目录中的一个引用，不会分配到该ID为止的整段数组。
+ * next / previous 整页跳过空页。
+ */
+final class PagedArray<T> {
+    static final int PAGE_SHIFT = 10;
+    static final int PAGE_SIZE = 1 << PAGE_SHIFT;
+    static final int PAGE_MASK = PAGE_SIZE - 1;
+
+    private static final Object[][] NO_PAGES = new Object[0][];
+    private static final int[] NO_COUNTS = new int[0];
+
+    private final int maxIndex;  // 下标上限（不含）
+    private Object[][] pages = NO_PAGES;
+    private int[] pageCounts = NO_COUNTS;  // 每页的元素数
+    private int size;
+    private int limit;  // 最大已用下标 + 1
+
+    PagedArray(int maxIndex) {
+        this.maxIndex = maxIndex;
+    }
+
+    /**
+     * 容纳下标小于 capacity 所需的页数
+     */
+    static int pageCount(int capacity) {
+        return (capacity + PAGE_MASK) >>> PAGE_SHIFT;
+    }
+
+    /**
+     * 页目录容量：不小于 minPages，按 1.5 倍增长，不超过 maxPages
+     */
+    static int grownPageCount(int currentPages, int minPages, int maxPages) {
+        return Math.min(Math.max(minPages, currentPages + (currentPages >> 1) + 4), maxPages);
+    }
+
+    @SuppressWarnings("unchecked")
+    T get(int index) {
+        if (index < 0 || index >= limit) {
+            return null;
+        }
+        Object[] page = pages[index >>> PAGE_SHIFT];
+        return page != null ? (T) page[index & PAGE_MASK] : null;
+    }
+
+    /**
+     * 放入元素（value 不能为 null，删除用 remove）
+     *
+     * @return 该位置原有的元素
+     */
+    @SuppressWarnings("unchecked")
+    T set(int index, T value) {
+        if (index < 0 || index >= maxIndex) {
+            throw new IllegalArgumentException("ID 超出范围: " + index);
+        }
+        int pageIndex = index >>> PAGE_SHIFT;
+        if (pageIndex >= pages.length) {
+            growPages(pageIndex + 1);
+        }
+        Object[] page = pages[pageIndex];
+        if (page == null) {
+            page = new Object[PAGE_SIZE];
+            pages[pageIndex] = page;
+        }
+        T previous = (T) page[index & PAGE_MASK];
+        page[index & PAGE_MASK] = value;
+        if (previous == null) {
+            size++;
+            pageCounts[pageIndex]++;
+        }
+        if (index >= limit) {
+            limit = index + 1;
+        }
+        return previous;
+    }
+
+    /**
+     * @return 该位置原有的元素
+     */
+    T remove(int index) {
+        T previous = get(index);
+        if (previous != null) {
+            int pageIndex = index >>> PAGE_SHIFT;
+            pages[pageIndex][index & PAGE_MASK] = null;
+            size--;
+            if (--pageCounts[pageIndex] == 0) {
+                pages[pageIndex] = null;
+            }
+            if (index == limit - 1) {
+                limit = previous(index) + 1;
+            }
+        }
+        return previous;
+    }
+
+    /**
+     * 预留页目录，使下标小于 capacity 的写入不再扩容目录（页本身在写入时才分配）
+     */
+    void ensureCapacity(int capacity) {
+        int needed = pageCount(Math.min(capacity, maxIndex));
+        if (needed > pages.length) {
+            growPages(needed);
+        }
+    }
+
+    private void growPages(int minPages) {
+        int length = grownPageCount(pages.length, minPages, pageCount(maxIndex));
+        pages = Arrays.copyOf(pages, length);
+        pageCounts = Arrays.copyOf(pageCounts, length);
+    }
+
+    /**
+     * 返回不小于 from 的第一个有元素的下标，没有则返回 -1
+     */
+    int next(int from) {
+        int index = Math.max(from, 0);
+        while (index < limit) {
+            Object[] page = pages[index >>> PAGE_SHIFT];
+            if (page == null) {
+                index = (index | PAGE_MASK) + 1;
+                continue;
+            }
+            int end = Math.min((index | PAGE_MASK) + 1, limit);
+            for (; index < end; index++) {
+                if (page[index & PAGE_MASK] != null) {
+                    return index;
+                }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 返回小于 index 的最大有元素的下标，没有则返回 -1
+     */
+    int previous(int index) {
+        for (int i = Math.min(index, limit) - 1; i >= 0; ) {
+            Object[] page = pages[i >>> PAGE_SHIFT];
+            if (page == null) {
+                i = (i & ~PAGE_MASK) - 1;
+                continue;
+            }
+            if (page[i & PAGE_MASK] != null) {
+                return i;
+            }
+            i--;
+        }
+        return -1;
+    }
+
+    int size() {
+        return size;
+    }
+
+    int limit() {
+        return limit;
+    }
+
+    void clear() {
+        Arrays.fill(pages, null);
+        Arrays.fill(pageCounts, 0);
+        size = 0;
+        limit = 0;
+    }
+
+    /**
+     * 收缩页目录到最大下标所在的页为止
+     */
+    void compact() {
+        int needed = pageCount(limit);
+        if (pages.length > needed) {
+            pages = needed > 0 ? Arrays.copyOf(pages, needed) : NO_PAGES;
+            pageCounts = needed > 0 ? Arrays.copyOf(pageCounts, needed) : NO_COUNTS;
+        }
+    }
+
+    /**
+     * 页目录和已分配页本身的字节数（不含元素对象，见 MemoryLayout）
+     */
+    long estimateMemoryUsage() {
+        long bytes = MemoryLayout.array(pages.length, MemoryLayout.REFERENCE) + MemoryLayout.array(pageCounts.length, 4);
+        for (Object[] page : pages) {
+            if (page != null) {
+                bytes += MemoryLayout.array(PAGE_SIZE, MemoryLayout.REFERENCE);
+            }
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,155 @@
+package com.Wood.Word
+
+import android.os.Handler
+import android.os.Looper
+import androidx.compose.runtime.Composable
+import androidx.compose.runtime.LaunchedEffect
+import androidx.compose.runtime.getValue
+import androidx.compose.runtime.mutableStateMapOf
+import androidx.compose.runtime.mutableStateOf
+import androidx.compose.runtime.remember
+import androidx.compose.runtime.setValue
+import kotlinx.coroutines.delay
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.Executor
+
+/**
+ * 按需分页加载的有序单词列表，供 LazyColumn / HorizontalPager 使用
+ *
+ * 位置 -> 单词ID 来自 WordLib.pageIds（只复制有序索引中的一段），用作列表项的稳定 key；
+ * 单词项和ID都按页在后台线程读取，结果回到主线程再写入，未加载完时 keyAt 返回占位 key、itemAt 返回 null。
+ * 只保留最近访问的 maxPages 页。词库变更由 checkForChanges 比较 getChangeCount 发现，之后重新读取。
+ * 除构造外所有方法都在主线程调用。
+ */
+class PagedWordList(
+    private val wordLib: WordLib,
+    val order: WordOrder,
+    private val pageSize: Int = 50,
+    private val maxPages: Int = 8
+) {
+    private class Page(val ids: IntArray, val items: List<WordItem?>)
+
+    // 页号 -> 已加载的页（Compose 状态，加载完成后触发重组）
+    private val pages = mutableStateMapOf<Int, Page>()
+
+    private val loading = HashSet<Int>()
+
+    private val mainThread = Handler(Looper.getMainLooper())
+    private val onMainThread = Executor { mainThread.post(it) }
+
+    // 每次 refresh 加一，丢弃旧一轮的加载结果
+    private var generation = 0
+
+    // 已加载的页对应的 wordLib.getChangeCount()；-1 表示还没有完成过 refresh
+    private var version = -1L
+    private var refreshing = false
+
+    /**
+     * 单词总数；refresh 完成前为 0
+     */
+    var count by mutableStateOf(0)
+        private set
+
+    /**
+     * 重新读取单词数并清空已加载的页
+     * 有序索引在后台建立，主线程不会触发重建
+     */
+    fun refresh() {
+        val current = ++generation
+        refreshing = true
+        loading.clear()  // 旧一轮的加载完成时不再登记
+        CompletableFuture.supplyAsync {
+            // 先取版本：读取期间又有变更时版本已过期，下次检查会再刷新
+            val changeCount = wordLib.getChangeCount()
+            wordLib.pageIds(order, 0, 0)  // 建立有序索引
+            longArrayOf(changeCount, wordLib.size().toLong())
+        }.whenCompleteAsync({ result, _ ->
+            if (generation == current) {
+                refreshing = false
+                if (result != null) {
+                    version = result[0]
+                    pages.clear()
+                    count = result[1].toInt()
+                }
+            }
+        }, onMainThread)
+    }
+
+    /**
+     * 词库自上次读取后有变更时重新读取（定期调用；getChangeCount 只是一次读操作）
+     */
+    fun checkForChanges() {
+        if (!refreshing && wordLib.getChangeCount() != version) {
+            refresh()
+        }
+    }
+
+    /**
+     * 位置 index 处单词的ID，作为列表项的 key
+     * 所在页尚未加载时返回按位置的负数占位（不与ID冲突），页加载由 itemAt 在后台发起
+     */
+    fun keyAt(index: Int): Int {
+        val ids = pages[index / pageSize]?.ids
+        return ids?.getOrNull(index % pageSize) ?: (-1 - index)
+    }
+
+    /**
+     * 位置 index 处的单词项；所在页尚未加载时返回 null 并在后台加载
+     */
+    fun itemAt(index: Int): WordItem? {
+        val page = index / pageSize
+        val loaded = pages[page]
+        if (loaded == null) {
+            load(page)
+        } else if ((index % pageSize) * 2 >= pageSize) {
+            load(page + 1)  // 过了半页就预读下一页
+        }
+        return loaded?.items?.getOrNull(index % pageSize)
+    }
+
+    private fun load(page: Int) {
+        if (refreshing || page * pageSize >= count || pages.containsKey(page) || !loading.add(page)) {
+            return
+        }
+        val current = generation
+        val expected = version
+        CompletableFuture.supplyAsync {
+            val changeCount = wordLib.getChangeCount()
+            val ids = wordLib.pageIds(order, page * pageSize, pageSize)
+            val loaded = Page(ids, ids.map { wordLib.getById(it) })
+            // 读取期间词库有变更时这一页可能与其他页重叠，不采用
+            if (wordLib.getChangeCount() == changeCount && changeCount == expected) loaded else null
+        }.whenCompleteAsync({ loaded, _ ->
+            if (generation != current) {
+                return@whenCompleteAsync
+            }
+            loading.remove(page)
+            if (loaded == null) {
+                checkForChanges()
+                return@whenCompleteAsync
+            }
+            pages[page] = loaded
+            // 只保留离本页最近的几页
+            while (pages.size > maxPages) {
+                pages.keys.maxByOrNull { Math.abs(it - page) }?.let { pages.remove(it) }
+            }
+        }, onMainThread)
+    }
+}
+
+/**
+ * 创建分页列表，并定期检查词库是否有变更
+ */
+@Composable
+fun rememberPagedWordList(wordLib: WordLib, order: WordOrder): PagedWordList {
+    val list = remember(wordLib, order) { PagedWordList(wordLib, order) }
+    LaunchedEffect(list) {
+        while (true) {
+            list.checkForChanges()
+            delay(CHANGE_POLL_MILLIS)
+        }
+    }
+    return list
+}
+
+private const val CHANGE_POLL_MILLIS = 500L
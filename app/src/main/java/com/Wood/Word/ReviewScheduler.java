@@ -0,0 +1,461 @@
+package com.Wood.Word;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * 间隔重复复习调度（SM-2）
+ *
+ * 卡片以词库中的单词ID为键，状态存放在按ID下标的基本类型数组中，不为每张卡创建对象。
+ * 到期队列是按到期时间排序的索引最小堆（heap 存ID，heapPos 存ID在堆中的下标），
+ * 取最早到期的卡、评分后调整位置都是 O(log n)；列出已到期的前 N 张只访问堆顶附近的节点，
+ * 不扫描全部卡片。
+ *
+ * 状态保存在词库旁的 .srs 文件中，按堆数组的顺序写出，读入后无需重建堆：
+ * <pre>
+ * 头部 magic | version(short) | reserved(short) | count | newCursor
+ * 记录 count 个 id | due | interval | ease(float) | repetitions(short) | lapses(short)
+ * </pre>
+ * 方法均已同步，可在界面线程与后台保存线程间共享。
+ */
+public class ReviewScheduler {
+    public static final int MAGIC = 0x57535253;  // "WSRS"
+    public static final short VERSION = 1;
+
+    static final float INITIAL_EASE = 2.5f;
+    static final float MIN_EASE = 1.3f;
+    static final int MINUTES_PER_DAY = 24 * 60;
+    static final int RELEARN_MINUTES = 10;  // 答错后重新学习的间隔
+
+    /**
+     * 复习评分，对应 SM-2 的回忆质量
+     */
+    public enum Grade {
+        AGAIN(1),  // 不认识
+        HARD(3),   // 模糊
+        GOOD(4),   // 认识
+        EASY(5);   // 简单
+
+        final int quality;
+
+        Grade(int quality) {
+            this.quality = quality;
+        }
+    }
+
+    // ID -> 卡片状态
+    private int[] due = new int[16];            // 到期时间（纪元分钟）
+    private int[] intervals = new int[16];      // 当前间隔（天）
+    private float[] eases = new float[16];      // 难度系数
+    private short[] repetitions = new short[16];  // 连续答对次数
+    private short[] lapses = new short[16];       // 遗忘次数
+    private int[] heapPos = filled(16);         // ID -> 堆下标，-1 表示不是卡片
+
+    private int[] heap = new int[16];  // 按（到期时间，ID）排序的最小堆
+    private int size;
+    private int newCursor = 1;  // 下一个待引入为新卡的单词ID
+
+    private static int[] filled(int length) {
+        int[] array = new int[length];
+        Arrays.fill(array, -1);
+        return array;
+    }
+
+    static int toMinutes(long millis) {
+        return (int) (millis / 60_000L);
+    }
+
+    // ========== 卡片 ==========
+
+    /**
+     * 加入新卡片，立即到期
+     *
+     * @return 已经是卡片时返回 false
+     */
+    public synchronized boolean addCard(int id, long nowMillis) {
+        if (id < 0) {
+            throw new IllegalArgumentException("ID 超出范围: " + id);
+        }
+        ensureCapacity(id + 1);
+        if (heapPos[id] >= 0) {
+            return false;
+        }
+        due[id] = toMinutes(nowMillis);
+        intervals[id] = 0;
+        eases[id] = INITIAL_EASE;
+        repetitions[id] = 0;
+        lapses[id] = 0;
+        push(id);
+        return true;
+    }
+
+    /**
+     * 从上次引入的位置起，把词库中尚未成为卡片的单词引入为新卡
+     * 只检查新增的ID，不遍历整个词库
+     *
+     * @return 引入的张数
+     */
+    public synchronized int introduceNewCards(WordLib wordLib, int limit, long nowMillis) {
+        int added = 0;
+        int end = wordLib.getNextId();
+        while (added < limit && newCursor < end) {
+            int id = newCursor++;
+            if (wordLib.containsId(id) && addCard(id, nowMillis)) {
+                added++;
+            }
+        }
+        return added;
+    }
+
+    public synchronized boolean removeCard(int id) {
+        if (!isCard(id)) {
+            return false;
+        }
+        int pos = heapPos[id];
+        int last = heap[--size];
+        heapPos[id] = -1;
+        if (pos < size) {
+            heap[pos] = last;
+            heapPos[last] = pos;
+            siftDown(pos);
+            siftUp(heapPos[last]);
+        }
+        return true;
+    }
+
+    public synchronized boolean isCard(int id) {
+        return id >= 0 && id < heapPos.length && heapPos[id] >= 0;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * 评分并安排下次复习（SM-2）：
+     * 答错时连续次数清零，RELEARN_MINUTES 分钟后重来；答对时间隔依次为 1 天、6 天、上次间隔 × 难度系数
+     */
+    public synchronized void review(int id, Grade grade, long nowMillis) {
+        if (!isCard(id)) {
+            throw new IllegalArgumentException("不是卡片: " + id);
+        }
+        int now = toMinutes(nowMillis);
+        int quality = grade.quality;
+        if (quality < 3) {
+            repetitions[id] = 0;
+            lapses[id]++;
+            intervals[id] = 1;
+            due[id] = now + RELEARN_MINUTES;
+        } else {
+            int count = repetitions[id] + 1;
+            int interval;
+            if (count == 1) {
+                interval = 1;
+            } else if (count == 2) {
+                interval = 6;
+            } else {
+                interval = Math.max(intervals[id] + 1, Math.round(intervals[id] * eases[id]));
+            }
+            repetitions[id] = (short) Math.min(count, Short.MAX_VALUE);
+            intervals[id] = interval;
+            due[id] = now + interval * MINUTES_PER_DAY;
+        }
+        int miss = 5 - quality;
+        eases[id] = Math.max(MIN_EASE, eases[id] + 0.1f - miss * (0.08f + miss * 0.02f));
+        int pos = heapPos[id];
+        siftDown(pos);
+        siftUp(heapPos[id]);
+    }
+
+    // ========== 到期队列 ==========
+
+    /**
+     * 最早到期的卡片，没有卡片时返回 -1
+     */
+    public synchronized int peekNext() {
+        return size > 0 ? heap[0] : -1;
+    }
+
+    /**
+     * 到期时间不晚于 nowMillis 的前 limit 张卡片，按到期时间排序
+     * 在堆上按到期时间向下展开，只访问已到期的节点及其子节点：O(limit log limit)
+     */
+    public synchronized int[] dueCards(long nowMillis, int limit) {
+        int[] result = new int[Math.min(Math.max(limit, 0), Math.min(size, 256))];
+        int count = 0;
+        int now = toMinutes(nowMillis);
+        // 候选为堆下标组成的小根堆，从堆顶开始
+        int[] frontier = new int[16];
+        int frontierSize = 0;
+        if (size > 0 && due[heap[0]] <= now) {
+            frontier[frontierSize++] = 0;
+        }
+        while (frontierSize > 0 && count < limit) {
+            int pos = frontier[0];
+            frontier[0] = frontier[--frontierSize];
+            siftDownFrontier(frontier, frontierSize, 0);
+            if (count == result.length) {
+                result = Arrays.copyOf(result, (int) Math.min((long) count * 2, Math.min(limit, size)));
+            }
+            result[count++] = heap[pos];
+            for (int child = 2 * pos + 1; child <= 2 * pos + 2 && child < size; child++) {
+                if (due[heap[child]] <= now) {
+                    if (frontierSize == frontier.length) {
+                        frontier = Arrays.copyOf(frontier, frontierSize * 2);
+                    }
+                    frontier[frontierSize] = child;
+                    siftUpFrontier(frontier, frontierSize++);
+                }
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    /**
+     * 已到期的卡片数（只访问已到期的节点）
+     */
+    public synchronized int countDue(long nowMillis) {
+        int now = toMinutes(nowMillis);
+        int count = 0;
+        int[] stack = new int[16];
+        int top = 0;
+        if (size > 0) {
+            stack[top++] = 0;
+        }
+        while (top > 0) {
+            int pos = stack[--top];
+            if (due[heap[pos]] > now) {
+                continue;  // 子树中的卡片都更晚到期
+            }
+            count++;
+            if (top + 2 > stack.length) {
+                stack = Arrays.copyOf(stack, stack.length * 2);
+            }
+            if (2 * pos + 1 < size) {
+                stack[top++] = 2 * pos + 1;
+            }
+            if (2 * pos + 2 < size) {
+                stack[top++] = 2 * pos + 2;
+            }
+        }
+        return count;
+    }
+
+    // ========== 单张卡片的状态 ==========
+
+    public synchronized long getDueMillis(int id) {
+        return isCard(id) ? due[id] * 60_000L : -1;
+    }
+
+    public synchronized int getIntervalDays(int id) {
+        return isCard(id) ? intervals[id] : 0;
+    }
+
+    public synchronized float getEase(int id) {
+        return isCard(id) ? eases[id] : 0;
+    }
+
+    public synchronized int getRepetitions(int id) {
+        return isCard(id) ? repetitions[id] : 0;
+    }
+
+    public synchronized int getLapses(int id) {
+        return isCard(id) ? lapses[id] : 0;
+    }
+
+    // ========== 读写 ==========
+
+    /**
+     * 保存到文件（先写临时文件再替换，写到一半不会损坏原文件）
+     */
+    public synchronized void save(File file) throws IOException {
+        File tempFile = new File(file.getPath() + ".tmp");
+        try (FileOutputStream fileOut = new FileOutputStream(tempFile);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(fileOut, 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeShort(VERSION);
+            out.writeShort(0);
+            out.writeInt(size);
+            out.writeInt(newCursor);
+            for (int i = 0; i < size; i++) {
+                int id = heap[i];
+                out.writeInt(id);
+                out.writeInt(due[id]);
+                out.writeInt(intervals[id]);
+                out.writeFloat(eases[id]);
+                out.writeShort(repetitions[id]);
+                out.writeShort(lapses[id]);
+            }
+            out.flush();
+            fileOut.getFD().sync();
+        }
+        if (!tempFile.renameTo(file)) {
+            throw new IOException("无法替换复习进度文件: " + file);
+        }
+    }
+
+    /**
+     * 从文件读取，文件不存在时返回空的调度器
+     */
+    public static ReviewScheduler load(File file) throws IOException {
+        ReviewScheduler scheduler = new ReviewScheduler();
+        if (!file.exists()) {
+            return scheduler;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file), 1 << 16))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("不是复习进度文件: " + file);
+            }
+            short version = in.readShort();
+            if (version != VERSION) {
+                throw new IOException("不支持的复习进度版本: " + version);
+            }
+            in.readShort();
+            int count = in.readInt();
+            if (count < 0) {
+                throw new IOException("复习进度文件已损坏: " + file);
+            }
+            scheduler.newCursor = in.readInt();
+            scheduler.heap = new int[Math.max(count, 16)];
+            boolean ordered = true;
+            for (int i = 0; i < count; i++) {
+                int id = in.readInt();
+                if (!WordItemStore.isValidId(id)) {
+                    throw new IOException("复习进度文件已损坏: ID " + id);
+                }
+                scheduler.ensureCapacity(id + 1);
+                if (scheduler.heapPos[id] >= 0) {
+                    throw new IOException("复习进度文件已损坏: 重复的 ID " + id);
+                }
+                scheduler.due[id] = in.readInt();
+                scheduler.intervals[id] = in.readInt();
+                scheduler.eases[id] = in.readFloat();
+                scheduler.repetitions[id] = in.readShort();
+                scheduler.lapses[id] = in.readShort();
+                scheduler.heap[i] = id;
+                scheduler.heapPos[id] = i;
+                scheduler.size++;
+                if (i > 0 && scheduler.less(id, scheduler.heap[(i - 1) >>> 1])) {
+                    ordered = false;
+                }
+            }
+            if (!ordered) {
+                // 文件不是本类写出的堆顺序，重建
+                for (int i = (count >>> 1) - 1; i >= 0; i--) {
+                    scheduler.siftDown(i);
+                }
+            }
+        }
+        return scheduler;
+    }
+
+    // ========== 索引堆 ==========
+
+    private boolean less(int a, int b) {
+        return due[a] < due[b] || due[a] == due[b] && a < b;
+    }
+
+    private void push(int id) {
+        if (size == heap.length) {
+            heap = Arrays.copyOf(heap, size + (size >> 1) + 16);
+        }
+        heap[size] = id;
+        heapPos[id] = size;
+        siftUp(size++);
+    }
+
+    private void siftUp(int pos) {
+        int id = heap[pos];
+        while (pos > 0) {
+            int parent = (pos - 1) >>> 1;
+            int parentId = heap[parent];
+            if (!less(id, parentId)) {
+                break;
+            }
+            heap[pos] = parentId;
+            heapPos[parentId] = pos;
+            pos = parent;
+        }
+        heap[pos] = id;
+        heapPos[id] = pos;
+    }
+
+    private void siftDown(int pos) {
+        int id = heap[pos];
+        int half = size >>> 1;
+        while (pos < half) {
+            int child = 2 * pos + 1;
+            if (child + 1 < size && less(heap[child + 1], heap[child])) {
+                child++;
+            }
+            int childId = heap[child];
+            if (!less(childId, id)) {
+                break;
+            }
+            heap[pos] = childId;
+            heapPos[childId] = pos;
+            pos = child;
+        }
+        heap[pos] = id;
+        heapPos[id] = pos;
+    }
+
+    // dueCards 的候选堆：元素是堆下标，按对应卡片排序
+    private boolean lessAt(int a, int b) {
+        return less(heap[a], heap[b]);
+    }
+
+    private void siftUpFrontier(int[] frontier, int pos) {
+        int value = frontier[pos];
+        while (pos > 0) {
+            int parent = (pos - 1) >>> 1;
+            if (!lessAt(value, frontier[parent])) {
+                break;
+            }
+            frontier[pos] = frontier[parent];
+            pos = parent;
+        }
+        frontier[pos] = value;
+    }
+
+    private void siftDownFrontier(int[] frontier, int frontierSize, int pos) {
+        if (frontierSize == 0) {
+            return;
+        }
+        int value = frontier[pos];
+        while (2 * pos + 1 < frontierSize) {
+            int child = 2 * pos + 1;
+            if (child + 1 < frontierSize && lessAt(frontier[child + 1], frontier[child])) {
+                child++;
+            }
+            if (!lessAt(frontier[child], value)) {
+                break;
+            }
+            frontier[pos] = frontier[child];
+            pos = child;
+        }
+        frontier[pos] = value;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= heapPos.length) {
+            return;
+        }
+        int length = Math.max(capacity, heapPos.length + (heapPos.length >> 1));
+        due = Arrays.copyOf(due, length);
+        intervals = Arrays.copyOf(intervals, length);
+        eases = Arrays.copyOf(eases, length);
+        repetitions = Arrays.copyOf(repetitions, length);
+        lapses = Arrays.copyOf(lapses, length);
+        int old = heapPos.length;
+        heapPos = Arrays.copyOf(heapPos, length);
+        Arrays.fill(heapPos, old, length, -1);
+    }
+}
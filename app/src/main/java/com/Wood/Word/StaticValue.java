@@ -1,16 +1,16 @@
 package com.Wood.Word;
 
-import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 public class StaticValue {
-    // 存储所有词库对象的列表
-    public static List<WordLib> WordLibs = new ArrayList<>();
+    // 存储所有词库对象的列表（后台加载线程写入，与 WordLibsName 同序；尚未加载完成或加载失败的位置为 null）
+    public static List<WordLib> WordLibs = new CopyOnWriteArrayList<>();
 
-    // 存储词库文件名与对象的映射
-    public static Map<String, WordLib> WordLibMap = new HashMap<>();
+    // 存储词库文件名与对象的映射（后台加载线程写入）
+    public static Map<String, WordLib> WordLibMap = new ConcurrentHashMap<>();
 
     // 词库文件名数组
     public static String[] WordLibsName = new String[0];
@@ -0,0 +1,162 @@
+package com.Wood.Word;
+
+import java.util.Arrays;
+
+/**
+ * 去重字符串池：内容相同的字符串只保存一份，用 int 引用代替对象引用
+ *
+ * 引用计数，计数归零的引用回收复用。方法均已同步，可在多个词库之间共享
+ * （例如后台并行加载的所有词库共用 shared()）。
+ * 引用 0 固定表示 null。
+ */
+public final class StringPool {
+    static final int NULL_REF = 0;
+
+    private static final int EMPTY = 0;
+    private static final int TOMBSTONE = -1;
+    private static final float LOAD_FACTOR = 0.6f;
+
+    private static final StringPool SHARED = new StringPool();
+
+    // 引用 -> 字符串；读取不加锁（持有引用的一方保证它仍然有效）
+    private volatile String[] strings = new String[64];
+    private int[] refCounts = new int[64];
+    private int nextRef = 1;  // 从未使用过的最小引用
+
+    // 回收的引用（栈）
+    private int[] freeRefs = new int[16];
+    private int freeCount;
+
+    // 内容 -> 引用的开放寻址表
+    private int[] table = new int[128];
+    private int threshold = (int) (128 * LOAD_FACTOR);
+    private int size;
+    private int tombstones;
+    private long stringBytes;  // 池中字符串的估算字节数
+
+    /**
+     * 进程内共享的字符串池
+     */
+    public static StringPool shared() {
+        return SHARED;
+    }
+
+    /**
+     * 取得字符串的引用并增加计数
+     */
+    synchronized int intern(String s) {
+        if (s == null) {
+            return NULL_REF;
+        }
+        int mask = table.length - 1;
+        int slot = hash(s) & mask;
+        int firstTombstone = -1;
+        while (true) {
+            int ref = table[slot];
+            if (ref == EMPTY) {
+                break;
+            }
+            if (ref == TOMBSTONE) {
+                if (firstTombstone < 0) {
+                    firstTombstone = slot;
+                }
+            } else if (strings[ref].equals(s)) {
+                refCounts[ref]++;
+                return ref;
+            }
+            slot = (slot + 1) & mask;
+        }
+        int ref = allocateRef();
+        strings[ref] = s;
+        refCounts[ref] = 1;
+        if (firstTombstone >= 0) {
+            slot = firstTombstone;
+            tombstones--;
+        }
+        table[slot] = ref;
+        size++;
+        stringBytes += MemoryLayout.string(s);
+        if (size + tombstones > threshold) {
+            rehash(size * 2 > threshold ? table.length << 1 : table.length);
+        }
+        return ref;
+    }
+
+    /**
+     * 释放一次引用，计数归零时回收
+     */
+    synchronized void release(int ref) {
+        if (ref == NULL_REF || --refCounts[ref] > 0) {
+            return;
+        }
+        String s = strings[ref];
+        int mask = table.length - 1;
+        int slot = hash(s) & mask;
+        while (table[slot] != ref) {
+            slot = (slot + 1) & mask;
+        }
+        table[slot] = TOMBSTONE;
+        tombstones++;
+        size--;
+        stringBytes -= MemoryLayout.string(s);
+        strings[ref] = null;
+        if (freeCount == freeRefs.length) {
+            freeRefs = Arrays.copyOf(freeRefs, freeCount * 2);
+        }
+        freeRefs[freeCount++] = ref;
+    }
+
+    String get(int ref) {
+        return strings[ref];
+    }
+
+    /**
+     * 池中不同字符串的个数
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * 估算池占用的字节数（字符串对象、字符数组、引用表）
+     */
+    public synchronized long estimateMemoryUsage() {
+        return stringBytes + MemoryLayout.array(strings.length, MemoryLayout.REFERENCE)
+                + MemoryLayout.array(refCounts.length, 4) + MemoryLayout.array(table.length, 4)
+                + MemoryLayout.array(freeRefs.length, 4);
+    }
+
+    private int allocateRef() {
+        if (freeCount > 0) {
+            return freeRefs[--freeCount];
+        }
+        if (nextRef == strings.length) {
+            int capacity = strings.length * 2;
+            refCounts = Arrays.copyOf(refCounts, capacity);
+            strings = Arrays.copyOf(strings, capacity);
+        }
+        return nextRef++;
+    }
+
+    private void rehash(int capacity) {
+        int[] newTable = new int[capacity];
+        int mask = capacity - 1;
+        for (int ref : table) {
+            if (ref > 0) {
+                int slot = hash(strings[ref]) & mask;
+                while (newTable[slot] != EMPTY) {
+                    slot = (slot + 1) & mask;
+                }
+                newTable[slot] = ref;
+            }
+        }
+        table = newTable;
+        threshold = (int) (capacity * LOAD_FACTOR);
+        tombstones = 0;
+    }
+
+    private static int hash(String s) {
+        int h = s.hashCode();
+        return (h ^ (h >>> 16)) * 0x9E3779B9;
+    }
+}
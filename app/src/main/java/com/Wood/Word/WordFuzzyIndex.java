@@ -0,0 +1,399 @@
+package com.Wood.Word;
+
+import java.util.Arrays;
+
+/**
+ * 单词的模糊查找索引（Levenshtein 编辑距离）
+ *
+ * 小写键按字典序连续存放在一个字符数组中，相当于一棵隐式的字典树。查询时按顺序遍历，
+ * 编辑距离矩阵逐字符增加一行，与上一个键的公共前缀部分直接复用；
+ * 某一行的最小值超过半径时，以该前缀开头的所有键都不可能命中，二分跳到下一个前缀。
+ * 这与在字典树上运行 Levenshtein 自动机等价，只检查查询附近的少量前缀；
+ * 字符连续存放，遍历和跳转都是顺序访问，不必逐个解引用分散在堆上的 String。
+ * 找满 k 个结果后半径缩小到当前第 k 近的距离，剪枝随之收紧。
+ *
+ * 新加入的键先放在未排序的增量区（查询时逐个比较），积累到约 4√n 个时并入有序数组；
+ * 删除只把有序数组中的ID置为 -1，墓碑在合并时清除。
+ */
+class WordFuzzyIndex {
+    private static final int DEAD = -1;
+    private static final int FAR = Integer.MAX_VALUE / 2;  // 距离矩阵中带外的格子
+
+    // 增量区的最小上限
+    private static final int MIN_DELTA = 512;
+
+    private String[] keys = new String[0];  // 有序的小写单词
+    private int[] ids = new int[0];         // 对应的单词ID，DEAD 为墓碑
+    private char[] chars = new char[0];     // 有序单词的字符依次相连
+    private int[] starts = new int[1];      // 第 i 个单词为 chars[starts[i], starts[i + 1])
+    private int count;
+    private int deadCount;
+
+    private String[] deltaKeys = new String[16];
+    private int[] deltaIds = new int[16];
+    private int deltaCount;
+
+    // 单词ID -> 位置：>= 0 为有序数组下标，< 0 为 -(增量区下标 + 1)
+    // 按ID分页（与 PagedArray 相同的页大小），稀疏的大ID只多占一页
+    private int[][] slotPages = new int[0][];
+    private int maxKeyLength;
+
+    void add(int id, String key) {
+        if (deltaCount == deltaKeys.length) {
+            deltaKeys = Arrays.copyOf(deltaKeys, deltaCount * 2);
+            deltaIds = Arrays.copyOf(deltaIds, deltaCount * 2);
+        }
+        deltaKeys[deltaCount] = key;
+        deltaIds[deltaCount] = id;
+        setSlot(id, -(deltaCount + 1));
+        deltaCount++;
+        maxKeyLength = Math.max(maxKeyLength, key.length());
+        if (deltaCount > Math.max(MIN_DELTA, 4 * (int) Math.sqrt(count))) {
+            merge();
+        }
+    }
+
+    void remove(int id) {
+        int pageIndex = id >>> PagedArray.PAGE_SHIFT;
+        if (id < 0 || pageIndex >= slotPages.length || slotPages[pageIndex] == null) {
+            return;
+        }
+        int slot = slotPages[pageIndex][id & PagedArray.PAGE_MASK];
+        if (slot >= 0) {
+            if (slot < count && ids[slot] == id) {
+                ids[slot] = DEAD;
+                deadCount++;
+                if (deadCount > MIN_DELTA && deadCount > (count >> 1)) {
+                    merge();
+                }
+            }
+        } else {
+            int index = -slot - 1;
+            if (index < deltaCount && deltaIds[index] == id) {
+                // 用最后一个填补
+                int last = --deltaCount;
+                deltaKeys[index] = deltaKeys[last];
+                deltaIds[index] = deltaIds[last];
+                deltaKeys[last] = null;
+                if (index != last) {
+                    setSlot(deltaIds[index], -(index + 1));
+                }
+            }
+        }
+    }
+
+    int size() {
+        return count - deadCount + deltaCount;
+    }
+
+    private void setSlot(int id, int slot) {
+        int pageIndex = id >>> PagedArray.PAGE_SHIFT;
+        if (pageIndex >= slotPages.length) {
+            slotPages = Arrays.copyOf(slotPages, PagedArray.grownPageCount(slotPages.length, pageIndex + 1,
+                    PagedArray.pageCount(WordItemStore.MAX_ID)));
+        }
+        int[] page = slotPages[pageIndex];
+        if (page == null) {
+            page = new int[PagedArray.PAGE_SIZE];
+            slotPages[pageIndex] = page;
+        }
+        page[id & PagedArray.PAGE_MASK] = slot;
+    }
+
+    /**
+     * 把增量区排序后与有序数组归并，同时去掉墓碑
+     */
+    private void merge() {
+        sortDelta();
+        int live = count - deadCount + deltaCount;
+        String[] mergedKeys = new String[live];
+        int[] mergedIds = new int[live];
+        int i = 0;
+        int j = 0;
+        int out = 0;
+        while (i < count || j < deltaCount) {
+            boolean fromDelta;
+            if (i == count) {
+                fromDelta = true;
+            } else if (ids[i] == DEAD) {
+                i++;
+                continue;
+            } else {
+                fromDelta = j < deltaCount && deltaKeys[j].compareTo(keys[i]) < 0;
+            }
+            int id;
+            if (fromDelta) {
+                mergedKeys[out] = deltaKeys[j];
+                id = deltaIds[j++];
+            } else {
+                mergedKeys[out] = keys[i];
+                id = ids[i++];
+            }
+            mergedIds[out] = id;
+            setSlot(id, out);
+            out++;
+        }
+        int length = 0;
+        for (String key : mergedKeys) {
+            length += key.length();
+        }
+        char[] mergedChars = new char[length];
+        int[] mergedStarts = new int[live + 1];
+        int offset = 0;
+        for (int k = 0; k < live; k++) {
+            String key = mergedKeys[k];
+            key.getChars(0, key.length(), mergedChars, offset);
+            offset += key.length();
+            mergedStarts[k + 1] = offset;
+        }
+        keys = mergedKeys;
+        ids = mergedIds;
+        chars = mergedChars;
+        starts = mergedStarts;
+        count = live;
+        deadCount = 0;
+        Arrays.fill(deltaKeys, 0, deltaCount, null);
+        deltaCount = 0;
+    }
+
+    private void sortDelta() {
+        Integer[] order = new Integer[deltaCount];
+        for (int i = 0; i < deltaCount; i++) {
+            order[i] = i;
+        }
+        String[] sortKeys = deltaKeys;
+        Arrays.sort(order, (a, b) -> sortKeys[a].compareTo(sortKeys[b]));
+        String[] sortedKeys = new String[deltaKeys.length];
+        int[] sortedIds = new int[deltaIds.length];
+        for (int i = 0; i < deltaCount; i++) {
+            sortedKeys[i] = deltaKeys[order[i]];
+            sortedIds[i] = deltaIds[order[i]];
+        }
+        deltaKeys = sortedKeys;
+        deltaIds = sortedIds;
+    }
+
+    /**
+     * 查找与 query 编辑距离不超过 maxDistance 的至多 k 个单词
+     *
+     * @return 单词ID，按距离由近到远，同距离按单词排序
+     */
+    int[] lookup(String query, int maxDistance, int k) {
+        if (size() == 0 || maxDistance < 0 || k <= 0) {
+            return new int[0];
+        }
+        Nearest nearest = new Nearest(k, Math.min(maxDistance, Math.max(query.length(), maxKeyLength)));
+        int m = query.length();
+
+        // 增量区逐个比较
+        int[] row = new int[m + 1];
+        for (int i = 0; i < deltaCount; i++) {
+            int d = distance(query, deltaKeys[i], nearest.radius, row);
+            if (d <= nearest.radius) {
+                nearest.offer(deltaIds[i], deltaKeys[i], d);
+            }
+        }
+
+        // rows[depth] 为查询与当前键前 depth 个字符的距离行
+        int[][] rows = new int[maxKeyLength + 1][m + 1];
+        for (int i = 0; i <= m; i++) {
+            rows[0][i] = i;
+        }
+        int previous = 0;  // 上一个键的起点
+        int previousLength = 0;
+        int valid = 0;     // rows[0..valid] 对上一个键的前缀有效
+        int index = 0;
+        while (index < count) {
+            int base = starts[index];
+            int length = starts[index + 1] - base;
+            int depth = commonPrefix(previous, base, Math.min(valid, Math.min(previousLength, length)));
+            boolean pruned = false;
+            while (depth < length) {
+                // 只计算对角线两侧 radius 以内的带，带外的路径代价必然超过半径
+                int radius = nearest.radius;
+                int[] above = rows[depth];
+                int[] current = rows[++depth];
+                char c = chars[base + depth - 1];
+                int low = Math.max(1, depth - radius);
+                int high = Math.min(m, depth + radius);
+                if (low > high + 1) {
+                    pruned = true;  // 键的前缀已比查询长出 radius 以上
+                    break;
+                }
+                current[0] = depth;
+                current[low - 1] = low == 1 ? depth : FAR;
+                int rowMin = low == 1 ? depth : FAR;
+                for (int i = low; i <= high; i++) {
+                    int value = query.charAt(i - 1) == c ? above[i - 1] : above[i - 1] + 1;
+                    value = Math.min(value, Math.min(above[i], current[i - 1]) + 1);
+                    current[i] = value;
+                    if (value < rowMin) {
+                        rowMin = value;
+                    }
+                }
+                if (high < m) {
+                    current[high + 1] = FAR;  // 下一行读取的带外边界
+                }
+                if (rowMin > radius) {
+                    pruned = true;
+                    break;
+                }
+            }
+            previous = base;
+            previousLength = length;
+            if (pruned) {
+                // 以这个键的前 depth 个字符开头的键全部跳过
+                valid = depth - 1;
+                index = skipPrefix(base, depth, index + 1);
+                continue;
+            }
+            valid = depth;
+            int d = Math.abs(m - depth) <= nearest.radius ? rows[depth][m] : FAR;
+            if (d <= nearest.radius && ids[index] != DEAD) {
+                nearest.offer(ids[index], keys[index], d);
+            }
+            index++;
+        }
+        return nearest.ids();
+    }
+
+    private int commonPrefix(int a, int b, int limit) {
+        int i = 0;
+        while (i < limit && chars[a + i] == chars[b + i]) {
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * 第 index 个键是否以 chars[prefix, prefix + length) 开头
+     */
+    private boolean startsWith(int index, int prefix, int length) {
+        int base = starts[index];
+        if (starts[index + 1] - base < length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (chars[base + i] != chars[prefix + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 在 [from, count) 中找第一个不以 chars[prefix, prefix + length) 开头的下标
+     * 同前缀的键通常很少，先按 1、2、4… 的步长向后试探，再在最后一段内二分
+     */
+    private int skipPrefix(int prefix, int length, int from) {
+        int matched = from - 1;  // 已知仍以该前缀开头的最后一个下标
+        int probe = from;
+        int step = 1;
+        while (probe < count && startsWith(probe, prefix, length)) {
+            matched = probe;
+            probe += step;
+            step <<= 1;
+        }
+        int low = matched + 1;
+        int high = Math.min(probe, count);
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (startsWith(mid, prefix, length)) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * 最近的至多 k 个结果，按（距离，单词）有序；满 k 个后 radius 缩小为第 k 个的距离
+     */
+    private static final class Nearest {
+        private final int k;
+        private int[] ids;
+        private String[] keys;
+        private int[] distances;
+        private int found;
+        int radius;
+
+        Nearest(int k, int radius) {
+            this.k = k;
+            this.radius = radius;
+            int capacity = Math.min(k, 64);
+            ids = new int[capacity];
+            keys = new String[capacity];
+            distances = new int[capacity];
+        }
+
+        void offer(int id, String key, int distance) {
+            int pos = found;
+            while (pos > 0 && (distances[pos - 1] > distance
+                    || distances[pos - 1] == distance && keys[pos - 1].compareTo(key) > 0)) {
+                pos--;
+            }
+            if (pos >= k) {
+                return;
+            }
+            if (found == k) {
+                found--;  // 挤掉最远的一个
+            } else if (found == ids.length) {
+                int capacity = Math.min(k, ids.length * 2);
+                ids = Arrays.copyOf(ids, capacity);
+                keys = Arrays.copyOf(keys, capacity);
+                distances = Arrays.copyOf(distances, capacity);
+            }
+            System.arraycopy(ids, pos, ids, pos + 1, found - pos);
+            System.arraycopy(keys, pos, keys, pos + 1, found - pos);
+            System.arraycopy(distances, pos, distances, pos + 1, found - pos);
+            ids[pos] = id;
+            keys[pos] = key;
+            distances[pos] = distance;
+            found++;
+            if (found == k) {
+                radius = distances[k - 1];
+            }
+        }
+
+        int[] ids() {
+            return Arrays.copyOf(ids, found);
+        }
+    }
+
+    /**
+     * a 与 b 的编辑距离；超过 limit 时提前返回 limit + 1
+     *
+     * @param row 长度至少为 a.length() + 1 的缓冲
+     */
+    static int distance(String a, String b, int limit, int[] row) {
+        int m = a.length();
+        int n = b.length();
+        if (Math.abs(m - n) > limit) {
+            return limit + 1;
+        }
+        for (int i = 0; i <= m; i++) {
+            row[i] = i;
+        }
+        for (int j = 1; j <= n; j++) {
+            char c = b.charAt(j - 1);
+            int diagonal = row[0];
+            row[0] = j;
+            int rowMin = j;
+            for (int i = 1; i <= m; i++) {
+                int above = row[i];
+                int value = a.charAt(i - 1) == c ? diagonal : diagonal + 1;
+                value = Math.min(value, Math.min(above, row[i - 1]) + 1);
+                row[i] = value;
+                diagonal = above;
+                if (value < rowMin) {
+                    rowMin = value;
+                }
+            }
+            if (rowMin > limit) {
+                return limit + 1;
+            }
+        }
+        return Math.min(row[m], limit + 1);
+    }
+}
@@ -0,0 +1,184 @@
+package com.Wood.Word;
+
+import java.util.Arrays;
+
+/**
+ * 单词 -> ID 的开放寻址哈希表（线性探测）
+ * 键和值分别存放在 String[] 和 int[] 中，不装箱也不创建节点对象；
+ * 删除留下墓碑，墓碑过多时原地重建
+ */
+class WordIdIndex {
+    static final int NO_ID = -1;
+
+    // 墓碑标记，按引用比较
+    private static final String TOMBSTONE = new String("\u0000deleted");
+    private static final float LOAD_FACTOR = 0.6f;
+
+    private String[] keys;
+    private int[] values;
+    private int size;
+    private int tombstones;
+    private int threshold;  // size + tombstones 超过它时重建
+
+    WordIdIndex(int expectedSize) {
+        allocate(tableSizeFor(expectedSize));
+    }
+
+    private static int tableSizeFor(int expectedSize) {
+        int needed = (int) Math.min((long) (expectedSize / LOAD_FACTOR) + 1, 1 << 30);
+        int capacity = 16;
+        while (capacity < needed) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    private void allocate(int capacity) {
+        keys = new String[capacity];
+        values = new int[capacity];
+        threshold = (int) (capacity * LOAD_FACTOR);
+        tombstones = 0;
+    }
+
+    /**
+     * 预留至少容纳 expectedSize 个键的空间（批量导入前调用，避免多次扩容）
+     */
+    void ensureCapacity(int expectedSize) {
+        int capacity = tableSizeFor(expectedSize);
+        if (capacity > keys.length) {
+            rehash(capacity);
+        }
+    }
+
+    private static int hash(String key) {
+        int h = key.hashCode();
+        return (h ^ (h >>> 16)) * 0x9E3779B9;
+    }
+
+    /**
+     * @return 键所在槽位，不存在返回 -1
+     */
+    private int find(String key) {
+        int mask = keys.length - 1;
+        int slot = hash(key) & mask;
+        while (true) {
+            String current = keys[slot];
+            if (current == null) {
+                return -1;
+            }
+            if (current != TOMBSTONE && current.equals(key)) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    int get(String key) {
+        int slot = find(key);
+        return slot >= 0 ? values[slot] : NO_ID;
+    }
+
+    boolean containsKey(String key) {
+        return find(key) >= 0;
+    }
+
+    /**
+     * @return 原来的ID，没有则返回 NO_ID
+     */
+    int put(String key, int value) {
+        int mask = keys.length - 1;
+        int slot = hash(key) & mask;
+        int firstTombstone = -1;
+        while (true) {
+            String current = keys[slot];
+            if (current == null) {
+                break;
+            }
+            if (current == TOMBSTONE) {
+                if (firstTombstone < 0) {
+                    firstTombstone = slot;
+                }
+            } else if (current.equals(key)) {
+                int previous = values[slot];
+                values[slot] = value;
+                return previous;
+            }
+            slot = (slot + 1) & mask;
+        }
+        // 优先复用探测路径上的墓碑
+        if (firstTombstone >= 0) {
+            slot = firstTombstone;
+            tombstones--;
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        size++;
+        if (size + tombstones > threshold) {
+            rehash(size * 2 > threshold ? keys.length << 1 : keys.length);
+        }
+        return NO_ID;
+    }
+
+    /**
+     * @return 被删除的ID，没有则返回 NO_ID
+     */
+    int remove(String key) {
+        int slot = find(key);
+        if (slot < 0) {
+            return NO_ID;
+        }
+        int previous = values[slot];
+        keys[slot] = TOMBSTONE;
+        size--;
+        tombstones++;
+        return previous;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * 把所有键（无序）复制到 dest 开头，返回个数；dest 长度不小于 size()
+     */
+    int copyKeys(String[] dest) {
+        int count = 0;
+        for (String key : keys) {
+            if (key != null && key != TOMBSTONE) {
+                dest[count++] = key;
+            }
+        }
+        return count;
+    }
+
+    void clear() {
+        Arrays.fill(keys, null);
+        size = 0;
+        tombstones = 0;
+    }
+
+    /**
+     * 去掉墓碑并把表收缩到与当前元素数相称的大小
+     */
+    void compact() {
+        rehash(tableSizeFor(size));
+    }
+
+    private void rehash(int capacity) {
+        String[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(capacity);
+        int mask = capacity - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            String key = oldKeys[i];
+            if (key != null && key != TOMBSTONE) {
+                int slot = hash(key) & mask;
+                while (keys[slot] != null) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = key;
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+}
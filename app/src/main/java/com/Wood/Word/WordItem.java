@@ -1,13 +1,21 @@
 package com.Wood.Word;
 
 import java.util.ArrayList;
-import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 public class WordItem {
+    // null 词性在位掩码中占用的位
+    public static final int NULL_CATEGORY_BIT = 1 << 31;
+
+    private static final Category[] CATEGORIES = Category.values();
+
     private String word;      // 单词
     private String example;   // 例句（可选）
     private List<Meaning> meanings;  // 多个含义
+    private List<Meaning> meaningsView;  // meanings 的只读视图（首次使用时创建）
+    private int categoryMask;  // 词性位掩码缓存，0 表示未计算
+    private long contentHash;  // 内容哈希缓存，0 表示未计算
 
     // 构造方法
     public WordItem(String word) {
@@ -43,6 +51,25 @@ public class WordItem {
         return new ArrayList<>(meanings);  // 返回拷贝
     }
 
+    /**
+     * 含义列表的只读视图（不拷贝）；按下标遍历不产生任何分配
+     */
+    public List<Meaning> meanings() {
+        if (meaningsView == null) {
+            meaningsView = Collections.unmodifiableList(meanings);
+        }
+        return meaningsView;
+    }
+
+    public Meaning getMeaning(int index) {
+        return meanings.get(index);
+    }
+
+    // 内部列表（包内只读使用，不拷贝）
+    List<Meaning> meaningList() {
+        return meanings;
+    }
+
     public Meaning[] getMeaningArray() {
         return meanings.toArray(new Meaning[0]);
     }
@@ -51,41 +78,106 @@ public class WordItem {
         return example;
     }
 
-    // 获取所有词性
+    // 获取所有词性（按在含义中首次出现的顺序）
     public Category[] getCategories() {
-        return meanings.stream()
-                .map(Meaning::getCategory)
-                .distinct()
-                .toArray(Category[]::new);
+        Category[] result = new Category[Integer.bitCount(getCategoryMask())];
+        int seen = 0;
+        int count = 0;
+        for (int i = 0; i < meanings.size(); i++) {
+            Category category = meanings.get(i).getCategory();
+            int bit = categoryBit(category);
+            if ((seen & bit) == 0) {
+                seen |= bit;
+                result[count++] = category;
+            }
+        }
+        return result;
     }
 
     // 检查是否包含特定词性
     public boolean hasCategory(Category category) {
-        return meanings.stream()
-                .anyMatch(m -> m.getCategory() == category);
+        return (getCategoryMask() & categoryBit(category)) != 0;
+    }
+
+    /**
+     * 词性位掩码：第 ordinal 位表示含有该词性，null 词性为 NULL_CATEGORY_BIT
+     * 首次调用时计算并缓存，通过 WordItem 的方法修改含义时失效；
+     * 直接修改已加入的 Meaning 的词性后，需调用 setMeanings 重新设置
+     */
+    public int getCategoryMask() {
+        int mask = categoryMask;
+        if (mask == 0) {
+            for (int i = 0; i < meanings.size(); i++) {
+                mask |= categoryBit(meanings.get(i).getCategory());
+            }
+            categoryMask = mask;
+        }
+        return mask;
+    }
+
+    /**
+     * 单词、例句和各含义（按顺序）的 64 位内容哈希，用于判断单词项是否变化（见 WordLib.diff）
+     * 首次调用时计算并缓存，通过 WordItem 的方法修改时失效；
+     * 与 getCategoryMask 相同，直接修改已加入的 Meaning 后需调用 setMeanings 重新设置
+     */
+    public long contentHash() {
+        long h = contentHash;
+        if (h == 0) {
+            h = ContentHash.combine(ContentHash.of(word), ContentHash.of(example));
+            for (int i = 0; i < meanings.size(); i++) {
+                h = ContentHash.combine(h, meanings.get(i).contentHash());
+            }
+            h = ContentHash.nonZero(h);
+            contentHash = h;
+        }
+        return h;
+    }
+
+    public static int categoryBit(Category category) {
+        return category != null ? 1 << category.ordinal() : NULL_CATEGORY_BIT;
     }
 
     // Setter方法
     public void setWord(String word) {
         this.word = word;
+        this.contentHash = 0;
+    }
+
+    /**
+     * 遍历时复用同一对象（见 WordItemStore.Flyweight）：替换单词和例句并清空含义，不分配
+     */
+    void reuse(String word, String example) {
+        this.word = word;
+        this.example = example;
+        this.meanings.clear();
+        this.categoryMask = 0;
+        this.contentHash = 0;
     }
 
     public void addMeaning(Meaning meaning) {
         if (meaning != null) {
             meanings.add(meaning);
+            categoryMask = 0;
+            contentHash = 0;
         }
     }
 
     public void setMeanings(List<Meaning> meanings) {
         this.meanings = new ArrayList<>(meanings);
+        this.meaningsView = null;
+        this.categoryMask = 0;
+        this.contentHash = 0;
     }
 
     public void setExample(String example) {
         this.example = example;
+        this.contentHash = 0;
     }
 
     // 移除含义
     public boolean removeMeaning(Meaning meaning) {
+        categoryMask = 0;
+        contentHash = 0;
         return meanings.remove(meaning);
     }
 
@@ -97,31 +189,44 @@ public class WordItem {
     @Override
     public String toString() {
         StringBuilder sb = new StringBuilder();
+        appendTo(sb);
+        return sb.toString();
+    }
+
+    /**
+     * 把显示文本（同 toString）追加到 sb，复用 sb 时不产生分配
+     */
+    public void appendTo(StringBuilder sb) {
         sb.append(word);
 
-        // 显示词性
-        Category[] categories = getCategories();
-        if (categories.length > 0) {
+        // 显示词性（按首次出现的顺序）
+        if (!meanings.isEmpty()) {
             sb.append(" [");
-            for (int i = 0; i < categories.length; i++) {
-                if (i > 0) sb.append(", ");
-                sb.append(categories[i]);
+            int seen = 0;
+            for (int i = 0; i < meanings.size(); i++) {
+                Category category = meanings.get(i).getCategory();
+                int bit = categoryBit(category);
+                if ((seen & bit) == 0) {
+                    if (seen != 0) sb.append(", ");
+                    sb.append(category != null ? category.name() : "null");
+                    seen |= bit;
+                }
             }
             sb.append("]");
         }
 
         sb.append(": ");
 
-        // 显示所有含义
+        // 显示所有含义（同 Meaning.toString）
         for (int i = 0; i < meanings.size(); i++) {
             if (i > 0) sb.append("; ");
-            sb.append(meanings.get(i));
+            Meaning meaning = meanings.get(i);
+            Category category = meaning.getCategory();
+            sb.append(category != null ? category.name() : "null").append(": ").append(meaning.getMeaningText());
         }
 
         if (example != null && !example.isEmpty()) {
             sb.append(" 例: ").append(example);
         }
-
-        return sb.toString();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,140 @@
+package com.Wood.Word;
+
+import java.util.List;
+
+/**
+ * 按ID存放单词项（ID 由 nextId++ 分配，基本连续）
+ *
+ * 按ID分页（见 PagedArray），只为有单词的页分配，文件中个别很大的稀疏ID
+ * 不会分配到该ID为止的整段数组；删除的位置作为空洞，next 整页跳过空页。
+ */
+class WordItemStore {
+    // ID 上限，防止损坏文件中的超大ID导致页目录过大
+    static final int MAX_ID = 1 << 26;
+
+    static final int PAGE_SHIFT = PagedArray.PAGE_SHIFT;
+    static final int PAGE_SIZE = PagedArray.PAGE_SIZE;
+    static final int PAGE_MASK = PagedArray.PAGE_MASK;
+
+    private final PagedArray<WordItem> items = new PagedArray<>(MAX_ID);
+
+    WordItemStore(int initialCapacity) {
+        if (initialCapacity > 0) {
+            ensureCapacity(initialCapacity + 1);
+        }
+    }
+
+    static boolean isValidId(int id) {
+        return id >= 0 && id < MAX_ID;
+    }
+
+    WordItem get(int id) {
+        return items.get(id);
+    }
+
+    /**
+     * 遍历时读取单词项：flyweight 不为 null 时可能就地填充并返回它（见 Flyweight）
+     * 默认存储直接返回存入的对象
+     */
+    WordItem get(int id, Flyweight flyweight) {
+        return get(id);
+    }
+
+    /**
+     * 供一次遍历反复使用的 Flyweight；默认存储不需要，返回 null
+     */
+    Flyweight flyweight() {
+        return null;
+    }
+
+    /**
+     * 遍历时复用的单词项和含义对象，紧凑存储按列就地填充，逐个单词不再分配；
+     * 填充的内容只在下一次 get(id, flyweight) 之前有效
+     */
+    static final class Flyweight {
+        final WordItem item = new WordItem("");
+        Meaning[] meanings = new Meaning[0];
+    }
+
+    boolean contains(int id) {
+        return get(id) != null;
+    }
+
+    /**
+     * 只取单词文本（紧凑存储不必组装整个单词项）
+     */
+    String word(int id) {
+        WordItem item = get(id);
+        return item != null ? item.getWord() : null;
+    }
+
+    /**
+     * 放入单词项
+     *
+     * @return 该ID原有的单词项
+     */
+    WordItem put(int id, WordItem item) {
+        return items.set(id, item);
+    }
+
+    WordItem remove(int id) {
+        return items.remove(id);
+    }
+
+    /**
+     * 预留页目录，使ID小于 capacity 的写入不再扩容目录（页本身在写入时才分配）
+     */
+    void ensureCapacity(int capacity) {
+        items.ensureCapacity(capacity);
+    }
+
+    /**
+     * 返回不小于 fromId 的第一个有效ID，没有则返回 -1
+     * 用法: for (int id = store.next(0); id >= 0; id = store.next(id + 1))
+     */
+    int next(int fromId) {
+        return items.next(fromId);
+    }
+
+    int size() {
+        return items.size();
+    }
+
+    int limit() {
+        return items.limit();
+    }
+
+    void clear() {
+        items.clear();
+    }
+
+    /**
+     * 估算单词数据占用的字节数（见 MemoryLayout）
+     * 空字符串按共享的字面量计，不计入
+     */
+    long estimateMemoryUsage() {
+        long bytes = items.estimateMemoryUsage();
+        for (int id = next(0); id >= 0; id = next(id + 1)) {
+            WordItem item = get(id);
+            List<Meaning> meanings = item.meaningList();
+            bytes += MemoryLayout.WORD_ITEM + MemoryLayout.ARRAY_LIST
+                    + MemoryLayout.array(meanings.size(), MemoryLayout.REFERENCE)
+                    + nonEmptyString(item.getWord()) + nonEmptyString(item.getExample());
+            for (int i = 0; i < meanings.size(); i++) {
+                bytes += MemoryLayout.MEANING + nonEmptyString(meanings.get(i).getMeaningText());
+            }
+        }
+        return bytes;
+    }
+
+    private static long nonEmptyString(String s) {
+        return s == null || s.isEmpty() ? 0 : MemoryLayout.string(s);
+    }
+
+    /**
+     * 收缩页目录到最大有效ID所在的页为止
+     */
+    void compact() {
+        items.compact();
+    }
+}
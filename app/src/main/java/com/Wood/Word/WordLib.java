@@ -1,23 +1,83 @@
 package com.Wood.Word;
 
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+import java.util.function.ObjIntConsumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 public class WordLib {
+    private static final Category[] CATEGORIES = Category.values();
+
     // 核心数据结构
-    private final Map<Integer, WordItem> wordMap;  // ID -> WordItem
-    private final Map<String, Integer> wordToIdMap; // 单词 -> ID（快速查找）
+    private final WordItemStore wordStore;  // ID -> WordItem（按ID下标的数组）
+    private final WordIdIndex wordIndex;    // 单词 -> ID（开放寻址，快速查找）
+    private final WordSearchIndex searchIndex = new WordSearchIndex();  // 子串/前缀搜索
+    private final CategoryIndex categoryIndex = new CategoryIndex();     // 词性 -> ID位图与计数
+    private final MeaningIndex meaningIndex = new MeaningIndex();        // 含义文本 -> ID（反查）
+    private volatile WordFuzzyIndex fuzzyIndex;  // 模糊查找（首次使用时建立，之后随变更维护）
+    private volatile WordOrderIndex idOrder;     // 按ID排序的视图（首次分页时建立）
+    private volatile WordOrderIndex wordOrder;   // 按单词排序的视图（首次分页时建立）
     private int nextId = 1;  // 下一个可用的ID
+    private final BitSet dirtyIds = new BitSet();  // 上次 markClean 以来增删改过的ID
+    private long changeCount;  // 每次增删改加一
+    private String savedTo;  // 没有脏ID时内容与之一致的文件（markSaved 记下），不知道时为 null
+    private MutationListener mutationListener;  // 变更监听（如追加日志）
+    private final WordItemStore.Flyweight indexFlyweight;  // 写操作中读取刚放入的单词项（只在写操作内使用）
+
+    /**
+     * 词库变更监听器，在变更生效后回调
+     */
+    public interface MutationListener {
+        void onAdded(int id, WordItem item);
+
+        void onUpdated(int id, WordItem item);
+
+        void onRemoved(int id);
+
+        void onCleared();
+    }
+
+    /**
+     * 遍历单词项的回调（forEachWord / forEachInCategory），item 只在回调内有效（见 forEachWord）
+     */
+    public interface WordVisitor {
+        void visit(int id, WordItem item);
+    }
 
     // 构造函数
     public WordLib() {
-        this.wordMap = new HashMap<>();
-        this.wordToIdMap = new HashMap<>();
+        this(0);
     }
 
     public WordLib(int initialCapacity) {
-        this.wordMap = new HashMap<>(initialCapacity);
-        this.wordToIdMap = new HashMap<>(initialCapacity);
+        this.wordStore = new WordItemStore(initialCapacity);
+        this.wordIndex = new WordIdIndex(initialCapacity);
+        this.indexFlyweight = wordStore.flyweight();
+    }
+
+    /**
+     * 使用紧凑的列式存储，字符串在 stringPool 中去重（可传 StringPool.shared() 与其他词库共享）
+     * 此时 getById 等返回的 WordItem 是按需组装的视图，修改后须调用 updateWordItem 才会生效
+     */
+    public WordLib(int initialCapacity, StringPool stringPool) {
+        this.wordStore = new CompactWordItemStore(initialCapacity, stringPool);
+        this.wordIndex = new WordIdIndex(initialCapacity);
+        this.indexFlyweight = wordStore.flyweight();
     }
 
     // ========== 核心操作方法 ==========
@@ -31,7 +91,7 @@ public class WordLib {
         String normalizedWord = word.toLowerCase();
 
         // 检查单词是否已存在
-        if (containsWord(normalizedWord)) {
+        if (wordIndex.containsKey(normalizedWord)) {
             return -1;
         }
 
@@ -47,7 +107,7 @@ public class WordLib {
     public int addWord(String word, Meaning meaning, String example) {
         String normalizedWord = word.toLowerCase();
 
-        if (containsWord(normalizedWord)) {
+        if (wordIndex.containsKey(normalizedWord)) {
             return -1;
         }
 
@@ -55,81 +115,286 @@ public class WordLib {
         return addWordItem(item);
     }
 
+    /**
+     * 批量插入单词项：跳过空单词、批内重复和词库中已有的单词，其余逐项插入
+     * 写入途中抛出异常（如变更监听器失败）时，已写入的单词保留；需要整批生效或不生效时用 insertAll(items, true)
+     *
+     * @see #insertAll(Collection, boolean)
+     */
+    public BulkInsertReport insertAll(Collection<? extends WordItem> items) {
+        return insertItems(items, false, null);
+    }
+
+    /**
+     * 批量插入单词项
+     * 先校验整批（单词忽略大小写去重，批内保留第一个），再一次性预留容量并写入，搜索索引最后统一建立。
+     * 单词项按原样保存（不复制）；插入的单词按输入顺序获得连续ID。
+     *
+     * @param allOrNothing 为 true 时只要有一项未通过就整批放弃，词库保持不变；
+     *                     写入途中抛出异常时撤销本批已写入的单词（监听器会收到对应的删除）并收回分配的ID，再抛出该异常
+     */
+    public BulkInsertReport insertAll(Collection<? extends WordItem> items, boolean allOrNothing) {
+        return insertItems(items, allOrNothing, null);
+    }
+
+    public BulkInsertReport insertAll(Stream<? extends WordItem> items) {
+        return insertItems(items.collect(Collectors.toList()), false, null);
+    }
+
+    public BulkInsertReport insertAll(Stream<? extends WordItem> items, boolean allOrNothing) {
+        return insertItems(items.collect(Collectors.toList()), allOrNothing, null);
+    }
+
+    /**
+     * @param ids 不为 null 时按输入顺序填入分配的ID，未插入的为 -1
+     */
+    private BulkInsertReport insertItems(Collection<? extends WordItem> items, boolean allOrNothing, int[] ids) {
+        BulkInsertReport report = new BulkInsertReport();
+        int count = items.size();
+        WordItem[] accepted = new WordItem[count];
+        String[] keys = new String[count];
+        int acceptedCount = 0;
+
+        // 校验：不修改词库
+        WordIdIndex batch = new WordIdIndex(count);
+        int index = 0;
+        for (WordItem item : items) {
+            String word = item != null ? item.getWord() : null;
+            if (word == null || word.trim().isEmpty()) {
+                report.addRejected(index, word, BulkInsertReport.Reason.INVALID);
+            } else {
+                String key = word.toLowerCase();
+                if (wordIndex.containsKey(key)) {
+                    report.addRejected(index, word, BulkInsertReport.Reason.ALREADY_EXISTS);
+                } else if (batch.put(key, index) != WordIdIndex.NO_ID) {
+                    report.addRejected(index, word, BulkInsertReport.Reason.DUPLICATE_IN_BATCH);
+                } else {
+                    accepted[index] = item;
+                    keys[index] = key;
+                    acceptedCount++;
+                }
+            }
+            index++;
+        }
+        if (allOrNothing && report.hasRejected()) {
+            if (ids != null) {
+                Arrays.fill(ids, -1);
+            }
+            return report;
+        }
+        if ((long) nextId + acceptedCount > WordItemStore.MAX_ID) {
+            throw new IllegalStateException("ID 超出范围: " + ((long) nextId + acceptedCount - 1));
+        }
+
+        // 写入：容量只增长一次
+        int firstId = nextId;
+        wordStore.ensureCapacity(nextId + acceptedCount);
+        wordIndex.ensureCapacity(wordIndex.size() + acceptedCount);
+        searchIndex.beginBulk();
+        try {
+            for (int i = 0; i < count; i++) {
+                int id = accepted[i] != null ? addWordItem(accepted[i], keys[i]) : -1;
+                if (ids != null) {
+                    ids[i] = id;
+                }
+            }
+        } catch (RuntimeException e) {
+            if (allOrNothing) {
+                undoInsert(firstId, e);
+            }
+            throw e;
+        } finally {
+            searchIndex.endBulk(ForkJoinPool.commonPool());
+        }
+        report.setInserted(firstId, acceptedCount);
+        return report;
+    }
+
+    /**
+     * 撤销从 firstId 起本批已写入的单词（含写到一半的那一项），收回分配的ID
+     * 撤销中再抛出的异常附加到 failure 上，不中断撤销
+     */
+    private void undoInsert(int firstId, RuntimeException failure) {
+        for (int id = nextId - 1; id >= firstId; id--) {
+            try {
+                removeItem(id);
+            } catch (RuntimeException e) {
+                failure.addSuppressed(e);
+            }
+        }
+        nextId = firstId;
+    }
+
     /**
      * 添加WordItem对象
      *
      * @return 分配的ID
      */
     private int addWordItem(WordItem item) {
+        return addWordItem(item, item.getWord().toLowerCase());
+    }
+
+    private int addWordItem(WordItem item, String key) {
         int id = nextId++;
-        wordMap.put(id, item);
-        wordToIdMap.put(item.getWord().toLowerCase(), id);
+        wordStore.put(id, item);
+        wordIndex.put(key, id);
+        indexItem(id, key, item);
+        if (mutationListener != null) {
+            mutationListener.onAdded(id, item);
+        }
         return id;
     }
 
     /**
      * 根据ID获取单词项
+     *
+     * 返回值是否为词库中的同一对象取决于存储：默认存储返回存入的对象，
+     * 紧凑存储（WordLib(int, StringPool)）每次返回新组装的副本。
+     * 两种存储下原地修改（setWord、addMeaning 等）都不会更新索引，紧凑存储下也不会写回；
+     * 修改单词项请改完后调用 updateWordItem。本类其他返回 WordItem 的方法同此。
      */
     public WordItem getById(int id) {
-        return wordMap.get(id);
+        return wordStore.get(id);
     }
 
     /**
-     * 根据单词获取单词项
+     * 根据单词获取单词项（原地修改的规则见 getById）
      */
     public WordItem getByWord(String word) {
-        Integer id = wordToIdMap.get(word.toLowerCase());
-        return id != null ? wordMap.get(id) : null;
+        int id = wordIndex.get(word.toLowerCase());
+        return id != WordIdIndex.NO_ID ? wordStore.get(id) : null;
     }
 
     /**
      * 根据单词获取ID
      */
     public Integer getWordId(String word) {
-        return wordToIdMap.get(word.toLowerCase());
+        int id = wordIndex.get(word.toLowerCase());
+        return id != WordIdIndex.NO_ID ? id : null;
     }
 
     /**
      * 根据词性获取单词项
      */
     public List<WordItem> getByCategory(Category category) {
-        return wordMap.values().stream()
-                .filter(item -> item.hasCategory(category))
-                .collect(Collectors.toList());
+        BitSet ids = categoryIndex.ids(category);
+        if (ids == null) {
+            return new ArrayList<>();
+        }
+        List<WordItem> result = new ArrayList<>(categoryIndex.wordCount(category));
+        for (int id = ids.nextSetBit(0); id >= 0; id = ids.nextSetBit(id + 1)) {
+            result.add(wordStore.get(id));
+        }
+        return result;
+    }
+
+    /**
+     * 含有特定词性的单词数量
+     */
+    public int getWordCountByCategory(Category category) {
+        return categoryIndex.wordCount(category);
     }
 
     /**
      * 更新单词项
      */
     public boolean updateWordItem(int id, WordItem newItem) {
-        if (!wordMap.containsKey(id)) {
+        return updateItem(id, newItem);
+    }
+
+    private boolean updateItem(int id, WordItem newItem) {
+        WordItem oldItem = wordStore.get(id);
+        if (oldItem == null) {
             return false;
         }
 
         String newWord = newItem.getWord().toLowerCase();
-        Integer existingId = wordToIdMap.get(newWord);
+        int existingId = wordIndex.get(newWord);
 
-        if (existingId != null && existingId != id) {
+        if (existingId != WordIdIndex.NO_ID && existingId != id) {
             return false; // 单词已被其他ID使用
         }
 
-        // 移除旧映射
-        WordItem oldItem = wordMap.get(id);
-        wordToIdMap.remove(oldItem.getWord().toLowerCase());
+        // 移除旧映射（按加入时的单词，oldItem 可能已被原地改名）
+        wordIndex.remove(indexedKey(id, oldItem));
+        unindexItem(id, oldItem);
 
         // 添加新映射
-        wordMap.put(id, newItem);
-        wordToIdMap.put(newWord, id);
+        wordStore.put(id, newItem);
+        wordIndex.put(newWord, id);
+        indexItem(id, newWord, newItem);
+        if (mutationListener != null) {
+            mutationListener.onUpdated(id, newItem);
+        }
         return true;
     }
 
+    /**
+     * 单词项放入存储后更新派生索引
+     */
+    private void indexItem(int id, String key, WordItem item) {
+        markDirty(id);
+        searchIndex.add(id, key);
+        categoryIndex.add(id, item);
+        // 紧凑存储下从存储中取（池中的字符串），含义索引记下的文本不再额外持有调用方的字符串
+        meaningIndex.add(id, wordStore.get(id, indexFlyweight));
+        if (fuzzyIndex != null) {
+            fuzzyIndex.add(id, key);
+        }
+        if (idOrder != null && !idOrder.add(id, key)) {
+            idOrder = null;  // 变更过多，下次访问时重建
+        }
+        if (wordOrder != null && !wordOrder.add(id, key)) {
+            wordOrder = null;
+        }
+        onIndexed(id, key);
+    }
+
+    /**
+     * 单词项移出存储后更新派生索引
+     */
+    private void unindexItem(int id, WordItem item) {
+        markDirty(id);
+        String key = indexedKey(id, item);
+        searchIndex.remove(id);
+        categoryIndex.remove(id);
+        meaningIndex.remove(id);
+        if (fuzzyIndex != null) {
+            fuzzyIndex.remove(id);
+        }
+        if (idOrder != null && !idOrder.remove(id, null)) {
+            idOrder = null;
+        }
+        if (wordOrder != null && !wordOrder.remove(id, key)) {
+            wordOrder = null;
+        }
+        onUnindexed(id, key);
+    }
+
+    /**
+     * 单词项加入索引时的小写单词（搜索索引按ID记下）
+     * 调用方可能在词库外原地改过单词（setWord），撤销索引时不能用单词项当前的单词
+     */
+    private String indexedKey(int id, WordItem item) {
+        String key = searchIndex.key(id);
+        return key != null ? key : item.getWord().toLowerCase();
+    }
+
     /**
      * 根据ID删除单词
      */
     public WordItem removeById(int id) {
-        WordItem removed = wordMap.remove(id);
+        return removeItem(id);
+    }
+
+    private WordItem removeItem(int id) {
+        WordItem removed = wordStore.remove(id);
         if (removed != null) {
-            wordToIdMap.remove(removed.getWord().toLowerCase());
+            wordIndex.remove(indexedKey(id, removed));
+            unindexItem(id, removed);
+            if (mutationListener != null) {
+                mutationListener.onRemoved(id);
+            }
         }
         return removed;
     }
@@ -138,70 +403,351 @@ public class WordLib {
      * 根据单词删除
      */
     public WordItem removeByWord(String word) {
-        Integer id = wordToIdMap.remove(word.toLowerCase());
-        return id != null ? wordMap.remove(id) : null;
+        int id = wordIndex.remove(word.toLowerCase());
+        if (id == WordIdIndex.NO_ID) {
+            return null;
+        }
+        WordItem removed = wordStore.remove(id);
+        if (removed != null) {
+            unindexItem(id, removed);
+            if (mutationListener != null) {
+                mutationListener.onRemoved(id);
+            }
+        }
+        return removed;
     }
 
     // ========== 查询方法 ==========
 
     public boolean containsId(int id) {
-        return wordMap.containsKey(id);
+        return wordStore.contains(id);
     }
 
     public boolean containsWord(String word) {
-        return wordToIdMap.containsKey(word.toLowerCase());
+        return wordIndex.containsKey(word.toLowerCase());
     }
 
     public int size() {
-        return wordMap.size();
+        return wordStore.size();
     }
 
     public boolean isEmpty() {
-        return wordMap.isEmpty();
+        return wordStore.size() == 0;
+    }
+
+    // ========== 遍历（不拷贝集合，每个元素不产生分配） ==========
+
+    /**
+     * 按ID顺序遍历所有单词项；回调中不能修改词库
+     * 紧凑存储下各次回调收到的是同一个就地填充的单词项，只在回调内有效，需要保留时用 getById；
+     * 下面其他 WordVisitor 遍历同此
+     */
+    public void forEachWord(WordVisitor visitor) {
+        WordItemStore.Flyweight flyweight = wordStore.flyweight();
+        for (int id = wordStore.next(0); id >= 0; id = wordStore.next(id + 1)) {
+            visitor.visit(id, wordStore.get(id, flyweight));
+        }
+    }
+
+    /**
+     * 按ID顺序遍历所有ID（不装箱）
+     */
+    public void forEachId(IntConsumer action) {
+        for (int id = wordStore.next(0); id >= 0; id = wordStore.next(id + 1)) {
+            action.accept(id);
+        }
+    }
+
+    /**
+     * 按ID顺序遍历所有单词字符串
+     */
+    public void forEachWordString(Consumer<String> action) {
+        for (int id = wordStore.next(0); id >= 0; id = wordStore.next(id + 1)) {
+            action.accept(wordStore.word(id));
+        }
+    }
+
+    /**
+     * 按ID顺序遍历ID在 [fromId, toId) 内的单词项；回调中不能修改词库
+     */
+    public void forEachInRange(int fromId, int toId, WordVisitor visitor) {
+        WordItemStore.Flyweight flyweight = wordStore.flyweight();
+        for (int id = wordStore.next(fromId); id >= 0 && id < toId; id = wordStore.next(id + 1)) {
+            visitor.visit(id, wordStore.get(id, flyweight));
+        }
+    }
+
+    /**
+     * 按单词顺序（忽略大小写）遍历所有单词项；回调中不能修改词库
+     * 有序索引在第一次按单词顺序访问时建立（见 page）
+     */
+    public void forEachByWord(WordVisitor visitor) {
+        WordOrderIndex index = orderIndex(WordOrder.BY_WORD);
+        WordItemStore.Flyweight flyweight = wordStore.flyweight();
+        for (int i = 0; i < index.size(); i++) {
+            int id = index.idAt(i);
+            visitor.visit(id, wordStore.get(id, flyweight));
+        }
+    }
+
+    /**
+     * 按ID顺序遍历含有该词性的单词项
+     */
+    public void forEachInCategory(Category category, WordVisitor visitor) {
+        BitSet ids = categoryIndex.ids(category);
+        if (ids == null) {
+            return;
+        }
+        WordItemStore.Flyweight flyweight = wordStore.flyweight();
+        for (int id = ids.nextSetBit(0); id >= 0; id = ids.nextSetBit(id + 1)) {
+            visitor.visit(id, wordStore.get(id, flyweight));
+        }
+    }
+
+    /**
+     * 遍历各词性的含义条数（同 getCategoryStatistics，但不建 Map、不装箱），跳过为 0 的词性
+     */
+    public void forEachCategoryCount(ObjIntConsumer<Category> action) {
+        for (Category category : CATEGORIES) {
+            int count = categoryIndex.meaningCount(category);
+            if (count > 0) {
+                action.accept(category, count);
+            }
+        }
     }
 
     /**
      * 获取所有单词项
      */
     public Collection<WordItem> getAllWords() {
-        return new ArrayList<>(wordMap.values());
+        List<WordItem> result = new ArrayList<>(wordStore.size());
+        for (int id = wordStore.next(0); id >= 0; id = wordStore.next(id + 1)) {
+            result.add(wordStore.get(id));
+        }
+        return result;
     }
 
     public List<String> getAllWordStrings() {
-        return wordMap.values().stream()
-                .map(WordItem::getWord)
-                .collect(Collectors.toList());
+        List<String> result = new ArrayList<>(wordStore.size());
+        for (int id = wordStore.next(0); id >= 0; id = wordStore.next(id + 1)) {
+            result.add(wordStore.word(id));
+        }
+        return result;
     }
 
     /**
-     * 获取所有ID
+     * 估算单词数据占用的字节数（不含单词和搜索索引）
+     * 紧凑存储另计字符串池，共享池按整个池计算
+     */
+    public long estimateStorageBytes() {
+        return wordStore.estimateMemoryUsage();
+    }
+
+    /**
+     * 获取所有ID，按ID升序迭代
      */
     public Set<Integer> getAllIds() {
-        return new HashSet<>(wordMap.keySet());
+        Set<Integer> result = new LinkedHashSet<>(wordStore.size() * 4 / 3 + 1);
+        for (int id = wordStore.next(0); id >= 0; id = wordStore.next(id + 1)) {
+            result.add(id);
+        }
+        return result;
     }
 
     /**
      * 搜索包含特定文本的单词
      */
     public List<WordItem> search(String keyword) {
-        String lowerKeyword = keyword.toLowerCase();
-        return wordMap.values().stream()
-                .filter(item -> item.getWord().toLowerCase().contains(lowerKeyword))
-                .collect(Collectors.toList());
+        return toItems(searchIndex.search(keyword.toLowerCase(), 0, Integer.MAX_VALUE));
+    }
+
+    /**
+     * 分页搜索包含特定文本的单词，按相关度排序：
+     * 完全匹配、前缀匹配、其余子串匹配依次靠前，同类中匹配位置靠前、单词较短者优先
+     */
+    public List<WordItem> search(String keyword, int offset, int limit) {
+        return toItems(searchIndex.search(keyword.toLowerCase(), offset, limit));
+    }
+
+    /**
+     * 分页搜索以特定文本开头的单词，按相关度排序
+     */
+    public List<WordItem> searchPrefix(String prefix, int offset, int limit) {
+        return toItems(searchIndex.searchPrefix(prefix.toLowerCase(), offset, limit));
+    }
+
+    /**
+     * 按含义反查单词（例如 "快速" 找到 fast、quick），按相关度排序：
+     * 含义与查询完全相同 > 以查询开头 > 包含查询；字母数字部分按整词匹配，忽略大小写
+     */
+    public List<WordItem> searchByMeaning(String text) {
+        return toItems(meaningIndex.search(text, -1, wordStore, 0, Integer.MAX_VALUE));
+    }
+
+    /**
+     * 按含义反查单词，只看指定词性的含义（category 为 null 时不限）
+     */
+    public List<WordItem> searchByMeaning(String text, Category category) {
+        int mask = category != null ? categoryMask(EnumSet.of(category)) : -1;
+        return toItems(meaningIndex.search(text, mask, wordStore, 0, Integer.MAX_VALUE));
+    }
+
+    /**
+     * 分页按含义反查单词
+     *
+     * @param categories 只看这些词性的含义，null 或空表示不限
+     */
+    public List<WordItem> searchByMeaning(String text, Set<Category> categories, int offset, int limit) {
+        return toItems(meaningIndex.search(text, categoryMask(categories), wordStore, offset, limit));
+    }
+
+    /**
+     * 词性集合的位掩码（null 词性按 UNSPECIFIED），集合为空表示不限
+     */
+    private static int categoryMask(Set<Category> categories) {
+        if (categories == null || categories.isEmpty()) {
+            return -1;
+        }
+        int mask = 0;
+        for (Category category : categories) {
+            mask |= WordItem.categoryBit(category);
+            if (category == Category.UNSPECIFIED) {
+                mask |= WordItem.NULL_CATEGORY_BIT;
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * 模糊查找：与 word 的编辑距离（忽略大小写）不超过 maxDistance 的至多 k 个单词，
+     * 按距离由近到远，同距离按单词排序。用于容忍拼写错误的查词。
+     * 在排好序的单词上按公共前缀剪枝，只比较少量单词；索引在第一次调用时建立，之后随每次变更更新。
+     */
+    public List<WordItem> fuzzyLookup(String word, int maxDistance, int k) {
+        return toItems(fuzzyIndex().lookup(word.toLowerCase(), maxDistance, k));
+    }
+
+    private WordFuzzyIndex fuzzyIndex() {
+        WordFuzzyIndex index = fuzzyIndex;
+        return index != null ? index : buildFuzzyIndex();
+    }
+
+    /**
+     * 建立模糊查找索引（同步：ConcurrentWordLib 中可能有多个读线程同时首次查找）
+     */
+    private synchronized WordFuzzyIndex buildFuzzyIndex() {
+        WordFuzzyIndex index = fuzzyIndex;
+        if (index == null) {
+            index = new WordFuzzyIndex();
+            for (int id = wordStore.next(0); id >= 0; id = wordStore.next(id + 1)) {
+                index.add(id, wordStore.word(id).toLowerCase());
+            }
+            fuzzyIndex = index;
+        }
+        return index;
+    }
+
+    // ========== 有序浏览 ==========
+
+    /**
+     * 按 order 排序后从第 offset 个起的至多 limit 个单词项，用于分页显示
+     * 两次变更之间顺序不变；有序索引在第一次访问时建立，之后随变更维护，分页不复制整个词库
+     */
+    public List<WordItem> page(WordOrder order, int offset, int limit) {
+        return toItems(orderIndex(order).slice(offset, limit));
+    }
+
+    /**
+     * 同 page，只返回ID（可作为列表项的稳定 key）
+     */
+    public int[] pageIds(WordOrder order, int offset, int limit) {
+        return orderIndex(order).slice(offset, limit);
+    }
+
+    /**
+     * ID 在 [fromId, toId) 内的单词项，按ID升序
+     */
+    public List<WordItem> range(int fromId, int toId) {
+        List<WordItem> result = new ArrayList<>();
+        for (int id = wordStore.next(fromId); id >= 0 && id < toId; id = wordStore.next(id + 1)) {
+            result.add(wordStore.get(id));
+        }
+        return result;
+    }
+
+    /**
+     * 单词（忽略大小写）在 [fromWord, toWord) 内的单词项，按单词升序；toWord 为 null 表示到最后
+     */
+    public List<WordItem> rangeByWord(String fromWord, String toWord) {
+        WordOrderIndex index = orderIndex(WordOrder.BY_WORD);
+        int from = index.lowerBound(fromWord.toLowerCase());
+        int to = toWord != null ? index.lowerBound(toWord.toLowerCase()) : index.size();
+        return toItems(index.slice(from, Math.max(to - from, 0)));
+    }
+
+    /**
+     * 按ID排序时第一个ID不小于 id 的位置，用于跳转到某个ID
+     */
+    public int positionOfId(int id) {
+        return orderIndex(WordOrder.BY_ID).lowerBound(id);
+    }
+
+    /**
+     * 按单词排序时第一个不小于 word（忽略大小写）的单词的位置，用于跳转到某个单词或字母开头处
+     */
+    public int positionOfWord(String word) {
+        return orderIndex(WordOrder.BY_WORD).lowerBound(word.toLowerCase());
+    }
+
+    private WordOrderIndex orderIndex(WordOrder order) {
+        WordOrderIndex index = order == WordOrder.BY_WORD ? wordOrder : idOrder;
+        return index != null ? index : buildOrderIndex(order);
+    }
+
+    /**
+     * 建立有序索引（同步：ConcurrentWordLib 中可能有多个读线程同时首次访问）
+     */
+    private synchronized WordOrderIndex buildOrderIndex(WordOrder order) {
+        if (order == WordOrder.BY_WORD) {
+            if (wordOrder == null) {
+                String[] keys = new String[wordIndex.size()];
+                wordIndex.copyKeys(keys);
+                wordOrder = WordOrderIndex.byWord(keys, wordIndex);
+            }
+            return wordOrder;
+        }
+        if (idOrder == null) {
+            idOrder = WordOrderIndex.byId(idsInOrder());
+        }
+        return idOrder;
+    }
+
+    private List<WordItem> toItems(int[] ids) {
+        List<WordItem> result = new ArrayList<>(ids.length);
+        for (int id : ids) {
+            result.add(wordStore.get(id));
+        }
+        return result;
     }
 
     // ========== 批量操作方法 ==========
 
     /**
-     * 批量添加单词
+     * 批量添加单词（忽略大小写已存在或重复的单词不会加入，也不出现在结果中）
+     *
+     * @return 单词 -> 分配的ID
      */
     public Map<String, Integer> addAllWords(Map<String, List<Meaning>> wordsWithMeanings) {
-        Map<String, Integer> result = new HashMap<>();
+        List<WordItem> items = new ArrayList<>(wordsWithMeanings.size());
         for (Map.Entry<String, List<Meaning>> entry : wordsWithMeanings.entrySet()) {
-            WordItem item = new WordItem(entry.getKey(), entry.getValue());
-            int id = addWordItem(item);
-            if (id != -1) {
-                result.put(entry.getKey(), id);
+            items.add(new WordItem(entry.getKey(), entry.getValue()));
+        }
+        int[] ids = new int[items.size()];
+        insertItems(items, false, ids);
+        Map<String, Integer> result = new LinkedHashMap<>(ids.length * 4 / 3 + 1);
+        for (int i = 0; i < ids.length; i++) {
+            if (ids[i] != -1) {
+                result.put(items.get(i).getWord(), ids[i]);
             }
         }
         return result;
@@ -211,9 +757,29 @@ public class WordLib {
      * 清空词库
      */
     public void clear() {
-        wordMap.clear();
-        wordToIdMap.clear();
+        markAllDirty();
+        wordStore.clear();
+        wordIndex.clear();
+        searchIndex.clear();
+        categoryIndex.clear();
+        meaningIndex.clear();
+        fuzzyIndex = null;
+        idOrder = null;
+        wordOrder = null;
         nextId = 1;
+        onCleared();
+        if (mutationListener != null) {
+            mutationListener.onCleared();
+        }
+    }
+
+    /**
+     * 压缩存储：清除单词索引中的墓碑并回收多余容量
+     * 适合在大量删除之后调用
+     */
+    public void compact() {
+        wordStore.compact();
+        wordIndex.compact();
     }
 
     // ========== 统计方法 ==========
@@ -222,11 +788,16 @@ public class WordLib {
      * 获取词性统计
      */
     public Map<Category, Integer> getCategoryStatistics() {
-        Map<Category, Integer> stats = new HashMap<>();
-        for (WordItem item : wordMap.values()) {
-            for (Meaning meaning : item.getMeanings()) {
-                Category cat = meaning.getCategory();
-                stats.put(cat, stats.getOrDefault(cat, 0) + 1);
+        return categoryStatistics();
+    }
+
+    private Map<Category, Integer> categoryStatistics() {
+        // 由词性索引的计数器直接得出，与词库大小无关
+        Map<Category, Integer> stats = new EnumMap<>(Category.class);
+        for (Category category : CATEGORIES) {
+            int count = categoryIndex.meaningCount(category);
+            if (count > 0) {
+                stats.put(category, count);
             }
         }
         return stats;
@@ -236,7 +807,7 @@ public class WordLib {
      * 获取单词数量最多的前N个词性
      */
     public List<Map.Entry<Category, Integer>> getTopCategories(int n) {
-        return getCategoryStatistics().entrySet().stream()
+        return categoryStatistics().entrySet().stream()
                 .sorted((a, b) -> b.getValue() - a.getValue())
                 .limit(n)
                 .collect(Collectors.toList());
@@ -248,10 +819,10 @@ public class WordLib {
      * 打印所有单词
      */
     public void printAll() {
-        System.out.println("====== 单词库（共" + size() + "个单词）======");
-        wordMap.forEach((id, item) ->
-                System.out.printf("%4d: %s%n", id, item.toString())
-        );
+        System.out.println("====== 单词库（共" + wordStore.size() + "个单词）======");
+        for (int id = wordStore.next(0); id >= 0; id = wordStore.next(id + 1)) {
+            System.out.printf("%4d: %s%n", id, wordStore.get(id).toString());
+        }
         System.out.println("==================================");
     }
 
@@ -259,21 +830,34 @@ public class WordLib {
      * 格式化显示所有单词
      */
     public String formatAllWords() {
-        StringBuilder sb = new StringBuilder();
-        sb.append("单词库（共").append(size()).append("个单词）\n");
-        wordMap.forEach((id, item) ->
-                sb.append(String.format("%4d: %s%n", id, item.toString()))
-        );
+        StringBuilder sb = new StringBuilder(wordStore.size() * 32 + 32);
+        sb.append("单词库（共").append(wordStore.size()).append("个单词）\n");
+        String lineSeparator = System.lineSeparator();
+        for (int id = wordStore.next(0); id >= 0; id = wordStore.next(id + 1)) {
+            // 等价于 "%4d: %s%n"，不再逐行解析格式串
+            for (int pad = 4 - stringSize(id); pad > 0; pad--) {
+                sb.append(' ');
+            }
+            sb.append(id).append(": ").append(wordStore.get(id).toString()).append(lineSeparator);
+        }
         return sb.toString();
     }
 
+    private static int stringSize(int id) {
+        int size = 1;
+        for (int x = id; x >= 10; x /= 10) {
+            size++;
+        }
+        return size;
+    }
+
     /**
-     * 导出为简单Map（ID -> 单词）
+     * 导出为简单Map（ID -> 单词），按ID升序迭代
      */
     public Map<Integer, String> exportIdToWordMap() {
-        Map<Integer, String> result = new HashMap<>();
-        for (Map.Entry<Integer, WordItem> entry : wordMap.entrySet()) {
-            result.put(entry.getKey(), entry.getValue().getWord());
+        Map<Integer, String> result = new LinkedHashMap<>(wordStore.size() * 4 / 3 + 1);
+        for (int id = wordStore.next(0); id >= 0; id = wordStore.next(id + 1)) {
+            result.put(id, wordStore.word(id));
         }
         return result;
     }
@@ -282,50 +866,91 @@ public class WordLib {
      * 导入数据
      */
     public void importData(Map<Integer, WordItem> data) {
-        this.wordMap.clear();
-        this.wordToIdMap.clear();
+        markAllDirty();
+        this.wordStore.clear();
+        this.wordIndex.clear();
+        this.searchIndex.clear();
+        this.categoryIndex.clear();
+        this.meaningIndex.clear();
+        this.fuzzyIndex = null;
+        this.idOrder = null;
+        this.wordOrder = null;
+        onCleared();
 
-        this.wordMap.putAll(data);
         for (Map.Entry<Integer, WordItem> entry : data.entrySet()) {
-            wordToIdMap.put(entry.getValue().getWord().toLowerCase(), entry.getKey());
+            String key = entry.getValue().getWord().toLowerCase();
+            wordStore.put(entry.getKey(), entry.getValue());
+            wordIndex.put(key, entry.getKey());
+            indexItem(entry.getKey(), key, entry.getValue());
         }
 
         // 更新下一个ID
         this.nextId = data.keySet().stream()
                 .mapToInt(Integer::intValue)
                 .max().orElse(0) + 1;
+        if (mutationListener != null) {
+            // 按ID顺序通知，与 data 的迭代顺序无关
+            mutationListener.onCleared();
+            for (int id = wordStore.next(0); id >= 0; id = wordStore.next(id + 1)) {
+                mutationListener.onAdded(id, wordStore.get(id));
+            }
+        }
     }
 
     /**
      * 将 WordLib 转换为格式化的字符串表示
      * 格式：每行一个单词，格式为 "ID|单词|词性:含义|例句"
+     * 大词库保存到文件时请用 writeTo，避免先拼出整个字符串
      */
-
     @Override
     public String toString() {
-        StringBuilder sb = new StringBuilder();
-        sb.append("# WordLib Export Version 1.0\n");
-        sb.append("# Format: ID|Word|Category:Meaning|Example\n");
-        sb.append("# Multiple meanings separated by semicolons\n");
-
-        for (Map.Entry<Integer, WordItem> entry : wordMap.entrySet()) {
-            int id = entry.getKey();
-            WordItem item = entry.getValue();
+        StringBuilder sb = new StringBuilder(wordStore.size() * 48 + 128);
+        try {
+            writeExport(sb);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);  // StringBuilder 不会抛出
+        }
+        return sb.toString();
+    }
 
-            // 构建含义字符串
-            String meaningsStr = item.getMeanings().stream()
-                    .map(m -> m.getCategory() + ":" + escapeSpecialChars(m.getMeaningText()))
-                    .collect(Collectors.joining(";"));
+    /**
+     * 以导出格式（同 toString）流式写出，不生成中间字符串
+     * 不会 flush 或关闭 out
+     */
+    public void writeTo(Appendable out) throws IOException {
+        writeExport(out);
+    }
 
-            // 转义特殊字符
-            String word = escapeSpecialChars(item.getWord());
-            String example = escapeSpecialChars(item.getExample());
+    /**
+     * 以 UTF-8 流式写出到输出流，写完后 flush，但不关闭 out
+     */
+    public void writeTo(OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+        writeExport(writer);
+        writer.flush();
+    }
 
-            sb.append(String.format("%d|%s|%s|%s\n",
-                    id, word, meaningsStr, example));
+    private void writeExport(Appendable out) throws IOException {
+        out.append("# WordLib Export Version 1.0\n");
+        out.append("# Format: ID|Word|Category:Meaning|Example\n");
+        out.append("# Multiple meanings separated by semicolons\n");
+
+        for (int id = wordStore.next(0); id >= 0; id = wordStore.next(id + 1)) {
+            WordItem item = wordStore.get(id);
+            out.append(Integer.toString(id)).append('|');
+            appendEscaped(out, item.getWord());
+            out.append('|');
+            List<Meaning> meanings = item.meaningList();
+            for (int i = 0; i < meanings.size(); i++) {
+                Meaning meaning = meanings.get(i);
+                if (i > 0) out.append(';');
+                out.append(String.valueOf(meaning.getCategory())).append(':');
+                appendEscaped(out, meaning.getMeaningText());
+            }
+            out.append('|');
+            appendEscaped(out, item.getExample());
+            out.append('\n');
         }
-
-        return sb.toString();
     }
 
     /**
@@ -334,6 +959,7 @@ public class WordLib {
     public static WordLib fromString(String data) {
         WordLib wordLib = new WordLib();
         wordLib.importFromString(data);
+        wordLib.markClean();
         return wordLib;
     }
 
@@ -342,122 +968,495 @@ public class WordLib {
         if (data != null && !data.trim().isEmpty()) {
             importFromString(data);
         }
+        markClean();
     }
 
     /**
      * 从字符串导入数据到当前 WordLib 对象
      */
-    public void importFromString(String data) {
-        if (data == null || data.trim().isEmpty()) {
-            return;
+    public ImportReport importFromString(String data) {
+        if (data == null) {
+            return new ImportReport();
+        }
+        try {
+            return importFrom(new StringReader(data));
+        } catch (IOException e) {
+            // StringReader 不会抛出 IOException
+            throw new UncheckedIOException(e);
         }
+    }
 
-        Scanner scanner = new Scanner(data);
-        while (scanner.hasNextLine()) {
-            String line = scanner.nextLine().trim();
+    /**
+     * 从字符流导入数据（流式解析，不会把整个文件读成一个字符串）
+     */
+    public ImportReport importFrom(Reader reader) throws IOException {
+        return WordLibParser.parse(reader, this::restoreItem);
+    }
 
-            // 跳过空行和注释
-            if (line.isEmpty() || line.startsWith("#")) {
-                continue;
-            }
+    /**
+     * 从 UTF-8 字节流导入数据
+     */
+    public ImportReport importFrom(InputStream in) throws IOException {
+        return importFrom(new InputStreamReader(in, StandardCharsets.UTF_8));
+    }
 
-            try {
-                // 解析行数据
-                String[] parts = line.split("\\|", -1); // -1 保留空字符串
-                if (parts.length < 3) {
-                    continue; // 跳过格式不正确的行
-                }
+    /**
+     * 并行导入 UTF-8 词库文件（使用公共 ForkJoinPool），适合数百 MB 的大文件
+     * 结果与顺序导入相同；小文件直接在调用线程解析
+     */
+    public ImportReport importParallel(File file) throws IOException {
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+        return applyParsedImport(WordLibParallelImport.parse(file, pool), pool);
+    }
 
-                int id = Integer.parseInt(parts[0].trim());
-                String word = unescapeSpecialChars(parts[1].trim());
-                String meaningsStr = parts[2].trim();
-                String example = parts.length > 3 ? unescapeSpecialChars(parts[3].trim()) : "";
-
-                // 解析多个含义
-                List<Meaning> meanings = new ArrayList<>();
-                if (!meaningsStr.isEmpty()) {
-                    String[] meaningEntries = meaningsStr.split(";");
-                    for (String entry : meaningEntries) {
-                        String[] meaningParts = entry.split(":", 2);
-                        if (meaningParts.length == 2) {
-                            String categoryStr = meaningParts[0].trim();
-                            String meaningText = unescapeSpecialChars(meaningParts[1].trim());
-
-                            try {
-                                Category category = Category.valueOf(categoryStr.toUpperCase());
-                                meanings.add(new Meaning(meaningText, category));
-                            } catch (IllegalArgumentException e) {
-                                // 如果词性不合法，使用 UNSPECIFIED
-                                meanings.add(new Meaning(meaningText, Category.UNSPECIFIED));
-                            }
-                        }
-                    }
+    /**
+     * 在指定线程池中并行解析后导入
+     */
+    public ImportReport importParallel(File file, ForkJoinPool pool) throws IOException {
+        return applyParsedImport(WordLibParallelImport.parse(file, pool), pool);
+    }
+
+    /**
+     * 按块顺序合并并行解析的结果（与逐行 restore 等价），搜索索引的片段在 pool 中并行建立
+     */
+    ImportReport applyParsedImport(List<WordLibParallelImport.Chunk> chunks, ForkJoinPool pool) {
+        int maxId = -1;
+        int total = 0;
+        for (WordLibParallelImport.Chunk chunk : chunks) {
+            maxId = Math.max(maxId, chunk.maxId);
+            total += chunk.count;
+        }
+        wordStore.ensureCapacity(maxId + 1);
+        wordIndex.ensureCapacity(wordIndex.size() + total);
+
+        ImportReport report = new ImportReport();
+        searchIndex.beginBulk();
+        try {
+            for (WordLibParallelImport.Chunk chunk : chunks) {
+                for (int i = 0; i < chunk.count; i++) {
+                    restoreItem(chunk.ids[i], chunk.items[i], chunk.keys[i]);
                 }
+                report.append(chunk.report, report.getLineCount());
+            }
+        } finally {
+            searchIndex.endBulk(pool);
+        }
+        return report;
+    }
+
+    /**
+     * 从字符流创建 WordLib 对象（静态工厂方法）
+     */
+    public static WordLib fromReader(Reader reader) throws IOException {
+        WordLib wordLib = new WordLib();
+        wordLib.importFrom(reader);
+        wordLib.markClean();
+        return wordLib;
+    }
+
+    /**
+     * 按指定ID放入单词项（导入时使用），同时推进 nextId
+     */
+    void restore(int id, WordItem item) {
+        restoreItem(id, item);
+    }
+
+    private void restoreItem(int id, WordItem item) {
+        restoreItem(id, item, item.getWord().toLowerCase());
+    }
+
+    private void restoreItem(int id, WordItem item, String key) {
+        WordItem previous = wordStore.put(id, item);
+        if (previous != null) {
+            // 同一ID被覆盖时去掉旧单词的映射
+            String previousWord = indexedKey(id, previous);
+            if (wordIndex.get(previousWord) == id) {
+                wordIndex.remove(previousWord);
+            }
+            unindexItem(id, previous);
+        }
+        wordIndex.put(key, id);
+        indexItem(id, key, item);
+        if (id >= nextId) {
+            nextId = id + 1;
+        }
+        if (mutationListener != null) {
+            if (previous != null) {
+                mutationListener.onUpdated(id, item);
+            } else {
+                mutationListener.onAdded(id, item);
+            }
+        }
+    }
+
+    /**
+     * 设置变更监听器（传 null 取消）
+     */
+    public void setMutationListener(MutationListener listener) {
+        this.mutationListener = listener;
+    }
+
+    int getNextId() {
+        return nextId;
+    }
+
+    // ========== 变更跟踪与差异 ==========
+
+    /**
+     * 自上次 markClean 以来是否有增删改（保存前可据此跳过未变的词库）
+     */
+    public boolean isDirty() {
+        return !dirtyIds.isEmpty();
+    }
+
+    /**
+     * 自上次 markClean 以来新增、修改或删除过的ID，升序
+     */
+    public int[] getDirtyIds() {
+        return dirtyIds.stream().toArray();
+    }
+
+    /**
+     * 变更计数，每次增删改都会增加；保存前记下，保存后传给 markClean(long)
+     */
+    public long getChangeCount() {
+        return changeCount;
+    }
+
+    /**
+     * 标记为已保存，清空脏ID
+     * 不记录保存到了哪里，之后 isSavedTo 对任何文件都返回 false
+     */
+    public void markClean() {
+        dirtyIds.clear();
+        savedTo = null;
+    }
+
+    /**
+     * 保存期间没有新的变更（变更计数仍为 changeCount）时标记为已保存
+     *
+     * @return 是否已清空；保存期间又有变更时返回 false，脏ID保留到下次保存
+     */
+    public boolean markClean(long changeCount) {
+        return clean(changeCount, null);
+    }
+
+    /**
+     * 已把变更计数为 changeCount 时的内容保存到 target（一般为文件路径）：
+     * 与 markClean(long) 相同，另外记下 target，之后没有新的变更时 isSavedTo(target) 为 true
+     *
+     * @return 是否已清空；保存期间又有变更时返回 false
+     */
+    public boolean markSaved(long changeCount, String target) {
+        return clean(changeCount, target);
+    }
+
+    /**
+     * target 中的内容是否就是当前词库：上次 markSaved 的目标是 target，且之后没有增删改，
+     * 可据此跳过保存。从字符串、字符流或其他文件读取后 markClean 的词库对任何 target 都返回 false
+     */
+    public boolean isSavedTo(String target) {
+        return dirtyIds.isEmpty() && target.equals(savedTo);
+    }
+
+    private boolean clean(long changeCount, String target) {
+        if (this.changeCount != changeCount) {
+            return false;
+        }
+        dirtyIds.clear();
+        savedTo = target;
+        return true;
+    }
 
-                // 创建 WordItem
-                WordItem item = new WordItem(word, meanings);
-                item.setExample(example);
+    private void markDirty(int id) {
+        dirtyIds.set(id);
+        changeCount++;
+    }
+
+    // 清空前把现有的ID都记为已变更（删除）
+    private void markAllDirty() {
+        for (int id = wordStore.next(0); id >= 0; id = wordStore.next(id + 1)) {
+            dirtyIds.set(id);
+        }
+        changeCount++;
+    }
 
-                // 手动添加到映射
-                wordMap.put(id, item);
-                wordToIdMap.put(word.toLowerCase(), id);
+    /**
+     * 本词库相对于 base（通常是旧版本）按ID的差异：
+     * 只在本词库中的ID为新增，只在 base 中的为删除，两边都有但 WordItem.contentHash 不同的为修改。
+     * 两边各按ID顺序遍历一次，线性时间
+     */
+    public WordLibDiff diff(WordLib base) {
+        return diffFrom(HashSnapshot.of(base));
+    }
 
-                // 更新下一个ID
-                if (id >= nextId) {
-                    nextId = id + 1;
+    /**
+     * 把 source 中 diff 涉及的单词应用到本词库，diff 一般为 source.diff(this)：
+     * 先删除，再修改，最后按原ID加入新增的单词。
+     * 单词与本词库中其他ID的单词重复（忽略大小写）的修改或新增跳过
+     *
+     * @return 实际应用的ID数
+     */
+    public int applyDiff(WordLib source, WordLibDiff diff) {
+        return applyItems(diff, itemsOf(source, diff.changed()), itemsOf(source, diff.added()));
+    }
+
+    /**
+     * 一个词库各ID及其内容哈希的快照，按ID升序
+     */
+    static final class HashSnapshot {
+        private int[] ids;
+        private long[] hashes;
+        private int size;
+
+        static HashSnapshot of(WordLib wordLib) {
+            HashSnapshot snapshot = new HashSnapshot();
+            int capacity = wordLib.size();
+            snapshot.ids = new int[capacity];
+            snapshot.hashes = new long[capacity];
+            wordLib.forEachWord((id, item) -> snapshot.add(id, item.contentHash()));
+            return snapshot;
+        }
+
+        private void add(int id, long hash) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2 + 16);
+                hashes = Arrays.copyOf(hashes, ids.length);
+            }
+            ids[size] = id;
+            hashes[size] = hash;
+            size++;
+        }
+    }
+
+    /**
+     * 与快照按ID归并比较（ConcurrentWordLib 在锁外取得快照后加读锁调用）
+     */
+    WordLibDiff diffFrom(HashSnapshot base) {
+        IdPostings added = new IdPostings();
+        IdPostings removed = new IdPostings();
+        IdPostings changed = new IdPostings();
+        int i = 0;
+        int id = wordStore.next(0);
+        while (id >= 0 || i < base.size) {
+            int baseId = i < base.size ? base.ids[i] : Integer.MAX_VALUE;
+            if (id >= 0 && id < baseId) {
+                added.add(id);
+                id = wordStore.next(id + 1);
+            } else if (id < 0 || id > baseId) {
+                removed.add(baseId);
+                i++;
+            } else {
+                if (wordStore.get(id).contentHash() != base.hashes[i]) {
+                    changed.add(id);
                 }
+                id = wordStore.next(id + 1);
+                i++;
+            }
+        }
+        return new WordLibDiff(added.toArray(), removed.toArray(), changed.toArray());
+    }
 
-            } catch (Exception e) {
-                // 跳过解析错误的行
-                System.err.println("Warning: Failed to parse line: " + line);
+    // 从 source 取出 ids 对应的单词项（取不到的为 null）
+    static WordItem[] itemsOf(WordLib source, int[] ids) {
+        WordItem[] items = new WordItem[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            items[i] = source.getById(ids[i]);
+        }
+        return items;
+    }
+
+    /**
+     * 应用差异（ConcurrentWordLib 在锁外取得单词项后加写锁调用）
+     */
+    int applyItems(WordLibDiff diff, WordItem[] changedItems, WordItem[] addedItems) {
+        int applied = 0;
+        for (int id : diff.removed()) {
+            if (removeItem(id) != null) {
+                applied++;
             }
         }
-        scanner.close();
+        int[] changed = diff.changed();
+        for (int i = 0; i < changed.length; i++) {
+            WordItem item = changedItems[i];
+            if (item == null) {
+                continue;
+            }
+            if (wordStore.contains(changed[i])) {
+                if (updateItem(changed[i], item)) {
+                    applied++;
+                }
+            } else if (restoreIfFree(changed[i], item)) {
+                applied++;
+            }
+        }
+        int[] added = diff.added();
+        for (int i = 0; i < added.length; i++) {
+            if (addedItems[i] != null && !wordStore.contains(added[i]) && restoreIfFree(added[i], addedItems[i])) {
+                applied++;
+            }
+        }
+        return applied;
+    }
+
+    // 单词未被其他ID占用时按指定ID放入
+    private boolean restoreIfFree(int id, WordItem item) {
+        String key = item.getWord().toLowerCase();
+        if (wordIndex.containsKey(key) || !WordItemStore.isValidId(id)) {
+            return false;
+        }
+        restoreItem(id, item, key);
+        return true;
+    }
+
+    // ========== 包内钩子（ConcurrentWordLib 据此维护单点查询的快照） ==========
+
+    /**
+     * 单词项放入存储并建立索引之后调用，key 为小写单词
+     */
+    void onIndexed(int id, String key) {
+    }
+
+    /**
+     * 单词项移出索引之后调用，key 为加入时的小写单词
+     */
+    void onUnindexed(int id, String key) {
+    }
+
+    /**
+     * 清空所有单词（clear、importData）之后调用
+     */
+    void onCleared() {
+    }
+
+    // ========== 包内访问（不经过可被子类加锁的公共方法） ==========
+
+    /**
+     * 按升序返回所有ID
+     */
+    int[] idsInOrder() {
+        int[] ids = new int[wordStore.size()];
+        int count = 0;
+        for (int id = wordStore.next(0); id >= 0; id = wordStore.next(id + 1)) {
+            ids[count++] = id;
+        }
+        return ids;
+    }
+
+    WordItem itemAt(int id) {
+        return wordStore.get(id);
+    }
+
+    /**
+     * 小写单词对应的ID，没有返回 -1
+     */
+    int idOfKey(String key) {
+        return wordIndex.get(key);
+    }
+
+    void ensureNextId(int id) {
+        if (id > nextId) {
+            nextId = id;
+        }
+    }
+
+    // ========== 二进制格式 ==========
+
+    /**
+     * 写出为二进制格式（见 WordLibBinaryFormat）
+     */
+    public void writeBinary(File file) throws IOException {
+        WordLibBinaryFormat.write(this, file);
     }
 
     /**
-     * 转义特殊字符
+     * 从二进制文件完整读取词库；只需按需访问时使用 MappedWordLib.open
      */
-    private String escapeSpecialChars(String str) {
-        if (str == null) return "";
-        return str.replace("\\", "\\\\")
-                .replace("|", "\\p")
-                .replace(":", "\\c")
-                .replace(";", "\\s")
-                .replace("\n", "\\n")
-                .replace("\r", "\\r");
+    public static WordLib readBinary(File file) throws IOException {
+        WordLib wordLib;
+        try {
+            wordLib = MappedWordLib.open(file).toWordLib();
+        } catch (IllegalStateException e) {
+            // 记录损坏，与头部损坏一样作为读取失败
+            throw new IOException(e.getMessage(), e);
+        }
+        wordLib.markClean();
+        return wordLib;
     }
 
+    // ========== 压缩格式 ==========
+
     /**
-     * 反转义特殊字符
+     * 写出为压缩格式（见 WordLibCompressedFormat）
      */
-    private String unescapeSpecialChars(String str) {
-        if (str == null) return "";
-        return str.replace("\\r", "\r")
-                .replace("\\n", "\n")
-                .replace("\\s", ";")
-                .replace("\\c", ":")
-                .replace("\\p", "|")
-                .replace("\\\\", "\\");
+    public void writeCompressed(File file) throws IOException {
+        WordLibCompressedFormat.write(this, file);
+    }
+
+    /**
+     * 从压缩文件完整读取词库；只需按需访问时使用 CompressedWordLib.open
+     */
+    public static WordLib readCompressed(File file) throws IOException {
+        WordLib wordLib;
+        try {
+            wordLib = CompressedWordLib.open(file).toWordLib();
+        } catch (IllegalStateException e) {
+            // 块损坏，与头部损坏一样作为读取失败
+            throw new IOException(e.getMessage(), e);
+        }
+        wordLib.markClean();
+        return wordLib;
+    }
+
+    /**
+     * 转义特殊字符（单次扫描，无需转义的连续片段整段写出）
+     * \ -> \\，| -> \p，: -> \c，; -> \s，换行 -> \n，回车 -> \r
+     */
+    private static void appendEscaped(Appendable out, String str) throws IOException {
+        if (str == null) return;
+        int start = 0;
+        int length = str.length();
+        for (int i = 0; i < length; i++) {
+            char escaped;
+            switch (str.charAt(i)) {
+                case '\\': escaped = '\\'; break;
+                case '|': escaped = 'p'; break;
+                case ':': escaped = 'c'; break;
+                case ';': escaped = 's'; break;
+                case '\n': escaped = 'n'; break;
+                case '\r': escaped = 'r'; break;
+                default: continue;
+            }
+            if (i > start) out.append(str, start, i);
+            out.append('\\').append(escaped);
+            start = i + 1;
+        }
+        if (start == 0) {
+            out.append(str);
+        } else if (start < length) {
+            out.append(str, start, length);
+        }
     }
 
     /**
      * 导出为简单文本格式（只包含单词和含义）
      */
     public String toSimpleString() {
-        StringBuilder sb = new StringBuilder();
-        wordMap.values().forEach(item -> {
+        StringBuilder sb = new StringBuilder(wordStore.size() * 32);
+        for (int id = wordStore.next(0); id >= 0; id = wordStore.next(id + 1)) {
+            WordItem item = wordStore.get(id);
             sb.append(item.getWord()).append(": ");
-            List<Meaning> meanings = item.getMeanings();
+            List<Meaning> meanings = item.meaningList();
             for (int i = 0; i < meanings.size(); i++) {
                 if (i > 0) sb.append("; ");
-                sb.append(meanings.get(i));
+                Meaning meaning = meanings.get(i);
+                sb.append(meaning.getCategory()).append(": ").append(meaning.getMeaningText());
             }
             if (!item.getExample().isEmpty()) {
                 sb.append(" [例: ").append(item.getExample()).append("]");
             }
             sb.append("\n");
-        });
+        }
         return sb.toString();
     }
 }
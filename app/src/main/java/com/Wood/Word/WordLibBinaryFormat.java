@@ -0,0 +1,197 @@
+package com.Wood.Word;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 词库二进制格式（与文本 .dat 格式并存）
+ *
+ * 文件布局（大端序，偏移均为相对文件开头的 int）：
+ * <pre>
+ * 头部     magic | version(short) | reserved(short) | count | nextId | stringCount
+ *          | stringTableOffset | recordsOffset | idIndexOffset | wordIndexOffset | keyCount
+ * 字符串表 (stringCount + 1) 个相对偏移 + UTF-8 数据，字符串去重
+ * 记录区   每个单词: wordStr | exampleStr | meaningCount(short) | [category(byte) textStr]...
+ * ID索引   count 个 (id, recordOffset)，按 id 升序
+ * 单词索引 keyCount 个 (keyStr, id)，按小写单词的 UTF-8 字节序升序
+ * </pre>
+ * 读取见 {@link MappedWordLib}
+ */
+public class WordLibBinaryFormat {
+    public static final int MAGIC = 0x574C4942;  // "WLIB"
+    public static final short VERSION = 1;
+    public static final int HEADER_SIZE = 40;
+
+    static final int RECORD_FIXED_SIZE = 10;  // wordStr + exampleStr + meaningCount
+    static final int MEANING_SIZE = 5;        // category + textStr
+    static final int ID_ENTRY_SIZE = 8;
+    static final int WORD_ENTRY_SIZE = 8;
+    static final int MAX_MEANINGS = 0xFFFF;  // meaningCount 为无符号 short
+
+    private WordLibBinaryFormat() {
+    }
+
+    /**
+     * 将词库写为二进制格式（先写临时文件并刷盘，再改名替换，写到一半不会损坏原文件）
+     */
+    public static void write(WordLib wordLib, File file) throws IOException {
+        int[] ids = wordLib.idsInOrder();
+
+        // 字符串去重，构建字符串表
+        Map<String, Integer> stringIndex = new HashMap<>();
+        List<byte[]> strings = new ArrayList<>();
+        int[] recordOffsets = new int[ids.length];
+        long recordsSize = 0;
+
+        int[] keyRefs = new int[ids.length];
+        int[] keyIds = new int[ids.length];
+        int keyCount = 0;
+
+        for (int i = 0; i < ids.length; i++) {
+            WordItem item = wordLib.itemAt(ids[i]);
+            intern(item.getWord(), stringIndex, strings);
+            intern(item.getExample(), stringIndex, strings);
+            for (Meaning meaning : item.getMeaningArray()) {
+                intern(meaning.getMeaningText(), stringIndex, strings);
+            }
+            int meaningCount = item.getMeaningCount();
+            if (meaningCount > MAX_MEANINGS) {
+                throw new IOException("单词 " + item.getWord() + " 有 " + meaningCount
+                        + " 个含义，二进制格式最多支持 " + MAX_MEANINGS + " 个");
+            }
+            // 记录区本身超过 2GB 时偏移已无法用 int 表示
+            if (recordsSize > Integer.MAX_VALUE) {
+                throw new IOException("词库过大，二进制格式不支持超过 2GB 的文件");
+            }
+            recordOffsets[i] = (int) recordsSize;
+            recordsSize += RECORD_FIXED_SIZE + (long) MEANING_SIZE * meaningCount;
+
+            // 只为当前映射到该ID的单词建立索引（与 wordToIdMap 一致）
+            String key = item.getWord().toLowerCase();
+            if (wordLib.idOfKey(key) == ids[i]) {
+                keyRefs[keyCount] = intern(key, stringIndex, strings);
+                keyIds[keyCount] = ids[i];
+                keyCount++;
+            }
+        }
+
+        // 单词索引按 UTF-8 字节序排序，读取时可直接在映射内存上二分查找
+        Integer[] order = new Integer[keyCount];
+        for (int i = 0; i < keyCount; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> compareUnsigned(strings.get(keyRefs[a]), strings.get(keyRefs[b])));
+
+        int stringCount = strings.size();
+        long stringDataSize = 0;
+        for (byte[] bytes : strings) {
+            stringDataSize += bytes.length;
+        }
+        long stringTableOffset = HEADER_SIZE;
+        long recordsOffset = stringTableOffset + 4L * (stringCount + 1) + stringDataSize;
+        long idIndexOffset = recordsOffset + recordsSize;
+        long wordIndexOffset = idIndexOffset + (long) ID_ENTRY_SIZE * ids.length;
+        long totalSize = wordIndexOffset + (long) WORD_ENTRY_SIZE * keyCount;
+        if (totalSize > Integer.MAX_VALUE) {
+            throw new IOException("词库过大，二进制格式不支持超过 2GB 的文件");
+        }
+
+        File tempFile = new File(file.getPath() + ".tmp");
+        try (FileOutputStream fileOut = new FileOutputStream(tempFile);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(fileOut, 1 << 16))) {
+            // 头部
+            out.writeInt(MAGIC);
+            out.writeShort(VERSION);
+            out.writeShort(0);
+            out.writeInt(ids.length);
+            out.writeInt(wordLib.getNextId());
+            out.writeInt(stringCount);
+            out.writeInt((int) stringTableOffset);
+            out.writeInt((int) recordsOffset);
+            out.writeInt((int) idIndexOffset);
+            out.writeInt((int) wordIndexOffset);
+            out.writeInt(keyCount);
+
+            // 字符串表
+            int offset = 0;
+            for (byte[] bytes : strings) {
+                out.writeInt(offset);
+                offset += bytes.length;
+            }
+            out.writeInt(offset);
+            for (byte[] bytes : strings) {
+                out.write(bytes);
+            }
+
+            // 记录区
+            for (int id : ids) {
+                WordItem item = wordLib.itemAt(id);
+                out.writeInt(stringIndex.get(nonNull(item.getWord())));
+                out.writeInt(stringIndex.get(nonNull(item.getExample())));
+                Meaning[] meanings = item.getMeaningArray();
+                out.writeShort(meanings.length);
+                for (Meaning meaning : meanings) {
+                    Category category = meaning.getCategory();
+                    out.writeByte(category != null ? category.ordinal() : Category.UNSPECIFIED.ordinal());
+                    out.writeInt(stringIndex.get(nonNull(meaning.getMeaningText())));
+                }
+            }
+
+            // ID索引
+            for (int i = 0; i < ids.length; i++) {
+                out.writeInt(ids[i]);
+                out.writeInt((int) (recordsOffset + recordOffsets[i]));
+            }
+
+            // 单词索引
+            for (Integer i : order) {
+                out.writeInt(keyRefs[i]);
+                out.writeInt(keyIds[i]);
+            }
+            out.flush();
+            fileOut.getFD().sync();
+        } catch (IOException | RuntimeException e) {
+            tempFile.delete();
+            throw e;
+        }
+        if (!tempFile.renameTo(file)) {
+            tempFile.delete();
+            throw new IOException("无法替换二进制词库文件: " + file);
+        }
+    }
+
+    private static String nonNull(String str) {
+        return str != null ? str : "";
+    }
+
+    private static int intern(String str, Map<String, Integer> index, List<byte[]> strings) {
+        String value = nonNull(str);
+        Integer ref = index.get(value);
+        if (ref == null) {
+            ref = strings.size();
+            index.put(value, ref);
+            strings.add(value.getBytes(StandardCharsets.UTF_8));
+        }
+        return ref;
+    }
+
+    static int compareUnsigned(byte[] a, byte[] b) {
+        int n = Math.min(a.length, b.length);
+        for (int i = 0; i < n; i++) {
+            int cmp = (a[i] & 0xFF) - (b[i] & 0xFF);
+            if (cmp != 0) {
+                return cmp;
+            }
+        }
+        return a.length - b.length;
+    }
+}
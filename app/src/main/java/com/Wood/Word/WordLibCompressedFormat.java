@@ -0,0 +1,358 @@
+package com.Wood.Word;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * 词库压缩格式（与文本 .dat、二进制 .wlb 并存）
+ *
+ * 单词按小写单词的 UTF-8 字节序排序后每 BLOCK_SIZE 个分为一块，每块可单独解码：
+ * 小写单词前缀压缩（每个只存与前一个不同的后缀，块内第一个完整保存），大小写不同的原单词另存；
+ * 含义与例句部分整块 Deflate 压缩。按单词查找只在一块的单词部分上逐字节比较，读取单词项时再解压该块。
+ *
+ * 文件布局（大端序，偏移均为相对文件开头的 int，varint 为 7 位一组的无符号变长整数）：
+ * <pre>
+ * 头部     magic | version(short) | reserved(short) | count | nextId
+ *          | blockCount | blockIndexOffset | idGroupCount | idIndexOffset | indexChecksum
+ * 块       checksum | entryCount(varint) | wordsLength(varint) | 单词部分 | rawLength(varint) | deflatedLength(varint) | 压缩数据
+ *          单词部分每项: prefixLength | suffixLength | 小写单词后缀 UTF-8 | (id &lt;&lt; 2 | 是否为索引项 &lt;&lt; 1 | 是否另存原单词)
+ *          | [原单词（varint 长度 + UTF-8）]，除字符串外均为 varint
+ *          压缩数据解压后每项: example | meaningCount(varint) | [category(byte) text]...，字符串为 varint 长度 + UTF-8
+ * 块索引   (blockCount + 1) 个块偏移 | 每块第一个小写单词（varint 长度 + UTF-8）
+ * ID索引   idGroupCount 个 (firstId, groupOffset) | 结束偏移 | 每组至多 ID_GROUP_SIZE 个 (id 增量, 项号)，均为 varint
+ * </pre>
+ * 项号 = 块号 * BLOCK_SIZE + 块内位置。小写单词相同的多个单词中，索引项（wordToIdMap 指向的那个）排在最前。
+ * 校验和均为 CRC32：块的 checksum 覆盖该块其余的字节，在块第一次被访问时校验；
+ * indexChecksum 覆盖头部的前 32 字节以及块索引到文件末尾，在打开时校验。
+ * 读取见 {@link CompressedWordLib}
+ */
+public class WordLibCompressedFormat {
+    public static final int MAGIC = 0x574C425A;  // "WLBZ"
+    public static final short VERSION = 2;
+    public static final int HEADER_SIZE = 36;
+
+    static final int BLOCK_SIZE = 64;
+    static final int ID_GROUP_SIZE = 128;
+
+    private static final byte[] EMPTY = new byte[0];
+
+    private WordLibCompressedFormat() {
+    }
+
+    /**
+     * 将词库写为压缩格式
+     */
+    public static void write(WordLib wordLib, File file) throws IOException {
+        int[] ids = wordLib.idsInOrder();
+        int count = ids.length;
+        byte[][] keys = new byte[count][];
+        boolean[] indexed = new boolean[count];
+        for (int i = 0; i < count; i++) {
+            String key = wordLib.itemAt(ids[i]).getWord().toLowerCase();
+            keys[i] = key.getBytes(StandardCharsets.UTF_8);
+            indexed[i] = wordLib.idOfKey(key) == ids[i];
+        }
+
+        // 按小写单词的字节序排序，相同单词中索引项在前，其余按ID
+        Integer[] order = new Integer[count];
+        for (int i = 0; i < count; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> {
+            int cmp = WordLibBinaryFormat.compareUnsigned(keys[a], keys[b]);
+            if (cmp != 0) {
+                return cmp;
+            }
+            if (indexed[a] != indexed[b]) {
+                return indexed[a] ? -1 : 1;
+            }
+            return Integer.compare(ids[a], ids[b]);
+        });
+
+        int blockCount = (count + BLOCK_SIZE - 1) / BLOCK_SIZE;
+        int[] blockOffsets = new int[blockCount + 1];
+        int[] entryOf = new int[count];  // ids 中的下标 -> 项号
+        int idGroupCount = (count + ID_GROUP_SIZE - 1) / ID_GROUP_SIZE;
+        int blockIndexOffset;
+        int idIndexOffset;
+        ByteBuffer header;
+
+        // 先写到临时文件，写完并落盘后再替换，中途失败不会损坏原文件
+        File tempFile = new File(file.getPath() + ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(new FileOutputStream(tempFile), 1 << 16))) {
+                // 头部先占位，写完各部分后回填
+                out.write(new byte[HEADER_SIZE]);
+
+                // 块
+                Output words = new Output();
+                Output payload = new Output();
+                Output compressed = new Output();
+                Output blockBytes = new Output();
+                CRC32 crc = new CRC32();
+                Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+                try {
+                    for (int block = 0; block < blockCount; block++) {
+                        blockOffsets[block] = out.size();
+                        words.reset();
+                        payload.reset();
+                        int from = block * BLOCK_SIZE;
+                        int to = Math.min(from + BLOCK_SIZE, count);
+                        byte[] previous = EMPTY;
+                        for (int entry = from; entry < to; entry++) {
+                            int i = order[entry];
+                            entryOf[i] = entry;
+                            WordItem item = wordLib.itemAt(ids[i]);
+
+                            byte[] key = keys[i];
+                            int prefix = commonPrefix(previous, key);
+                            words.writeVarInt(prefix);
+                            words.writeVarInt(key.length - prefix);
+                            words.write(key, prefix, key.length - prefix);
+                            previous = key;
+                            // ID 小于 MAX_ID（2^26），左移两位不会溢出
+                            String word = item.getWord();
+                            boolean original = !word.equals(word.toLowerCase());
+                            words.writeVarInt(ids[i] << 2 | (indexed[i] ? 2 : 0) | (original ? 1 : 0));
+                            if (original) {
+                                words.writeString(word);
+                            }
+
+                            payload.writeString(item.getExample());
+                            Meaning[] meanings = item.getMeaningArray();
+                            payload.writeVarInt(meanings.length);
+                            for (Meaning meaning : meanings) {
+                                Category category = meaning.getCategory();
+                                payload.writeByte(category != null ? category.ordinal() : Category.UNSPECIFIED.ordinal());
+                                payload.writeString(meaning.getMeaningText());
+                            }
+                        }
+                        compressed.reset();
+                        deflater.reset();
+                        deflater.setInput(payload.bytes, 0, payload.size);
+                        deflater.finish();
+                        while (!deflater.finished()) {
+                            compressed.ensureCapacity(compressed.size + 4096);
+                            compressed.size += deflater.deflate(compressed.bytes, compressed.size,
+                                    compressed.bytes.length - compressed.size);
+                        }
+
+                        blockBytes.reset();
+                        blockBytes.writeVarInt(to - from);
+                        blockBytes.writeVarInt(words.size);
+                        blockBytes.write(words.bytes, 0, words.size);
+                        blockBytes.writeVarInt(payload.size);
+                        blockBytes.writeVarInt(compressed.size);
+                        blockBytes.write(compressed.bytes, 0, compressed.size);
+                        crc.reset();
+                        crc.update(blockBytes.bytes, 0, blockBytes.size);
+                        out.writeInt((int) crc.getValue());
+                        out.write(blockBytes.bytes, 0, blockBytes.size);
+                    }
+                } finally {
+                    deflater.end();
+                }
+
+                // 块索引与ID索引先放在缓冲中，算出校验和后写出
+                Output index = new Output();
+                blockIndexOffset = out.size();
+                blockOffsets[blockCount] = blockIndexOffset;
+                for (int offset : blockOffsets) {
+                    index.writeInt(offset);
+                }
+                for (int block = 0; block < blockCount; block++) {
+                    byte[] key = keys[order[block * BLOCK_SIZE]];
+                    index.writeVarInt(key.length);
+                    index.write(key, 0, key.length);
+                }
+
+                // ID索引：组表之后是各组的 (id 增量, 项号)
+                Output groups = new Output();
+                int[] groupOffsets = new int[idGroupCount];
+                for (int group = 0; group < idGroupCount; group++) {
+                    groupOffsets[group] = groups.size;
+                    int from = group * ID_GROUP_SIZE;
+                    int to = Math.min(from + ID_GROUP_SIZE, count);
+                    for (int i = from; i < to; i++) {
+                        groups.writeVarInt(i == from ? 0 : ids[i] - ids[i - 1]);
+                        groups.writeVarInt(entryOf[i]);
+                    }
+                }
+                idIndexOffset = blockIndexOffset + index.size;
+                int groupDataOffset = idIndexOffset + 8 * idGroupCount + 4;
+                for (int group = 0; group < idGroupCount; group++) {
+                    index.writeInt(ids[group * ID_GROUP_SIZE]);
+                    index.writeInt(groupDataOffset + groupOffsets[group]);
+                }
+                index.writeInt(groupDataOffset + groups.size);
+                index.write(groups.bytes, 0, groups.size);
+                out.write(index.bytes, 0, index.size);
+                if (out.size() == Integer.MAX_VALUE) {
+                    // size() 溢出时停在 Integer.MAX_VALUE
+                    throw new IOException("词库过大，压缩格式不支持超过 2GB 的文件");
+                }
+
+                header = ByteBuffer.allocate(HEADER_SIZE);
+                header.putInt(MAGIC).putShort(VERSION).putShort((short) 0)
+                        .putInt(count).putInt(wordLib.getNextId())
+                        .putInt(blockCount).putInt(blockIndexOffset)
+                        .putInt(idGroupCount).putInt(idIndexOffset);
+                crc.reset();
+                crc.update(header.array(), 0, header.position());
+                crc.update(index.bytes, 0, index.size);
+                header.putInt((int) crc.getValue());
+            }
+
+            // 回填头部，与前面写入的内容一起落盘
+            try (RandomAccessFile headerFile = new RandomAccessFile(tempFile, "rw")) {
+                headerFile.write(header.array());
+                headerFile.getFD().sync();
+            }
+        } catch (IOException | RuntimeException e) {
+            tempFile.delete();
+            throw e;
+        }
+        if (!tempFile.renameTo(file)) {
+            tempFile.delete();
+            throw new IOException("无法替换压缩词库文件: " + file);
+        }
+    }
+
+    private static int commonPrefix(byte[] a, byte[] b) {
+        int n = Math.min(a.length, b.length);
+        int i = 0;
+        while (i < n && a[i] == b[i]) {
+            i++;
+        }
+        return i;
+    }
+
+    // ========== 读取（CompressedWordLib 使用） ==========
+    // 读到缓冲区末尾之外或长度不合理时抛出 corrupt，不会越界读取或按损坏的长度分配数组
+
+    static IllegalStateException corrupt(String detail) {
+        return new IllegalStateException("压缩词库已损坏: " + detail);
+    }
+
+    static int readVarInt(ByteBuffer in) {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            if (!in.hasRemaining()) {
+                throw corrupt("数据不完整");
+            }
+            byte b = in.get();
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw corrupt("变长整数过长");
+    }
+
+    /**
+     * 读取长度：不能为负，也不能超过缓冲区剩余的字节数
+     */
+    static int readLength(ByteBuffer in) {
+        int length = readVarInt(in);
+        if (length < 0 || length > in.remaining()) {
+            throw corrupt("长度 " + length + " 超出剩余的 " + in.remaining() + " 字节");
+        }
+        return length;
+    }
+
+    static int readByte(ByteBuffer in) {
+        if (!in.hasRemaining()) {
+            throw corrupt("数据不完整");
+        }
+        return in.get() & 0xFF;
+    }
+
+    static String readString(ByteBuffer in) {
+        int length = readLength(in);
+        if (length == 0) {
+            return "";
+        }
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    static void skipString(ByteBuffer in) {
+        int length = readLength(in);
+        in.position(in.position() + length);
+    }
+
+    /**
+     * buffer 中 [from, to) 的 CRC32
+     */
+    static int checksum(ByteBuffer buffer, int from, int to) {
+        return (int) update(new CRC32(), buffer, from, to).getValue();
+    }
+
+    static CRC32 update(CRC32 crc, ByteBuffer buffer, int from, int to) {
+        ByteBuffer range = buffer.duplicate();
+        range.limit(to);
+        range.position(from);
+        crc.update(range);
+        return crc;
+    }
+
+    // 可增长的字节缓冲（写出时按块复用）
+    private static final class Output {
+        byte[] bytes = new byte[4096];
+        int size;
+
+        void reset() {
+            size = 0;
+        }
+
+        void ensureCapacity(int capacity) {
+            if (capacity > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(capacity, bytes.length * 2));
+            }
+        }
+
+        void writeByte(int b) {
+            ensureCapacity(size + 1);
+            bytes[size++] = (byte) b;
+        }
+
+        void write(byte[] src, int offset, int length) {
+            ensureCapacity(size + length);
+            System.arraycopy(src, offset, bytes, size, length);
+            size += length;
+        }
+
+        void writeInt(int value) {
+            ensureCapacity(size + 4);
+            bytes[size++] = (byte) (value >>> 24);
+            bytes[size++] = (byte) (value >>> 16);
+            bytes[size++] = (byte) (value >>> 8);
+            bytes[size++] = (byte) value;
+        }
+
+        void writeVarInt(int value) {
+            while ((value & ~0x7F) != 0) {
+                writeByte((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            writeByte(value);
+        }
+
+        void writeString(String str) {
+            byte[] utf8 = str != null ? str.getBytes(StandardCharsets.UTF_8) : EMPTY;
+            writeVarInt(utf8.length);
+            write(utf8, 0, utf8.length);
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.Wood.Word;
+
+/**
+ * 两个词库版本之间按ID的差异（WordLib.diff）
+ * 三组ID各自升序：新增（只在新版本中）、删除（只在旧版本中）、修改（两边都有但内容哈希不同）
+ */
+public class WordLibDiff {
+    private final int[] added;
+    private final int[] removed;
+    private final int[] changed;
+
+    WordLibDiff(int[] added, int[] removed, int[] changed) {
+        this.added = added;
+        this.removed = removed;
+        this.changed = changed;
+    }
+
+    public int[] getAdded() {
+        return added.clone();
+    }
+
+    public int[] getRemoved() {
+        return removed.clone();
+    }
+
+    public int[] getChanged() {
+        return changed.clone();
+    }
+
+    // 包内只读使用，不拷贝
+    int[] added() {
+        return added;
+    }
+
+    int[] removed() {
+        return removed;
+    }
+
+    int[] changed() {
+        return changed;
+    }
+
+    /**
+     * 差异涉及的ID总数
+     */
+    public int size() {
+        return added.length + removed.length + changed.length;
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    @Override
+    public String toString() {
+        return "新增 " + added.length + " 个，删除 " + removed.length + " 个，修改 " + changed.length + " 个";
+    }
+}
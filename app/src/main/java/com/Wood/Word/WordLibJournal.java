@@ -0,0 +1,451 @@
+package com.Wood.Word;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.CRC32;
+
+/**
+ * 词库的追加式变更日志
+ *
+ * addWord / updateWordItem / removeById / removeByWord 等变更以紧凑记录追加到日志文件，
+ * 保存时只需刷盘而不必重写整个词库。加载时先读基础 .dat 文件再重放日志。
+ * 日志超过阈值后在后台做检查点：先把当前日志轮换为 .old，再由后台线程
+ * 用"基础文件 + .old 日志"重建新的基础文件，全程不读取内存中的 WordLib，
+ * 因此不要求 WordLib 线程安全。
+ *
+ * 写日志失败（如存储空间不足）时不向变更方抛出异常（内存中的变更已经生效），
+ * 而是记录失败、停止追加；下一次 sync 改为把内存中的词库完整写为基础文件
+ * 并换用新的日志，此时在调用 sync 的线程上读取 WordLib。
+ *
+ * 记录格式：length(int) | op(byte) | id(int) | [单词项] | crc32(int)
+ */
+public class WordLibJournal implements WordLib.MutationListener, Closeable {
+    public static final long DEFAULT_CHECKPOINT_THRESHOLD = 1L << 20;  // 1MB
+
+    private static final byte OP_ADD = 1;
+    private static final byte OP_UPDATE = 2;
+    private static final byte OP_REMOVE = 3;
+    private static final byte OP_CLEAR = 4;
+
+    private static final Category[] CATEGORIES = Category.values();
+
+    // 所有日志共用的后台检查点线程
+    private static final ExecutorService CHECKPOINT_EXECUTOR = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "WordLibJournal-checkpoint");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final File baseFile;
+    private final File journalFile;
+    private final File rotatedFile;
+    private final long checkpointThreshold;
+    private final WordLib wordLib;
+
+    private FileOutputStream journalOut;
+    private long journalSize;
+    private IOException appendFailure;  // 写日志失败后不再追加，直到轮换出新日志
+    private boolean fullSavePending;    // 日志缺少记录，基础文件需要用内存中的词库重写
+    private IOException lastError;      // 最近一次写日志或检查点失败的原因
+    private boolean checkpointRunning;
+    private boolean closed;             // 关闭后不再轮换或合并，已排队的检查点直接放弃
+    private final Object checkpointLock = new Object();  // 同一时间只允许一个检查点
+
+    // 复用的记录编码缓冲
+    private final ByteArrayOutputStream recordBytes = new ByteArrayOutputStream(256);
+    private final DataOutputStream record = new DataOutputStream(recordBytes);
+    private final CRC32 crc = new CRC32();
+
+    private WordLibJournal(File baseFile, long checkpointThreshold, WordLib wordLib) {
+        this.baseFile = baseFile;
+        this.journalFile = new File(baseFile.getPath() + ".journal");
+        this.rotatedFile = new File(baseFile.getPath() + ".journal.old");
+        this.checkpointThreshold = checkpointThreshold;
+        this.wordLib = wordLib;
+    }
+
+    /**
+     * 打开词库：读取基础文件并重放日志，之后的变更自动写入日志
+     */
+    public static WordLibJournal open(File baseFile) throws IOException {
+        return open(baseFile, DEFAULT_CHECKPOINT_THRESHOLD);
+    }
+
+    public static WordLibJournal open(File baseFile, long checkpointThreshold) throws IOException {
+        return open(baseFile, checkpointThreshold, new WordLib());
+    }
+
+    /**
+     * 打开词库到给定的空 WordLib（例如需要跨线程共享时传入 ConcurrentWordLib）
+     */
+    public static WordLibJournal open(File baseFile, long checkpointThreshold, WordLib wordLib) throws IOException {
+        WordLibJournal journal = new WordLibJournal(baseFile, checkpointThreshold, wordLib);
+        journal.load();
+        wordLib.setMutationListener(journal);
+        return journal;
+    }
+
+    public WordLib getWordLib() {
+        return wordLib;
+    }
+
+    public synchronized long getJournalSize() {
+        return journalSize;
+    }
+
+    private void load() throws IOException {
+        if (baseFile.exists()) {
+            wordLib.importParallel(baseFile);
+        }
+        // 上次检查点未完成时 .old 日志仍在，先于当前日志重放（记录可重复应用）
+        if (rotatedFile.exists()) {
+            replay(rotatedFile, wordLib);
+        }
+        journalSize = journalFile.exists() ? replay(journalFile, wordLib) : 0;
+        // 截掉崩溃时写了一半的尾部记录
+        try (RandomAccessFile raf = new RandomAccessFile(journalFile, "rw")) {
+            raf.setLength(journalSize);
+        }
+        // 内存中的词库与磁盘一致
+        wordLib.markClean();
+        journalOut = new FileOutputStream(journalFile, true);
+        if (rotatedFile.exists()) {
+            scheduleCheckpoint();
+        }
+    }
+
+    // ========== 写日志 ==========
+
+    @Override
+    public void onAdded(int id, WordItem item) {
+        append(OP_ADD, id, item);
+    }
+
+    @Override
+    public void onUpdated(int id, WordItem item) {
+        append(OP_UPDATE, id, item);
+    }
+
+    @Override
+    public void onRemoved(int id) {
+        append(OP_REMOVE, id, null);
+    }
+
+    @Override
+    public void onCleared() {
+        append(OP_CLEAR, 0, null);
+    }
+
+    private synchronized void append(byte op, int id, WordItem item) {
+        if (appendFailure != null) {
+            // 日志已缺少记录，后续记录也没有意义，等待完整保存
+            return;
+        }
+        try {
+            recordBytes.reset();
+            record.writeInt(0);  // 长度占位
+            record.writeByte(op);
+            record.writeInt(id);
+            if (item != null) {
+                writeItem(record, item);
+            }
+            byte[] bytes = recordBytes.toByteArray();
+            int payloadLength = bytes.length - 4;
+            bytes[0] = (byte) (payloadLength >>> 24);
+            bytes[1] = (byte) (payloadLength >>> 16);
+            bytes[2] = (byte) (payloadLength >>> 8);
+            bytes[3] = (byte) payloadLength;
+            crc.reset();
+            crc.update(bytes, 4, payloadLength);
+            int checksum = (int) crc.getValue();
+
+            journalOut.write(bytes);
+            journalOut.write(new byte[]{
+                    (byte) (checksum >>> 24), (byte) (checksum >>> 16),
+                    (byte) (checksum >>> 8), (byte) checksum});
+            journalSize += bytes.length + 4;
+        } catch (IOException e) {
+            // 内存中的变更已生效且词库仍标记为已修改，由下一次 sync 完整保存
+            appendFailure = e;
+            fullSavePending = true;
+            lastError = e;
+            return;
+        }
+        if (journalSize >= checkpointThreshold) {
+            scheduleCheckpoint();
+        }
+    }
+
+    private static void writeItem(DataOutputStream out, WordItem item) throws IOException {
+        writeString(out, item.getWord());
+        writeString(out, item.getExample());
+        Meaning[] meanings = item.getMeaningArray();
+        out.writeShort(meanings.length);
+        for (Meaning meaning : meanings) {
+            Category category = meaning.getCategory();
+            out.writeByte(category != null ? category.ordinal() : Category.UNSPECIFIED.ordinal());
+            writeString(out, meaning.getMeaningText());
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String str) throws IOException {
+        byte[] bytes = (str != null ? str : "").getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * 将日志同步到存储设备（保存时调用）；写日志失败过时改为完整保存
+     */
+    public void sync() throws IOException {
+        synchronized (this) {
+            if (!fullSavePending) {
+                journalOut.getFD().sync();
+                return;
+            }
+        }
+        rewrite();
+    }
+
+    /**
+     * 写日志是否失败过、需要在下一次 sync 时完整保存
+     */
+    public synchronized boolean needsFullSave() {
+        return fullSavePending;
+    }
+
+    /**
+     * 最近一次写日志或后台检查点失败的原因，没有失败时返回 null
+     */
+    public synchronized IOException getLastError() {
+        return lastError;
+    }
+
+    /**
+     * 停止记录变更并关闭日志；正在运行的检查点先执行完，已排队的不再执行
+     * （之后可以用 open 重新打开同一文件，不会与旧的检查点同时改写文件）
+     */
+    @Override
+    public void close() throws IOException {
+        wordLib.setMutationListener(null);
+        // 与检查点相同的加锁顺序：先 checkpointLock 再 this
+        synchronized (checkpointLock) {
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                closed = true;
+                journalOut.close();
+            }
+        }
+    }
+
+    // ========== 重放 ==========
+
+    /**
+     * 将日志重放到词库上
+     *
+     * @return 最后一条完整记录结束处的偏移
+     */
+    static long replay(File file, WordLib target) throws IOException {
+        long validLength = 0;
+        CRC32 checksum = new CRC32();
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(new FileInputStream(file), 1 << 16))) {
+            while (true) {
+                byte[] payload;
+                try {
+                    int length = in.readInt();
+                    if (length < 5 || length > file.length()) {
+                        break;
+                    }
+                    payload = new byte[length];
+                    in.readFully(payload);
+                    checksum.reset();
+                    checksum.update(payload, 0, length);
+                    if (in.readInt() != (int) checksum.getValue()) {
+                        break;
+                    }
+                } catch (EOFException e) {
+                    break;
+                }
+                apply(new DataInputStream(new ByteArrayInputStream(payload)), target);
+                validLength += 4 + payload.length + 4;
+            }
+        }
+        return validLength;
+    }
+
+    private static void apply(DataInputStream in, WordLib target) throws IOException {
+        byte op = in.readByte();
+        int id = in.readInt();
+        switch (op) {
+            case OP_ADD:
+            case OP_UPDATE:
+                target.restore(id, readItem(in));
+                break;
+            case OP_REMOVE:
+                target.removeById(id);
+                break;
+            case OP_CLEAR:
+                target.clear();
+                break;
+            default:
+                throw new IOException("未知的日志记录类型: " + op);
+        }
+    }
+
+    private static WordItem readItem(DataInputStream in) throws IOException {
+        String word = readString(in);
+        String example = readString(in);
+        int meaningCount = in.readShort() & 0xFFFF;
+        List<Meaning> meanings = new ArrayList<>(meaningCount);
+        for (int i = 0; i < meaningCount; i++) {
+            int ordinal = in.readByte() & 0xFF;
+            Category category = ordinal < CATEGORIES.length ? CATEGORIES[ordinal] : Category.UNSPECIFIED;
+            meanings.add(new Meaning(readString(in), category));
+        }
+        WordItem item = new WordItem(word, meanings);
+        item.setExample(example);
+        return item;
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // ========== 检查点 ==========
+
+    private synchronized void scheduleCheckpoint() {
+        if (checkpointRunning || closed) {
+            return;
+        }
+        checkpointRunning = true;
+        CHECKPOINT_EXECUTOR.execute(() -> {
+            try {
+                checkpoint();
+            } catch (IOException e) {
+                // .old 日志仍在，下次检查点或打开时重试；已关闭时放弃，不算失败
+                synchronized (this) {
+                    if (!closed) {
+                        lastError = e;
+                    }
+                }
+            } finally {
+                synchronized (this) {
+                    checkpointRunning = false;
+                }
+            }
+        });
+    }
+
+    /**
+     * 把日志合并回基础文件（同步执行；一般由后台线程自动调用）
+     */
+    public void checkpoint() throws IOException {
+        synchronized (checkpointLock) {
+            checkOpen();
+            rotate();
+            mergeRotated();
+        }
+    }
+
+    /**
+     * 把内存中的词库完整写为基础文件并换用新的日志（写日志失败后由 sync 调用）
+     *
+     * 先轮换日志，之后的变更写入新日志；再写出词库快照。快照可能已包含新日志中的部分变更，
+     * 重放时重复应用不影响结果。完成前崩溃时，磁盘上仍是原基础文件加 .old 日志。
+     */
+    private void rewrite() throws IOException {
+        synchronized (checkpointLock) {
+            checkOpen();
+            // 上次未完成的检查点先合并，让 .old 可以存放这次轮换出的日志
+            if (rotatedFile.exists()) {
+                mergeRotated();
+            }
+            synchronized (this) {
+                rotate();
+                appendFailure = null;
+            }
+            writeBase(wordLib);
+            if (!rotatedFile.delete()) {
+                throw new IOException("无法删除已合并的日志: " + rotatedFile);
+            }
+            synchronized (this) {
+                journalOut.getFD().sync();
+                fullSavePending = false;
+                lastError = null;
+            }
+        }
+    }
+
+    // 轮换日志：当前日志改名为 .old，新的变更写入空日志（已有 .old 时不轮换）
+    private synchronized void rotate() throws IOException {
+        checkOpen();
+        if (rotatedFile.exists()) {
+            return;
+        }
+        try {
+            journalOut.close();
+        } catch (IOException e) {
+            // 写失败后的日志流关闭时可能再次失败，日志内容以已写入的为准
+            if (appendFailure == null) {
+                throw e;
+            }
+        }
+        if (!journalFile.renameTo(rotatedFile)) {
+            journalOut = new FileOutputStream(journalFile, true);
+            throw new IOException("无法轮换日志文件: " + journalFile);
+        }
+        journalOut = new FileOutputStream(journalFile, true);
+        journalSize = 0;
+    }
+
+    private synchronized void checkOpen() throws IOException {
+        if (closed) {
+            throw new IOException("日志已关闭: " + journalFile);
+        }
+    }
+
+    // 用"基础文件 + .old 日志"重建基础文件，只读写文件，不触碰内存中的词库
+    private void mergeRotated() throws IOException {
+        WordLib merged = new WordLib();
+        if (baseFile.exists()) {
+            merged.importParallel(baseFile);
+        }
+        replay(rotatedFile, merged);
+        writeBase(merged);
+        // 基础文件已包含 .old 中的全部变更
+        if (!rotatedFile.delete()) {
+            throw new IOException("无法删除已合并的日志: " + rotatedFile);
+        }
+    }
+
+    private void writeBase(WordLib source) throws IOException {
+        File tempFile = new File(baseFile.getPath() + ".tmp");
+        try (FileOutputStream out = new FileOutputStream(tempFile)) {
+            source.writeTo(out);
+            out.getFD().sync();
+        }
+        if (!tempFile.renameTo(baseFile)) {
+            throw new IOException("无法替换基础文件: " + baseFile);
+        }
+    }
+}
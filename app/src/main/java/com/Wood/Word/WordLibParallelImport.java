@@ -0,0 +1,194 @@
+package com.Wood.Word;
+
+import java.io.CharArrayReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * 大词库文本文件的并行解析
+ *
+ * 按 '\n' 字节把文件切成若干块（UTF-8 多字节字符中不会出现 0x0A，切点总在行首），
+ * 每块单独内存映射、解码并用 WordLibParser 解析到块内缓冲，互不共享状态。
+ * 合并由 WordLib 按块顺序进行，结果与顺序导入完全一致：同一ID或同一单词出现多次时后出现的行生效。
+ */
+class WordLibParallelImport {
+    // 小于两块的文件直接在调用线程解析
+    static final int MIN_CHUNK_SIZE = 1 << 20;
+    // 每个线程分到的块数，块多一些可以平衡各块解析耗时的差异
+    private static final int CHUNKS_PER_THREAD = 4;
+    // 单块上限，受 FileChannel.map 和 char[] 长度限制
+    private static final int MAX_CHUNK_SIZE = 256 << 20;
+
+    private WordLibParallelImport() {
+    }
+
+    /**
+     * 一块的解析结果，按行序保存
+     */
+    static final class Chunk implements WordLibParser.Sink {
+        final long start;
+        final long end;
+        int[] ids = new int[64];
+        WordItem[] items = new WordItem[64];
+        String[] keys = new String[64];  // 小写单词，在解析线程中预先算好
+        int count;
+        int maxId = -1;
+        ImportReport report;
+
+        Chunk(long start, long end) {
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        public void accept(int id, WordItem item) {
+            if (count == ids.length) {
+                int capacity = count * 2;
+                ids = Arrays.copyOf(ids, capacity);
+                items = Arrays.copyOf(items, capacity);
+                keys = Arrays.copyOf(keys, capacity);
+            }
+            ids[count] = id;
+            items[count] = item;
+            keys[count] = item.getWord().toLowerCase();
+            count++;
+            if (id > maxId) {
+                maxId = id;
+            }
+        }
+    }
+
+    /**
+     * 切块并解析，返回按文件顺序排列的块
+     */
+    static List<Chunk> parse(File file, ForkJoinPool pool) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            List<Chunk> chunks = split(channel, pool.getParallelism());
+            if (chunks.size() == 1) {
+                parseChunk(channel, chunks.get(0));
+                return chunks;
+            }
+            try {
+                pool.invoke(new ParseTask(channel, chunks, 0, chunks.size()));
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            return chunks;
+        }
+    }
+
+    /**
+     * 把字符流顺序解析到一块中（不切块），供调用方在锁外解析、之后再合并
+     */
+    static List<Chunk> parse(Reader reader) throws IOException {
+        Chunk chunk = new Chunk(0, 0);
+        chunk.report = WordLibParser.parse(reader, chunk);
+        return Collections.singletonList(chunk);
+    }
+
+    private static List<Chunk> split(FileChannel channel, int parallelism) throws IOException {
+        long size = channel.size();
+        long chunkSize = Math.max(MIN_CHUNK_SIZE, size / ((long) Math.max(parallelism, 1) * CHUNKS_PER_THREAD));
+        chunkSize = Math.min(chunkSize, MAX_CHUNK_SIZE);
+        List<Chunk> chunks = new ArrayList<>();
+        long start = 0;
+        ByteBuffer probe = ByteBuffer.allocate(64 * 1024);
+        while (size - start > chunkSize) {
+            long end = nextLineStart(channel, start + chunkSize, size, probe);
+            // 单行超过块上限时无法切分
+            if (end - start > MAX_CHUNK_SIZE) {
+                throw new IOException("行过长，无法切块: 偏移 " + start);
+            }
+            chunks.add(new Chunk(start, end));
+            start = end;
+        }
+        if (start < size || chunks.isEmpty()) {
+            chunks.add(new Chunk(start, size));
+        }
+        return chunks;
+    }
+
+    /**
+     * 从 position 起找到下一个 '\n'，返回其后一字节的偏移；没有则返回文件大小
+     */
+    private static long nextLineStart(FileChannel channel, long position, long size, ByteBuffer probe)
+            throws IOException {
+        while (position < size) {
+            probe.clear();
+            int n = channel.read(probe, position);
+            if (n <= 0) {
+                break;
+            }
+            for (int i = 0; i < n; i++) {
+                if (probe.get(i) == '\n') {
+                    return position + i + 1;
+                }
+            }
+            position += n;
+        }
+        return size;
+    }
+
+    private static void parseChunk(FileChannel channel, Chunk chunk) throws IOException {
+        int length = (int) (chunk.end - chunk.start);
+        if (length == 0) {
+            chunk.report = new ImportReport();
+            return;
+        }
+        ByteBuffer bytes = channel.map(FileChannel.MapMode.READ_ONLY, chunk.start, length);
+        // 与 InputStreamReader 一致：非法字节替换为 U+FFFD
+        CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        CharBuffer chars = decoder.decode(bytes);
+        chunk.report = WordLibParser.parse(
+                new CharArrayReader(chars.array(), chars.arrayOffset() + chars.position(), chars.remaining()),
+                chunk);
+    }
+
+    private static final class ParseTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final FileChannel channel;
+        private final List<Chunk> chunks;
+        private final int from;
+        private final int to;
+
+        ParseTask(FileChannel channel, List<Chunk> chunks, int from, int to) {
+            this.channel = channel;
+            this.chunks = chunks;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                try {
+                    parseChunk(channel, chunks.get(from));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new ParseTask(channel, chunks, from, middle),
+                    new ParseTask(channel, chunks, middle, to));
+        }
+    }
+}
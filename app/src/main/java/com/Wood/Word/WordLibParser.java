@@ -0,0 +1,279 @@
+package com.Wood.Word;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 词库文本格式（ID|单词|词性:含义|例句）的流式解析器
+ * 从 Reader 按块读取，逐字符切分字段并一次完成反转义，不使用正则和 split
+ */
+public class WordLibParser {
+
+    /**
+     * 解析结果的接收方
+     */
+    public interface Sink {
+        void accept(int id, WordItem item);
+    }
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private final Reader reader;
+    private final Sink sink;
+    private final ImportReport report = new ImportReport();
+
+    // 读取缓冲
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private int bufferPos;
+    private int bufferLimit;
+    private boolean skipLineFeed;  // 上一行以 \r 结尾，需要吞掉紧随的 \n
+
+    // 当前行（复用，不为每行创建 String）
+    private char[] line = new char[256];
+    private int lineLength;
+    private int lineNumber;
+
+    // 反转义用的复用缓冲
+    private final StringBuilder text = new StringBuilder(64);
+
+    private WordLibParser(Reader reader, Sink sink) {
+        this.reader = reader;
+        this.sink = sink;
+    }
+
+    /**
+     * 解析整个输入，每条合法记录交给 sink
+     */
+    public static ImportReport parse(Reader reader, Sink sink) throws IOException {
+        WordLibParser parser = new WordLibParser(reader, sink);
+        while (parser.readLine()) {
+            parser.report.addLine();
+            parser.parseLine();
+        }
+        return parser.report;
+    }
+
+    // ========== 读取 ==========
+
+    private boolean fill() throws IOException {
+        int n = reader.read(buffer, 0, BUFFER_SIZE);
+        while (n == 0) {
+            n = reader.read(buffer, 0, BUFFER_SIZE);
+        }
+        bufferPos = 0;
+        bufferLimit = Math.max(n, 0);
+        return n > 0;
+    }
+
+    /**
+     * 读取一行到 line（支持 \n、\r、\r\n）
+     *
+     * @return 到达输入末尾且没有内容时返回 false
+     */
+    private boolean readLine() throws IOException {
+        lineLength = 0;
+        boolean any = false;
+        while (true) {
+            if (bufferPos >= bufferLimit && !fill()) {
+                // 最后一行可能没有换行符
+                if (any) {
+                    lineNumber++;
+                }
+                return any;
+            }
+            char c = buffer[bufferPos++];
+            if (skipLineFeed) {
+                skipLineFeed = false;
+                if (c == '\n') {
+                    continue;
+                }
+            }
+            if (c == '\n' || c == '\r') {
+                skipLineFeed = c == '\r';
+                lineNumber++;
+                return true;
+            }
+            any = true;
+            if (lineLength == line.length) {
+                line = Arrays.copyOf(line, line.length * 2);
+            }
+            line[lineLength++] = c;
+        }
+    }
+
+    // ========== 解析 ==========
+
+    private void parseLine() {
+        char[] c = line;
+        int start = trimStart(c, 0, lineLength);
+        int end = trimEnd(c, start, lineLength);
+
+        // 跳过空行和注释
+        if (start == end || c[start] == '#') {
+            return;
+        }
+
+        // 定位前四个字段的分隔符
+        int sep1 = indexOf(c, '|', start, end);
+        int sep2 = sep1 < 0 ? -1 : indexOf(c, '|', sep1 + 1, end);
+        if (sep2 < 0) {
+            report.addSkipped();
+            report.addProblem(lineNumber, ImportReport.ProblemType.MALFORMED_LINE,
+                    "字段数不足: " + new String(c, start, Math.min(end - start, 64)));
+            return;
+        }
+        int sep3 = indexOf(c, '|', sep2 + 1, end);
+        int meaningsEnd = sep3 < 0 ? end : sep3;
+
+        // ID
+        long id = parseId(c, trimStart(c, start, sep1), trimEnd(c, start, sep1));
+        // ID 作为存储数组下标，须为非负且不超过上限
+        if (id == Long.MIN_VALUE || !WordItemStore.isValidId((int) id)) {
+            report.addSkipped();
+            report.addProblem(lineNumber, ImportReport.ProblemType.INVALID_ID,
+                    new String(c, start, sep1 - start));
+            return;
+        }
+
+        // 单词
+        int wordStart = trimStart(c, sep1 + 1, sep2);
+        String word = unescape(c, wordStart, trimEnd(c, wordStart, sep2));
+
+        // 含义
+        List<Meaning> meanings = new ArrayList<>(2);
+        int meaningsStart = trimStart(c, sep2 + 1, meaningsEnd);
+        parseMeanings(c, meaningsStart, trimEnd(c, meaningsStart, meaningsEnd), meanings);
+
+        // 例句
+        String example = "";
+        if (sep3 >= 0) {
+            int sep4 = indexOf(c, '|', sep3 + 1, end);
+            int exampleEnd = sep4 < 0 ? end : sep4;
+            int exampleStart = trimStart(c, sep3 + 1, exampleEnd);
+            example = unescape(c, exampleStart, trimEnd(c, exampleStart, exampleEnd));
+        }
+
+        WordItem item = new WordItem(word, meanings);
+        item.setExample(example);
+        sink.accept((int) id, item);
+        report.addImported();
+    }
+
+    private void parseMeanings(char[] c, int start, int end, List<Meaning> out) {
+        int entryStart = start;
+        while (entryStart < end) {
+            int entryEnd = indexOf(c, ';', entryStart, end);
+            if (entryEnd < 0) {
+                entryEnd = end;
+            }
+            int colon = indexOf(c, ':', entryStart, entryEnd);
+            if (colon >= 0) {
+                int tagStart = trimStart(c, entryStart, colon);
+                int tagEnd = trimEnd(c, tagStart, colon);
+                Category category = Category.fromTag(c, tagStart, tagEnd);
+                if (category == null) {
+                    // 词性不合法时使用 UNSPECIFIED
+                    category = Category.UNSPECIFIED;
+                    report.addProblem(lineNumber, ImportReport.ProblemType.UNKNOWN_CATEGORY,
+                            new String(c, tagStart, tagEnd - tagStart));
+                }
+                int textStart = trimStart(c, colon + 1, entryEnd);
+                String meaningText = unescape(c, textStart, trimEnd(c, textStart, entryEnd));
+                out.add(new Meaning(meaningText, category));
+            }
+            entryStart = entryEnd + 1;
+        }
+    }
+
+    /**
+     * 解析十进制整数（允许正负号），非法时返回 Long.MIN_VALUE
+     */
+    private static long parseId(char[] c, int start, int end) {
+        if (start >= end) {
+            return Long.MIN_VALUE;
+        }
+        boolean negative = false;
+        int i = start;
+        if (c[i] == '-' || c[i] == '+') {
+            negative = c[i] == '-';
+            i++;
+            if (i == end) {
+                return Long.MIN_VALUE;
+            }
+        }
+        long value = 0;
+        for (; i < end; i++) {
+            int digit = c[i] - '0';
+            if (digit < 0 || digit > 9) {
+                return Long.MIN_VALUE;
+            }
+            value = value * 10 + digit;
+            if (value > (long) Integer.MAX_VALUE + 1) {
+                return Long.MIN_VALUE;
+            }
+        }
+        value = negative ? -value : value;
+        if (value > Integer.MAX_VALUE || value < Integer.MIN_VALUE) {
+            return Long.MIN_VALUE;
+        }
+        return value;
+    }
+
+    /**
+     * 单遍反转义：\\ \p \c \s \n \r，未知转义原样保留
+     */
+    private String unescape(char[] c, int start, int end) {
+        int backslash = indexOf(c, '\\', start, end);
+        if (backslash < 0) {
+            return new String(c, start, end - start);
+        }
+        StringBuilder sb = text;
+        sb.setLength(0);
+        sb.append(c, start, backslash - start);
+        for (int i = backslash; i < end; i++) {
+            char ch = c[i];
+            if (ch != '\\' || i + 1 >= end) {
+                sb.append(ch);
+                continue;
+            }
+            char next = c[++i];
+            switch (next) {
+                case '\\': sb.append('\\'); break;
+                case 'p': sb.append('|'); break;
+                case 'c': sb.append(':'); break;
+                case 's': sb.append(';'); break;
+                case 'n': sb.append('\n'); break;
+                case 'r': sb.append('\r'); break;
+                default: sb.append('\\').append(next); break;
+            }
+        }
+        return sb.toString();
+    }
+
+    private static int indexOf(char[] c, char target, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (c[i] == target) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // 与 String.trim 相同的空白定义
+    private static int trimStart(char[] c, int start, int end) {
+        while (start < end && c[start] <= ' ') {
+            start++;
+        }
+        return start;
+    }
+
+    private static int trimEnd(char[] c, int start, int end) {
+        while (end > start && c[end - 1] <= ' ') {
+            end--;
+        }
+        return end;
+    }
+}
@@ -0,0 +1,11 @@
+package com.Wood.Word;
+
+/**
+ * 按顺序浏览词库时的排序方式（WordLib.page 等）
+ */
+public enum WordOrder {
+    // 按ID升序，即添加的先后
+    BY_ID,
+    // 按单词升序（忽略大小写）
+    BY_WORD
+}
@@ -0,0 +1,155 @@
+package com.Wood.Word;
+
+import java.util.Arrays;
+
+/**
+ * 词库的有序视图：按顺序排好的ID数组，用于按位置分页和按键定位
+ *
+ * 按单词排序时另存与ID一一对应的小写单词（与 WordIdIndex 共用字符串），二分查找直接比较。
+ * 由 WordLib 在第一次按该顺序访问时建立，之后的零星变更原地插入/删除（移动数组）；
+ * 变更累计超过 MAX_EDITS 次（如批量导入）时 add/remove 返回 false，
+ * WordLib 丢弃本索引，下次访问再整体重建，避免逐条移动整个数组。
+ */
+class WordOrderIndex {
+    // 建立后允许原地修改的次数；按ID排序时追加到末尾不计入
+    private static final int MAX_EDITS = 256;
+
+    private final boolean byWord;
+    private int[] ids;
+    private String[] sortedKeys;  // 按单词排序时与 ids 对应的小写单词，按ID排序时为 null
+    private int size;
+    private int edits;
+
+    private WordOrderIndex(int[] ids, String[] sortedKeys, int size) {
+        this.ids = ids;
+        this.sortedKeys = sortedKeys;
+        this.byWord = sortedKeys != null;
+        this.size = size;
+    }
+
+    /**
+     * @param ids 升序的全部ID
+     */
+    static WordOrderIndex byId(int[] ids) {
+        return new WordOrderIndex(ids, null, ids.length);
+    }
+
+    /**
+     * 按单词排序
+     *
+     * @param keys 全部小写单词（各不相同，任意顺序，会被原地排序）
+     */
+    static WordOrderIndex byWord(String[] keys, WordIdIndex wordIndex) {
+        Arrays.parallelSort(keys);
+        int[] ids = new int[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            ids[i] = wordIndex.get(keys[i]);
+        }
+        return new WordOrderIndex(ids, keys, keys.length);
+    }
+
+    int size() {
+        return size;
+    }
+
+    int idAt(int position) {
+        return ids[position];
+    }
+
+    /**
+     * 从 offset 起至多 limit 个ID（按位置复制，不遍历整个词库）
+     */
+    int[] slice(int offset, int limit) {
+        if (offset < 0 || limit < 0) {
+            throw new IllegalArgumentException("offset/limit 不能为负: " + offset + ", " + limit);
+        }
+        int from = Math.min(offset, size);
+        int to = (int) Math.min((long) from + limit, size);
+        return Arrays.copyOfRange(ids, from, to);
+    }
+
+    /**
+     * 第一个ID不小于 id 的位置（只用于按ID排序）
+     */
+    int lowerBound(int id) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (ids[mid] < id) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * 第一个单词不小于 key 的位置（只用于按单词排序）
+     */
+    int lowerBound(String key) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sortedKeys[mid].compareTo(key) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * 加入一个单词；返回 false 表示变更过多，调用方应丢弃本索引
+     */
+    boolean add(int id, String key) {
+        if (!byWord && (size == 0 || ids[size - 1] < id)) {
+            insertAt(size, id, null);  // 新ID总是最大的，追加即可
+            return true;
+        }
+        if (++edits > MAX_EDITS) {
+            return false;
+        }
+        insertAt(byWord ? lowerBound(key) : lowerBound(id), id, key);
+        return true;
+    }
+
+    /**
+     * 移除一个单词；返回 false 表示变更过多，调用方应丢弃本索引
+     */
+    boolean remove(int id, String key) {
+        if (++edits > MAX_EDITS) {
+            return false;
+        }
+        int position = byWord ? lowerBound(key) : lowerBound(id);
+        if (position < size && ids[position] == id) {
+            size--;
+            System.arraycopy(ids, position + 1, ids, position, size - position);
+            if (byWord) {
+                System.arraycopy(sortedKeys, position + 1, sortedKeys, position, size - position);
+                sortedKeys[size] = null;
+            }
+        }
+        return true;
+    }
+
+    private void insertAt(int position, int id, String key) {
+        if (size == ids.length) {
+            int capacity = size + (size >> 1) + 16;
+            ids = Arrays.copyOf(ids, capacity);
+            if (byWord) {
+                sortedKeys = Arrays.copyOf(sortedKeys, capacity);
+            }
+        }
+        System.arraycopy(ids, position, ids, position + 1, size - position);
+        ids[position] = id;
+        if (byWord) {
+            System.arraycopy(sortedKeys, position, sortedKeys, position + 1, size - position);
+            sortedKeys[position] = key;
+        }
+        size++;
+    }
+}
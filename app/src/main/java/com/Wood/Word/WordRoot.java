@@ -1,65 +1,147 @@
 package com.Wood.Word;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.function.Consumer;
 
+/**
+ * 单词项列表，保持插入顺序（允许通过 addWordItem 加入重复单词），
+ * 另有按规范化单词（忽略大小写，同 equalsIgnoreCase）的哈希索引：
+ * containsWord / getByWord 为 O(1)，merge 为 O(n+m)。
+ * 单词项加入后不要再修改其单词文本，否则索引失效
+ */
 public class WordRoot {
-    private List<WordItem> words;
+    private final ArrayList<WordItem> words;
+    private final Map<String, WordItem> index;  // 规范化单词 -> 列表中第一个该单词的项
+    private List<WordItem> wordsView;  // words 的只读视图
+    // 搜索索引（首次搜索时按当前列表建立，列表变化后失效）
+    private WordSearchIndex searchIndex;
+    private WordItem[] indexedItems;
 
     public WordRoot() {
         this.words = new ArrayList<>();
+        this.index = new HashMap<>();
     }
 
     public WordRoot(WordRoot other) {
         this.words = new ArrayList<>(other.words);
+        this.index = new HashMap<>(other.index);
     }
 
     public WordRoot(WordItem wordItem) {
         this();
-        if (wordItem != null) {
-            this.words.add(wordItem);
-        }
+        addWordItem(wordItem);
     }
 
     public WordRoot(List<WordItem> wordItems) {
-        this.words = new ArrayList<>(wordItems);
+        this.words = new ArrayList<>(wordItems.size());
+        this.index = new HashMap<>(capacityFor(wordItems.size()));
+        for (int i = 0; i < wordItems.size(); i++) {
+            if (wordItems.get(i) != null) {
+                append(wordItems.get(i));
+            }
+        }
     }
 
     public WordRoot(WordItem[] wordItems) {
         this();
         if (wordItems != null) {
             for (WordItem item : wordItems) {
-                if (item != null) {
-                    this.words.add(item);
-                }
+                addWordItem(item);
             }
         }
     }
 
+    /**
+     * 忽略大小写的规范化键：逐字符 toLowerCase(toUpperCase(c))，与 equalsIgnoreCase 的判等一致
+     */
+    static String normalize(String word) {
+        int length = word.length();
+        int i = 0;
+        while (i < length && fold(word.charAt(i)) == word.charAt(i)) {
+            i++;
+        }
+        if (i == length) {
+            return word;  // 已是规范形式，不分配
+        }
+        char[] chars = word.toCharArray();
+        for (; i < length; i++) {
+            chars[i] = fold(chars[i]);
+        }
+        return new String(chars);
+    }
+
+    private static char fold(char c) {
+        return Character.toLowerCase(Character.toUpperCase(c));
+    }
+
+    private static int capacityFor(int size) {
+        return (int) Math.min(size / 0.75f + 1, 1 << 30);
+    }
+
+    private void append(WordItem item) {
+        words.add(item);
+        index.putIfAbsent(normalize(item.getWord()), item);
+    }
+
     // 添加单词项
     public void addWordItem(WordItem wordItem) {
         if (wordItem != null) {
-            words.add(wordItem);
+            append(wordItem);
+            searchIndex = null;
         }
     }
 
     // 移除单词项
     public boolean removeWordItem(WordItem wordItem) {
-        return words.remove(wordItem);
+        if (wordItem == null || !words.remove(wordItem)) {
+            return false;
+        }
+        searchIndex = null;
+        String key = normalize(wordItem.getWord());
+        if (index.get(key) == wordItem) {
+            // 索引指向被删的项时，改为指向剩下的第一个同名项
+            index.remove(key);
+            for (int i = 0; i < words.size(); i++) {
+                WordItem item = words.get(i);
+                if (normalize(item.getWord()).equals(key)) {
+                    index.put(key, item);
+                    break;
+                }
+            }
+        }
+        return true;
     }
 
     public boolean removeWordItem(String word) {
+        if (index.remove(normalize(word)) == null) {
+            return false;
+        }
+        searchIndex = null;
         return words.removeIf(item -> item.getWord().equalsIgnoreCase(word));
     }
 
+    /**
+     * 按单词查找（忽略大小写），有重复时返回第一个
+     */
+    public WordItem getByWord(String word) {
+        return index.get(normalize(word));
+    }
+
     // 根据词性获取单词项
     public List<WordItem> getByCategory(Category category) {
-        return words.stream()
-                .filter(item -> item.hasCategory(category))
-                .collect(Collectors.toList());
+        List<WordItem> result = new ArrayList<>();
+        int bit = WordItem.categoryBit(category);
+        for (int i = 0; i < words.size(); i++) {
+            WordItem item = words.get(i);
+            if ((item.getCategoryMask() & bit) != 0) {
+                result.add(item);
+            }
+        }
+        return result;
     }
 
     // 获取所有单词
@@ -67,19 +149,65 @@ public class WordRoot {
         return new ArrayList<>(words);
     }
 
+    /**
+     * 所有单词的只读视图（不拷贝），随 WordRoot 的修改而变化
+     */
+    public List<WordItem> words() {
+        if (wordsView == null) {
+            wordsView = Collections.unmodifiableList(words);
+        }
+        return wordsView;
+    }
+
+    /**
+     * 按顺序遍历所有单词项，不拷贝列表
+     */
+    public void forEachWord(Consumer<WordItem> action) {
+        for (int i = 0; i < words.size(); i++) {
+            action.accept(words.get(i));
+        }
+    }
+
     // 获取所有单词字符串
     public List<String> getAllWordStrings() {
-        return words.stream()
-                .map(WordItem::getWord)
-                .collect(Collectors.toList());
+        List<String> result = new ArrayList<>(words.size());
+        for (int i = 0; i < words.size(); i++) {
+            result.add(words.get(i).getWord());
+        }
+        return result;
     }
 
     // 搜索单词
     public List<WordItem> search(String keyword) {
-        String lowerKeyword = keyword.toLowerCase();
-        return words.stream()
-                .filter(item -> item.getWord().toLowerCase().contains(lowerKeyword))
-                .collect(Collectors.toList());
+        int[] positions = ensureSearchIndex().matchIds(keyword.toLowerCase());
+        List<WordItem> result = new ArrayList<>(positions.length);
+        for (int position : positions) {
+            result.add(indexedItems[position]);
+        }
+        return result;
+    }
+
+    // 分页搜索，按相关度排序（规则同 WordLib.search）
+    public List<WordItem> search(String keyword, int offset, int limit) {
+        int[] positions = ensureSearchIndex().search(keyword.toLowerCase(), offset, limit);
+        List<WordItem> result = new ArrayList<>(positions.length);
+        for (int position : positions) {
+            result.add(indexedItems[position]);
+        }
+        return result;
+    }
+
+    private WordSearchIndex ensureSearchIndex() {
+        if (searchIndex == null) {
+            WordSearchIndex index = new WordSearchIndex();
+            WordItem[] items = words.toArray(new WordItem[0]);
+            for (int i = 0; i < items.length; i++) {
+                index.add(i, items[i].getWord().toLowerCase());
+            }
+            indexedItems = items;
+            searchIndex = index;
+        }
+        return searchIndex;
     }
 
     // 获取单词数量
@@ -95,35 +223,59 @@ public class WordRoot {
     // 清空
     public void clear() {
         words.clear();
+        index.clear();
+        searchIndex = null;
     }
 
-    // 合并另一个WordRoot
+    // 合并另一个WordRoot：只加入本方没有的单词（other 内部的重复也只取第一个）
     public void merge(WordRoot other) {
-        if (other != null) {
-            for (WordItem item : other.words) {
-                // 避免重复添加相同的单词
-                if (!containsWord(item.getWord())) {
-                    words.add(item);
-                }
+        if (other == null || other == this) {
+            return;
+        }
+        List<WordItem> source = other.words;
+        int before = words.size();
+        words.ensureCapacity(before + source.size());
+        for (int i = 0; i < source.size(); i++) {
+            WordItem item = source.get(i);
+            if (index.putIfAbsent(normalize(item.getWord()), item) == null) {
+                words.add(item);
             }
         }
+        if (words.size() != before) {
+            searchIndex = null;
+        }
     }
 
     // 检查是否包含单词
     public boolean containsWord(String word) {
-        return words.stream()
-                .anyMatch(item -> item.getWord().equalsIgnoreCase(word));
+        return index.containsKey(normalize(word));
     }
 
-    // 获取词性统计
+    // 获取词性统计（先按词性计数，最后再建 Map）
     public Map<Category, Integer> getCategoryStatistics() {
+        Category[] categories = Category.values();
+        int[] counts = new int[categories.length];
+        int nullCount = 0;
+        for (int i = 0; i < words.size(); i++) {
+            List<Meaning> meanings = words.get(i).meaningList();
+            for (int j = 0; j < meanings.size(); j++) {
+                Category category = meanings.get(j).getCategory();
+                if (category != null) {
+                    counts[category.ordinal()]++;
+                } else {
+                    nullCount++;
+                }
+            }
+        }
         Map<Category, Integer> stats = new HashMap<>();
-        for (WordItem item : words) {
-            for (Meaning meaning : item.getMeanings()) {
-                Category cat = meaning.getCategory();
-                stats.put(cat, stats.getOrDefault(cat, 0) + 1);
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] > 0) {
+                stats.put(categories[i], counts[i]);
             }
         }
+        if (nullCount > 0) {
+            stats.put(null, nullCount);
+        }
         return stats;
     }
 
@@ -137,12 +289,26 @@ public class WordRoot {
         return sb.toString();
     }
 
-    // 转换为WordLib
+    /**
+     * 转换为WordLib：一次性预分配，按顺序复制每个单词的全部含义和例句（深拷贝，互不影响）
+     * 单词按原样保存；WordLib 中单词忽略大小写唯一，重复的单词只保留第一个
+     */
     public WordLib toWordLib() {
-        WordLib wordLib = new WordLib(this.size());
-        for (WordItem item : words) {
-            wordLib.addWord(item.getWord(), item.getMeanings().get(0));
+        List<WordItem> copies = new ArrayList<>(words.size());
+        for (int i = 0; i < words.size(); i++) {
+            WordItem item = words.get(i);
+            List<Meaning> meanings = item.meaningList();
+            WordItem copy = new WordItem(item.getWord());
+            List<Meaning> copiedMeanings = copy.meaningList();
+            for (int j = 0; j < meanings.size(); j++) {
+                Meaning meaning = meanings.get(j);
+                copiedMeanings.add(new Meaning(meaning.getMeaningText(), meaning.getCategory()));
+            }
+            copy.setExample(item.getExample());
+            copies.add(copy);
         }
+        WordLib wordLib = new WordLib(words.size());
+        wordLib.insertAll(copies);
         return wordLib;
     }
-}
\ No newline at end of file
+}
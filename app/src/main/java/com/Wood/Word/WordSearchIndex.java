@@ -0,0 +1,339 @@
+package com.Wood.Word;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * 单词的增量搜索索引
+ *
+ * 每个单词保存一份小写键，并登记：
+ * - 所有三字符片段（trigram），用于子串搜索
+ * - 开头的一、二字符片段，用于前缀搜索
+ * 查询时取最短的倒排表作为候选，再在小写键上核对，不为每个单词调用 toLowerCase。
+ * 少于三个字符的子串查询直接扫描小写键。
+ *
+ * 批量导入时先 beginBulk，期间 add 只登记小写键，endBulk 再按片段分区并行建立倒排表。
+ */
+class WordSearchIndex {
+    // 片段种类放在高位，与 trigram 的 48 位编码区分
+    private static final long PREFIX1 = 1L << 48;
+    private static final long PREFIX2 = 2L << 48;
+
+    // 排序键中的匹配类型
+    private static final long EXACT = 0;
+    private static final long PREFIX = 1;
+    private static final long SUBSTRING = 2;
+
+    private static final int[] NO_IDS = new int[0];
+
+    // 少于这个数量的批量直接在当前线程建立
+    private static final int PARALLEL_BULK_SIZE = 16384;
+
+    private final PagedArray<String> keys = new PagedArray<>(WordItemStore.MAX_ID);  // ID -> 小写单词
+    private final GramTable grams = new GramTable();
+    private int size;
+    private BitSet pending;  // 批量模式下已登记、尚未建立片段的ID
+
+    void add(int id, String key) {
+        if (keys.get(id) != null) {
+            remove(id);
+        }
+        keys.set(id, key);
+        size++;
+        if (pending != null) {
+            pending.set(id);
+            return;
+        }
+        addGrams(id, key, grams);
+    }
+
+    private static void addGrams(int id, String key, GramTable grams) {
+        int length = key.length();
+        if (length >= 1) {
+            grams.getOrCreate(PREFIX1 | key.charAt(0)).add(id);
+        }
+        if (length >= 2) {
+            grams.getOrCreate(PREFIX2 | pack2(key, 0)).add(id);
+        }
+        for (int i = 0; i + 3 <= length; i++) {
+            grams.getOrCreate(pack3(key, i)).add(id);
+        }
+    }
+
+    /**
+     * 加入时记下的小写单词；未加入时为 null
+     */
+    String key(int id) {
+        return keys.get(id);
+    }
+
+    void remove(int id) {
+        String key = keys.remove(id);
+        if (key == null) {
+            return;
+        }
+        size--;
+        if (pending != null && pending.get(id)) {
+            pending.clear(id);  // 片段尚未建立
+            return;
+        }
+        int length = key.length();
+        if (length >= 1) {
+            removeFrom(PREFIX1 | key.charAt(0), id);
+        }
+        if (length >= 2) {
+            removeFrom(PREFIX2 | pack2(key, 0), id);
+        }
+        for (int i = 0; i + 3 <= length; i++) {
+            removeFrom(pack3(key, i), id);
+        }
+    }
+
+    void clear() {
+        keys.clear();
+        grams.clear();
+        size = 0;
+        if (pending != null) {
+            pending.clear();
+        }
+    }
+
+    // ========== 批量建立 ==========
+
+    /**
+     * 进入批量模式；endBulk 之前不能查询
+     */
+    void beginBulk() {
+        if (pending == null) {
+            pending = new BitSet();
+        }
+    }
+
+    /**
+     * 为批量模式下登记的单词建立片段倒排表
+     * 片段按哈希分成若干区，各区在 pool 中并行建立，互不共享，最后并入总表
+     */
+    void endBulk(ForkJoinPool pool) {
+        BitSet bulk = pending;
+        pending = null;
+        if (bulk == null || bulk.isEmpty()) {
+            return;
+        }
+        int[] ids = bulk.stream().toArray();  // 升序，倒排表全部为尾部追加
+        int parts = 1;
+        if (pool != null && ids.length >= PARALLEL_BULK_SIZE) {
+            parts = Integer.highestOneBit(Math.max(pool.getParallelism(), 1)) * 2;
+        }
+        List<GramTable> partitions;
+        if (parts == 1) {
+            partitions = new ArrayList<>(1);
+            partitions.add(new GramTask(keys, ids, 0, 1).compute());
+        } else {
+            List<GramTask> tasks = new ArrayList<>(parts);
+            for (int part = 0; part < parts; part++) {
+                tasks.add(new GramTask(keys, ids, part, parts));
+            }
+            pool.invoke(new RecursiveAction() {
+                @Override
+                protected void compute() {
+                    invokeAll(tasks);
+                }
+            });
+            partitions = new ArrayList<>(parts);
+            for (GramTask task : tasks) {
+                partitions.add(task.join());
+            }
+        }
+        for (GramTable partition : partitions) {
+            grams.addAll(partition);
+        }
+    }
+
+    /**
+     * 建立一个分区（片段哈希 % parts == part）的倒排表
+     */
+    private static final class GramTask extends RecursiveTask<GramTable> {
+        private static final long serialVersionUID = 1L;
+
+        private final PagedArray<String> keys;
+        private final int[] ids;
+        private final int part;
+        private final int parts;
+
+        GramTask(PagedArray<String> keys, int[] ids, int part, int parts) {
+            this.keys = keys;
+            this.ids = ids;
+            this.part = part;
+            this.parts = parts;
+        }
+
+        @Override
+        protected GramTable compute() {
+            GramTable local = new GramTable();
+            if (parts == 1) {
+                for (int id : ids) {
+                    addGrams(id, keys.get(id), local);
+                }
+                return local;
+            }
+            int mask = parts - 1;
+            for (int id : ids) {
+                String key = keys.get(id);
+                int length = key.length();
+                if (length >= 1) {
+                    addIfInPart(local, PREFIX1 | key.charAt(0), id, mask);
+                }
+                if (length >= 2) {
+                    addIfInPart(local, PREFIX2 | pack2(key, 0), id, mask);
+                }
+                for (int i = 0; i + 3 <= length; i++) {
+                    addIfInPart(local, pack3(key, i), id, mask);
+                }
+            }
+            return local;
+        }
+
+        private void addIfInPart(GramTable local, long gram, int id, int mask) {
+            long h = gram * 0x9E3779B97F4A7C15L;
+            if (((int) (h >>> 40) & mask) == part) {
+                local.getOrCreate(gram).add(id);
+            }
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    // ========== 查询 ==========
+
+    /**
+     * 包含 query（已小写）的所有ID，按ID升序
+     */
+    int[] matchIds(String query) {
+        int[] result = new int[16];
+        int count = 0;
+        if (query.length() < 3) {
+            for (int id = keys.next(0); id >= 0; id = keys.next(id + 1)) {
+                if (keys.get(id).contains(query)) {
+                    result = append(result, count++, id);
+                }
+            }
+        } else {
+            IdPostings candidates = shortestTrigramPosting(query);
+            if (candidates == null) {
+                return NO_IDS;
+            }
+            for (int i = 0; i < candidates.size(); i++) {
+                int id = candidates.get(i);
+                if (keys.get(id).contains(query)) {
+                    result = append(result, count++, id);
+                }
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    /**
+     * 子串搜索，按相关度排序后分页：完全匹配 > 前缀 > 子串；
+     * 同类中匹配位置越靠前、单词越短越靠前，最后按ID
+     */
+    int[] search(String query, int offset, int limit) {
+        return rankAndPage(matchIds(query), query, offset, limit);
+    }
+
+    /**
+     * 前缀搜索，按相关度排序后分页
+     */
+    int[] searchPrefix(String prefix, int offset, int limit) {
+        if (prefix.isEmpty()) {
+            return search(prefix, offset, limit);
+        }
+        IdPostings candidates = prefix.length() == 1
+                ? grams.get(PREFIX1 | prefix.charAt(0))
+                : grams.get(PREFIX2 | pack2(prefix, 0));
+        if (candidates == null) {
+            return NO_IDS;
+        }
+        int[] matched = new int[Math.min(candidates.size(), 16)];
+        int count = 0;
+        for (int i = 0; i < candidates.size(); i++) {
+            int id = candidates.get(i);
+            if (keys.get(id).startsWith(prefix)) {
+                matched = append(matched, count++, id);
+            }
+        }
+        return rankAndPage(Arrays.copyOf(matched, count), prefix, offset, limit);
+    }
+
+    private int[] rankAndPage(int[] ids, String query, int offset, int limit) {
+        if (offset >= ids.length || limit <= 0) {
+            return NO_IDS;
+        }
+        // 把排序依据压进 long，避免比较器和装箱
+        long[] ranked = new long[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            String key = keys.get(ids[i]);
+            int position = key.indexOf(query);
+            long type = key.length() == query.length() ? EXACT : position == 0 ? PREFIX : SUBSTRING;
+            ranked[i] = type << 55
+                    | (long) Math.min(position, 0xFFF) << 43
+                    | (long) Math.min(key.length(), 0xFFF) << 31
+                    | ids[i];
+        }
+        Arrays.sort(ranked);
+        int end = (int) Math.min((long) offset + limit, ranked.length);
+        int[] page = new int[end - offset];
+        for (int i = offset; i < end; i++) {
+            page[i - offset] = (int) (ranked[i] & 0x7FFFFFFF);
+        }
+        return page;
+    }
+
+    private IdPostings shortestTrigramPosting(String query) {
+        IdPostings shortest = null;
+        for (int i = 0; i + 3 <= query.length(); i++) {
+            IdPostings posting = grams.get(pack3(query, i));
+            if (posting == null) {
+                return null;  // 某个片段不存在，必然没有匹配
+            }
+            if (shortest == null || posting.size() < shortest.size()) {
+                shortest = posting;
+            }
+        }
+        return shortest;
+    }
+
+    // ========== 内部工具 ==========
+
+    private void removeFrom(long gram, int id) {
+        IdPostings posting = grams.get(gram);
+        if (posting != null) {
+            posting.remove(id);
+            if (posting.isEmpty()) {
+                grams.remove(gram);
+            }
+        }
+    }
+
+    private static long pack2(String s, int i) {
+        return (long) s.charAt(i) << 16 | s.charAt(i + 1);
+    }
+
+    private static long pack3(String s, int i) {
+        return (long) s.charAt(i) << 32 | (long) s.charAt(i + 1) << 16 | s.charAt(i + 2);
+    }
+
+    private static int[] append(int[] array, int index, int value) {
+        if (index == array.length) {
+            array = Arrays.copyOf(array, Math.max(16, array.length * 2));
+        }
+        array[index] = value;
+        return array;
+    }
+}
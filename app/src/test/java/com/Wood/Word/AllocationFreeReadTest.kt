@@ -0,0 +1,150 @@
+package com.Wood.Word
+
+import org.junit.Assert.*
+import org.junit.Before
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.junit.runners.Parameterized
+import java.lang.management.ManagementFactory
+
+/**
+ * 读路径分配测试：用 ThreadMXBean 统计当前线程分配的字节数，
+ * 证明遍历、统计和渲染单词列表时每个元素都不产生分配。
+ * 默认存储、紧凑存储和应用中使用的 ConcurrentWordLib + 紧凑存储各跑一遍
+ */
+@RunWith(Parameterized::class)
+class AllocationFreeReadTest(private val storeName: String, private val newWordLib: (Int) -> WordLib) {
+
+    companion object {
+        @JvmStatic
+        @Parameterized.Parameters(name = "{0}")
+        fun stores(): List<Array<Any>> = listOf(
+            arrayOf("default", { capacity: Int -> WordLib(capacity) }),
+            arrayOf("compact", { capacity: Int -> WordLib(capacity, StringPool()) }),
+            arrayOf("concurrent-compact", { _: Int -> ConcurrentWordLib(0, StringPool()) })
+        )
+    }
+
+    private val wordCount = 20_000
+    private val threadMXBean = ManagementFactory.getThreadMXBean() as com.sun.management.ThreadMXBean
+
+    private lateinit var wordLib: WordLib
+    private lateinit var wordRoot: WordRoot
+
+    @Before
+    fun setUp() {
+        threadMXBean.isThreadAllocatedMemoryEnabled = true
+        val categories = Category.values()
+        wordLib = newWordLib(wordCount)
+        val items = ArrayList<WordItem>(wordCount)
+        for (i in 0 until wordCount) {
+            val item = WordItem("word$i", Meaning("含义$i", categories[i % categories.size]))
+            item.addMeaning(Meaning("第二含义$i", categories[(i * 7) % categories.size]))
+            item.example = "example $i"
+            wordLib.updateWordItem(wordLib.addWord(item.word, item.getMeaning(0), item.example), item)
+            items.add(item)
+        }
+        wordRoot = WordRoot(items)
+    }
+
+    /**
+     * 先运行几次完成类加载和调用点链接，再统计一次运行的分配量
+     * 不能 inline：否则预热和统计的是两份不同的代码，统计时才链接 lambda 调用点
+     */
+    private fun allocatedBytes(block: () -> Unit): Long {
+        repeat(5) { block() }
+        val threadId = Thread.currentThread().id
+        val before = threadMXBean.getThreadAllocatedBytes(threadId)
+        block()
+        return threadMXBean.getThreadAllocatedBytes(threadId) - before
+    }
+
+    // 每个元素哪怕只分配一个对象也至少 16 字节，总量小于元素数即说明没有逐元素分配
+    private fun assertNoPerElementAllocation(bytes: Long) {
+        assertTrue("$storeName: 分配了 $bytes 字节（$wordCount 个单词）", bytes < wordCount)
+    }
+
+    @Test
+    fun counterSeesCopyingApis() {
+        // 对照：拷贝整个集合的旧接口确实会被计入
+        val bytes = allocatedBytes { wordLib.allWords }
+        assertTrue(bytes > wordCount)
+    }
+
+    @Test
+    fun categoryStatisticsOverVisitors_allocateNothingPerWord() {
+        val counts = IntArray(Category.values().size)
+        val bytes = allocatedBytes {
+            counts.fill(0)
+            wordLib.forEachWord { _, item ->
+                val meanings = item.meanings()
+                for (i in 0 until meanings.size) {
+                    counts[meanings[i].category.ordinal]++
+                }
+            }
+        }
+        assertNoPerElementAllocation(bytes)
+        assertEquals(wordCount * 2, counts.sum())
+    }
+
+    @Test
+    fun categoryMaskAndCounters_allocateNothingPerWord() {
+        val total = IntArray(2)
+        val bytes = allocatedBytes {
+            total.fill(0)
+            wordLib.forEachWord { _, item ->
+                if (item.hasCategory(Category.N)) total[0]++
+            }
+            wordLib.forEachCategoryCount { _, count -> total[1] += count }
+        }
+        assertNoPerElementAllocation(bytes)
+        assertEquals(wordLib.getWordCountByCategory(Category.N), total[0])
+        assertEquals(wordCount * 2, total[1])
+    }
+
+    @Test
+    fun idsWordsAndCategoryWalks_allocateNothingPerWord() {
+        val sums = LongArray(3)
+        val bytes = allocatedBytes {
+            sums.fill(0)
+            wordLib.forEachId { id -> sums[0] += id.toLong() }
+            wordLib.forEachWordString { word -> sums[1] += word.length.toLong() }
+            wordLib.forEachInCategory(Category.V) { id, _ -> sums[2] += id.toLong() }
+        }
+        assertNoPerElementAllocation(bytes)
+        assertTrue(sums[0] > 0 && sums[1] > 0 && sums[2] > 0)
+    }
+
+    @Test
+    fun renderingWordList_allocatesNothingPerWord() {
+        val line = StringBuilder(256)
+        val rendered = LongArray(1)
+        val bytes = allocatedBytes {
+            rendered[0] = 0
+            wordLib.forEachWord { _, item ->
+                line.setLength(0)
+                item.appendTo(line)
+                rendered[0] += line.length.toLong()
+            }
+        }
+        assertNoPerElementAllocation(bytes)
+        assertEquals(wordLib.getById(1).toString(), StringBuilder().also { wordLib.getById(1).appendTo(it) }.toString())
+    }
+
+    @Test
+    fun wordRootVisitor_allocatesNothingPerWord() {
+        val matches = IntArray(1)
+        val bytes = allocatedBytes {
+            matches[0] = 0
+            wordRoot.forEachWord { item ->
+                if (item.hasCategory(Category.ADJ)) matches[0]++
+            }
+            val view = wordRoot.words()
+            for (i in 0 until view.size) {
+                if (view[i].getCategoryMask() and WordItem.categoryBit(Category.ADJ) != 0) matches[0]++
+            }
+        }
+        assertNoPerElementAllocation(bytes)
+        assertEquals(wordRoot.getByCategory(Category.ADJ).size * 2, matches[0])
+    }
+}
@@ -0,0 +1,92 @@
+package com.Wood.Word
+
+import org.junit.Assert.*
+import org.junit.Test
+
+/**
+ * 批量插入测试：校验与报告、默认模式逐项写入、整批模式在校验失败和写入途中失败时词库都保持不变
+ */
+class BulkInsertTest {
+
+    private fun baseLib(): WordLib {
+        val wordLib = WordLib()
+        wordLib.addWord("apple", Meaning("苹果", Category.N))
+        return wordLib
+    }
+
+    private fun batch(vararg words: String) = words.map { WordItem(it, Meaning("含义$it", Category.V)) }
+
+    // 第 failAt 次 onAdded 时抛出异常的监听器
+    private class FailingListener(private val failAt: Int) : WordLib.MutationListener {
+        var added = 0
+        var removed = 0
+        override fun onAdded(id: Int, item: WordItem) {
+            if (++added == failAt) throw IllegalStateException("监听器失败")
+        }
+        override fun onUpdated(id: Int, item: WordItem) {}
+        override fun onRemoved(id: Int) { removed++ }
+        override fun onCleared() {}
+    }
+
+    @Test
+    fun insertAll_skipsRejectedAndReportsThem() {
+        val wordLib = baseLib()
+        val report = wordLib.insertAll(batch("run", "APPLE", "", "Run", "jump"))
+
+        assertTrue(report.isApplied)
+        assertEquals(2, report.insertedCount)
+        assertEquals(2, report.firstId)
+        assertEquals(1, report.conflictCount)
+        assertEquals(2, report.skippedCount)
+        assertEquals(listOf(BulkInsertReport.Reason.ALREADY_EXISTS, BulkInsertReport.Reason.INVALID,
+                BulkInsertReport.Reason.DUPLICATE_IN_BATCH), report.entries.map { it.reason })
+        assertEquals(listOf("apple", "run", "jump"), wordLib.allWordStrings)
+        assertEquals(3, wordLib.getWordId("jump"))
+    }
+
+    @Test
+    fun allOrNothing_rejectedBatchLeavesLibraryUnchanged() {
+        val wordLib = baseLib()
+        val before = wordLib.toString()
+        val report = wordLib.insertAll(batch("run", "apple"), true)
+
+        assertFalse(report.isApplied)
+        assertEquals(before, wordLib.toString())
+        assertEquals(2, wordLib.addWord("next", Meaning("下一个", Category.N)))
+    }
+
+    @Test
+    fun allOrNothing_failureWhileApplyingRollsBack() {
+        val wordLib = baseLib()
+        val before = wordLib.toString()
+        val listener = FailingListener(3)
+        wordLib.setMutationListener(listener)
+
+        assertThrows(IllegalStateException::class.java) {
+            wordLib.insertAll(batch("run", "jump", "swim", "walk"), true)
+        }
+        // 已写入的两项和写到一半的第三项都被撤销，监听器收到对应的删除
+        assertEquals(before, wordLib.toString())
+        assertEquals(1, wordLib.size())
+        assertNull(wordLib.getWordId("run"))
+        assertTrue(wordLib.search("ru").isEmpty())
+        assertEquals(0, wordLib.getWordCountByCategory(Category.V))
+        assertEquals(3, listener.removed)
+        // 分配的ID被收回
+        wordLib.setMutationListener(null)
+        assertEquals(2, wordLib.addWord("run", Meaning("跑", Category.V)))
+    }
+
+    @Test
+    fun defaultMode_failureWhileApplyingKeepsEarlierItems() {
+        val wordLib = baseLib()
+        wordLib.setMutationListener(FailingListener(3))
+
+        assertThrows(IllegalStateException::class.java) {
+            wordLib.insertAll(batch("run", "jump", "swim", "walk"))
+        }
+        assertNotNull(wordLib.getWordId("run"))
+        assertNotNull(wordLib.getWordId("jump"))
+        assertNull(wordLib.getWordId("walk"))
+    }
+}
@@ -0,0 +1,62 @@
+package com.Wood.Word
+
+import org.junit.Assert.*
+import org.junit.Test
+import java.util.concurrent.Executor
+
+/**
+ * 卡片预取测试：预取窗口、排版内容，以及词库变更后缓存的卡片被丢弃重排
+ */
+class CardPrefetcherTest {
+
+    // 在调用线程上直接执行，预取在 moveTo 返回前完成
+    private val direct = Executor { it.run() }
+
+    private fun sampleLib(): WordLib {
+        val wordLib = WordLib()
+        wordLib.addWord("apple", Meaning("苹果", Category.N), "an apple")
+        wordLib.addWord("run", Meaning("跑", Category.V))
+        wordLib.addWord("fast", Meaning("快速的", Category.ADJ))
+        return wordLib
+    }
+
+    @Test
+    fun prefetchesTheWindowAndFormatsCards() {
+        val prefetcher = CardPrefetcher(sampleLib(), direct, 2)
+        prefetcher.setSequence(intArrayOf(3, 1, 2), 0)
+
+        val first = prefetcher.getAt(0)!!
+        assertEquals("fast", first.word)
+        assertArrayEquals(arrayOf("ADJ 快速的"), first.meanings)
+        assertEquals("an apple", prefetcher.getAt(1)!!.example)
+        assertNull("窗口之外不预取", prefetcher.getAt(2))
+        prefetcher.moveTo(1)
+        assertEquals("run", prefetcher.getAt(2)!!.word)
+    }
+
+    @Test
+    fun libraryChanges_replaceCachedCards() {
+        val wordLib = sampleLib()
+        val prefetcher = CardPrefetcher(wordLib, direct, 4)
+        prefetcher.setSequence(intArrayOf(1, 2, 3), 0)
+        assertArrayEquals(arrayOf("N 苹果"), prefetcher.getAt(0)!!.meanings)
+
+        wordLib.updateWordItem(1, WordItem("apple", Meaning("苹果树", Category.N)))
+        assertArrayEquals(arrayOf("N 苹果树"), prefetcher.getAt(0)!!.meanings)
+    }
+
+    @Test
+    fun removedWords_areReportedMissing() {
+        val wordLib = sampleLib()
+        val prefetcher = CardPrefetcher(wordLib, direct, 4)
+        val missing = ArrayList<Int>()
+        prefetcher.setOnMissing { missing.add(it) }
+        prefetcher.setSequence(intArrayOf(1, 2, 3), 0)
+        assertNotNull(prefetcher.getAt(1))
+
+        wordLib.removeById(2)
+        assertNull(prefetcher.getAt(1))
+        assertEquals(listOf(2), missing)
+        assertEquals("fast", prefetcher.getAt(2)!!.word)
+    }
+}
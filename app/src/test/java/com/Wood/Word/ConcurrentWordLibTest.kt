@@ -0,0 +1,244 @@
+package com.Wood.Word
+
+import org.junit.Test
+
+import org.junit.Assert.*
+import java.io.Reader
+import java.io.StringReader
+import java.util.concurrent.Callable
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicBoolean
+import java.util.concurrent.atomic.AtomicReference
+
+/**
+ * ConcurrentWordLib 并发测试：多个写线程增删改的同时读线程持续查询；单点查询不等待写锁，
+ * 只看到写操作之前或之后的状态，并与普通 WordLib 的结果一致
+ */
+class ConcurrentWordLibTest {
+
+    private val stableWords = 2_000
+    private val writers = 2
+    private val readers = 4
+    private val operationsPerWriter = 50_000
+
+    @Test
+    fun concurrentReadsAndWrites_keepIndexesConsistent() {
+        val wordLib = ConcurrentWordLib()
+        // 固定单词在整个测试期间不会被删除，读线程必须总能查到
+        for (i in 0 until stableWords) {
+            wordLib.addWord("stable$i", Meaning("固定$i", Category.N))
+        }
+
+        val pool = Executors.newFixedThreadPool(writers + readers)
+        val start = CountDownLatch(1)
+        val writersDone = CountDownLatch(writers)
+        val stop = AtomicBoolean(false)
+        val failure = AtomicReference<Throwable>()
+
+        repeat(writers) { w ->
+            pool.execute {
+                try {
+                    start.await()
+                    for (i in 0 until operationsPerWriter) {
+                        val word = "w${w}_${i % 500}"
+                        when (i % 4) {
+                            0, 1 -> wordLib.addWord(word, Meaning("含义$i", Category.V))
+                            2 -> wordLib.getWordId(word)?.let {
+                                wordLib.updateWordItem(it, WordItem(word, Meaning("更新$i", Category.ADJ)))
+                            }
+                            else -> wordLib.removeByWord(word)
+                        }
+                    }
+                } catch (t: Throwable) {
+                    failure.compareAndSet(null, t)
+                } finally {
+                    writersDone.countDown()
+                }
+            }
+        }
+
+        repeat(readers) { r ->
+            pool.execute {
+                try {
+                    start.await()
+                    var i = r
+                    while (!stop.get()) {
+                        val word = "stable${i % stableWords}"
+                        val item = wordLib.getByWord(word)
+                        assertNotNull("固定单词丢失: $word", item)
+                        assertEquals(word, item!!.word)
+                        val id = wordLib.getWordId(word)
+                        assertNotNull(id)
+                        assertSame(item, wordLib.getById(id!!))
+                        if (i % 64 == 0) {
+                            assertTrue(wordLib.search("stable1").isNotEmpty())
+                            assertTrue(wordLib.getByCategory(Category.N).size >= stableWords)
+                        }
+                        i += readers
+                    }
+                } catch (t: Throwable) {
+                    failure.compareAndSet(null, t)
+                }
+            }
+        }
+
+        start.countDown()
+        assertTrue("写线程超时", writersDone.await(60, TimeUnit.SECONDS))
+        stop.set(true)
+        pool.shutdown()
+        assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS))
+        failure.get()?.let { throw AssertionError("并发访问失败", it) }
+
+        // 所有索引与主存储一致
+        val ids = wordLib.allIds
+        assertEquals(wordLib.size(), ids.size)
+        for (id in ids) {
+            val item = wordLib.getById(id)!!
+            assertEquals(id, wordLib.getWordId(item.word))
+        }
+        val categoryTotal = wordLib.categoryStatistics.values.sum()
+        assertEquals(wordLib.allWords.sumOf { it.meaningCount }, categoryTotal)
+    }
+
+    @Test
+    fun importFrom_readersSeeOldOrNewStateWithoutWaiting() {
+        val source = WordLib()
+        for (i in 0 until 10_000) {
+            source.addWord("word$i", Meaning("含义$i", Category.N))
+        }
+        val text = source.toString()
+
+        val wordLib = ConcurrentWordLib()
+        wordLib.restore(20_000, WordItem("old", Meaning("旧", Category.N)))
+        val oldState = 1 to null as Int?
+
+        // 在另一个线程读取；读被写锁挡住时超时失败
+        val executor = Executors.newSingleThreadExecutor()
+        fun readElsewhere(): Pair<Int, Int?> =
+            executor.submit(Callable { wordLib.size() to wordLib.getWordId("word9999") }).get(5, TimeUnit.SECONDS)
+
+        // 解析到一半时读
+        val duringParse = ArrayList<Pair<Int, Int?>>()
+        val pausingReader = object : Reader() {
+            private val delegate = StringReader(text)
+            private var served = 0
+            override fun read(cbuf: CharArray, off: Int, len: Int): Int {
+                if (served >= text.length / 2 && duringParse.isEmpty()) {
+                    duringParse.add(readElsewhere())
+                }
+                val n = delegate.read(cbuf, off, minOf(len, 4096))
+                if (n > 0) {
+                    served += n
+                }
+                return n
+            }
+
+            override fun close() = delegate.close()
+        }
+
+        // 合并时在写锁内（监听器回调中）读
+        val duringApply = ArrayList<Pair<Int, Int?>>()
+        wordLib.setMutationListener(object : WordLib.MutationListener {
+            override fun onAdded(id: Int, item: WordItem) {
+                if (id == 1 || id == 5_000 || id == 10_000) {
+                    duringApply.add(readElsewhere())
+                }
+            }
+            override fun onUpdated(id: Int, item: WordItem) {}
+            override fun onRemoved(id: Int) {}
+            override fun onCleared() {}
+        })
+
+        try {
+            wordLib.importFrom(pausingReader)
+            assertEquals(listOf(oldState), duringParse)
+            assertEquals(listOf(oldState, oldState, oldState), duringApply)
+            assertEquals(10_001 to 10_000 as Int?, readElsewhere())
+        } finally {
+            executor.shutdownNow()
+        }
+    }
+
+    @Test
+    fun pointReads_followEveryKindOfWrite() {
+        for (wordLib in listOf(ConcurrentWordLib(), ConcurrentWordLib(0, StringPool()))) {
+            val plain = WordLib()
+            fun check() {
+                assertEquals(plain.size(), wordLib.size())
+                assertEquals(plain.isEmpty, wordLib.isEmpty)
+                assertEquals(plain.isDirty, wordLib.isDirty)
+                assertEquals(plain.getWordCountByCategory(Category.V), wordLib.getWordCountByCategory(Category.V))
+                for (id in 0..plain.nextId + 1) {
+                    assertEquals(plain.containsId(id), wordLib.containsId(id))
+                    assertEquals(plain.getById(id)?.toString(), wordLib.getById(id)?.toString())
+                }
+                for (word in listOf("a", "B", "c", "d", "e", "f", "g", "x")) {
+                    assertEquals(plain.getWordId(word), wordLib.getWordId(word))
+                    assertEquals(plain.containsWord(word), wordLib.containsWord(word))
+                    assertEquals(plain.getByWord(word)?.toString(), wordLib.getByWord(word)?.toString())
+                }
+            }
+            val steps = listOf<(WordLib) -> Unit>(
+                { it.addWord("a", Meaning("一", Category.N)) },
+                { it.addWord("b", Meaning("二", Category.V), "b ex") },
+                { it.insertAll(listOf(WordItem("C", Meaning("三", Category.V)), WordItem("d", Meaning("四", Category.ADJ)))) },
+                { it.updateWordItem(1, WordItem("e", Meaning("五", Category.V))) },  // 改名
+                { it.updateWordItem(2, WordItem("B", Meaning("二", Category.N))) },
+                { it.removeByWord("c") },
+                { it.removeById(4) },
+                { it.markClean() },
+                { it.restore(40_000, WordItem("f", Meaning("六", Category.V))) },
+                { it.restore(2, WordItem("g", Meaning("七", Category.V))) },  // 覆盖同一ID
+                { it.importFromString("7|x|N:叉|\n") },
+                { it.clear() },
+                { it.addWord("a", Meaning("又一", Category.V)) },
+                { it.importData(mapOf(9 to WordItem("d", Meaning("四", Category.V)))) }
+            )
+            for (step in steps) {
+                step(plain)
+                step(wordLib)
+                check()
+            }
+        }
+    }
+
+    @Test
+    fun pointReads_matchAfterRandomChurn() {
+        // 大量增删让快照的单词分片反复扩容、删除时前移补位
+        val wordLib = ConcurrentWordLib()
+        val plain = WordLib()
+        val random = java.util.Random(42)
+        repeat(20_000) {
+            val word = "w${random.nextInt(3_000)}"
+            if (random.nextInt(3) == 0) {
+                plain.removeByWord(word)
+                wordLib.removeByWord(word)
+            } else {
+                plain.addWord(word, Meaning("含义", Category.N))
+                wordLib.addWord(word, Meaning("含义", Category.N))
+            }
+        }
+        assertEquals(plain.size(), wordLib.size())
+        for (i in 0 until 3_000) {
+            assertEquals(plain.getWordId("w$i"), wordLib.getWordId("w$i"))
+        }
+        for (id in 0..plain.nextId) {
+            assertEquals(plain.getById(id)?.word, wordLib.getById(id)?.word)
+        }
+    }
+
+    @Test
+    fun compactStore_pointReadsReturnCopies() {
+        val wordLib = ConcurrentWordLib(0, StringPool())
+        val id = wordLib.addWord("apple", Meaning("苹果", Category.N))
+        val item = wordLib.getById(id)
+        item.setExample("changed")
+        item.getMeaning(0).meaningText = "梨"
+
+        assertEquals("", wordLib.getById(id).example)
+        assertEquals("苹果", wordLib.getByWord("APPLE").getMeaning(0).meaningText)
+        assertNotSame(wordLib.getById(id), wordLib.getById(id))
+    }
+}
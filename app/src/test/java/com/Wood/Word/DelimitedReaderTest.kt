@@ -0,0 +1,80 @@
+package com.Wood.Word
+
+import org.junit.Assert.*
+import org.junit.Test
+import java.io.IOException
+import java.io.Reader
+import java.io.StringReader
+
+/**
+ * CSV / TSV 逐行读取测试：引号、转义的引号、引号内的分隔符和换行、各种行尾，以及跨缓冲区边界的读取
+ */
+class DelimitedReaderTest {
+
+    // 每次只返回一个字符，所有判断都落在缓冲区边界上
+    private class OneCharReader(text: String) : Reader() {
+        private val inner = StringReader(text)
+        override fun read(cbuf: CharArray, off: Int, len: Int): Int = inner.read(cbuf, off, minOf(len, 1))
+        override fun close() = inner.close()
+    }
+
+    private fun readAll(reader: DelimitedReader): List<Pair<Int, List<String>>> {
+        val rows = ArrayList<Pair<Int, List<String>>>()
+        val fields = ArrayList<String>()
+        reader.use {
+            while (it.next(fields) >= 0) {
+                rows.add(it.lineNumber to ArrayList(fields))
+            }
+        }
+        return rows
+    }
+
+    private val csv = "word,translation\r\n" +
+            "\"a, b\",\"say \"\"hi\"\"\"\n" +
+            "multi,\"n. 第一行\r\nv. 第二行\"\n" +
+            "\"\",plain \"quote\"\r" +
+            "trailing,\n" +
+            "last,\"unterminated"
+
+    private val expected = listOf(
+        1 to listOf("word", "translation"),
+        2 to listOf("a, b", "say \"hi\""),
+        3 to listOf("multi", "n. 第一行\r\nv. 第二行"),
+        5 to listOf("", "plain \"quote\""),
+        6 to listOf("trailing", ""),
+        7 to listOf("last", "unterminated")
+    )
+
+    @Test
+    fun quotedFields_followRfc4180() {
+        assertEquals(expected, readAll(DelimitedReader(StringReader(csv), ',', true)))
+    }
+
+    @Test
+    fun quotedFields_splitAcrossReads() {
+        assertEquals(expected, readAll(DelimitedReader(OneCharReader(csv), ',', true)))
+    }
+
+    @Test
+    fun unquotedMode_keepsQuotesLiterally() {
+        val rows = readAll(DelimitedReader(StringReader("\"a\"\t\"b,c\"\nx\t\n"), '\t', false))
+        assertEquals(listOf(1 to listOf("\"a\"", "\"b,c\""), 2 to listOf("x", "")), rows)
+    }
+
+    @Test
+    fun emptyInputAndBlankLines() {
+        assertTrue(readAll(DelimitedReader(StringReader(""), ',', true)).isEmpty())
+        assertEquals(listOf(1 to listOf(""), 2 to listOf("a")),
+                readAll(DelimitedReader(StringReader("\r\na\n"), ',', true)))
+    }
+
+    @Test
+    fun runawayQuotedField_failsInsteadOfReadingEverything() {
+        val text = "ok,1\n\"" + "x".repeat(DelimitedReader.MAX_FIELD_LENGTH + 1)
+        val reader = DelimitedReader(StringReader(text), ',', true)
+        val fields = ArrayList<String>()
+        assertEquals(2, reader.next(fields))
+        val e = assertThrows(IOException::class.java) { reader.next(fields) }
+        assertTrue(e.message!!.contains("第2行"))
+    }
+}
@@ -0,0 +1,187 @@
+package com.Wood.Word
+
+import org.junit.Assert.*
+import org.junit.Rule
+import org.junit.Test
+import org.junit.rules.TemporaryFolder
+import java.io.ByteArrayInputStream
+import java.io.IOException
+
+/**
+ * 外部词典导入测试：ECDICT 风格的 CSV、释义拆分与词性、BOM、列映射错误、报告计数，以及取消
+ */
+class DictionaryImporterTest {
+
+    @get:Rule
+    val folder = TemporaryFolder()
+
+    private val bom = "\uFEFF"
+
+    private fun import(wordLib: WordLib, format: DictionaryFormat, text: String): DictionaryImportReport {
+        val bytes = text.toByteArray(Charsets.UTF_8)
+        return DictionaryImporter(wordLib, format).importFrom(ByteArrayInputStream(bytes), bytes.size.toLong())
+    }
+
+    @Test
+    fun ecdictCsv_importsQuotedMeaningsWithCategories() {
+        val file = folder.newFile("ecdict.csv")
+        file.writeText(bom + "word,phonetic,translation\n" +
+                "apple,'æpl,\"n. 苹果\\nn. 苹果树\"\n" +
+                "\"run, ran\",,\"vt. 经营\nvi. 跑\"\n" +
+                "hello,,\"int. 喂, 你好\"\n" +
+                "unknown,,\"xyz. 保持原样\"\n")
+        val wordLib = WordLib()
+        val report = DictionaryImporter(wordLib, DictionaryFormat.ecdictCsv()).importFrom(file)
+
+        assertEquals(4, report.rowCount)
+        assertEquals(4, report.importedCount)
+        assertFalse(report.isCancelled)
+        assertEquals(listOf("苹果" to Category.N, "苹果树" to Category.N),
+                wordLib.getByWord("apple").meanings().map { it.meaningText to it.category })
+        assertEquals(listOf("经营" to Category.V, "跑" to Category.V),
+                wordLib.getByWord("run, ran").meanings().map { it.meaningText to it.category })
+        assertEquals("喂, 你好", wordLib.getByWord("hello").meanings().single().meaningText)
+        assertEquals(Category.UNSPECIFIED, wordLib.getByWord("unknown").meanings().single().category)
+    }
+
+    @Test
+    fun byteOrderMark_isStrippedFromTheFirstField() {
+        // 有表头：列名前的 BOM 不影响按列名匹配
+        val withHeader = WordLib()
+        import(withHeader, DictionaryFormat.ecdictTsv(), bom + "word\ttranslation\nfast\tadj. 快的\n")
+        assertEquals(Category.ADJ, withHeader.getByWord("fast").meanings().single().category)
+
+        // 无表头：BOM 不进入第一行的单词
+        val format = DictionaryFormat(',', true, false)
+        format.setWordColumn(0)
+        format.setMeaningColumn(1)
+        val noHeader = WordLib()
+        import(noHeader, format, bom + "book,n. 书\nbook2,n. 书2\n")
+        assertEquals(listOf("book", "book2"), noHeader.allWordStrings)
+
+        // BOM 只去掉文件开头的一个
+        val inner = WordLib()
+        import(inner, format, "a,n. 一\n${bom}b,n. 二\n")
+        assertNotNull(inner.getByWord("${bom}b"))
+    }
+
+    @Test
+    fun columnsByIndex_withExampleAndCategoryColumns() {
+        val format = DictionaryFormat('\t', false, false)
+        format.setWordColumn(0)
+        format.setCategoryColumn(1)
+        format.setMeaningColumn(2)
+        format.setExampleColumn(3)
+        val wordLib = WordLib()
+        val report = import(wordLib, format,
+                "quick\tadj.\t快的\tquick fox\n" +
+                "slow\tADV\t慢地\n" +
+                "odd\t??\t奇怪的\n" +
+                "\t\t\t\n" +
+                "\tn\t无单词\n" +
+                "bare\tn\t\n")
+
+        assertEquals(Category.ADJ, wordLib.getByWord("quick").meanings().single().category)
+        assertEquals("quick fox", wordLib.getByWord("quick").example)
+        assertEquals(Category.ADV, wordLib.getByWord("slow").meanings().single().category)
+        assertEquals(Category.UNSPECIFIED, wordLib.getByWord("odd").meanings().single().category)
+        // 空行不计入；缺少单词与没有释义的行跳过
+        assertEquals(5, report.rowCount)
+        assertEquals(3, report.importedCount)
+        assertEquals(2, report.skippedCount)
+        assertEquals(listOf(ImportReport.ProblemType.UNKNOWN_CATEGORY to 3, ImportReport.ProblemType.MALFORMED_LINE to 5),
+                report.problems.map { it.type to it.lineNumber })
+    }
+
+    @Test
+    fun duplicatesAndExistingWords_areCountedInTheReport() {
+        val wordLib = WordLib()
+        wordLib.addWord("apple", Meaning("苹果", Category.N))
+        val importer = DictionaryImporter(wordLib, DictionaryFormat.ecdictCsv())
+        // 前三行一批：Apple 已在词库中，PEAR 与同批的 pear 重复
+        importer.setBatchSize(3)
+        val text = "word,translation\nApple,n. 苹果\npear,n. 梨\nPEAR,n. 梨\ngrape,n. 葡萄\n"
+        val report = importer.importFrom(ByteArrayInputStream(text.toByteArray()), -1)
+
+        assertEquals(4, report.rowCount)
+        assertEquals(2, report.importedCount)
+        assertEquals(1, report.conflictCount)
+        assertEquals(1, report.skippedCount)
+        assertTrue(report.toString().contains("导入 2 个单词"))
+    }
+
+    @Test
+    fun missingColumns_failBeforeImporting() {
+        val wordLib = WordLib()
+        assertThrows(IOException::class.java) {
+            import(wordLib, DictionaryFormat.ecdictCsv(), "word,phonetic\napple,x\n")
+        }
+        val noWordColumn = DictionaryFormat(',', true, false)
+        assertThrows(IOException::class.java) { import(wordLib, noWordColumn, "apple\n") }
+        val byNameWithoutHeader = DictionaryFormat(',', true, false)
+        byNameWithoutHeader.setWordColumn("word")
+        assertThrows(IOException::class.java) { import(wordLib, byNameWithoutHeader, "apple\n") }
+        assertTrue(wordLib.isEmpty)
+
+        val empty = import(wordLib, DictionaryFormat.ecdictCsv(), "")
+        assertEquals(0, empty.rowCount)
+        assertFalse(empty.isCancelled)
+    }
+
+    @Test
+    fun cancel_keepsWrittenBatchesAndDropsTheRest() {
+        val text = StringBuilder("word,translation\n")
+        for (i in 0 until 100) {
+            text.append("w$i,n. 词$i\n")
+        }
+        val wordLib = WordLib()
+        val importer = DictionaryImporter(wordLib, DictionaryFormat.ecdictCsv())
+        importer.setBatchSize(10)
+        // 第二批写入时取消：导入线程在读下一行前停止
+        var added = 0
+        wordLib.setMutationListener(object : WordLib.MutationListener {
+            override fun onAdded(id: Int, item: WordItem) {
+                if (++added == 20) importer.cancel()
+            }
+            override fun onUpdated(id: Int, item: WordItem) {}
+            override fun onRemoved(id: Int) {}
+            override fun onCleared() {}
+        })
+        val progress = ArrayList<Long>()
+        importer.setProgressListener { rows, _, _, _ -> progress.add(rows) }
+        val report = importer.importFrom(ByteArrayInputStream(text.toString().toByteArray()), -1)
+
+        assertTrue(report.isCancelled)
+        assertTrue(importer.isCancelled)
+        assertEquals(20, report.rowCount)
+        assertEquals(20, report.importedCount)
+        assertEquals(20, wordLib.size())
+        assertEquals(20L, progress.last())
+    }
+
+    @Test
+    fun interruptedThread_stopsTheImport() {
+        val wordLib = WordLib()
+        val importer = DictionaryImporter(wordLib, DictionaryFormat.ecdictCsv())
+        Thread.currentThread().interrupt()
+        val report = try {
+            importer.importFrom(ByteArrayInputStream("word,translation\na,n. 一\n".toByteArray()), -1)
+        } finally {
+            Thread.interrupted()
+        }
+
+        assertTrue(report.isCancelled)
+        assertEquals(0, report.rowCount)
+        assertTrue(wordLib.isEmpty)
+    }
+
+    @Test
+    fun parseMeanings_splitsLinesAndAbbreviations() {
+        val meanings = DictionaryImporter.parseMeanings("n. 书\\nvt. 预订\r\n\n adj.  \n3.5 分", Category.UNSPECIFIED)
+        assertEquals(listOf("书" to Category.N, "预订" to Category.V, "3.5 分" to Category.UNSPECIFIED),
+                meanings.map { it.meaningText to it.category })
+        assertEquals(Category.V, DictionaryImporter.parseCategory("vt."))
+        assertEquals(Category.ADJ, DictionaryImporter.parseCategory("ADJ"))
+        assertNull(DictionaryImporter.parseCategory("xyz"))
+    }
+}
@@ -0,0 +1,127 @@
+package com.Wood.Word
+
+import org.junit.Assert.*
+import org.junit.Test
+
+/**
+ * 单词项在词库外被原地修改后再更新或删除：派生索引按加入时记下的内容撤销，计数和顺序不漂移
+ */
+class InPlaceEditTest {
+
+    private fun sampleLib(): WordLib {
+        val wordLib = WordLib()
+        wordLib.addWord("run", Meaning("跑", Category.V))
+        wordLib.addWord("apple", Meaning("苹果", Category.N))
+        return wordLib
+    }
+
+    @Test
+    fun categoryCounts_surviveAddMeaningThenUpdateThenRemove() {
+        val wordLib = sampleLib()
+        val item = wordLib.getById(1)
+        item.addMeaning(Meaning("跑步", Category.N))
+        wordLib.updateWordItem(1, item)
+
+        assertEquals(2, wordLib.getWordCountByCategory(Category.N))
+        assertEquals(listOf("run", "apple"), wordLib.getByCategory(Category.N).map { it.word })
+
+        wordLib.removeById(1)
+        assertEquals(1, wordLib.getWordCountByCategory(Category.N))
+        assertEquals(0, wordLib.getWordCountByCategory(Category.V))
+        assertEquals(listOf("apple"), wordLib.getByCategory(Category.N).map { it.word })
+        assertTrue(wordLib.getByCategory(Category.V).isEmpty())
+        assertEquals(mapOf(Category.N to 1), wordLib.categoryStatistics)
+    }
+
+    @Test
+    fun categoryCounts_surviveMeaningsReplacedBeforeRemove() {
+        val wordLib = sampleLib()
+        // 原地改掉全部含义，未调用 updateWordItem 就删除
+        wordLib.getById(2).setMeanings(listOf(Meaning("甲", Category.ADJ), Meaning("乙", Category.ADJ)))
+        wordLib.removeById(2)
+
+        assertEquals(0, wordLib.getWordCountByCategory(Category.N))
+        assertEquals(0, wordLib.getWordCountByCategory(Category.ADJ))
+        assertTrue(wordLib.getByCategory(Category.ADJ).isEmpty())
+        assertEquals(mapOf(Category.V to 1), wordLib.categoryStatistics)
+    }
+
+    @Test
+    fun compactStore_editsReachTheLibraryOnlyThroughUpdate() {
+        val wordLib = WordLib(0, StringPool())
+        wordLib.addWord("run", Meaning("跑", Category.V))
+
+        val copy = wordLib.getById(1)
+        assertNotSame(copy, wordLib.getById(1))
+        copy.addMeaning(Meaning("跑步", Category.N))
+        assertEquals(1, wordLib.getById(1).meaningCount)
+
+        wordLib.updateWordItem(1, copy)
+        assertEquals(2, wordLib.getById(1).meaningCount)
+        assertEquals(listOf("run"), wordLib.getByCategory(Category.N).map { it.word })
+    }
+
+    @Test
+    fun meaningIndex_removesTheTextsThatWereIndexed() {
+        val wordLib = sampleLib()
+        val item = wordLib.getById(2)
+        // 原地改掉含义文本后更新：旧文本 "苹果" 必须从反查索引中撤销
+        item.setMeanings(listOf(Meaning("水果", Category.N)))
+        wordLib.updateWordItem(2, item)
+
+        assertTrue(wordLib.searchByMeaning("苹果").isEmpty())
+        assertEquals(listOf("apple"), wordLib.searchByMeaning("水果").map { it.word })
+
+        // 再次原地修改后直接删除
+        wordLib.getById(2).addMeaning(Meaning("红色的果实", Category.N))
+        wordLib.removeById(2)
+        assertTrue(wordLib.searchByMeaning("水果").isEmpty())
+        wordLib.addWord("pear", Meaning("梨", Category.N))
+        assertTrue(wordLib.searchByMeaning("水果").isEmpty())
+        assertEquals(listOf("pear"), wordLib.searchByMeaning("梨").map { it.word })
+    }
+
+    @Test
+    fun meaningIndex_leavesNoStalePostingsAfterInPlaceEdit() {
+        val index = MeaningIndex()
+        val store = WordItemStore(0)
+        val item = WordItem("apple", Meaning("苹果", Category.N))
+        index.add(1, item)
+        item.setMeanings(listOf(Meaning("水果", Category.N)))
+        index.remove(1)
+
+        // 索引中已没有ID 1：即使存储中的单词项又含有 "苹果"，也不会被查到
+        store.put(1, WordItem("apple", Meaning("苹果", Category.N)))
+        assertEquals(0, index.search("苹果", -1, store, 0, 10).size)
+        assertEquals(0, index.search("水果", -1, store, 0, 10).size)
+    }
+
+    @Test
+    fun rename_inPlaceThenUpdateKeepsOrderAndWordIndex() {
+        val wordLib = sampleLib()
+        assertArrayEquals(intArrayOf(2, 1), wordLib.pageIds(WordOrder.BY_WORD, 0, 10))
+        val item = wordLib.getById(1)
+        item.setWord("zebra")
+        wordLib.updateWordItem(1, item)
+
+        assertArrayEquals(intArrayOf(2, 1), wordLib.pageIds(WordOrder.BY_WORD, 0, 10))
+        assertEquals(2, wordLib.size())
+        assertNull(wordLib.getWordId("run"))
+        assertEquals(1, wordLib.getWordId("zebra"))
+        // 旧单词可以重新加入
+        assertEquals(3, wordLib.addWord("run", Meaning("跑", Category.V)))
+        assertArrayEquals(intArrayOf(2, 3, 1), wordLib.pageIds(WordOrder.BY_WORD, 0, 10))
+    }
+
+    @Test
+    fun rename_inPlaceThenRemoveLeavesNoStaleKeys() {
+        val wordLib = sampleLib()
+        wordLib.pageIds(WordOrder.BY_WORD, 0, 10)
+        wordLib.getById(2).setWord("pear")
+        wordLib.removeById(2)
+
+        assertFalse(wordLib.containsWord("apple"))
+        assertArrayEquals(intArrayOf(1), wordLib.pageIds(WordOrder.BY_WORD, 0, 10))
+        assertTrue(wordLib.search("app").isEmpty())
+    }
+}
@@ -0,0 +1,79 @@
+package com.Wood.Word
+
+import org.junit.Assert.*
+import org.junit.Rule
+import org.junit.Test
+import org.junit.rules.TemporaryFolder
+import java.io.File
+import java.util.Random
+import java.util.concurrent.ForkJoinPool
+
+/**
+ * 并行导入测试：切块并行解析的结果（词库内容、索引、报告）与逐行顺序导入完全一致
+ */
+class ParallelImportTest {
+
+    @get:Rule
+    val folder = TemporaryFolder()
+
+    // 约 4MB，按 MIN_CHUNK_SIZE 切成多块；含重复ID、重复单词、错误行、注释、CRLF 和多字节字符
+    private fun writeSample(lines: Int): File {
+        val random = Random(11)
+        val file = folder.newFile("lib.dat")
+        file.bufferedWriter().use { out ->
+            for (i in 0 until lines) {
+                when {
+                    i % 997 == 0 -> out.write("坏行没有分隔符")
+                    i % 499 == 0 -> out.write("# 注释 $i")
+                    i % 333 == 0 -> out.write("${random.nextInt(i + 1) + 1}|dup${i % 50}|V:覆盖$i")
+                    else -> out.write("${i + 1}|word$i|N:含义$i;ADJ:形容$i|例句 $i ${"x".repeat(random.nextInt(40))}")
+                }
+                out.write(if (i % 7 == 0) "\r\n" else "\n")
+            }
+        }
+        assertTrue(file.length() > 2L * WordLibParallelImport.MIN_CHUNK_SIZE)
+        return file
+    }
+
+    @Test
+    fun parallelImport_matchesSequentialImport() {
+        val file = writeSample(60_000)
+
+        val sequential = WordLib()
+        val sequentialReport = file.bufferedReader().use { sequential.importFrom(it) }
+        val pool = ForkJoinPool(4)
+        val parallel = WordLib()
+        val parallelReport = try {
+            parallel.importParallel(file, pool)
+        } finally {
+            pool.shutdown()
+        }
+
+        assertEquals(sequential.toString(), parallel.toString())
+        assertEquals(sequential.size(), parallel.size())
+        assertEquals(sequentialReport.lineCount, parallelReport.lineCount)
+        assertEquals(sequentialReport.importedCount, parallelReport.importedCount)
+        assertEquals(sequentialReport.skippedCount, parallelReport.skippedCount)
+        assertEquals(sequentialReport.problems.map { it.toString() }, parallelReport.problems.map { it.toString() })
+
+        // 派生索引同样一致
+        assertEquals(sequential.search("word123").map { it.word }, parallel.search("word123").map { it.word })
+        assertEquals(sequential.getWordId("dup7"), parallel.getWordId("dup7"))
+        assertEquals(sequential.categoryStatistics, parallel.categoryStatistics)
+        assertEquals(sequential.addWord("next", Meaning("下一个", Category.N)),
+                parallel.addWord("next", Meaning("下一个", Category.N)))
+    }
+
+    @Test
+    fun smallFile_isParsedAsOneChunk() {
+        val file = folder.newFile("small.dat")
+        file.writeText("1|apple|N:苹果\n2|run|V:跑\r\n3|bad\n")
+
+        val parallel = WordLib()
+        val report = parallel.importParallel(file)
+
+        assertEquals(WordLib.fromString(file.readText()).toString(), parallel.toString())
+        assertEquals(2, report.importedCount)
+        assertEquals(3, report.problems.single().lineNumber)
+    }
+}
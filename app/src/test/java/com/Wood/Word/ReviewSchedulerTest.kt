@@ -0,0 +1,148 @@
+package com.Wood.Word
+
+import org.junit.Assert.*
+import org.junit.Rule
+import org.junit.Test
+import org.junit.rules.TemporaryFolder
+import java.io.File
+import java.io.IOException
+import java.util.Random
+
+/**
+ * 复习调度测试：SM-2 的间隔与难度系数、到期队列的顺序、保存后读入状态不变
+ */
+class ReviewSchedulerTest {
+
+    @get:Rule
+    val folder = TemporaryFolder()
+
+    private val minute = 60_000L
+    private val day = 24 * 60 * minute
+    private val start = 1_700_000_000_000L / minute * minute
+
+    @Test
+    fun goodAnswers_followSm2Intervals() {
+        val scheduler = ReviewScheduler()
+        scheduler.addCard(1, start)
+        assertEquals(start, scheduler.getDueMillis(1))
+
+        var now = start
+        val intervals = ArrayList<Int>()
+        repeat(4) {
+            scheduler.review(1, ReviewScheduler.Grade.GOOD, now)
+            intervals.add(scheduler.getIntervalDays(1))
+            now = scheduler.getDueMillis(1)
+        }
+        // 1 天、6 天，之后为上次间隔 × 难度系数（GOOD 不改变难度系数 2.5）
+        assertEquals(listOf(1, 6, 15, 38), intervals)
+        assertEquals(2.5f, scheduler.getEase(1), 1e-4f)
+        assertEquals(4, scheduler.getRepetitions(1))
+    }
+
+    @Test
+    fun easeRisesOnEasyFallsOnHardAndHasAFloor() {
+        val scheduler = ReviewScheduler()
+        scheduler.addCard(1, start)
+        scheduler.addCard(2, start)
+
+        scheduler.review(1, ReviewScheduler.Grade.EASY, start)
+        assertEquals(2.6f, scheduler.getEase(1), 1e-4f)
+        scheduler.review(2, ReviewScheduler.Grade.HARD, start)
+        assertEquals(2.36f, scheduler.getEase(2), 1e-4f)
+        repeat(20) { scheduler.review(2, ReviewScheduler.Grade.AGAIN, start) }
+        assertEquals(ReviewScheduler.MIN_EASE, scheduler.getEase(2), 1e-6f)
+    }
+
+    @Test
+    fun againResetsRepetitionsAndRelearnsSoon() {
+        val scheduler = ReviewScheduler()
+        scheduler.addCard(5, start)
+        scheduler.review(5, ReviewScheduler.Grade.GOOD, start)
+        scheduler.review(5, ReviewScheduler.Grade.GOOD, start + day)
+
+        val lapseAt = start + 7 * day
+        scheduler.review(5, ReviewScheduler.Grade.AGAIN, lapseAt)
+        assertEquals(0, scheduler.getRepetitions(5))
+        assertEquals(1, scheduler.getLapses(5))
+        assertEquals(lapseAt + ReviewScheduler.RELEARN_MINUTES * minute, scheduler.getDueMillis(5))
+        // 重新学习后间隔从 1 天开始
+        scheduler.review(5, ReviewScheduler.Grade.GOOD, scheduler.getDueMillis(5))
+        assertEquals(1, scheduler.getIntervalDays(5))
+    }
+
+    @Test
+    fun dueQueue_ordersByDueTimeThenId() {
+        val scheduler = ReviewScheduler()
+        for (id in listOf(9, 3, 7, 1)) {
+            scheduler.addCard(id, start)
+        }
+        scheduler.review(3, ReviewScheduler.Grade.GOOD, start)   // 1 天后
+        scheduler.review(7, ReviewScheduler.Grade.AGAIN, start)  // 10 分钟后
+
+        assertEquals(1, scheduler.peekNext())
+        assertArrayEquals(intArrayOf(1, 9), scheduler.dueCards(start, 10))
+        assertEquals(3, scheduler.countDue(start + 10 * minute))
+        assertArrayEquals(intArrayOf(1, 9, 7, 3), scheduler.dueCards(start + day, 10))
+        assertArrayEquals(intArrayOf(1, 9), scheduler.dueCards(start + day, 2))
+        assertTrue(scheduler.removeCard(1))
+        assertEquals(9, scheduler.peekNext())
+        assertEquals(3, scheduler.countDue(start + day))
+    }
+
+    @Test
+    fun introduceNewCards_onlyVisitsNewIdsAndSkipsRemoved() {
+        val wordLib = WordLib()
+        for (i in 0 until 5) {
+            wordLib.addWord("w$i", Meaning("词$i", Category.N))
+        }
+        wordLib.removeById(2)
+        val scheduler = ReviewScheduler()
+
+        assertEquals(3, scheduler.introduceNewCards(wordLib, 3, start))
+        assertTrue(scheduler.isCard(1) && !scheduler.isCard(2) && scheduler.isCard(4))
+        assertEquals(1, scheduler.introduceNewCards(wordLib, 3, start))
+        wordLib.addWord("later", Meaning("之后", Category.N))
+        assertEquals(1, scheduler.introduceNewCards(wordLib, 3, start))
+        assertEquals(5, scheduler.size())
+    }
+
+    @Test
+    fun saveAndLoad_keepsEveryCardAndTheQueue() {
+        val random = Random(18)
+        val scheduler = ReviewScheduler()
+        for (id in 1..500) {
+            scheduler.addCard(id, start)
+        }
+        var now = start
+        repeat(3000) {
+            val id = 1 + random.nextInt(500)
+            scheduler.review(id, ReviewScheduler.Grade.values()[random.nextInt(4)], now)
+            now += random.nextInt(600) * minute
+        }
+        scheduler.removeCard(250)
+        val file = File(folder.root, "lib.srs")
+        scheduler.save(file)
+
+        val loaded = ReviewScheduler.load(file)
+        assertEquals(scheduler.size(), loaded.size())
+        for (id in 1..500) {
+            assertEquals(scheduler.isCard(id), loaded.isCard(id))
+            assertEquals(scheduler.getDueMillis(id), loaded.getDueMillis(id))
+            assertEquals(scheduler.getIntervalDays(id), loaded.getIntervalDays(id))
+            assertEquals(scheduler.getEase(id), loaded.getEase(id), 0f)
+            assertEquals(scheduler.getRepetitions(id), loaded.getRepetitions(id))
+            assertEquals(scheduler.getLapses(id), loaded.getLapses(id))
+        }
+        assertArrayEquals(scheduler.dueCards(now, 100), loaded.dueCards(now, 100))
+        assertFalse(File(file.path + ".tmp").exists())
+    }
+
+    @Test
+    fun load_missingFileIsEmptyAndCorruptFileFails() {
+        assertEquals(0, ReviewScheduler.load(File(folder.root, "none.srs")).size())
+
+        val file = folder.newFile("bad.srs")
+        file.writeBytes(byteArrayOf(1, 2, 3, 4, 5, 6, 7, 8))
+        assertThrows(IOException::class.java) { ReviewScheduler.load(file) }
+    }
+}
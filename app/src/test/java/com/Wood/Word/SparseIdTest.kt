@@ -0,0 +1,78 @@
+package com.Wood.Word
+
+import org.junit.Assert.*
+import org.junit.Test
+
+/**
+ * 稀疏ID测试：文件中个别很大的ID不会让按ID分页的存储和索引分配到该ID为止的整段数组
+ */
+class SparseIdTest {
+
+    private val bigId = WordItemStore.MAX_ID - 10
+
+    private fun sparseData() = "1|apple|N:苹果\n2|run|V:跑\n$bigId|zebra|N:斑马\n"
+
+    @Test
+    fun bigSparseId_staysSmallInBothStores() {
+        for (wordLib in listOf(WordLib(), WordLib(0, StringPool()))) {
+            wordLib.importFromString(sparseData())
+
+            // 整段数组至少 MAX_ID * 4 字节，按页分配只有几页加页目录
+            assertTrue("${wordLib.estimateStorageBytes()} 字节", wordLib.estimateStorageBytes() < 2_000_000)
+            assertEquals("zebra", wordLib.getById(bigId).word)
+            assertEquals(bigId, wordLib.getWordId("ZEBRA"))
+            assertEquals(listOf(1, 2, bigId), wordLib.allIds.toList())
+            assertEquals("zebra", wordLib.search("ebr").single().word)
+        }
+    }
+
+    @Test
+    fun newIdsContinueAfterSparseId() {
+        val wordLib = WordLib.fromString(sparseData())
+        val id = wordLib.addWord("yak", Meaning("牦牛", Category.N))
+
+        assertEquals(bigId + 1, id)
+        assertEquals(listOf("apple", "run", "zebra", "yak"), wordLib.allWordStrings)
+    }
+
+    @Test
+    fun removingSparseIds_shrinksLimitAcrossEmptyPages() {
+        val store = WordItemStore(0)
+        store.put(3, WordItem("a"))
+        store.put(5_000_000, WordItem("b"))
+        store.put(60_000_000, WordItem("c"))
+
+        assertEquals(5_000_000, store.next(4))
+        assertEquals(-1, store.next(60_000_001))
+        store.remove(60_000_000)
+        assertEquals(5_000_001, store.limit())
+        store.remove(5_000_000)
+        assertEquals(4, store.limit())
+        assertEquals(1, store.size())
+        assertEquals(-1, store.next(4))
+    }
+
+    @Test
+    fun compactStoreIterationSkipsEmptyPages() {
+        val store = CompactWordItemStore(0, StringPool())
+        store.put(7, WordItem("seven", Meaning("七", Category.NUM)))
+        store.put(40_000_000, WordItem("far", Meaning("远", Category.ADJ)))
+
+        assertEquals(7, store.next(0))
+        assertEquals(40_000_000, store.next(8))
+        assertEquals("far", store.get(40_000_000).word)
+        assertNull(store.get(39_999_999))
+        store.remove(40_000_000)
+        assertEquals(8, store.limit())
+        assertEquals("seven", store.word(7))
+    }
+
+    @Test
+    fun fuzzyLookupHandlesSparseIds() {
+        val wordLib = WordLib.fromString(sparseData())
+
+        assertEquals("zebra", wordLib.fuzzyLookup("zebre", 1, 1).single().word)
+        wordLib.removeById(bigId)
+        assertTrue(wordLib.fuzzyLookup("zebre", 1, 1).isEmpty())
+    }
+}
@@ -0,0 +1,122 @@
+package com.Wood.Word
+
+import org.junit.Assert.*
+import org.junit.Rule
+import org.junit.Test
+import org.junit.rules.TemporaryFolder
+import java.io.File
+import java.io.IOException
+import java.io.RandomAccessFile
+
+/**
+ * 二进制格式（.wlb）测试：写出后完整读取与原词库一致，映射查询正确，损坏的文件被拒绝
+ */
+class WordLibBinaryFormatTest {
+
+    @get:Rule
+    val folder = TemporaryFolder()
+
+    private fun sampleLib(): WordLib {
+        val wordLib = WordLib()
+        wordLib.addWord("run", Meaning("跑", Category.V), "I run|daily")
+        wordLib.addWord("Apple", Meaning("苹果", Category.N))
+        wordLib.getById(2).addMeaning(Meaning("苹果公司;品牌", Category.N))
+        wordLib.addWord("naïve", Meaning("天真的", Category.ADJ), "多字节\n换行")
+        val gone = wordLib.addWord("gone", Meaning("消失", Category.V))
+        wordLib.addWord("empty", Meaning("", Category.UNSPECIFIED))
+        wordLib.removeById(gone)
+        return wordLib
+    }
+
+    @Test
+    fun writeThenReadBinary_roundTrips() {
+        val source = sampleLib()
+        val file = folder.newFile("lib.wlb")
+        source.writeBinary(file)
+
+        val copy = WordLib.readBinary(file)
+        assertEquals(source.toString(), copy.toString())
+        assertEquals(source.size(), copy.size())
+        // 删除留下的ID空位不会被重新分配
+        assertEquals(source.addWord("next", Meaning("下一个", Category.N)),
+                copy.addWord("next", Meaning("下一个", Category.N)))
+        assertFalse(File(file.path + ".tmp").exists())
+    }
+
+    @Test
+    fun mappedLookups_matchSource() {
+        val source = sampleLib()
+        val file = folder.newFile("lib.wlb")
+        source.writeBinary(file)
+
+        val mapped = MappedWordLib.open(file)
+        assertEquals(source.size(), mapped.size())
+        assertArrayEquals(source.allIds.sorted().toIntArray(), mapped.allIds)
+        for (id in source.allIds) {
+            assertEquals(source.getById(id).toString(), mapped.getById(id).toString())
+        }
+        assertEquals(2, mapped.getWordId("APPLE"))
+        assertEquals("naïve", mapped.getByWord("Naïve").word)
+        assertNull(mapped.getWordId("gone"))
+        assertNull(mapped.getById(4))
+    }
+
+    @Test
+    fun emptyLibrary_roundTrips() {
+        val file = folder.newFile("empty.wlb")
+        WordLib().writeBinary(file)
+
+        assertTrue(WordLib.readBinary(file).isEmpty)
+        assertTrue(MappedWordLib.open(file).isEmpty)
+    }
+
+    @Test
+    fun tooManyMeanings_failsWithoutTouchingTarget() {
+        val file = folder.newFile("lib.wlb")
+        sampleLib().writeBinary(file)
+        val before = file.readBytes()
+
+        val item = WordItem("many")
+        repeat(WordLibBinaryFormat.MAX_MEANINGS + 1) { item.addMeaning(Meaning("m$it", Category.N)) }
+        val wordLib = WordLib()
+        wordLib.updateWordItem(wordLib.addWord("many", Meaning("m", Category.N)), item)
+
+        assertThrows(IOException::class.java) { wordLib.writeBinary(file) }
+        assertArrayEquals(before, file.readBytes())
+        assertFalse(File(file.path + ".tmp").exists())
+    }
+
+    @Test
+    fun truncatedFile_isRejectedOnOpen() {
+        val file = folder.newFile("lib.wlb")
+        sampleLib().writeBinary(file)
+        RandomAccessFile(file, "rw").use { it.setLength(it.length() - 4) }
+
+        assertThrows(IOException::class.java) { MappedWordLib.open(file) }
+        assertThrows(IOException::class.java) { WordLib.readBinary(file) }
+    }
+
+    @Test
+    fun corruptRecordOffset_failsWithClearError() {
+        val file = folder.newFile("lib.wlb")
+        sampleLib().writeBinary(file)
+        val idIndexOffset = RandomAccessFile(file, "r").use { it.seek(28); it.readInt() }
+        // 第一条记录的偏移指向文件之外
+        RandomAccessFile(file, "rw").use { it.seek(idIndexOffset + 4L); it.writeInt(Int.MAX_VALUE - 3) }
+
+        val mapped = MappedWordLib.open(file)
+        val error = assertThrows(IllegalStateException::class.java) { mapped.getById(1) }
+        assertTrue(error.message!!.contains("已损坏"))
+        assertThrows(IOException::class.java) { WordLib.readBinary(file) }
+    }
+
+    @Test
+    fun corruptStringReference_failsWithClearError() {
+        val file = folder.newFile("lib.wlb")
+        sampleLib().writeBinary(file)
+        val recordsOffset = RandomAccessFile(file, "r").use { it.seek(24); it.readInt() }
+        RandomAccessFile(file, "rw").use { it.seek(recordsOffset.toLong()); it.writeInt(1_000_000) }
+
+        assertThrows(IllegalStateException::class.java) { MappedWordLib.open(file).getById(1) }
+    }
+}
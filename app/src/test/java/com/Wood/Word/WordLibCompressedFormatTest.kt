@@ -0,0 +1,246 @@
+package com.Wood.Word
+
+import org.junit.Assert.*
+import org.junit.Rule
+import org.junit.Test
+import org.junit.rules.TemporaryFolder
+import java.io.File
+import java.io.IOException
+import java.nio.ByteBuffer
+import java.util.Random
+import java.util.zip.CRC32
+
+/**
+ * 压缩格式（.wlz）测试：跨多块写出后完整读取与原词库一致，按块查询正确，写入经临时文件替换，
+ * 损坏的文件（改动任意字节、截断、校验和正确但长度或计数不合理）读取时一律抛出 IOException
+ */
+class WordLibCompressedFormatTest {
+
+    @get:Rule
+    val folder = TemporaryFolder()
+
+    // 足够分成多块；含大小写不同的单词、多字节字符、多个含义、空例句和删除留下的ID空位
+    private fun sampleLib(wordLib: WordLib = WordLib()): WordLib {
+        val count = WordLibCompressedFormat.BLOCK_SIZE * 3 + 7
+        for (i in 0 until count) {
+            val item = WordItem(if (i % 5 == 0) "Word$i" else "word$i", Meaning("含义$i", Category.N))
+            if (i % 3 == 0) {
+                item.addMeaning(Meaning("动作$i", Category.V))
+            }
+            item.example = if (i % 4 == 0) "" else "例句 $i naïve"
+            wordLib.insertAll(listOf(item))
+        }
+        for (id in 10 until count step 17) {
+            wordLib.removeById(id)
+        }
+        return wordLib
+    }
+
+    @Test
+    fun writeThenReadCompressed_roundTrips() {
+        val source = sampleLib()
+        val file = File(folder.root, "lib.wlz")
+        source.writeCompressed(file)
+
+        val copy = WordLib.readCompressed(file)
+        assertEquals(source.toString(), copy.toString())
+        assertEquals(source.size(), copy.size())
+        assertFalse(copy.isDirty)
+        assertEquals(source.addWord("next", Meaning("下一个", Category.N)),
+                copy.addWord("next", Meaning("下一个", Category.N)))
+        assertFalse(File(file.path + ".tmp").exists())
+    }
+
+    @Test
+    fun compressedLookups_matchSource() {
+        val source = sampleLib()
+        val file = File(folder.root, "lib.wlz")
+        source.writeCompressed(file)
+
+        val compressed = CompressedWordLib.open(file)
+        assertTrue(compressed.blockCount > 1)
+        assertEquals(source.size(), compressed.size())
+        assertArrayEquals(source.allIds.sorted().toIntArray(), compressed.allIds)
+        for (id in source.allIds) {
+            assertEquals(source.getById(id).toString(), compressed.getById(id).toString())
+        }
+        assertEquals(source.getWordId("word100"), compressed.getWordId("WORD100"))
+        assertEquals("Word5", compressed.getByWord("word5").word)
+        assertNull(compressed.getById(10))
+        assertNull(compressed.getWordId("nothing"))
+    }
+
+    @Test
+    fun compactConcurrentLibrary_roundTrips() {
+        val source = sampleLib(ConcurrentWordLib(0, StringPool()))
+        val file = File(folder.root, "lib.wlz")
+        source.writeCompressed(file)
+
+        assertEquals(source.toString(), WordLib.readCompressed(file).toString())
+    }
+
+    @Test
+    fun emptyLibrary_roundTrips() {
+        val file = File(folder.root, "empty.wlz")
+        WordLib().writeCompressed(file)
+
+        assertTrue(WordLib.readCompressed(file).isEmpty)
+        assertTrue(CompressedWordLib.isCompressed(file))
+    }
+
+    @Test
+    fun rewrite_replacesThePreviousFile() {
+        val file = File(folder.root, "lib.wlz")
+        sampleLib().writeCompressed(file)
+        val smaller = WordLib()
+        smaller.addWord("only", Meaning("唯一", Category.ADJ))
+        smaller.writeCompressed(file)
+
+        assertEquals(smaller.toString(), WordLib.readCompressed(file).toString())
+        assertFalse(File(file.path + ".tmp").exists())
+    }
+
+    @Test
+    fun failedReplace_removesTheTemporaryFile() {
+        // 目标是非空目录，临时文件无法替换过去
+        val target = folder.newFolder("lib.wlz")
+        File(target, "keep").writeText("x")
+
+        assertThrows(IOException::class.java) { sampleLib().writeCompressed(target) }
+        assertTrue(File(target, "keep").exists())
+        assertFalse(File(target.path + ".tmp").exists())
+    }
+
+    private fun sampleBytes(): ByteArray {
+        val file = File(folder.root, "source.wlz")
+        sampleLib().writeCompressed(file)
+        return file.readBytes()
+    }
+
+    private fun assertCorrupt(bytes: ByteArray, what: String) {
+        val file = File(folder.root, "corrupt.wlz")
+        file.writeBytes(bytes)
+        try {
+            WordLib.readCompressed(file)
+            fail("$what: 没有发现损坏")
+        } catch (e: IOException) {
+            // 期望的结果
+        } catch (t: Throwable) {
+            throw AssertionError("$what: 抛出了 ${t.javaClass.simpleName}", t)
+        }
+    }
+
+    private fun crc(bytes: ByteArray, vararg ranges: IntRange): Int {
+        val crc = CRC32()
+        for (range in ranges) {
+            crc.update(bytes, range.first, range.last - range.first + 1)
+        }
+        return crc.value.toInt()
+    }
+
+    // 改动之后重新计算校验和，让读取走到长度与计数的检查
+    private fun fixChecksums(bytes: ByteArray, blocks: Boolean = true) {
+        val buffer = ByteBuffer.wrap(bytes)
+        val blockCount = if (blocks) buffer.getInt(16) else 0
+        val blockIndexOffset = buffer.getInt(20)
+        for (block in 0 until blockCount) {
+            val start = buffer.getInt(blockIndexOffset + 4 * block)
+            val end = buffer.getInt(blockIndexOffset + 4 * (block + 1))
+            buffer.putInt(start, crc(bytes, start + 4 until end))
+        }
+        buffer.putInt(32, crc(bytes, 0 until 32, blockIndexOffset until bytes.size))
+    }
+
+    // 第 block 块中跳过 skip 个 varint 之后那个 varint 的最后一个字节
+    private fun varintEnd(bytes: ByteArray, block: Int, skip: Int, skipWords: Boolean = false): Int {
+        val buffer = ByteBuffer.wrap(bytes)
+        var position = buffer.getInt(buffer.getInt(20) + 4 * block) + 4
+        for (i in 0 until skip) {
+            var value = 0
+            var shift = 0
+            while (true) {
+                val b = bytes[position++].toInt()
+                value = value or ((b and 0x7F) shl shift)
+                shift += 7
+                if (b >= 0) break
+            }
+            if (skipWords && i == skip - 1) position += value
+        }
+        while (bytes[position] < 0) position++
+        return position
+    }
+
+    @Test
+    fun everyChangedOrTruncatedByte_isDetected() {
+        val original = sampleBytes()
+        val random = Random(7)
+        val positions = (0 until 64) + (0 until 400).map { random.nextInt(original.size) }
+        for (position in positions) {
+            val bytes = original.copyOf()
+            bytes[position] = (bytes[position].toInt() xor (1 shl random.nextInt(8))).toByte()
+            assertCorrupt(bytes, "改动第 $position 字节")
+        }
+        for (length in listOf(0, 3, WordLibCompressedFormat.HEADER_SIZE, 100, original.size / 2, original.size - 1)) {
+            assertCorrupt(original.copyOf(length), "截断到 $length 字节")
+        }
+    }
+
+    @Test
+    fun implausibleLengthsWithValidChecksums_areRejected() {
+        val original = sampleBytes()
+
+        // 头部的单词数与块数不符
+        var bytes = original.copyOf()
+        ByteBuffer.wrap(bytes).putInt(8, Int.MAX_VALUE)
+        fixChecksums(bytes)
+        assertCorrupt(bytes, "单词数")
+
+        // 块偏移越过块索引
+        bytes = original.copyOf()
+        val blockIndexOffset = ByteBuffer.wrap(bytes).getInt(20)
+        ByteBuffer.wrap(bytes).putInt(blockIndexOffset + 4, Int.MAX_VALUE)
+        fixChecksums(bytes, blocks = false)
+        assertCorrupt(bytes, "块偏移")
+
+        // 块内项数与应有的不符
+        bytes = original.copyOf()
+        bytes[varintEnd(bytes, 1, 0)] = 1
+        fixChecksums(bytes)
+        assertCorrupt(bytes, "项数")
+
+        // 单词部分长度超出块
+        bytes = original.copyOf()
+        bytes[varintEnd(bytes, 1, 1)] = 0x7F
+        fixChecksums(bytes)
+        assertCorrupt(bytes, "单词部分长度")
+
+        // 解压后长度与压缩数据不符
+        bytes = original.copyOf()
+        bytes[varintEnd(bytes, 2, 2, skipWords = true)] = 0x7F
+        fixChecksums(bytes)
+        assertCorrupt(bytes, "解压长度")
+
+        fixChecksums(original)
+        assertArrayEquals(sampleBytes(), original)
+    }
+
+    @Test
+    fun corruptBlock_failsOnAccessWithoutBreakingOtherBlocks() {
+        val bytes = sampleBytes()
+        val buffer = ByteBuffer.wrap(bytes)
+        val start = buffer.getInt(buffer.getInt(20) + 4)  // 第 1 块
+        bytes[start + 10] = (bytes[start + 10].toInt() xor 0x40).toByte()
+        val file = File(folder.root, "lib.wlz")
+        file.writeBytes(bytes)
+
+        val compressed = CompressedWordLib.open(file)
+        val source = sampleLib()
+        assertEquals(source.getById(1).toString(), compressed.getById(1).toString())
+        val e = assertThrows(IllegalStateException::class.java) {
+            for (id in source.allIds) {
+                compressed.getById(id)
+            }
+        }
+        assertTrue(e.message!!.contains("第 1 块"))
+    }
+}
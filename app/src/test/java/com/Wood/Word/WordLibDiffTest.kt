@@ -0,0 +1,169 @@
+package com.Wood.Word
+
+import org.junit.Assert.*
+import org.junit.Test
+
+/**
+ * 按内容哈希的差异测试：新增/删除/修改的分类、跨存储比较、应用差异后两边一致，以及内容哈希本身；
+ * 另有保存状态：markSaved 记下的目标只对同一目标、且之后没有变更时才算已保存
+ */
+class WordLibDiffTest {
+
+    private fun baseLib(wordLib: WordLib = WordLib()): WordLib {
+        wordLib.addWord("apple", Meaning("苹果", Category.N), "an apple")
+        wordLib.addWord("run", Meaning("跑", Category.V))
+        wordLib.addWord("fast", Meaning("快速的", Category.ADJ))
+        wordLib.addWord("book", Meaning("书", Category.N))
+        return wordLib
+    }
+
+    private fun item(word: String, example: String, vararg meanings: Meaning) =
+        WordItem(word, meanings.toList()).also { it.example = example }
+
+    private fun copyOf(wordLib: WordLib) = WordLib.fromString(wordLib.toString())
+
+    @Test
+    fun diff_classifiesAddedRemovedAndChanged() {
+        val base = baseLib()
+        val newer = copyOf(base)
+        newer.updateWordItem(2, WordItem("run", Meaning("奔跑", Category.V)))
+        newer.removeById(3)
+        newer.addWord("swim", Meaning("游泳", Category.V))
+        newer.updateWordItem(4, WordItem("book", Meaning("书", Category.N)))  // 内容未变
+
+        val diff = newer.diff(base)
+        assertArrayEquals(intArrayOf(5), diff.added)
+        assertArrayEquals(intArrayOf(3), diff.removed)
+        assertArrayEquals(intArrayOf(2), diff.changed)
+        assertEquals(3, diff.size())
+        assertTrue(newer.diff(newer).isEmpty())
+        assertTrue(copyOf(base).diff(base).isEmpty())
+    }
+
+    @Test
+    fun diff_handlesEmptyAndDisjointLibraries() {
+        val base = baseLib()
+        assertArrayEquals(intArrayOf(1, 2, 3, 4), base.diff(WordLib()).added)
+        assertArrayEquals(intArrayOf(1, 2, 3, 4), WordLib().diff(base).removed)
+
+        val other = WordLib()
+        other.restore(10, WordItem("zebra", Meaning("斑马", Category.N)))
+        val diff = other.diff(base)
+        assertArrayEquals(intArrayOf(10), diff.added)
+        assertArrayEquals(intArrayOf(1, 2, 3, 4), diff.removed)
+        assertEquals(0, diff.changed.size)
+    }
+
+    @Test
+    fun diff_isTheSameAcrossStores() {
+        val plain = baseLib()
+        val compact = baseLib(WordLib(0, StringPool()))
+        val concurrent = baseLib(ConcurrentWordLib(0, StringPool()))
+        assertTrue(compact.diff(plain).isEmpty())
+        assertTrue(plain.diff(concurrent).isEmpty())
+
+        compact.updateWordItem(1, WordItem("apple", Meaning("苹果", Category.N), "apples"))
+        concurrent.removeById(4)
+        assertArrayEquals(intArrayOf(1), compact.diff(plain).changed)
+        assertArrayEquals(intArrayOf(4), concurrent.diff(plain).removed)
+        assertArrayEquals(intArrayOf(1), compact.diff(concurrent).changed)
+        assertArrayEquals(intArrayOf(4), compact.diff(concurrent).added)
+    }
+
+    @Test
+    fun applyDiff_bringsTheBaseUpToDate() {
+        val base = baseLib()
+        val newer = copyOf(base)
+        newer.updateWordItem(1, WordItem("apple", listOf(Meaning("苹果", Category.N), Meaning("苹果公司", Category.N))))
+        newer.removeById(2)
+        newer.addWord("swim", Meaning("游泳", Category.V))
+        newer.addWord("walk", Meaning("走", Category.V))
+
+        val diff = newer.diff(base)
+        assertEquals(diff.size(), base.applyDiff(newer, diff))
+        assertEquals(newer.toString(), base.toString())
+        assertTrue(newer.diff(base).isEmpty())
+        assertEquals(listOf("swim", "walk"), base.getByCategory(Category.V).map { it.word })
+        assertEquals(7, base.addWord("jump", Meaning("跳", Category.V)))
+    }
+
+    @Test
+    fun applyDiff_skipsWordsTakenByAnotherId() {
+        val base = baseLib()
+        val newer = copyOf(base)
+        newer.addWord("swim", Meaning("游泳", Category.V))
+        val diff = newer.diff(base)
+        // 应用之前 base 中已经以另一个ID加入了 "swim"
+        base.restore(9, WordItem("Swim", Meaning("游", Category.V)))
+
+        assertEquals(0, base.applyDiff(newer, diff))
+        assertNull(base.getById(5))
+        assertEquals(9, base.getWordId("swim"))
+    }
+
+    @Test
+    fun contentHash_coversEveryFieldAndMeaningOrder() {
+        val original = item("apple", "an apple", Meaning("苹果", Category.N), Meaning("红色的", Category.ADJ))
+        val same = item("apple", "an apple", Meaning("苹果", Category.N), Meaning("红色的", Category.ADJ))
+        assertEquals(original.contentHash(), same.contentHash())
+        assertNotEquals(0L, original.contentHash())
+
+        val variants = listOf(
+            item("Apple", "an apple", Meaning("苹果", Category.N), Meaning("红色的", Category.ADJ)),
+            item("apple", "apples", Meaning("苹果", Category.N), Meaning("红色的", Category.ADJ)),
+            item("apple", "an apple", Meaning("红色的", Category.ADJ), Meaning("苹果", Category.N)),
+            item("apple", "an apple", Meaning("苹果", Category.V), Meaning("红色的", Category.ADJ)),
+            item("apple", "an apple", Meaning("苹果", Category.N)),
+            // 单词和例句互换
+            item("an apple", "apple", Meaning("苹果", Category.N), Meaning("红色的", Category.ADJ))
+        )
+        val hashes = (variants.map { it.contentHash() } + original.contentHash()).toSet()
+        assertEquals(variants.size + 1, hashes.size)
+    }
+
+    @Test
+    fun contentHash_isRecomputedAfterSetters() {
+        val item = WordItem("run", Meaning("跑", Category.V))
+        val before = item.contentHash()
+        item.setExample("run fast")
+        assertNotEquals(before, item.contentHash())
+        item.setExample("")
+        assertEquals(before, item.contentHash())
+        item.addMeaning(Meaning("跑步", Category.N))
+        assertNotEquals(before, item.contentHash())
+        item.setMeanings(listOf(Meaning("跑", Category.V)))
+        assertEquals(before, item.contentHash())
+    }
+
+    @Test
+    fun isSavedTo_onlyForTheRecordedTargetWithoutLaterChanges() {
+        // 从字符串得到的词库没有脏ID，但没有保存到任何文件
+        val parsed = copyOf(baseLib())
+        assertFalse(parsed.isDirty)
+        assertFalse(parsed.isSavedTo("a.dat"))
+        assertFalse(WordLib(baseLib().toString()).isSavedTo("a.dat"))
+
+        assertTrue(parsed.markSaved(parsed.changeCount, "a.dat"))
+        assertTrue(parsed.isSavedTo("a.dat"))
+        assertFalse(parsed.isSavedTo("b.dat"))
+
+        parsed.addWord("swim", Meaning("游泳", Category.V))
+        assertFalse(parsed.isSavedTo("a.dat"))
+
+        // 保存期间又有变更：不记为已保存
+        val changeCount = parsed.changeCount
+        parsed.removeById(1)
+        assertFalse(parsed.markSaved(changeCount, "a.dat"))
+        assertFalse(parsed.isSavedTo("a.dat"))
+
+        assertTrue(parsed.markSaved(parsed.changeCount, "b.dat"))
+        parsed.markClean()
+        assertFalse(parsed.isSavedTo("b.dat"))
+
+        val concurrent = baseLib(ConcurrentWordLib(0, StringPool()))
+        assertTrue(concurrent.markSaved(concurrent.changeCount, "c.dat"))
+        assertTrue(concurrent.isSavedTo("c.dat"))
+        assertTrue(concurrent.markClean(concurrent.changeCount))
+        assertFalse(concurrent.isSavedTo("c.dat"))
+    }
+}
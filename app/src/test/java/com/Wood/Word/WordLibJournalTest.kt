@@ -0,0 +1,234 @@
+package com.Wood.Word
+
+import org.junit.Assert.*
+import org.junit.Rule
+import org.junit.Test
+import org.junit.rules.TemporaryFolder
+import java.io.File
+import java.io.FileOutputStream
+import java.io.IOException
+import java.io.RandomAccessFile
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.TimeUnit
+
+/**
+ * 变更日志测试：重放、崩溃时的半条记录、检查点（含轮换后崩溃和关闭后仍在排队的检查点）、写日志失败后的完整保存
+ */
+class WordLibJournalTest {
+
+    @get:Rule
+    val folder = TemporaryFolder()
+
+    private fun baseFile() = File(folder.root, "lib.dat")
+    private fun journalFile() = File(folder.root, "lib.dat.journal")
+    private fun rotatedFile() = File(folder.root, "lib.dat.journal.old")
+
+    private fun reopen(): WordLib {
+        val journal = WordLibJournal.open(baseFile(), Long.MAX_VALUE)
+        journal.close()
+        return journal.wordLib
+    }
+
+    @Test
+    fun mutationsAreReplayedOnOpen() {
+        baseFile().writeText("1|apple|N:苹果\n2|run|V:跑\n")
+        val journal = WordLibJournal.open(baseFile(), Long.MAX_VALUE)
+        val wordLib = journal.wordLib
+        val id = wordLib.addWord("cat", Meaning("猫", Category.N), "a cat")
+        wordLib.updateWordItem(1, WordItem("apple", Meaning("苹果树", Category.N)))
+        wordLib.removeById(2)
+        journal.sync()
+        journal.close()
+
+        val reopened = reopen()
+        assertEquals(wordLib.toString(), reopened.toString())
+        assertEquals("苹果树", reopened.getById(1).getMeaning(0).meaningText)
+        assertNull(reopened.getById(2))
+        assertEquals("a cat", reopened.getById(id).example)
+        assertFalse(reopened.isDirty)
+    }
+
+    @Test
+    fun clearIsReplayed() {
+        baseFile().writeText("1|apple|N:苹果\n")
+        val journal = WordLibJournal.open(baseFile(), Long.MAX_VALUE)
+        journal.wordLib.clear()
+        journal.wordLib.addWord("new", Meaning("新", Category.ADJ))
+        journal.close()
+
+        val reopened = reopen()
+        assertEquals(listOf("new"), reopened.allWordStrings)
+    }
+
+    @Test
+    fun tornTailRecordIsDroppedAndTruncated() {
+        val journal = WordLibJournal.open(baseFile(), Long.MAX_VALUE)
+        journal.wordLib.addWord("kept", Meaning("保留", Category.N))
+        journal.close()
+        val validLength = journalFile().length()
+        // 模拟崩溃：第二条记录只写了一半
+        val journal2 = WordLibJournal.open(baseFile(), Long.MAX_VALUE)
+        journal2.wordLib.addWord("torn", Meaning("半条", Category.N))
+        journal2.close()
+        RandomAccessFile(journalFile(), "rw").use { it.setLength(it.length() - 3) }
+
+        val reopened = WordLibJournal.open(baseFile(), Long.MAX_VALUE)
+        assertEquals(listOf("kept"), reopened.wordLib.allWordStrings)
+        assertEquals(validLength, journalFile().length())
+        // 截断后的日志可以继续追加
+        reopened.wordLib.addWord("after", Meaning("之后", Category.N))
+        reopened.close()
+        assertEquals(listOf("kept", "after"), reopen().allWordStrings)
+    }
+
+    @Test
+    fun corruptRecordStopsReplayAtLastGoodRecord() {
+        val journal = WordLibJournal.open(baseFile(), Long.MAX_VALUE)
+        journal.wordLib.addWord("good", Meaning("好", Category.ADJ))
+        val goodLength = journal.journalSize
+        journal.wordLib.addWord("bad", Meaning("坏", Category.ADJ))
+        journal.close()
+        // 改坏第二条记录的校验和
+        RandomAccessFile(journalFile(), "rw").use {
+            val last = it.length() - 1
+            it.seek(last)
+            val b = it.read()
+            it.seek(last)
+            it.write(b.inv() and 0xFF)
+        }
+
+        assertEquals(listOf("good"), reopen().allWordStrings)
+        assertEquals(goodLength, journalFile().length())
+    }
+
+    @Test
+    fun checkpointMergesJournalIntoBaseFile() {
+        baseFile().writeText("1|apple|N:苹果\n")
+        val journal = WordLibJournal.open(baseFile(), Long.MAX_VALUE)
+        for (i in 0 until 100) {
+            journal.wordLib.addWord("word$i", Meaning("含义$i", Category.N))
+        }
+        journal.wordLib.removeById(1)
+        journal.checkpoint()
+
+        assertEquals(0L, journal.journalSize)
+        assertFalse(rotatedFile().exists())
+        assertEquals(journal.wordLib.toString(), WordLib.fromString(baseFile().readText()).toString())
+        // 检查点之后的变更写入新日志
+        journal.wordLib.addWord("later", Meaning("之后", Category.N))
+        journal.close()
+        assertEquals(journal.wordLib.toString(), reopen().toString())
+    }
+
+    @Test
+    fun backgroundCheckpointRunsAfterThreshold() {
+        val journal = WordLibJournal.open(baseFile(), 512)
+        for (i in 0 until 200) {
+            journal.wordLib.addWord("word$i", Meaning("含义$i", Category.N))
+        }
+        // 等后台检查点结束（.old 被删除）
+        val deadline = System.currentTimeMillis() + 10_000
+        while ((rotatedFile().exists() || !baseFile().exists()) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10)
+        }
+        journal.close()
+
+        assertTrue(baseFile().length() > 0)
+        assertNull(journal.lastError)
+        assertEquals(journal.wordLib.toString(), reopen().toString())
+    }
+
+    @Test
+    fun checkpointQueuedBeforeCloseDoesNothing() {
+        baseFile().writeText("1|apple|N:苹果\n")
+        // 占住共用的检查点线程，让阈值触发的检查点停在队列中
+        val executorField = WordLibJournal::class.java.getDeclaredField("CHECKPOINT_EXECUTOR")
+        executorField.isAccessible = true
+        val executor = executorField.get(null) as ExecutorService
+        val release = CountDownLatch(1)
+        executor.execute { release.await() }
+
+        val journal = WordLibJournal.open(baseFile(), 64)
+        for (i in 0 until 20) {
+            journal.wordLib.addWord("word$i", Meaning("含义$i", Category.N))
+        }
+        journal.close()
+        val baseBefore = baseFile().readText()
+        val journalBefore = journalFile().readBytes()
+        // 关闭后重新打开同一文件，再放行排队的检查点
+        val reopened = WordLibJournal.open(baseFile(), Long.MAX_VALUE)
+        release.countDown()
+        executor.submit {}.get(10, TimeUnit.SECONDS)
+
+        assertNull(journal.lastError)
+        assertEquals(baseBefore, baseFile().readText())
+        assertArrayEquals(journalBefore, journalFile().readBytes())
+        assertFalse(rotatedFile().exists())
+        assertThrows(IOException::class.java) { journal.checkpoint() }
+        reopened.wordLib.addWord("later", Meaning("之后", Category.N))
+        reopened.close()
+        assertEquals(reopened.wordLib.toString(), reopen().toString())
+        assertEquals(22, reopen().size())
+    }
+
+    @Test
+    fun crashAfterRotationReplaysOldJournalFirst() {
+        baseFile().writeText("1|apple|N:苹果\n")
+        val journal = WordLibJournal.open(baseFile(), Long.MAX_VALUE)
+        journal.wordLib.addWord("first", Meaning("一", Category.NUM))
+        journal.wordLib.updateWordItem(1, WordItem("apple", Meaning("旧的更新", Category.N)))
+        journal.close()
+        // 模拟检查点轮换后、重写基础文件前崩溃
+        assertTrue(journalFile().renameTo(rotatedFile()))
+        val journal2 = WordLibJournal.open(baseFile(), Long.MAX_VALUE)
+        assertEquals(2, journal2.wordLib.size())
+        journal2.wordLib.updateWordItem(1, WordItem("apple", Meaning("新的更新", Category.N)))
+        journal2.sync()
+        journal2.checkpoint()
+        journal2.close()
+
+        val reopened = reopen()
+        assertEquals(listOf("apple", "first"), reopened.allWordStrings)
+        assertEquals("新的更新", reopened.getById(1).getMeaning(0).meaningText)
+        assertFalse(rotatedFile().exists())
+    }
+
+    @Test
+    fun appendFailureDoesNotThrowAndNextSyncRewritesEverything() {
+        baseFile().writeText("1|apple|N:苹果\n")
+        val journal = WordLibJournal.open(baseFile(), Long.MAX_VALUE, ConcurrentWordLib())
+        val wordLib = journal.wordLib
+        wordLib.addWord("before", Meaning("之前", Category.N))
+        failJournalWrites(journal)
+
+        // 写日志失败不影响变更方，内存中的变更已生效
+        wordLib.addWord("lost", Meaning("未写入日志", Category.N))
+        wordLib.removeById(1)
+        assertTrue(journal.needsFullSave())
+        assertNotNull(journal.lastError)
+        assertTrue(wordLib.isDirty)
+        wordLib.addWord("during", Meaning("失败期间", Category.N))
+
+        journal.sync()
+        assertFalse(journal.needsFullSave())
+        assertNull(journal.lastError)
+        wordLib.addWord("after", Meaning("之后", Category.N))
+        journal.close()
+
+        val reopened = reopen()
+        assertEquals(wordLib.toString(), reopened.toString())
+        assertEquals(listOf("before", "lost", "during", "after"), reopened.allWordStrings)
+    }
+
+    // 把日志输出流换成总是失败的流（模拟存储空间不足）
+    private fun failJournalWrites(journal: WordLibJournal) {
+        val field = WordLibJournal::class.java.getDeclaredField("journalOut")
+        field.isAccessible = true
+        (field.get(journal) as FileOutputStream).close()
+        field.set(journal, object : FileOutputStream(File(folder.root, "broken")) {
+            override fun write(b: ByteArray) = throw IOException("No space left on device")
+            override fun write(b: ByteArray, off: Int, len: Int) = throw IOException("No space left on device")
+        })
+    }
+}
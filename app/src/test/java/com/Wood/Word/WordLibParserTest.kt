@@ -0,0 +1,176 @@
+package com.Wood.Word
+
+import org.junit.Assert.*
+import org.junit.Test
+import java.io.ByteArrayOutputStream
+import java.io.FilterOutputStream
+import java.io.Reader
+import java.io.StringReader
+
+/**
+ * 文本格式解析器测试：字段切分、反转义、换行符、错误行的报告；
+ * 导出经 writeTo 再解析能还原含分隔符与转义序列的文本，writeTo(OutputStream) 只 flush 不关闭流
+ */
+class WordLibParserTest {
+
+    private fun parse(data: String): Pair<Map<Int, WordItem>, ImportReport> {
+        val items = LinkedHashMap<Int, WordItem>()
+        val report = WordLibParser.parse(StringReader(data)) { id, item -> items[id] = item }
+        return items to report
+    }
+
+    @Test
+    fun parsesFieldsMeaningsAndExample() {
+        val (items, report) = parse("1|run|V:跑;N:跑步|I run every day\n2|apple|N:苹果\n")
+
+        assertEquals(2, report.importedCount)
+        assertEquals(0, report.problemCount)
+        val run = items[1]!!
+        assertEquals("run", run.word)
+        assertEquals(2, run.meaningCount)
+        assertEquals(Category.V, run.getMeaning(0).category)
+        assertEquals("跑", run.getMeaning(0).meaningText)
+        assertEquals(Category.N, run.getMeaning(1).category)
+        assertEquals("I run every day", run.example)
+        assertEquals("", items[2]!!.example)
+    }
+
+    @Test
+    fun unescapesSeparatorsInOnePass() {
+        val (items, _) = parse("1|a\\pb|N:x\\cy\\sz|line\\nnext\\\\end\\q\n")
+
+        val item = items[1]!!
+        assertEquals("a|b", item.word)
+        assertEquals("x:y;z", item.getMeaning(0).meaningText)
+        assertEquals("line\nnext\\end\\q", item.example)
+    }
+
+    @Test
+    fun escapedTextRoundTripsThroughExport() {
+        val source = WordLib()
+        source.addWord("a|b", Meaning("x:y;z\\w", Category.N), "first\nsecond")
+        val copy = WordLib.fromString(source.toString())
+
+        val item = copy.getById(1)
+        assertEquals("a|b", item.word)
+        assertEquals("x:y;z\\w", item.getMeaning(0).meaningText)
+        assertEquals("first\nsecond", item.example)
+    }
+
+    @Test
+    fun specialCharactersRoundTripThroughWriteTo() {
+        val tricky = listOf("\\", "|", ":", ";", "\n", "\r", "\\p", "\\\\p", "a\\", "\\c\\s\\n\\r\\\\",
+                "x|y:z;w\r\nv", "末尾\\", "\r\n\n|", "例:\\|;")
+        for (wordLib in listOf(WordLib(), WordLib(0, StringPool()), ConcurrentWordLib())) {
+            val expected = tricky.withIndex().map { (i, text) -> Triple("w$i$text", listOf("m$text", "$text;第二"), "e$text") }
+            wordLib.insertAll(expected.map { (word, meanings, example) ->
+                WordItem(word, listOf(Meaning(meanings[0], Category.N), Meaning(meanings[1], Category.V))).also { it.example = example }
+            })
+            val out = ByteArrayOutputStream()
+            wordLib.writeTo(out)
+            val copy = WordLib.fromString(out.toString("UTF-8"))
+
+            assertEquals(expected.size, copy.size())
+            for ((i, entry) in expected.withIndex()) {
+                val item = copy.getById(i + 1)
+                assertEquals(entry.first, item.word)
+                assertEquals(entry.second, item.meanings().map { it.meaningText })
+                assertEquals(entry.third, item.example)
+            }
+            assertEquals(wordLib.toString(), copy.toString())
+        }
+    }
+
+    @Test
+    fun writeToOutputStream_flushesWithoutClosing() {
+        var flushed = false
+        var closed = false
+        val bytes = ByteArrayOutputStream()
+        val out = object : FilterOutputStream(bytes) {
+            override fun write(b: ByteArray, off: Int, len: Int) = bytes.write(b, off, len)
+            override fun flush() { flushed = true }
+            override fun close() { closed = true }
+        }
+        val wordLib = WordLib()
+        wordLib.addWord("a|b", Meaning("甲", Category.N))
+        wordLib.writeTo(out)
+
+        assertTrue(flushed)
+        assertFalse(closed)
+        assertEquals(wordLib.toString(), bytes.toString("UTF-8"))
+        // 调用方还能继续写
+        out.write("#end\n".toByteArray())
+        assertTrue(bytes.toString("UTF-8").endsWith("#end\n"))
+    }
+
+    @Test
+    fun acceptsEveryLineEndingAndTrimsFields() {
+        val (items, report) = parse("1| one |N: 一 \r\n2|two|N:二\r3|three|N:三")
+
+        assertEquals(3, report.lineCount)
+        assertEquals(listOf(1, 2, 3), items.keys.toList())
+        assertEquals("one", items[1]!!.word)
+        assertEquals("一", items[1]!!.getMeaning(0).meaningText)
+        assertEquals("three", items[3]!!.word)
+    }
+
+    @Test
+    fun skipsBlankLinesAndComments() {
+        val (items, report) = parse("# 注释\n\n   \n1|a|N:甲\n")
+
+        assertEquals(1, items.size)
+        assertEquals(4, report.lineCount)
+        assertEquals(0, report.skippedCount)
+        assertFalse(report.hasProblems())
+    }
+
+    @Test
+    fun reportsMalformedLinesAndInvalidIds() {
+        val (items, report) = parse("1|only\nabc|word|N:x\n-1|neg|N:x\n99999999999|big|N:x\n${1 shl 26}|max|N:x\n2|ok|N:好\n")
+
+        assertEquals(listOf(2), items.keys.toList())
+        assertEquals(5, report.skippedCount)
+        val types = report.problems.map { it.type }
+        assertEquals(ImportReport.ProblemType.MALFORMED_LINE, types[0])
+        assertEquals(List(4) { ImportReport.ProblemType.INVALID_ID }, types.drop(1))
+        assertEquals(listOf(1, 2, 3, 4, 5), report.problems.map { it.lineNumber })
+    }
+
+    @Test
+    fun unknownCategoryFallsBackToUnspecified() {
+        val (items, report) = parse("1|word|XYZ:未知;adj:形容\n")
+
+        val item = items[1]!!
+        assertEquals(Category.UNSPECIFIED, item.getMeaning(0).category)
+        assertEquals(Category.ADJ, item.getMeaning(1).category)
+        assertEquals(1, report.importedCount)
+        assertEquals(ImportReport.ProblemType.UNKNOWN_CATEGORY, report.problems.single().type)
+        assertEquals("XYZ", report.problems.single().detail)
+    }
+
+    @Test
+    fun recordsAtMostMaxProblemsButCountsAll() {
+        val data = buildString { repeat(ImportReport.MAX_RECORDED_PROBLEMS + 50) { append("bad\n") } }
+        val (_, report) = parse(data)
+
+        assertEquals(ImportReport.MAX_RECORDED_PROBLEMS + 50, report.problemCount)
+        assertEquals(ImportReport.MAX_RECORDED_PROBLEMS, report.problems.size)
+    }
+
+    @Test
+    fun linesLongerThanTheBufferAndSplitReads() {
+        val longExample = "x".repeat(20_000)
+        // 每次只返回一个字符，覆盖 \r\n 跨越读取边界的情况
+        val oneCharAtATime = object : Reader() {
+            private val source = StringReader("1|long|N:长|$longExample\r\n2|next|N:下\r\n")
+            override fun read(cbuf: CharArray, off: Int, len: Int) = source.read(cbuf, off, minOf(len, 1))
+            override fun close() = source.close()
+        }
+        val items = LinkedHashMap<Int, WordItem>()
+        val report = WordLibParser.parse(oneCharAtATime) { id, item -> items[id] = item }
+
+        assertEquals(2, report.lineCount)
+        assertEquals(longExample, items[1]!!.example)
+        assertEquals("next", items[2]!!.word)
+    }
+}
@@ -0,0 +1,105 @@
+package com.Wood.Word
+
+import org.junit.Assert.*
+import org.junit.Test
+import java.io.ByteArrayOutputStream
+
+/**
+ * 按ID范围查询测试：range 与 forEachInRange 的 [fromId, toId) 边界、稀疏与删除后的ID，
+ * 以及导出按ID升序、重复导出逐字节一致
+ */
+class WordLibRangeTest {
+
+    private val farId = PagedArray.PAGE_SIZE * 3 + 5
+
+    // 文件中的行不按ID顺序；ID 3 删除后留下空位，farId 跨过几个空页
+    private fun sparseLib(wordLib: WordLib): WordLib {
+        wordLib.importFromString("$farId|far|ADJ:远的\n7|seven|NUM:七\n1|one|NUM:一\n3|three|NUM:三\n4|four|NUM:四\n")
+        wordLib.removeById(3)
+        return wordLib
+    }
+
+    private fun libs() = listOf(
+        sparseLib(WordLib()),
+        sparseLib(WordLib(0, StringPool())),
+        sparseLib(ConcurrentWordLib()),
+        sparseLib(ConcurrentWordLib(0, StringPool()))
+    )
+
+    private fun visitedIds(wordLib: WordLib, fromId: Int, toId: Int): List<Pair<Int, String>> {
+        val visited = ArrayList<Pair<Int, String>>()
+        // 单词项可能是复用的享元，回调内取出需要的字段
+        wordLib.forEachInRange(fromId, toId) { id, item -> visited.add(id to item.word) }
+        return visited
+    }
+
+    @Test
+    fun range_includesFromIdAndExcludesToId() {
+        for (wordLib in libs()) {
+            assertEquals(listOf("one", "four"), wordLib.range(1, 7).map { it.word })
+            assertEquals(listOf("one", "four", "seven"), wordLib.range(1, 8).map { it.word })
+            assertEquals(listOf("four"), wordLib.range(4, 5).map { it.word })
+            assertEquals(listOf(1 to "one", 4 to "four"), visitedIds(wordLib, 1, 7))
+            assertEquals(listOf(7 to "seven"), visitedIds(wordLib, 7, 8))
+
+            // 空区间、反向区间与负数起点
+            assertTrue(wordLib.range(4, 4).isEmpty())
+            assertTrue(wordLib.range(7, 1).isEmpty())
+            assertTrue(visitedIds(wordLib, 7, 1).isEmpty())
+            assertEquals(listOf("one"), wordLib.range(-5, 2).map { it.word })
+        }
+    }
+
+    @Test
+    fun range_skipsRemovedAndMissingIds() {
+        for (wordLib in libs()) {
+            assertTrue(wordLib.range(2, 4).isEmpty())
+            assertTrue(visitedIds(wordLib, 3, 4).isEmpty())
+            assertEquals(listOf(7 to "seven", farId to "far"), visitedIds(wordLib, 5, Int.MAX_VALUE))
+            assertEquals(listOf("far"), wordLib.range(8, farId + 1).map { it.word })
+            assertTrue(wordLib.range(8, farId).isEmpty())
+            assertTrue(wordLib.range(farId + 1, Int.MAX_VALUE).isEmpty())
+
+            wordLib.removeById(farId)
+            assertEquals(listOf(1, 4, 7), visitedIds(wordLib, 0, Int.MAX_VALUE).map { it.first })
+            val id = wordLib.addWord("eight", Meaning("八", Category.NUM))
+            assertEquals(listOf("eight"), wordLib.range(id, id + 1).map { it.word })
+        }
+    }
+
+    @Test
+    fun range_returnsIndependentItems() {
+        for (wordLib in libs()) {
+            val items = wordLib.range(0, Int.MAX_VALUE)
+            assertEquals(listOf("one", "four", "seven", "far"), items.map { it.word })
+            assertEquals("一", items[0].getMeaning(0).meaningText)
+        }
+    }
+
+    @Test
+    fun export_isInIdOrderAndRepeatable() {
+        for (wordLib in libs()) {
+            val text = wordLib.toString()
+            val ids = text.lineSequence().filter { it.isNotEmpty() && !it.startsWith("#") }
+                .map { it.substringBefore('|').toInt() }.toList()
+            assertEquals(listOf(1, 4, 7, farId), ids)
+
+            // 重复导出逐字节一致：toString、writeTo(Appendable) 与 writeTo(OutputStream)
+            assertEquals(text, wordLib.toString())
+            val appended = StringBuilder()
+            wordLib.writeTo(appended)
+            assertEquals(text, appended.toString())
+            val first = ByteArrayOutputStream().also { wordLib.writeTo(it) }.toByteArray()
+            val second = ByteArrayOutputStream().also { wordLib.writeTo(it) }.toByteArray()
+            assertArrayEquals(first, second)
+            assertArrayEquals(text.toByteArray(Charsets.UTF_8), first)
+        }
+
+        // 不同存储、不同插入顺序得到同样的导出
+        val exports = libs().map { it.toString() }.toSet()
+        assertEquals(1, exports.size)
+        val reordered = WordLib()
+        reordered.importFromString(exports.single())
+        assertEquals(exports.single(), reordered.toString())
+    }
+}
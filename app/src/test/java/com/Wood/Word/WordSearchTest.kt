@@ -0,0 +1,124 @@
+package com.Wood.Word
+
+import org.junit.Assert.*
+import org.junit.Test
+import java.util.Random
+
+/**
+ * 单词搜索测试：三元组/前缀索引的结果与逐个比较一致，排序与分页，变更后索引同步；模糊查找与编辑距离一致
+ */
+class WordSearchTest {
+
+    private fun randomLib(random: Random, count: Int): WordLib {
+        val wordLib = WordLib()
+        val letters = "abcde"
+        // insertAll 保留大小写（addWord 会转成小写），覆盖索引忽略大小写
+        wordLib.insertAll(List(count) {
+            val word = String(CharArray(2 + random.nextInt(7)) { letters[random.nextInt(letters.length)] })
+            WordItem(if (random.nextInt(4) == 0) word.uppercase() else word, Meaning("m", Category.N))
+        })
+        return wordLib
+    }
+
+    @Test
+    fun search_matchesBruteForceSubstringScan() {
+        val random = Random(5)
+        val wordLib = randomLib(random, 2000)
+        val queries = listOf("a", "Bc", "abc", "dea", "ccccc", "eeeeeeee", "x", "abcx")
+
+        for (query in queries) {
+            val expected = wordLib.allIds.map { wordLib.getById(it) }.filter { it.word.lowercase().contains(query.lowercase()) }.map { it.word }.toSet()
+            val actual = wordLib.search(query).map { it.word }
+            assertEquals("查询 $query", expected, actual.toSet())
+            assertEquals("查询 $query 没有重复", actual.size, actual.toSet().size)
+        }
+    }
+
+    @Test
+    fun search_ranksExactThenPrefixThenPositionAndLength() {
+        val wordLib = WordLib()
+        wordLib.insertAll(listOf("scatter", "cats", "concat", "cat", "category", "bobcat", "Cat-like").map { WordItem(it) })
+
+        // 完全匹配 > 前缀匹配 > 其余子串；同类中匹配位置靠前、单词较短、ID较小者优先
+        assertEquals(listOf("cat", "cats", "category", "Cat-like", "scatter", "concat", "bobcat"),
+                wordLib.search("cat").map { it.word })
+        assertEquals(listOf("cats", "category", "Cat-like"), wordLib.search("cat", 1, 3).map { it.word })
+        assertTrue(wordLib.search("cat", 7, 5).isEmpty())
+        assertEquals(listOf("cat", "cats", "category", "Cat-like"), wordLib.searchPrefix("CAT", 0, 10).map { it.word })
+    }
+
+    @Test
+    fun search_followsUpdatesAndRemovals() {
+        val wordLib = WordLib()
+        val apple = wordLib.addWord("apple", Meaning("苹果", Category.N))
+        wordLib.addWord("pineapple", Meaning("菠萝", Category.N))
+
+        wordLib.updateWordItem(apple, WordItem("grape", Meaning("葡萄", Category.N)))
+        assertEquals(listOf("pineapple"), wordLib.search("apple").map { it.word })
+        assertEquals(listOf("grape"), wordLib.search("rap").map { it.word })
+
+        wordLib.removeByWord("pineapple")
+        assertTrue(wordLib.search("apple").isEmpty())
+        wordLib.clear()
+        assertTrue(wordLib.search("g").isEmpty())
+    }
+
+    @Test
+    fun wordRootSearch_keepsListOrderAndPagesByRank() {
+        val root = WordRoot(listOf(WordItem("zcat"), WordItem("cat"), WordItem("dog"), WordItem("catalog")))
+
+        assertEquals(listOf("zcat", "cat", "catalog"), root.search("CAT").map { it.word })
+        root.addWordItem(WordItem("bobcat"))
+        assertEquals(listOf("zcat", "cat", "catalog", "bobcat"), root.search("cat").map { it.word })
+        // 分页搜索按相关度排序：cat、catalog、zcat、bobcat
+        assertEquals(listOf("catalog", "zcat"), root.search("cat", 1, 2).map { it.word })
+    }
+
+    @Test
+    fun fuzzyLookup_matchesBruteForceEditDistance() {
+        val random = Random(14)
+        val wordLib = randomLib(random, 3000)
+        val words = wordLib.allWordStrings.map { it.lowercase() }.distinct()
+
+        for (query in listOf("abcd", "eeee", "acbde", "ab", "dddddddd", "zzz")) {
+            for (maxDistance in 0..2) {
+                val expected = words
+                        .map { it to levenshtein(query, it) }
+                        .filter { it.second <= maxDistance }
+                        .sortedWith(compareBy({ it.second }, { it.first }))
+                        .take(10)
+                val actual = wordLib.fuzzyLookup(query.uppercase(), maxDistance, 10).map { it.word.lowercase() }
+                assertEquals("查询 $query 距离 $maxDistance", expected.map { it.first }, actual)
+            }
+        }
+    }
+
+    @Test
+    fun fuzzyLookup_followsMutations() {
+        val wordLib = WordLib()
+        wordLib.addWord("receive", Meaning("收到", Category.V))
+        val id = wordLib.addWord("believe", Meaning("相信", Category.V))
+
+        assertEquals(listOf("receive"), wordLib.fuzzyLookup("receve", 1, 5).map { it.word })
+        wordLib.addWord("deceive", Meaning("欺骗", Category.V))
+        assertEquals(listOf("receive", "deceive"), wordLib.fuzzyLookup("receve", 2, 5).map { it.word })
+        wordLib.removeById(id)
+        wordLib.updateWordItem(wordLib.getWordId("deceive")!!, WordItem("perceive", Meaning("察觉", Category.V)))
+        assertEquals(listOf("receive", "perceive"), wordLib.fuzzyLookup("receve", 3, 5).map { it.word })
+        assertTrue(wordLib.fuzzyLookup("believe", 1, 5).isEmpty())
+    }
+
+    private fun levenshtein(a: String, b: String): Int {
+        var previous = IntArray(b.length + 1) { it }
+        for (i in 1..a.length) {
+            val current = IntArray(b.length + 1)
+            current[0] = i
+            for (j in 1..b.length) {
+                val cost = if (a[i - 1] == b[j - 1]) 0 else 1
+                current[j] = minOf(previous[j] + 1, current[j - 1] + 1, previous[j - 1] + cost)
+            }
+            previous = current
+        }
+        return previous[b.length]
+    }
+}
@@ -0,0 +1,35 @@
+plugins {
+    java
+    alias(libs.plugins.jmh)
+}
+
+java {
+    sourceCompatibility = JavaVersion.VERSION_11
+    targetCompatibility = JavaVersion.VERSION_11
+}
+
+// 直接编译 app 模块中不依赖 Android 的 Java 核心类（WordLib、WordItem、Meaning、WordRoot 等）
+sourceSets {
+    main {
+        java {
+            setSrcDirs(listOf("../app/src/main/java"))
+            include("com/Wood/Word/*.java")
+        }
+    }
+}
+
+tasks.withType<JavaCompile>().configureEach {
+    options.encoding = "UTF-8"
+}
+
+jmh {
+    jmhVersion.set(libs.versions.jmh.get())
+    fork.set(1)
+    warmupIterations.set(3)
+    iterations.set(5)
+    jvmArgs.set(listOf("-Xmx4g"))
+    // 结果写入 build/results/jmh/results.json，供回归比较
+    resultFormat.set("JSON")
+    // 只跑部分基准: ./gradlew :benchmark:jmh -PjmhInclude=Search
+    (project.findProperty("jmhInclude") as String?)?.let { includes.set(listOf(it)) }
+}
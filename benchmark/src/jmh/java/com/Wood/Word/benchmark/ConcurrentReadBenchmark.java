@@ -0,0 +1,98 @@
+package com.Wood.Word.benchmark;
+
+import com.Wood.Word.Category;
+import com.Wood.Word.ConcurrentWordLib;
+import com.Wood.Word.Meaning;
+import com.Wood.Word.WordItem;
+import com.Wood.Word.WordLib;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 读吞吐对比：普通 WordLib 与 ConcurrentWordLib（乐观读）
+ * readOnly 为多线程只读；readWithWriter 为 3 个读线程 + 1 个写线程（只测 ConcurrentWordLib）
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ConcurrentReadBenchmark {
+    private static final int SAMPLE_SIZE = 1024;
+
+    @Param({"100000"})
+    public int size;
+
+    @Param({"plain", "concurrent"})
+    public String impl;
+
+    private WordLib wordLib;
+    private String[] words;
+    private int[] ids;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        WordLib target = "concurrent".equals(impl) ? new ConcurrentWordLib(size) : new WordLib(size);
+        wordLib = SyntheticLibraries.fill(target, size);
+        words = SyntheticLibraries.sampleWords(wordLib, SAMPLE_SIZE, SyntheticLibraries.SEED + 3);
+        ids = new int[SAMPLE_SIZE];
+        for (int i = 0; i < SAMPLE_SIZE; i++) {
+            ids[i] = wordLib.getWordId(words[i]);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int value;
+
+        int next() {
+            value = (value + 1) & (SAMPLE_SIZE - 1);
+            return value;
+        }
+    }
+
+    @Benchmark
+    @Threads(4)
+    public WordItem readOnlyGetById(Cursor cursor) {
+        return wordLib.getById(ids[cursor.next()]);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public WordItem readOnlyGetByWord(Cursor cursor) {
+        return wordLib.getByWord(words[cursor.next()]);
+    }
+
+    @Benchmark
+    @Group("readWithWriter")
+    @GroupThreads(3)
+    public WordItem reader(Cursor cursor) {
+        if (!"concurrent".equals(impl)) {
+            return null;  // 普通 WordLib 不支持并发写，跳过
+        }
+        return wordLib.getByWord(words[cursor.next()]);
+    }
+
+    @Benchmark
+    @Group("readWithWriter")
+    @GroupThreads(1)
+    public boolean writer(Cursor cursor) {
+        if (!"concurrent".equals(impl)) {
+            return false;
+        }
+        int id = ids[cursor.next()];
+        WordItem item = wordLib.getById(id);
+        return wordLib.updateWordItem(id, new WordItem(item.getWord(), new Meaning("更新", Category.N)));
+    }
+}
@@ -0,0 +1,113 @@
+package com.Wood.Word.benchmark;
+
+import com.Wood.Word.CompressedWordLib;
+import com.Wood.Word.MappedWordLib;
+import com.Wood.Word.WordItem;
+import com.Wood.Word.WordLib;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 三种文件格式的对比：文本 .dat、二进制 .wlb、压缩 .wlz
+ * 测完整读取和按ID随机读取单个单词的耗时，结束时打印文件大小
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class FileFormatBenchmark {
+    private static final int SAMPLE_SIZE = 1024;
+
+    @Param({"100000"})
+    public int size;
+
+    @Param({"text", "binary", "compressed"})
+    public String format;
+
+    private File file;
+    private MappedWordLib mapped;
+    private CompressedWordLib compressed;
+    private int[] ids;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        WordLib wordLib = SyntheticLibraries.library(size);
+        file = File.createTempFile("wordlib-" + format, ".tmp");
+        switch (format) {
+            case "binary":
+                wordLib.writeBinary(file);
+                mapped = MappedWordLib.open(file);
+                break;
+            case "compressed":
+                wordLib.writeCompressed(file);
+                compressed = CompressedWordLib.open(file);
+                break;
+            default:
+                try (Writer out = new BufferedWriter(new OutputStreamWriter(
+                        new FileOutputStream(file), StandardCharsets.UTF_8))) {
+                    wordLib.writeTo(out);
+                }
+        }
+        int[] all = wordLib.getAllIds().stream().mapToInt(Integer::intValue).toArray();
+        Random random = new Random(SyntheticLibraries.SEED);
+        ids = new int[SAMPLE_SIZE];
+        for (int i = 0; i < SAMPLE_SIZE; i++) {
+            ids[i] = all[random.nextInt(all.length)];
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        System.out.printf("%n[%s, %d 个单词] 文件 %d 字节，约 %.1f 字节/词%n",
+                format, size, file.length(), file.length() / (double) size);
+        file.delete();
+    }
+
+    @Benchmark
+    public WordLib load() throws IOException {
+        switch (format) {
+            case "binary":
+                return WordLib.readBinary(file);
+            case "compressed":
+                return WordLib.readCompressed(file);
+            default:
+                try (Reader in = new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8)) {
+                    return WordLib.fromReader(in);
+                }
+        }
+    }
+
+    /**
+     * 不完整读取时按ID取一个单词（文本格式没有随机访问，返回 null）
+     */
+    @Benchmark
+    public WordItem getById() {
+        cursor = (cursor + 1) & (SAMPLE_SIZE - 1);
+        if (mapped != null) {
+            return mapped.getById(ids[cursor]);
+        }
+        return compressed != null ? compressed.getById(ids[cursor]) : null;
+    }
+}
@@ -0,0 +1,116 @@
+package com.Wood.Word.benchmark;
+
+import com.Wood.Word.WordItem;
+import com.Wood.Word.WordLib;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 模糊查找基准：WordLib.fuzzyLookup（有序单词上的前缀剪枝遍历）对比逐个计算编辑距离的全表扫描
+ * 查询为词库中的单词随机改错一个字符
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class FuzzyLookupBenchmark {
+    private static final int SAMPLE_SIZE = 1024;
+    private static final int K = 5;
+
+    @Param({"300000"})
+    public int size;
+
+    @Param({"1", "2"})
+    public int maxDistance;
+
+    private WordLib wordLib;
+    private String[] queries;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        wordLib = SyntheticLibraries.library(size);
+        String[] words = SyntheticLibraries.sampleWords(wordLib, SAMPLE_SIZE, SyntheticLibraries.SEED + 2);
+        Random random = new Random(SyntheticLibraries.SEED + 3);
+        queries = new String[SAMPLE_SIZE];
+        for (int i = 0; i < SAMPLE_SIZE; i++) {
+            queries[i] = typo(words[i], random);
+        }
+        wordLib.fuzzyLookup(queries[0], maxDistance, K);  // 建立索引
+    }
+
+    private static String typo(String word, Random random) {
+        StringBuilder sb = new StringBuilder(word);
+        int pos = random.nextInt(sb.length());
+        char c = (char) ('a' + random.nextInt(26));
+        switch (random.nextInt(3)) {
+            case 0:
+                sb.setCharAt(pos, c);
+                break;
+            case 1:
+                sb.insert(pos, c);
+                break;
+            default:
+                if (sb.length() > 1) {
+                    sb.deleteCharAt(pos);
+                }
+                break;
+        }
+        return sb.toString();
+    }
+
+    private String next() {
+        cursor = (cursor + 1) & (SAMPLE_SIZE - 1);
+        return queries[cursor];
+    }
+
+    @Benchmark
+    public List<WordItem> fuzzyIndex() {
+        return wordLib.fuzzyLookup(next(), maxDistance, K);
+    }
+
+    /**
+     * 对照：遍历全部单词计算编辑距离，取距离不超过 maxDistance 的前 K 个
+     */
+    @Benchmark
+    public List<String> bruteForce() {
+        String query = next();
+        List<String> matches = new ArrayList<>();
+        int[] row = new int[query.length() + 1];
+        wordLib.forEachWordString(word -> {
+            if (matches.size() < K && distance(query, word.toLowerCase(), row) <= maxDistance) {
+                matches.add(word);
+            }
+        });
+        return matches;
+    }
+
+    private static int distance(String a, String b, int[] row) {
+        for (int i = 0; i <= a.length(); i++) {
+            row[i] = i;
+        }
+        for (int j = 1; j <= b.length(); j++) {
+            int diagonal = row[0];
+            row[0] = j;
+            for (int i = 1; i <= a.length(); i++) {
+                int above = row[i];
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? diagonal : diagonal + 1;
+                row[i] = Math.min(cost, Math.min(above, row[i - 1]) + 1);
+                diagonal = above;
+            }
+        }
+        return row[a.length()];
+    }
+}
@@ -0,0 +1,52 @@
+package com.Wood.Word.benchmark;
+
+import com.Wood.Word.StringPool;
+import com.Wood.Word.WordLib;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 默认存储与紧凑列式存储的对比：测建库耗时，
+ * 结束时打印每个单词占用的字节数（WordLib.estimateStorageBytes / 单词数）
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class StorageFootprintBenchmark {
+    @Param({"1000", "100000", "1000000"})
+    public int size;
+
+    @Param({"default", "compact"})
+    public String storage;
+
+    private WordLib last;
+
+    @Benchmark
+    public WordLib build() {
+        WordLib wordLib = "compact".equals(storage)
+                ? new WordLib(size, new StringPool())
+                : new WordLib(size);
+        SyntheticLibraries.fill(wordLib, size);
+        wordLib.compact();
+        last = wordLib;
+        return wordLib;
+    }
+
+    @TearDown(Level.Trial)
+    public void report() {
+        if (last != null) {
+            System.out.printf("%n[%s, %d 个单词] 约 %.1f 字节/词%n",
+                    storage, size, last.estimateStorageBytes() / (double) last.size());
+        }
+    }
+}
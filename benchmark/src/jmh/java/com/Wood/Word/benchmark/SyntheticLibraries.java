@@ -0,0 +1,94 @@
+package com.Wood.Word.benchmark;
+
+import com.Wood.Word.Category;
+import com.Wood.Word.Meaning;
+import com.Wood.Word.WordItem;
+import com.Wood.Word.WordLib;
+import com.Wood.Word.WordRoot;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * 基准测试用的合成词库（固定随机种子，每次生成的内容完全相同）
+ */
+public final class SyntheticLibraries {
+    public static final long SEED = 20260101L;
+
+    private static final String[] MEANINGS = {
+            "苹果", "快速的", "跑", "运行", "书", "预订", "光", "轻的", "明亮的", "银行",
+            "河岸", "记录", "唱片", "现在", "礼物", "目标", "物体", "反对", "季节", "调味"
+    };
+    private static final String[] EXAMPLES = {
+            "", "", "", "This is an example.", "She runs every morning.", "Keep the change."
+    };
+    private static final Category[] CATEGORIES = Category.values();
+
+    private SyntheticLibraries() {
+    }
+
+    /**
+     * 生成第 index 个单词（3~12 个小写字母，末尾带编号保证唯一）
+     */
+    public static String word(Random random, int index) {
+        int length = 3 + random.nextInt(10);
+        StringBuilder sb = new StringBuilder(length + 8);
+        for (int i = 0; i < length; i++) {
+            sb.append((char) ('a' + random.nextInt(26)));
+        }
+        return sb.append(Integer.toString(index, 36)).toString();
+    }
+
+    public static WordItem item(Random random, int index) {
+        WordItem item = new WordItem(word(random, index));
+        int meaningCount = 1 + random.nextInt(3);
+        for (int i = 0; i < meaningCount; i++) {
+            item.addMeaning(new Meaning(MEANINGS[random.nextInt(MEANINGS.length)],
+                    CATEGORIES[random.nextInt(CATEGORIES.length)]));
+        }
+        item.setExample(EXAMPLES[random.nextInt(EXAMPLES.length)]);
+        return item;
+    }
+
+    public static List<WordItem> items(int size, long seed) {
+        Random random = new Random(seed);
+        List<WordItem> items = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            items.add(item(random, i));
+        }
+        return items;
+    }
+
+    public static WordLib library(int size) {
+        return fill(new WordLib(size), size);
+    }
+
+    /**
+     * 按相同内容填充给定的词库（例如 ConcurrentWordLib）
+     */
+    public static WordLib fill(WordLib wordLib, int size) {
+        for (WordItem item : items(size, SEED)) {
+            int id = wordLib.addWord(item.getWord(), item.getMeanings().get(0), item.getExample());
+            wordLib.updateWordItem(id, item);
+        }
+        return wordLib;
+    }
+
+    public static WordRoot root(int size, long seed) {
+        return new WordRoot(items(size, seed));
+    }
+
+    /**
+     * 从词库中均匀抽取若干已存在的单词，作为查询样本
+     */
+    public static String[] sampleWords(WordLib wordLib, int count, long seed) {
+        List<String> words = wordLib.getAllWordStrings();
+        Random random = new Random(seed);
+        String[] sample = new String[count];
+        for (int i = 0; i < count; i++) {
+            sample[i] = words.get(random.nextInt(words.size()));
+        }
+        return sample;
+    }
+}
@@ -0,0 +1,140 @@
+package com.Wood.Word.benchmark;
+
+import com.Wood.Word.BulkInsertReport;
+import com.Wood.Word.Category;
+import com.Wood.Word.Meaning;
+import com.Wood.Word.WordItem;
+import com.Wood.Word.WordLib;
+import com.Wood.Word.WordOrder;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * WordLib 核心路径基准：导入、批量插入、导出、搜索、按含义反查、按词性查询、按单词查询、按单词顺序分页
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class WordLibBenchmark {
+    private static final int SAMPLE_SIZE = 1024;
+
+    @Param({"1000", "100000", "1000000"})
+    public int size;
+
+    private WordLib wordLib;
+    private List<WordItem> items;
+    private String exported;
+    private String[] words;
+    private String[] keywords;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        wordLib = SyntheticLibraries.library(size);
+        exported = wordLib.toString();
+        items = SyntheticLibraries.items(size, SyntheticLibraries.SEED);
+        words = SyntheticLibraries.sampleWords(wordLib, SAMPLE_SIZE, SyntheticLibraries.SEED + 1);
+        // 取单词中间的三个字母作为搜索关键字，模拟输入中的子串
+        keywords = new String[SAMPLE_SIZE];
+        for (int i = 0; i < SAMPLE_SIZE; i++) {
+            String word = words[i];
+            int start = Math.max(0, word.length() / 2 - 1);
+            keywords[i] = word.substring(start, Math.min(word.length(), start + 3));
+        }
+        wordLib.pageIds(WordOrder.BY_WORD, 0, 0);  // 建立有序索引
+    }
+
+    private int next() {
+        cursor = (cursor + 1) & (SAMPLE_SIZE - 1);
+        return cursor;
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public WordLib importFromString() {
+        WordLib target = new WordLib();
+        target.importFromString(exported);
+        return target;
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public BulkInsertReport insertAll() {
+        return new WordLib().insertAll(items);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public String exportToString() {
+        return wordLib.toString();
+    }
+
+    @Benchmark
+    public List<WordItem> search() {
+        return wordLib.search(keywords[next()]);
+    }
+
+    @Benchmark
+    public List<WordItem> searchFirstPage() {
+        return wordLib.search(keywords[next()], 0, 20);
+    }
+
+    @Benchmark
+    public List<WordItem> searchByMeaningFirstPage() {
+        return wordLib.searchByMeaning("快速", null, 0, 20);
+    }
+
+    /**
+     * 随机跳到词库中某一页（有序索引已建立）
+     */
+    @Benchmark
+    public List<WordItem> pageByWord() {
+        return wordLib.page(WordOrder.BY_WORD, (int) ((long) next() * size / SAMPLE_SIZE), 50);
+    }
+
+    @Benchmark
+    public List<WordItem> getByCategory() {
+        return wordLib.getByCategory(Category.ADJ);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public WordItem getByWord() {
+        return wordLib.getByWord(words[next()]);
+    }
+
+    /**
+     * 逐个添加新单词；每轮迭代重新生成词库，避免词库无限增长
+     */
+    @State(Scope.Thread)
+    public static class AddState {
+        @Param({"1000", "100000", "1000000"})
+        public int size;
+
+        WordLib wordLib;
+        int counter;
+
+        @Setup(Level.Iteration)
+        public void setUp() {
+            wordLib = SyntheticLibraries.library(size);
+            counter = 0;
+        }
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public int addWord(AddState state) {
+        return state.wordLib.addWord("new-word-" + state.counter++, new Meaning("新词", Category.N));
+    }
+}
@@ -0,0 +1,50 @@
+package com.Wood.Word.benchmark;
+
+import com.Wood.Word.WordLib;
+import com.Wood.Word.WordRoot;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * WordRoot 基准：两个互有重叠的单词集合合并（哈希索引查重，O(n+m)），以及批量转换为 WordLib
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class WordRootBenchmark {
+    @Param({"1000", "100000", "1000000"})
+    public int size;
+
+    private WordRoot left;
+    private WordRoot right;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // 相同种子生成相同的前缀序列，右侧的前一半与左侧重复
+        left = SyntheticLibraries.root(size, SyntheticLibraries.SEED);
+        right = SyntheticLibraries.root(size / 2, SyntheticLibraries.SEED);
+        right.merge(SyntheticLibraries.root(size / 2, SyntheticLibraries.SEED + 7));
+    }
+
+    @Benchmark
+    public WordRoot merge() {
+        WordRoot target = new WordRoot(left);
+        target.merge(right);
+        return target;
+    }
+
+    @Benchmark
+    public WordLib toWordLib() {
+        return left.toWordLib();
+    }
+}
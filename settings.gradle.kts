@@ -21,3 +21,4 @@ dependencyResolutionManagement {
 
 rootProject.name = "Word"
 include(":app")
+include(":benchmark")